@@ -1,6 +1,8 @@
 package dev.snowdrop.mtool;
 
 import dev.snowdrop.mtool.commands.AnalyzeCommand;
+import dev.snowdrop.mtool.commands.ExplainCommand;
+import dev.snowdrop.mtool.commands.PrefetchCommand;
 import dev.snowdrop.mtool.commands.ScannerCommand;
 import dev.snowdrop.mtool.commands.TransformCommand;
 import io.quarkus.picocli.runtime.annotations.TopCommand;
@@ -11,7 +13,9 @@ import picocli.CommandLine;
         AnalyzeCommand.class,
         TransformCommand.class,
         CommandLine.HelpCommand.class,
-        ScannerCommand.class
+        ScannerCommand.class,
+        ExplainCommand.class,
+        PrefetchCommand.class
 }, versionProvider = JavaAnalyzerCommand.VersionProvider.class, mixinStandardHelpOptions = true)
 public class JavaAnalyzerCommand {
 
@@ -6,21 +6,79 @@ import dev.snowdrop.mtool.model.analyze.MigrationTask;
 import dev.snowdrop.mtool.model.analyze.Rule;
 import dev.snowdrop.mtool.scanner.CodeScannerService;
 import dev.snowdrop.mtool.scanner.ScanCommandExecutor;
+import dev.snowdrop.mtool.scanner.ScannerSpiRegistry;
 import dev.snowdrop.mtool.scanner.ScanningResult;
+import dev.snowdrop.mtool.scanner.cache.PersistentResultCache;
+import org.jboss.logging.Logger;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class AnalyzeService {
+    private static final Logger logger = Logger.getLogger(AnalyzeService.class);
 
     private final Config config;
+    private final ScanCommandExecutor scanCommandExecutor;
     private final CodeScannerService codeScannerService;
+    private int parallelism = 1;
 
     public AnalyzeService(Config config) {
+        this(config, new ScannerSpiRegistry());
+    }
+
+    /**
+     * Creates a service using scanners already loaded, e.g. shared by the analyses of several applications.
+     */
+    public AnalyzeService(Config config, ScannerSpiRegistry registry) {
         this.config = config;
-        this.codeScannerService = new CodeScannerService(config, new ScanCommandExecutor());
+        this.scanCommandExecutor = new ScanCommandExecutor(registry);
+        this.codeScannerService = new CodeScannerService(config, scanCommandExecutor);
+    }
+
+    /**
+     * Set the number of rules to be evaluated concurrently. A value lower or equal to 1 keeps the sequential
+     * evaluation.
+     *
+     * @param parallelism the maximum number of rules scanned at the same time
+     * @return this service
+     */
+    public AnalyzeService withParallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Execute all the clauses of the AND conditions instead of stopping at the first clause not matching.
+     *
+     * @param fullEvaluation true to report the results of all the clauses
+     * @return this service
+     */
+    public AnalyzeService withFullEvaluation(boolean fullEvaluation) {
+        codeScannerService.withFullEvaluation(fullEvaluation);
+        return this;
+    }
+
+    /**
+     * Reuse the results persisted under the {@code .mtool/cache} folder of the application by the previous analysis
+     * and only scan the files which changed since.
+     *
+     * @param incremental true to enable the incremental analysis
+     * @return this service
+     */
+    public AnalyzeService withIncremental(boolean incremental) {
+        scanCommandExecutor.withPersistentResultCache(
+                incremental ? new PersistentResultCache(Paths.get(config.appPath())) : null);
+        return this;
     }
 
     /**
@@ -28,24 +86,83 @@ public class AnalyzeService {
      * Unlike analyzeCodeFromRule, this method doesn't select a scanner upfront.
      * Instead, it dynamically selects the appropriate scanner for each query
      * during iteration based on the query-scanner mapping configuration.
+     * <p>
+     * The tasks are returned using the order of the rules, whatever the parallelism used to scan them.
      *
      * @param rules the migration rules to analyze
      * @return map of rule ID to migration tasks with analysis results
      */
     public Map<String, MigrationTask> analyze(List<Rule> rules) {
-        Map<String, MigrationTask> tasks = new HashMap<>();
-
-        for (Rule rule : rules) {
-            ScanningResult scanningResult = codeScannerService.scan(rule);
-            Map<String, List<Result>> results = scanningResult.isMatchSucceeded()
-                    ? scanningResult.getResults()
-                    : Collections.emptyMap();
+        // Let the scanners process together the queries of all the rules
+        codeScannerService.prepare(rules);
 
-            tasks.put(rule.ruleID(), new MigrationTask().withRule(rule).withMatchResults(results.get(rule.ruleID()))
-                    .withInstruction(rule.instructions()));
+        Map<String, MigrationTask> tasks;
+        if (parallelism <= 1 || rules.size() <= 1) {
+            tasks = new LinkedHashMap<>();
+            for (Rule rule : rules) {
+                tasks.put(rule.ruleID(), analyzeRule(rule));
+            }
+        } else {
+            tasks = analyzeInParallel(rules);
         }
+        logger.infof("Query results cache: %s", scanCommandExecutor.getQueryResultCache());
+        PersistentResultCache persistentResultCache = scanCommandExecutor.getPersistentResultCache();
+        if (persistentResultCache != null) {
+            persistentResultCache.save();
+            logger.infof("Persistent results cache: %s", persistentResultCache);
+        }
+        return tasks;
+    }
 
+    /**
+     * Drops the results cached and the state of the scanners computed from the files which changed, so that the next
+     * analysis scans them again.
+     *
+     * @param changedFiles the files created, modified or deleted
+     * @param fileTypes the types of the files which changed as used by the queries (java, pom, properties, etc)
+     */
+    public void invalidate(Set<Path> changedFiles, Set<String> fileTypes) {
+        scanCommandExecutor.invalidate(config, changedFiles, fileTypes);
+    }
+
+    private Map<String, MigrationTask> analyzeInParallel(List<Rule> rules) {
+        logger.infof("Analyzing %d rules using %d threads", rules.size(), parallelism);
+
+        Map<String, MigrationTask> tasks = new LinkedHashMap<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            List<Future<MigrationTask>> futures = new ArrayList<>();
+            for (Rule rule : rules) {
+                futures.add(executor.submit(() -> analyzeRule(rule)));
+            }
+
+            // Collect the futures using the order of the rules to keep the same output as the sequential analysis
+            try {
+                for (int i = 0; i < rules.size(); i++) {
+                    tasks.put(rules.get(i).ruleID(), futures.get(i).get());
+                }
+            } catch (ExecutionException e) {
+                executor.shutdownNow();
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw new RuntimeException(e.getCause());
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Analysis interrupted", e);
+            }
+        }
         return tasks;
     }
 
+    private MigrationTask analyzeRule(Rule rule) {
+        ScanningResult scanningResult = codeScannerService.scan(rule);
+        Map<String, List<Result>> results = scanningResult.isMatchSucceeded()
+                ? scanningResult.getResults()
+                : Collections.emptyMap();
+
+        return new MigrationTask().withRule(rule).withMatchResults(results.get(rule.ruleID()))
+                .withInstruction(rule.instructions());
+    }
+
 }
@@ -0,0 +1,234 @@
+package dev.snowdrop.mtool.analyze.services;
+
+import dev.snowdrop.mtool.model.analyze.Config;
+import dev.snowdrop.mtool.model.analyze.MigrationTask;
+import dev.snowdrop.mtool.model.analyze.Rule;
+import dev.snowdrop.mtool.model.parser.Query;
+import dev.snowdrop.mtool.parser.QueryPlan;
+import dev.snowdrop.mtool.parser.QueryUtils;
+import dev.snowdrop.mtool.scanner.utils.FileUtils;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches the files of the application analyzed and re-analyzes the rules impacted when some files change.
+ * <p>
+ * The events are collected until no new event is received during the debounce period, so that a save of several
+ * files (or an IDE writing a file in several steps) only triggers one analysis. Only the rules whose precondition or
+ * condition queries search a type of file which changed are evaluated again, the tasks of the other rules are kept. The
+ * rules searching a type of file which is not mapped to the names of the files, e.g. added to the grammar since, are
+ * always evaluated again.
+ */
+public class AnalyzeWatcher {
+    private static final Logger logger = Logger.getLogger(AnalyzeWatcher.class);
+
+    private static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(200);
+
+    // The types of file which can be matched by any file changed
+    private static final List<String> ANY_FILE_TYPES = List.of("source", "text");
+    // The types of file mapped to the names of the files changed
+    private static final List<String> FILE_TYPES = List.of("java", "pom", "maven", "properties", "property", "yaml",
+            "json", "html");
+
+    private final Config config;
+    private final AnalyzeService analyzeService;
+    private final List<Rule> rules;
+    private final Consumer<Map<String, MigrationTask>> renderer;
+    private final Path appPath;
+    private Duration debounce = DEFAULT_DEBOUNCE;
+
+    public AnalyzeWatcher(Config config, AnalyzeService analyzeService, List<Rule> rules,
+            Consumer<Map<String, MigrationTask>> renderer) {
+        this.config = config;
+        this.analyzeService = analyzeService;
+        this.rules = rules;
+        this.renderer = renderer;
+        this.appPath = Paths.get(config.appPath()).toAbsolutePath().normalize();
+    }
+
+    public AnalyzeWatcher withDebounce(Duration debounce) {
+        this.debounce = debounce;
+        return this;
+    }
+
+    /**
+     * Watches the application until the thread is interrupted.
+     *
+     * @param tasks the tasks of the initial analysis, updated with the results of the rules analyzed again
+     */
+    public void watch(Map<String, MigrationTask> tasks) throws IOException, InterruptedException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            Map<WatchKey, Path> watchedDirs = new LinkedHashMap<>();
+            register(watchService, appPath, watchedDirs);
+            logger.infof("Watching %d folder(s) of %s for changes. Press Ctrl+C to stop.", watchedDirs.size(), appPath);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changedFiles = new LinkedHashSet<>();
+                boolean overflow = false;
+
+                // Block until the first event, then drain the events until the debounce period is quiet
+                WatchKey key = watchService.take();
+                do {
+                    overflow |= collect(watchService, key, watchedDirs, changedFiles);
+                    key = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS);
+                } while (key != null);
+
+                if (changedFiles.isEmpty() && !overflow) {
+                    continue;
+                }
+
+                try {
+                    reanalyze(tasks, changedFiles, overflow);
+                } catch (Exception e) {
+                    // Keep watching: the file saved can be in an intermediate state
+                    logger.errorf("Error while analyzing the changes: %s", e.getMessage());
+                    if (config.verbose()) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean collect(WatchService watchService, WatchKey key, Map<WatchKey, Path> watchedDirs,
+            Set<Path> changedFiles) throws IOException {
+        Path dir = watchedDirs.get(key);
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            if (dir == null) {
+                continue;
+            }
+            Path file = dir.resolve((Path) event.context());
+            if (FileUtils.isGenerated(appPath.relativize(file))) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(file)) {
+                register(watchService, file, watchedDirs);
+            }
+            changedFiles.add(file);
+        }
+        if (!key.reset()) {
+            watchedDirs.remove(key);
+        }
+        return overflow;
+    }
+
+    private void reanalyze(Map<String, MigrationTask> tasks, Set<Path> changedFiles, boolean overflow) {
+        Set<String> fileTypes = new HashSet<>();
+        changedFiles.forEach(file -> fileTypes.addAll(fileTypesOf(file)));
+
+        List<Rule> affectedRules = overflow ? rules : affectedRules(rules, fileTypes);
+        logger.infof("%d file(s) changed, %d rule(s) to analyze again", changedFiles.size(), affectedRules.size());
+        if (affectedRules.isEmpty()) {
+            return;
+        }
+
+        analyzeService.invalidate(changedFiles, overflow ? allFileTypes(rules) : fileTypes);
+        tasks.putAll(analyzeService.analyze(affectedRules));
+        renderer.accept(tasks);
+    }
+
+    private void register(WatchService watchService, Path root, Map<WatchKey, Path> watchedDirs) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(appPath) && FileUtils.isGenerated(appPath.relativize(dir))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirs.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Returns the types of file, as used by the queries (java, pom, properties, etc), whose results can change when the
+     * given file changes.
+     */
+    static Set<String> fileTypesOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        // Any file can be matched by a source.file or a text query
+        Set<String> fileTypes = new HashSet<>(ANY_FILE_TYPES);
+        if (name.equals("pom.xml")) {
+            // The dependencies also define the types resolved within the java sources
+            fileTypes.addAll(List.of("pom", "maven", "java"));
+        } else if (name.endsWith(".java")) {
+            fileTypes.add("java");
+        } else if (name.endsWith(".properties")) {
+            fileTypes.addAll(List.of("properties", "property"));
+        } else if (name.endsWith(".yml") || name.endsWith(".yaml")) {
+            fileTypes.addAll(List.of("properties", "property", "yaml"));
+        } else if (name.endsWith(".json")) {
+            fileTypes.add("json");
+        } else if (name.endsWith(".html") || name.endsWith(".htm")) {
+            fileTypes.add("html");
+        } else {
+            // A folder created or deleted, whose content is unknown, or a file of another type
+            fileTypes.addAll(FILE_TYPES);
+        }
+        return fileTypes;
+    }
+
+    /**
+     * Returns the rules having a precondition or condition query which searches one of the types of file, or a type of
+     * file which is not mapped.
+     */
+    static List<Rule> affectedRules(List<Rule> rules, Set<String> fileTypes) {
+        return rules.stream().filter(rule -> queriesOf(rule).stream()
+                .map(query -> query.fileType().trim().toLowerCase())
+                .anyMatch(fileType -> fileTypes.contains(fileType) || !isMapped(fileType))).toList();
+    }
+
+    private static boolean isMapped(String fileType) {
+        return ANY_FILE_TYPES.contains(fileType) || FILE_TYPES.contains(fileType);
+    }
+
+    private static Set<String> allFileTypes(List<Rule> rules) {
+        Set<String> fileTypes = new HashSet<>();
+        rules.forEach(rule -> queriesOf(rule).forEach(query -> fileTypes.add(query.fileType().trim().toLowerCase())));
+        return fileTypes;
+    }
+
+    private static Set<Query> queriesOf(Rule rule) {
+        Set<Query> queries = new HashSet<>();
+        if (rule.when() == null) {
+            return queries;
+        }
+        for (String expression : new String[] { rule.when().precondition(), rule.when().condition() }) {
+            if (expression != null && !expression.isBlank()) {
+                QueryPlan plan = QueryUtils.compile(expression);
+                if (plan != null) {
+                    queries.addAll(plan.queries());
+                }
+            }
+        }
+        return queries;
+    }
+}
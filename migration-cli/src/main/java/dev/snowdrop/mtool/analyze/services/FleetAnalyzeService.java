@@ -0,0 +1,252 @@
+package dev.snowdrop.mtool.analyze.services;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.snowdrop.mtool.model.analyze.Config;
+import dev.snowdrop.mtool.model.analyze.MigrationTask;
+import dev.snowdrop.mtool.model.analyze.Rule;
+import dev.snowdrop.mtool.scanner.ScannerSpiRegistry;
+import org.jboss.logging.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Analyzes several applications (a fleet of repositories) within one invocation of the tool.
+ * <p>
+ * The rules and the scanners are loaded once and shared by the analyses. Each repository gets its own
+ * {@link AnalyzeService} (and then its own caches) and the failure of a repository is reported within the summary
+ * without stopping the analysis of the others.
+ * <p>
+ * When several workers are used, each worker uses its own workspace of the language server, a sub-folder of the one
+ * configured, so that the language server of a worker is kept until the worker analyzes its next repository.
+ */
+public class FleetAnalyzeService {
+    private static final Logger logger = Logger.getLogger(FleetAnalyzeService.class);
+
+    public static final String SUCCEEDED = "succeeded";
+    public static final String FAILED = "failed";
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record RepositoryResult(String appPath, String status, long durationMillis, List<String> matchedRules,
+            String error) {
+    }
+
+    public record FleetSummary(String title, String date, int repositories, int failed,
+            Map<String, Integer> repositoriesPerRule, List<RepositoryResult> results) {
+    }
+
+    private final Config config;
+    private final ScannerSpiRegistry registry;
+    private int workers = 1;
+    private int parallelism = 1;
+    private boolean fullEvaluation;
+    private boolean incremental;
+    private BiConsumer<Config, Map<String, MigrationTask>> reporter = (config, tasks) -> {
+    };
+
+    /**
+     * @param config the configuration used as template for all the repositories, its application path is ignored
+     */
+    public FleetAnalyzeService(Config config) {
+        this(config, new ScannerSpiRegistry());
+    }
+
+    /**
+     * Creates a service using scanners already loaded.
+     */
+    public FleetAnalyzeService(Config config, ScannerSpiRegistry registry) {
+        this.config = config;
+        this.registry = registry;
+    }
+
+    /**
+     * Set the number of repositories to be analyzed concurrently.
+     *
+     * @param workers the maximum number of repositories analyzed at the same time
+     * @return this service
+     */
+    public FleetAnalyzeService withWorkers(int workers) {
+        this.workers = workers;
+        return this;
+    }
+
+    public FleetAnalyzeService withParallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public FleetAnalyzeService withFullEvaluation(boolean fullEvaluation) {
+        this.fullEvaluation = fullEvaluation;
+        return this;
+    }
+
+    public FleetAnalyzeService withIncremental(boolean incremental) {
+        this.incremental = incremental;
+        return this;
+    }
+
+    /**
+     * Set the function called with the tasks of each repository analyzed successfully, e.g. to export its reports.
+     *
+     * @param reporter the function receiving the configuration of the repository and its tasks
+     * @return this service
+     */
+    public FleetAnalyzeService withReporter(BiConsumer<Config, Map<String, MigrationTask>> reporter) {
+        this.reporter = reporter;
+        return this;
+    }
+
+    /**
+     * Returns the repositories to analyze: either the paths listed within a file (one per line, the empty lines and
+     * the lines starting with # are ignored, relative paths are resolved against the folder of the file) or the
+     * sub-folders of a folder.
+     *
+     * @param repos the file listing the repositories or the folder containing them
+     * @return the absolute paths of the repositories
+     */
+    public static List<Path> resolveRepositories(Path repos) throws IOException {
+        Path base = repos.toAbsolutePath().normalize();
+        if (Files.isDirectory(base)) {
+            try (Stream<Path> dirs = Files.list(base)) {
+                return dirs.filter(Files::isDirectory).filter(dir -> !dir.getFileName().toString().startsWith("."))
+                        .sorted().toList();
+            }
+        }
+
+        List<Path> repositories = new ArrayList<>();
+        for (String line : Files.readAllLines(base)) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                repositories.add(base.getParent().resolve(trimmed).normalize());
+            }
+        }
+        return repositories;
+    }
+
+    /**
+     * Analyzes the repositories using the rules.
+     *
+     * @param rules the migration rules to analyze
+     * @param repositories the paths of the repositories
+     * @return the summary of the analysis of the fleet, using the order of the repositories
+     */
+    public FleetSummary analyze(List<Rule> rules, List<Path> repositories) {
+        logger.infof("Analyzing %d repositories using %d worker(s)", repositories.size(), workers);
+
+        List<RepositoryResult> results = new ArrayList<>();
+        AtomicInteger workerCount = new AtomicInteger();
+        ThreadLocal<Config> workerConfig = ThreadLocal.withInitial(() -> workerConfig(workerCount.incrementAndGet()));
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, workers))) {
+            List<Future<RepositoryResult>> futures = new ArrayList<>();
+            for (Path repository : repositories) {
+                futures.add(executor.submit(() -> analyzeRepository(workerConfig.get(), rules, repository)));
+            }
+            for (int i = 0; i < repositories.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    // analyzeRepository already catches the failures of the analysis
+                    results.add(failed(repositories.get(i), 0, e.getCause()));
+                } catch (InterruptedException e) {
+                    executor.shutdownNow();
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Fleet analysis interrupted", e);
+                }
+            }
+        }
+
+        Map<String, Integer> repositoriesPerRule = new TreeMap<>();
+        rules.forEach(rule -> repositoriesPerRule.put(rule.ruleID(), 0));
+        results.stream().filter(r -> r.matchedRules() != null)
+                .forEach(r -> r.matchedRules().forEach(id -> repositoriesPerRule.merge(id, 1, Integer::sum)));
+        int failed = (int) results.stream().filter(r -> FAILED.equals(r.status())).count();
+
+        String date = LocalDateTime.now()
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH_mm").withLocale(Locale.getDefault()));
+        return new FleetSummary("Fleet Migration Analysis Results", date, repositories.size(), failed,
+                repositoriesPerRule, results);
+    }
+
+    /**
+     * Returns the configuration of a worker, using its own workspace of the language server when there are several
+     * workers.
+     */
+    private Config workerConfig(int worker) {
+        if (workers <= 1 || config.jdtWks() == null) {
+            return config;
+        }
+        return config.withJdtWks(Paths.get(config.jdtWks(), "worker-" + worker).toString());
+    }
+
+    private RepositoryResult analyzeRepository(Config workerConfig, List<Rule> rules, Path repository) {
+        long start = System.nanoTime();
+        try {
+            if (!Files.isDirectory(repository)) {
+                throw new IllegalStateException("Project path of the application does not exist: " + repository);
+            }
+            logger.infof("Analyzing the repository: %s", repository);
+            Config repoConfig = workerConfig.withAppPath(repository.toString());
+            AnalyzeService analyzeService = new AnalyzeService(repoConfig, registry).withParallelism(parallelism)
+                    .withFullEvaluation(fullEvaluation).withIncremental(incremental);
+            Map<String, MigrationTask> tasks = analyzeService.analyze(rules);
+            reporter.accept(repoConfig, tasks);
+
+            List<String> matchedRules = tasks.entrySet().stream()
+                    .filter(e -> e.getValue().getMatchResults() != null && !e.getValue().getMatchResults().isEmpty())
+                    .map(Map.Entry::getKey).toList();
+            return new RepositoryResult(repository.toString(), SUCCEEDED, elapsedMillis(start), matchedRules, null);
+        } catch (Exception e) {
+            logger.errorf("❌ Failed to analyze the repository %s: %s", repository, e.getMessage());
+            if (config.verbose()) {
+                logger.error("Analysis error details:", e);
+            }
+            return failed(repository, elapsedMillis(start), e);
+        }
+    }
+
+    /**
+     * Writes the summary as json file within the given folder.
+     *
+     * @param summary the summary of the fleet analysis
+     * @param dir the folder where the report is written
+     */
+    public void exportSummaryAsJson(FleetSummary summary, Path dir) {
+        try {
+            ObjectMapper objectMapper = new ObjectMapper();
+            objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+            File outputFile = dir.resolve(String.format("fleet-%s-report_%s.json", config.scanner(), summary.date()))
+                    .toFile();
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(outputFile, summary);
+            logger.infof("📄 Fleet summary exported to: %s", outputFile);
+        } catch (IOException e) {
+            logger.errorf("❌ Failed to export the fleet summary to JSON: %s", e.getMessage());
+        }
+    }
+
+    private static RepositoryResult failed(Path repository, long durationMillis, Throwable e) {
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+        return new RepositoryResult(repository.toString(), FAILED, durationMillis, null, error);
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -11,9 +11,12 @@ import dev.snowdrop.mtool.model.analyze.Result;
 import dev.snowdrop.mtool.model.analyze.MigrationTask;
 import dev.snowdrop.mtool.model.analyze.html.Cell;
 import dev.snowdrop.mtool.model.analyze.html.Row;
+import dev.snowdrop.mtool.model.openrewrite.RecipeStat;
 import dev.snowdrop.mtool.analyze.utils.TerminalUtils;
 import dev.snowdrop.mtool.model.transform.MigrationTasksExport;
 import dev.snowdrop.mtool.model.transform.ScanResultsExport;
+import dev.snowdrop.mtool.scanner.openrewrite.RecipeRunStatistics;
+import dev.snowdrop.mtool.scanner.sink.SummaryResultSink;
 import io.quarkus.qute.*;
 import org.eclipse.lsp4j.SymbolInformation;
 import org.eclipse.microprofile.config.ConfigProvider;
@@ -59,6 +62,11 @@ public class ResultsService {
     // and captures them. It stops at whitespace or a '<' (to avoid our <br> tag).
     private static final Pattern URL_PATTERN = Pattern.compile("(https?://[^\\s<]+|file:///[^\\s<]+)");
 
+    // Number of recipes listed by the "slowest recipes" section of the reports
+    private static final int SLOWEST_RECIPES = 10;
+    private static final String[] RECIPE_STATS_HEADERS = { "Recipe", "Files visited", "Files changed", "Total time",
+            "Edit time p99", "Edit time max" };
+
     public void exportAsHtml(Config config, List<String[]> rawTableData) {
         String[] headers = { "Rule ID", "Source to Target", "Match", "Information Details" };
         exportReport(config, headers, rawTableData, "html", "analysing");
@@ -265,7 +273,7 @@ public class ResultsService {
         return tableData;
     }
 
-    private static String formatResultEntry(Result result) {
+    public static String formatResultEntry(Result result) {
 
         switch (result.scannerType()) {
             case "jdtls":
@@ -275,7 +283,7 @@ public class ResultsService {
                 return symbolDetails.toString();
             case "openrewrite":
                 return formatRewrite(result);
-            case "maven", "file-search", "treesitter":
+            case "maven", "file-search", "treesitter", "index":
                 return result.result().toString();
             default:
                 return "";
@@ -320,8 +328,9 @@ public class ResultsService {
                     .withLocale(Locale.getDefault());
             String dateTimeformated = LocalDateTime.now().format(formatter);
 
+            List<RecipeStat> recipeStats = RecipeRunStatistics.getInstance().forProject(Paths.get(config.appPath()));
             MigrationTasksExport exportData = new MigrationTasksExport("Migration Analysis Results", config.appPath(),
-                    dateTimeformated, tasks);
+                    dateTimeformated, tasks, recipeStats);
 
             ObjectMapper objectMapper = new ObjectMapper();
             objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
@@ -402,6 +411,44 @@ public class ResultsService {
         System.out.println(asciiTable);
     }
 
+    /**
+     * Shows the table of the scan results using their bounded summaries: the number of results of each query and only
+     * their first results.
+     */
+    public void showScanSummaryTable(List<SummaryResultSink.Summary> summaries) {
+        List<String[]> tableData = new ArrayList<>();
+        for (SummaryResultSink.Summary summary : summaries) {
+            if (summary.count() == 0) {
+                tableData.add(new String[] { summary.id(), "No match found" });
+                continue;
+            }
+            StringBuilder details = new StringBuilder(String.format("%d result(s)", summary.count()));
+            for (Result result : summary.samples()) {
+                String resultDetails = formatResultEntry(result);
+                details.append("\n--- result ---\n")
+                        .append(!resultDetails.isEmpty() ? resultDetails : "No results found");
+            }
+            long remaining = summary.count() - summary.samples().size();
+            if (remaining > 0) {
+                details.append(String.format("\n... %d more result(s)", remaining));
+            }
+            tableData.add(new String[] { summary.id(), details.toString() });
+        }
+        tableData.sort(Comparator.comparing(row -> row[0]));
+
+        System.out.println("\n=== Scan Results ===");
+        String asciiTable = AsciiTable.builder()
+                .styler(TerminalUtils.headerStyle())
+                .data(tableData,
+                        Arrays.asList(
+                                new Column().header("Query").headerAlign(HorizontalAlign.LEFT)
+                                        .dataAlign(HorizontalAlign.LEFT).with(r -> r[0]),
+                                new Column().header("Results").headerAlign(HorizontalAlign.LEFT)
+                                        .maxWidth(120).dataAlign(HorizontalAlign.LEFT).with(r -> r[1])))
+                .asString();
+        System.out.println(asciiTable);
+    }
+
     public List<String[]> generateScanDataTable(Map<String, List<Result>> results) {
         List<String[]> tableData = new ArrayList<>();
 
@@ -453,7 +500,9 @@ public class ResultsService {
                 return;
             }
 
-            String report = reportTmpl.data("tableData", tableData).data("headers", headers).render();
+            String report = reportTmpl.data("tableData", tableData).data("headers", headers)
+                    .data("recipeStatsHeaders", RECIPE_STATS_HEADERS).data("slowestRecipes", slowestRecipes(config))
+                    .render();
             logger.debugf(report);
 
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH_mm")
@@ -470,4 +519,18 @@ public class ResultsService {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the rows of the recipes which took the most time to analyze the application.
+     */
+    private static List<Row> slowestRecipes(Config config) {
+        List<RecipeStat> stats = RecipeRunStatistics.getInstance().forProject(Paths.get(config.appPath()));
+        List<String[]> rows = new ArrayList<>();
+        for (RecipeStat stat : stats.subList(0, Math.min(SLOWEST_RECIPES, stats.size()))) {
+            rows.add(new String[] { stat.recipe(), String.valueOf(stat.sourceFiles()),
+                    String.valueOf(stat.changedFiles()), String.format("%.1f ms", stat.totalTimeMs()),
+                    String.format("%.1f ms", stat.editP99TimeMs()), String.format("%.1f ms", stat.editMaxTimeMs()) });
+        }
+        return convertToRows(RECIPE_STATS_HEADERS, rows);
+    }
+}
@@ -4,7 +4,11 @@ import dev.snowdrop.mtool.model.analyze.Config;
 import dev.snowdrop.mtool.model.analyze.MigrationTask;
 import dev.snowdrop.mtool.model.analyze.Rule;
 import dev.snowdrop.mtool.analyze.services.AnalyzeService;
+import dev.snowdrop.mtool.analyze.services.AnalyzeWatcher;
+import dev.snowdrop.mtool.analyze.services.FleetAnalyzeService;
 import dev.snowdrop.mtool.analyze.services.ResultsService;
+import dev.snowdrop.mtool.scanner.metrics.MetricsExporter;
+import dev.snowdrop.mtool.scanner.openrewrite.LstChunker;
 import org.eclipse.microprofile.config.ConfigProvider;
 import org.jboss.logging.Logger;
 import picocli.CommandLine;
@@ -14,6 +18,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -27,7 +32,7 @@ import static dev.snowdrop.mtool.analyze.utils.YamlRuleParser.parseRulesFromFold
 public class AnalyzeCommand implements Runnable {
     private static final Logger logger = Logger.getLogger(AnalyzeCommand.class);
 
-    @CommandLine.Parameters(index = "0", description = "Path to the Java project to analyze")
+    @CommandLine.Parameters(index = "0", arity = "0..1", description = "Path to the Java project to analyze")
     public String appPath;
 
     @CommandLine.Option(names = { "-r",
@@ -62,18 +67,83 @@ public class AnalyzeCommand implements Runnable {
             "--scanner" }, description = "Scanner tool to be used to analyse the code: jdtls, openrewrite", defaultValue = "openrewrite")
     public String scanner;
 
+    @CommandLine.Option(names = {
+            "--parallelism" }, description = "Number of rules to be evaluated concurrently (default: 1)", defaultValue = "1")
+    public int parallelism;
+
+    @CommandLine.Option(names = {
+            "--full-evaluation" }, description = "Evaluate all the clauses of the AND conditions, even when a clause didn't match, to report all their results")
+    public boolean fullEvaluation;
+
+    @CommandLine.Option(names = {
+            "--incremental" }, description = "Reuse the results of the previous analysis stored under <appPath>/.mtool/cache and only scan the files which changed")
+    public boolean incremental;
+
+    @CommandLine.Option(names = {
+            "--watch" }, description = "Keep watching the application and analyze again the rules impacted when some files change")
+    public boolean watch;
+
+    @CommandLine.Option(names = {
+            "--repos" }, description = "File listing the paths of the projects to analyze (one per line) or folder containing them")
+    public String repos;
+
+    @CommandLine.Option(names = {
+            "--workers" }, description = "Number of projects to be analyzed concurrently with --repos (default: 1)", defaultValue = "1")
+    public int workers;
+
+    @CommandLine.Option(names = {
+            "--metrics-out" }, description = "Export the metrics of the run to this file: *.json for a JSON summary, otherwise Prometheus text format")
+    public String metricsOut;
+
+    @CommandLine.Option(names = {
+            "--max-lst-heap" }, description = "Maximum heap used by the LST of the search recipes (e.g. 2g, 512m): the sources of a larger project are parsed and searched in chunks")
+    public String maxLstHeap;
+
+    @CommandLine.Option(names = {
+            "--parallel-modules" }, description = "Parse the modules of a multi-module Maven project concurrently: the types declared by another module are not attributed")
+    public boolean parallelModules;
+
     @Override
     public void run() {
+        validateMaxLstHeap();
+        try {
+            if (repos != null) {
+                runFleet();
+            } else {
+                runAnalysis();
+            }
+        } finally {
+            if (metricsOut != null) {
+                MetricsExporter.exportRunMetrics(resolvePath(metricsOut));
+            }
+        }
+    }
+
+    private void runAnalysis() {
+        if (appPath == null) {
+            throw new CommandLine.ParameterException(new CommandLine(this),
+                    "The path of the project to analyze or the option --repos is required");
+        }
+
         Config config = fromCommandOrElseProperties();
         try {
             List<Rule> rules = loadRules(config.rulesPath(), config.sourceTechnology(), config.targetTechnology());
 
             // Switch to the new analyseService able to map a query using its scanner to the corresponding DTO to issue a command
-            AnalyzeService analyzeService = new AnalyzeService(config);
+            AnalyzeService analyzeService = new AnalyzeService(config).withParallelism(parallelism)
+                    .withFullEvaluation(fullEvaluation).withIncremental(incremental);
             Map<String, MigrationTask> tasks = analyzeService.analyze(rules);
 
-            displayResults(tasks, config);
+            if (watch) {
+                renderResults(tasks, config);
+                new AnalyzeWatcher(config, analyzeService, rules, t -> renderResults(t, config))
+                        .watch(new LinkedHashMap<>(tasks));
+            } else {
+                displayResults(tasks, config);
+            }
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             logger.errorf("Error: %s", e.getMessage());
             if (verbose) {
@@ -83,6 +153,45 @@ public class AnalyzeCommand implements Runnable {
 
     }
 
+    private void runFleet() {
+        try {
+            Path reposPath = resolvePath(repos);
+            if (!Files.exists(reposPath)) {
+                throw new IllegalStateException("❌ Repositories file or folder does not exist: " + repos);
+            }
+            // The folder of the repositories is used as application path of the configuration shared by the projects
+            Path fleetDir = Files.isDirectory(reposPath) ? reposPath : reposPath.getParent();
+            appPath = fleetDir.toString();
+            Config config = fromCommandOrElseProperties();
+
+            List<Path> repositories = FleetAnalyzeService.resolveRepositories(reposPath);
+            List<Rule> rules = loadRules(config.rulesPath(), config.sourceTechnology(), config.targetTechnology());
+
+            FleetAnalyzeService fleetService = new FleetAnalyzeService(config).withWorkers(workers)
+                    .withParallelism(parallelism).withFullEvaluation(fullEvaluation).withIncremental(incremental)
+                    .withReporter(this::exportResults);
+            FleetAnalyzeService.FleetSummary summary = fleetService.analyze(rules, repositories);
+
+            for (FleetAnalyzeService.RepositoryResult result : summary.results()) {
+                if (FleetAnalyzeService.SUCCEEDED.equals(result.status())) {
+                    logger.infof("✅ %s: %d rule(s) matched in %d ms", result.appPath(), result.matchedRules().size(),
+                            result.durationMillis());
+                } else {
+                    logger.errorf("❌ %s: %s", result.appPath(), result.error());
+                }
+            }
+            logger.infof("%d of %d repositories analyzed successfully", summary.repositories() - summary.failed(),
+                    summary.repositories());
+            fleetService.exportSummaryAsJson(summary, fleetDir);
+
+        } catch (Exception e) {
+            logger.errorf("Error: %s", e.getMessage());
+            if (verbose) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     public Config fromCommandOrElseProperties() {
         Path path = Paths.get(appPath);
         if (!path.toFile().exists()) {
@@ -128,7 +237,8 @@ public class AnalyzeCommand implements Runnable {
                 .orElseThrow(() -> new RuntimeException("Openrewrite maven plugin version not define"));
 
         Config config = new Config(appPathString, resolvedRulesPath, sourceTechnology, targetTechnology, jdtLsPathString,
-                jdtWksString, lsCmd, verbose, output, scanner, openRewriteMavenPluginVersion);
+                jdtWksString, lsCmd, verbose, output, scanner, openRewriteMavenPluginVersion, maxLstHeap,
+                parallelModules);
 
         logger.infof("Jdt-ls path: %s", jdtLsPath);
         logger.infof("Jdt-ls workspace: %s", jdtWksString);
@@ -158,6 +268,13 @@ public class AnalyzeCommand implements Runnable {
     }
 
     private void displayResults(Map<String, MigrationTask> tasks, Config config) throws InterruptedException {
+        renderResults(tasks, config);
+
+        logger.infof("Waiting for commands to complete...");
+        Thread.sleep(2000);
+    }
+
+    private void renderResults(Map<String, MigrationTask> tasks, Config config) {
         ResultsService resultsService = new ResultsService(config.sourceTechnology(), config.targetTechnology());
         if (tasks.isEmpty()) {
             logger.warnf("No migration tasks found !!");
@@ -168,6 +285,18 @@ public class AnalyzeCommand implements Runnable {
                 config.targetTechnology());
         resultsService.showCsvTable(tableData);
 
+        exportResults(resultsService, config, tasks, tableData);
+    }
+
+    private void exportResults(Config config, Map<String, MigrationTask> tasks) {
+        ResultsService resultsService = new ResultsService(config.sourceTechnology(), config.targetTechnology());
+        List<String[]> tableData = resultsService.generateDataTable(tasks, config.sourceTechnology(),
+                config.targetTechnology());
+        exportResults(resultsService, config, tasks, tableData);
+    }
+
+    private void exportResults(ResultsService resultsService, Config config, Map<String, MigrationTask> tasks,
+            List<String[]> tableData) {
         // Always generate the json report as it is needed to perform the transformation step
         resultsService.exportAsJson(config, tasks);
 
@@ -179,9 +308,14 @@ public class AnalyzeCommand implements Runnable {
                 default -> logger.warnf("The format selected to export the report is unknown: %s", output);
             }
         }
-
-        logger.infof("Waiting for commands to complete...");
-        Thread.sleep(2000);
     }
 
-}
\ No newline at end of file
+    private void validateMaxLstHeap() {
+        try {
+            LstChunker.maxHeap(maxLstHeap);
+        } catch (IllegalArgumentException e) {
+            throw new CommandLine.ParameterException(new CommandLine(this),
+                    "Invalid value of the option --max-lst-heap: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package dev.snowdrop.mtool.commands;
+
+import dev.snowdrop.mtool.model.analyze.Config;
+import dev.snowdrop.mtool.model.analyze.Rule;
+import dev.snowdrop.mtool.parser.QueryPlan;
+import dev.snowdrop.mtool.parser.QueryUtils;
+import dev.snowdrop.mtool.scanner.CodeScannerService;
+import dev.snowdrop.mtool.scanner.PlanProfile;
+import dev.snowdrop.mtool.scanner.ScanCommandExecutor;
+import dev.snowdrop.mtool.scanner.ScanningResult;
+import org.jboss.logging.Logger;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static dev.snowdrop.mtool.analyze.utils.YamlRuleParser.parseRulesFromFile;
+import static dev.snowdrop.mtool.scanner.utils.FileUtils.resolvePath;
+
+@CommandLine.Command(name = "explain", description = "Show the plan executed for a query or the conditions of a rules file")
+public class ExplainCommand implements Runnable {
+    private static final Logger logger = Logger.getLogger(ExplainCommand.class);
+
+    @CommandLine.Parameters(index = "0", description = "Query or path to a YAML rules file to explain")
+    public String queryOrRule;
+
+    @CommandLine.Option(names = {
+            "--analyze" }, description = "Execute the plan against the application and report the time spent and matches per node")
+    public boolean analyze;
+
+    @CommandLine.Option(names = {
+            "--app-path" }, description = "Path to the Java project to analyze (default: current directory)", defaultValue = ".")
+    public String appPath;
+
+    @CommandLine.Option(names = {
+            "--scanner" }, description = "Scanner tool to be used to analyse the code: jdtls, openrewrite, file, maven, treesitter, index", defaultValue = "openrewrite")
+    public String scanner;
+
+    @CommandLine.Option(names = {
+            "--full-evaluation" }, description = "Evaluate all the clauses of the AND conditions, even when a clause didn't match")
+    public boolean fullEvaluation;
+
+    @Override
+    public void run() {
+        Path path = Paths.get(appPath);
+        if (analyze && !path.toFile().exists()) {
+            throw new IllegalStateException("Project path of the application does not exist: " + appPath);
+        }
+        Config config = new Config(resolvePath(appPath).toString(), null, null, null, null, null, null, false, null,
+                scanner, null);
+        ScanCommandExecutor scanCommandExecutor = new ScanCommandExecutor();
+        CodeScannerService codeScannerService = new CodeScannerService(config, scanCommandExecutor)
+                .withFullEvaluation(fullEvaluation);
+
+        Path rulePath = Paths.get(queryOrRule);
+        if (Files.isRegularFile(rulePath)) {
+            List<Rule> rules;
+            try {
+                rules = parseRulesFromFile(rulePath);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to parse rules file: " + queryOrRule, e);
+            }
+            for (Rule rule : rules) {
+                if (rule.when() == null) {
+                    continue;
+                }
+                if (rule.when().precondition() != null && !rule.when().precondition().isBlank()) {
+                    explain(rule.ruleID() + " (precondition)", rule.when().precondition(), config, scanCommandExecutor,
+                            codeScannerService);
+                }
+                explain(rule.ruleID(), rule.when().condition(), config, scanCommandExecutor, codeScannerService);
+            }
+        } else {
+            explain("query", queryOrRule, config, scanCommandExecutor, codeScannerService);
+        }
+    }
+
+    private void explain(String id, String query, Config config, ScanCommandExecutor scanCommandExecutor,
+            CodeScannerService codeScannerService) {
+        QueryPlan plan = QueryUtils.compile(query);
+        if (plan == null) {
+            logger.warnf("Unable to compile the query of %s: %s", id, query);
+            return;
+        }
+
+        PlanProfile profile = null;
+        long elapsedMs = 0;
+        boolean matched = false;
+        if (analyze) {
+            profile = new PlanProfile();
+            long startTime = System.nanoTime();
+            ScanningResult result = codeScannerService.execute(id, plan, profile);
+            elapsedMs = (System.nanoTime() - startTime) / 1_000_000;
+            matched = result.isMatchSucceeded();
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n=== Plan of ").append(id).append(" ===\n");
+        sb.append(query.trim()).append("\n");
+        print(sb, plan, "", "", config, scanCommandExecutor, codeScannerService, profile);
+        if (analyze) {
+            sb.append(String.format("Matched: %s. Elapsed: %d ms%n", matched, elapsedMs));
+        }
+        System.out.print(sb);
+    }
+
+    private void print(StringBuilder sb, QueryPlan node, String prefix, String childPrefix, Config config,
+            ScanCommandExecutor scanCommandExecutor, CodeScannerService codeScannerService, PlanProfile profile) {
+        sb.append(prefix).append("#").append(node.id()).append(" ").append(node.describe());
+        if (node instanceof QueryPlan.Leaf leaf) {
+            sb.append(" -> ").append(scanCommandExecutor.findScannerType(config, leaf.query()).orElse("no scanner"));
+        }
+        sb.append(String.format(" (cost=%d)", codeScannerService.estimateCost(node)));
+        if (profile != null) {
+            sb.append(profile.get(node)
+                    .map(stats -> String.format(" [time=%d ms, matches=%d, matched=%s]", stats.elapsedMillis(),
+                            stats.matches(), stats.matched()))
+                    .orElse(" [not executed]"));
+        }
+        sb.append("\n");
+
+        // The children are listed using their execution order
+        List<QueryPlan> children = codeScannerService.executionOrder(node);
+        for (int i = 0; i < children.size(); i++) {
+            boolean last = i == children.size() - 1;
+            print(sb, children.get(i), childPrefix + (last ? "└── " : "├── "), childPrefix + (last ? "    " : "│   "),
+                    config, scanCommandExecutor, codeScannerService, profile);
+        }
+    }
+}
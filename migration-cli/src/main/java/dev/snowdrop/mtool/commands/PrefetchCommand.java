@@ -0,0 +1,73 @@
+package dev.snowdrop.mtool.commands;
+
+import dev.snowdrop.mtool.model.analyze.Rule;
+import dev.snowdrop.mtool.scanner.openrewrite.RecipeArtifactManager;
+import org.jboss.logging.Logger;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+
+import static dev.snowdrop.mtool.analyze.utils.YamlRuleParser.parseRulesFromFile;
+import static dev.snowdrop.mtool.analyze.utils.YamlRuleParser.parseRulesFromFolder;
+import static dev.snowdrop.mtool.scanner.utils.FileUtils.resolvePath;
+
+@CommandLine.Command(name = "prefetch", description = "Resolve and cache the recipe artifacts of the rules, e.g. before running the transformations without network access")
+public class PrefetchCommand implements Callable<Integer> {
+    private static final Logger logger = Logger.getLogger(PrefetchCommand.class);
+
+    @CommandLine.Option(names = { "-r",
+            "--rules" }, description = "Path to the rules file or directory", required = true)
+    public String rulesPath;
+
+    /**
+     * Returns a non-zero exit code when an artifact cannot be resolved, e.g. to fail the CI job preparing an
+     * air-gapped run.
+     */
+    @Override
+    public Integer call() {
+        Path path = resolvePath(rulesPath);
+        List<Rule> rules;
+        try {
+            rules = Files.isRegularFile(path) ? parseRulesFromFile(path) : parseRulesFromFolder(path);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse the rules: " + rulesPath, e);
+        }
+
+        Set<String> gavs = new TreeSet<>();
+        for (Rule rule : rules) {
+            if (rule.instructions() == null || rule.instructions().openrewrite() == null) {
+                continue;
+            }
+            for (Rule.Openrewrite openrewrite : rule.instructions().openrewrite()) {
+                if (openrewrite.gav() != null) {
+                    gavs.addAll(Arrays.asList(openrewrite.gav()));
+                }
+            }
+        }
+        if (gavs.isEmpty()) {
+            logger.warnf("No recipe artifacts found within the rules: %s", rulesPath);
+            return CommandLine.ExitCode.OK;
+        }
+
+        RecipeArtifactManager manager = RecipeArtifactManager.getInstance();
+        int failures = 0;
+        for (String gav : gavs) {
+            try {
+                logger.infof("%s: %d jar(s)", gav, manager.jars(gav).size());
+            } catch (Exception e) {
+                logger.errorf("Unable to resolve the recipe artifact %s: %s", gav, e.getMessage());
+                failures++;
+            }
+        }
+        logger.infof("Prefetched %d of %d recipe artifacts of %d rules", gavs.size() - failures, gavs.size(),
+                rules.size());
+        return failures > 0 ? CommandLine.ExitCode.SOFTWARE : CommandLine.ExitCode.OK;
+    }
+}
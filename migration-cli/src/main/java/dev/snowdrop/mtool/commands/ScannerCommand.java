@@ -12,14 +12,24 @@ import dev.snowdrop.mtool.parser.QueryParserUtil;
 import dev.snowdrop.mtool.scanner.CodeScannerService;
 import dev.snowdrop.mtool.scanner.ScanCommandExecutor;
 import dev.snowdrop.mtool.scanner.ScanningResult;
+import dev.snowdrop.mtool.scanner.metrics.MetricsExporter;
+import dev.snowdrop.mtool.scanner.openrewrite.LstChunker;
+import dev.snowdrop.mtool.scanner.sink.CsvResultSink;
+import dev.snowdrop.mtool.scanner.sink.JsonLinesResultSink;
+import dev.snowdrop.mtool.scanner.sink.ResultSink;
+import dev.snowdrop.mtool.scanner.sink.SummaryResultSink;
 import org.jboss.logging.Logger;
 import picocli.CommandLine;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 
@@ -29,6 +39,10 @@ import static dev.snowdrop.mtool.scanner.utils.FileUtils.resolvePath;
 public class ScannerCommand implements Runnable {
     private static final Logger logger = Logger.getLogger(ScannerCommand.class);
 
+    // Query executed when the user didn't provide one
+    private static final String DEFAULT_QUERY = "pom.dependency is "
+            + "(gavs='org.springframework.boot:spring-boot-starter-parent:3.5.3')";
+
     private static final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory())
             .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
@@ -39,7 +53,7 @@ public class ScannerCommand implements Runnable {
     public String query;
 
     @CommandLine.Option(names = {
-            "--scanner" }, description = "Scanner tool to be used to analyse the code: jdtls, openrewrite, file, maven, treesitter", defaultValue = "openrewrite")
+            "--scanner" }, description = "Scanner tool to be used to analyse the code: jdtls, openrewrite, file, maven, treesitter, index", defaultValue = "openrewrite")
     public String scanner;
 
     @CommandLine.Option(names = {
@@ -50,43 +64,54 @@ public class ScannerCommand implements Runnable {
             "--output" }, description = "Export the scan result using as format: json, csv, html")
     private String output;
 
+    @CommandLine.Option(names = {
+            "--stream" }, description = "Write the results to the report (json lines or csv) while scanning instead of keeping them in memory. The results of the openrewrite scanner are only written once its recipes completed")
+    public boolean stream;
+
+    @CommandLine.Option(names = {
+            "--metrics-out" }, description = "Export the metrics of the run to this file: *.json for a JSON summary, otherwise Prometheus text format")
+    public String metricsOut;
+
+    @CommandLine.Option(names = {
+            "--max-lst-heap" }, description = "Maximum heap used by the LST of the search recipes (e.g. 2g, 512m): the sources of a larger project are parsed and searched in chunks")
+    public String maxLstHeap;
+
     @Override
     public void run() {
+        validateMaxLstHeap();
         long startTime = System.nanoTime();
-
         Path path = Paths.get(appPath);
         if (!path.toFile().exists()) {
             logger.errorf("Project path of the application does not exist: %s", appPath);
             throw new IllegalStateException("Project path of the application does not exist: " + appPath);
         }
         String appPathString = resolvePath(appPath).toString();
-        Config config = new Config(appPathString, null, null, null, null, null, null, false, null, scanner, null);
+        Config config = new Config(appPathString, null, null, null, null, null, null, false, null, scanner, null,
+                maxLstHeap, false);
 
-        if (planFile != null && !planFile.isBlank()) {
-            executePlan(config, startTime);
-        } else {
-            executeSingleQuery(config, startTime);
+        try {
+            if (stream) {
+                executeStreaming(config, startTime);
+            } else if (planFile != null && !planFile.isBlank()) {
+                executePlan(config, startTime);
+            } else {
+                executeSingleQuery(config, startTime);
+            }
+        } finally {
+            if (metricsOut != null) {
+                MetricsExporter.exportRunMetrics(resolvePath(metricsOut));
+            }
         }
     }
 
     private void executePlan(Config config, long startTime) {
-        Path planPath = Paths.get(planFile);
-        if (!Files.exists(planPath)) {
-            throw new IllegalStateException("Plan file does not exist: " + planFile);
-        }
-
-        Plan plan;
-        try {
-            plan = yamlMapper.readValue(Files.newInputStream(planPath), Plan.class);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to parse plan file: " + planFile, e);
-        }
-
+        Plan plan = loadPlan();
         logger.infof("Executing plan '%s' with %d queries", plan.getName(), plan.getQueries().size());
 
         ScanCommandExecutor scanCommandExecutor = new ScanCommandExecutor();
         CodeScannerService codeScannerService = new CodeScannerService(config, scanCommandExecutor);
         ScanningResult scanningResult = codeScannerService.scan(plan);
+        logger.infof("Query results cache: %s", scanCommandExecutor.getQueryResultCache());
 
         Map<String, List<Result>> results = scanningResult.getResults();
         if (results != null) {
@@ -98,18 +123,71 @@ public class ScannerCommand implements Runnable {
         logger.infof("%d result(s) from plan '%s'. Elapsed: %d ms", totalResults, plan.getName(), elapsedMs);
     }
 
-    private void executeSingleQuery(Config config, long startTime) {
-        Query q;
+    private Plan loadPlan() {
+        Path planPath = Paths.get(planFile);
+        if (!Files.exists(planPath)) {
+            throw new IllegalStateException("Plan file does not exist: " + planFile);
+        }
+
+        try {
+            return yamlMapper.readValue(Files.newInputStream(planPath), Plan.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse plan file: " + planFile, e);
+        }
+    }
+
+    /**
+     * Scan the code while writing the results to the report. Only a bounded summary of the results is kept in memory
+     * to render the table.
+     */
+    private void executeStreaming(Config config, long startTime) {
+        Plan plan;
+        if (planFile != null && !planFile.isBlank()) {
+            plan = loadPlan();
+        } else {
+            plan = new Plan("query", List.of(query.isBlank() ? DEFAULT_QUERY : query));
+        }
+
+        SummaryResultSink summary = new SummaryResultSink();
+        try (ResultSink sink = ResultSink.of(summary, createReportSink(config))) {
+            ScanCommandExecutor scanCommandExecutor = new ScanCommandExecutor();
+            new CodeScannerService(config, scanCommandExecutor).scan(plan, sink);
+        }
+        new ResultsService().showScanSummaryTable(summary.getSummaries());
 
+        long elapsedMs = (System.nanoTime() - startTime) / 1_000_000;
+        logger.infof("%d result(s) from plan '%s'. Elapsed: %d ms", summary.getTotal(), plan.getName(), elapsedMs);
+    }
+
+    private ResultSink createReportSink(Config config) {
+        String format = output != null && !output.isEmpty() ? output : "json";
+        String dateTimeformated = LocalDateTime.now()
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH_mm").withLocale(Locale.getDefault()));
+        String fileName = String.format("scanning-%s-report_%s", config.scanner(), dateTimeformated);
+        try {
+            ResultSink sink = switch (format) {
+                case "json" -> new JsonLinesResultSink(Paths.get(config.appPath(), fileName + ".jsonl"));
+                case "csv" -> new CsvResultSink(Paths.get(config.appPath(), fileName + ".csv"),
+                        ResultsService::formatResultEntry);
+                default -> throw new IllegalArgumentException(
+                        "The format selected can't be streamed, use json or csv: " + format);
+            };
+            logger.infof("📄 Scan results streamed to: %s/%s.%s", config.appPath(), fileName,
+                    format.equals("json") ? "jsonl" : format);
+            return sink;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create the report of the scan", e);
+        }
+    }
+
+    private void executeSingleQuery(Config config, long startTime) {
         if (!query.isBlank()) {
-            QueryParserUtil queryParserUtil = new QueryParserUtil();
-            Optional<Query> userQuery = queryParserUtil.parseQuery(query).getSimpleQueries().stream().findFirst();
-            q = userQuery.get();
             logger.infof("Processing user's query: %s", query);
-        } else {
-            q = new Query("pom", "dependency", "", Map.of(
-                    "gavs", "org.springframework.boot:spring-boot-starter-parent:3.5.3"));
         }
+        QueryParserUtil queryParserUtil = new QueryParserUtil();
+        Optional<Query> userQuery = queryParserUtil.parseQuery(query.isBlank() ? DEFAULT_QUERY : query)
+                .getSimpleQueries().stream().findFirst();
+        Query q = userQuery.get();
 
         ScanCommandExecutor scanCommandExecutor = new ScanCommandExecutor();
         List<Result> matches = scanCommandExecutor.executeCommandForQuery(config, q);
@@ -135,4 +213,13 @@ public class ScannerCommand implements Runnable {
             }
         }
     }
+
+    private void validateMaxLstHeap() {
+        try {
+            LstChunker.maxHeap(maxLstHeap);
+        } catch (IllegalArgumentException e) {
+            throw new CommandLine.ParameterException(new CommandLine(this),
+                    "Invalid value of the option --max-lst-heap: " + e.getMessage());
+        }
+    }
 }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.snowdrop.mtool.model.analyze.MigrationTask;
 import dev.snowdrop.mtool.transform.TransformationService;
 import dev.snowdrop.mtool.model.transform.MigrationTasksExport;
+import dev.snowdrop.mtool.scanner.metrics.MetricsExporter;
 import dev.snowdrop.mtool.transform.provider.ai.Assistant;
 import dev.snowdrop.mtool.transform.provider.ai.FileSystemTool;
 import dev.snowdrop.mtool.transform.provider.impl.OpenRewriteProvider;
@@ -39,6 +40,10 @@ public class TransformCommand implements Runnable {
             "--dry-run" }, description = "Execute OpenRewrite in dry-run mode (preview changes without applying them)")
     private boolean dryRun;
 
+    @CommandLine.Option(names = {
+            "--metrics-out" }, description = "Export the metrics of the run to this file: *.json for a JSON summary, otherwise Prometheus text format")
+    public String metricsOut;
+
     @CommandLine.Option(names = { "-p",
             "--provider" }, description = "Migration provider to use (ai, openrewrite, manual). Default: from migration.provider property")
     @ConfigProperty(name = "migration.provider")
@@ -70,6 +75,10 @@ public class TransformCommand implements Runnable {
             if (verbose) {
                 e.printStackTrace();
             }
+        } finally {
+            if (metricsOut != null) {
+                MetricsExporter.exportRunMetrics(resolvePath(metricsOut));
+            }
         }
 
     }
@@ -1,6 +1,7 @@
 package dev.snowdrop.mtool.transform;
 
 import dev.snowdrop.mtool.model.analyze.MigrationTask;
+import dev.snowdrop.mtool.scanner.metrics.ScanMetrics;
 import dev.snowdrop.mtool.transform.provider.ProviderFactory;
 import dev.snowdrop.mtool.transform.provider.model.ExecutionContext;
 import dev.snowdrop.mtool.transform.provider.model.ExecutionResult;
@@ -8,6 +9,7 @@ import org.jboss.logging.Logger;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for orchestrating transformation execution across different providers.
@@ -61,7 +63,7 @@ public class TransformationService {
 
         if (result.success()) {
             return ExecutionResult.success(String.format("   %s execution completed successfully", ctx.provideType()),
-                    allDetails);
+                    allDetails).withRecipeStats(result.recipeStats());
         } else {
             return ExecutionResult.failure(String.format("   %s execution failed !", ctx.provideType()));
         }
@@ -69,7 +71,11 @@ public class TransformationService {
 
     private ExecutionResult callProvider(String providerType, MigrationTask task, ExecutionContext context) {
         return ProviderFactory.getProvider(providerType).map(provider -> {
-            return provider.execute(task, context);
+            long start = System.nanoTime();
+            ExecutionResult result = provider.execute(task, context);
+            ScanMetrics.providerTimer(providerType, result.success()).record(System.nanoTime() - start,
+                    TimeUnit.NANOSECONDS);
+            return result;
         }).orElse(ExecutionResult.failure("Provider not found: " + providerType));
     }
 }
\ No newline at end of file
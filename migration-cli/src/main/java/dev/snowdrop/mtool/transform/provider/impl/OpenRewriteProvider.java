@@ -7,6 +7,11 @@ import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
 import dev.snowdrop.mtool.model.analyze.MigrationTask;
 import dev.snowdrop.mtool.model.analyze.Rule;
 import dev.snowdrop.mtool.model.openrewrite.CompositeRecipe;
+import dev.snowdrop.mtool.model.openrewrite.RecipeStat;
+import dev.snowdrop.mtool.scanner.maven.ClasspathResolver;
+import dev.snowdrop.mtool.scanner.openrewrite.RecipeArtifactManager;
+import dev.snowdrop.mtool.scanner.openrewrite.RecipeRunStatistics;
+import dev.snowdrop.mtool.scanner.openrewrite.RewriteServicePool;
 import dev.snowdrop.mtool.transform.provider.MigrationProvider;
 import dev.snowdrop.mtool.transform.provider.model.ExecutionContext;
 import dev.snowdrop.mtool.transform.provider.model.ExecutionResult;
@@ -37,6 +42,8 @@ public class OpenRewriteProvider implements MigrationProvider {
     public static final String MAVEN_OPENREWRITE_PLUGIN_ARTIFACT = "rewrite-maven-plugin";
 
     private static final String REWRITE_YAML_NAME = "rewrite.yml";
+    // Number of the slowest recipes added to the details of the result
+    private static final int SLOWEST_RECIPES = 5;
 
     @Override
     public String getProviderType() {
@@ -131,12 +138,14 @@ public class OpenRewriteProvider implements MigrationProvider {
         }
 
         // Execute via rewrite-client
-        boolean success = runRewriteService(ctx, REWRITE_YAML_NAME, details, gavs);
+        List<RecipeStat> recipeStats = new ArrayList<>();
+        boolean success = runRewriteService(ctx, REWRITE_YAML_NAME, details, gavs, recipeStats);
 
         if (success) {
-            return ExecutionResult.success("OpenRewrite execution completed successfully", details);
+            return ExecutionResult.success("OpenRewrite execution completed successfully", details)
+                    .withRecipeStats(recipeStats);
         } else {
-            return ExecutionResult.failure("OpenRewrite execution failed", details, null);
+            return ExecutionResult.failure("OpenRewrite execution failed", details, null).withRecipeStats(recipeStats);
         }
     }
 
@@ -154,13 +163,16 @@ public class OpenRewriteProvider implements MigrationProvider {
     }
 
     private boolean runRewriteService(ExecutionContext ctx, String rewriteYamlName, List<String> details,
-            List<String> gavs) {
+            List<String> gavs, List<RecipeStat> recipeStats) {
         try {
             RewriteConfig cfg = new RewriteConfig();
             cfg.setAppPath(ctx.projectPath());
             cfg.setYamlRecipesPath(rewriteYamlName);
             cfg.setDryRun(ctx.dryRun());
-            cfg.setAdditionalJarPaths(gavs);
+            // The dependencies of the project are given to attribute the types as during the analysis
+            List<String> jarPaths = new ArrayList<>(recipeClasspath(gavs));
+            jarPaths.addAll(ClasspathResolver.projectClasspath(ctx.projectPath()));
+            cfg.setAdditionalJarPaths(jarPaths);
 
             RewriteService svc = new RewriteService(cfg);
             svc.init();
@@ -172,6 +184,20 @@ public class OpenRewriteProvider implements MigrationProvider {
             details.add(String.format("Files deleted: %d", results.getDeleted().size()));
             details.add(String.format("Files moved: %d", results.getMoved().size()));
 
+            recipeStats.addAll(RecipeRunStatistics.fromRun(results));
+            for (RecipeStat stat : recipeStats.subList(0, Math.min(SLOWEST_RECIPES, recipeStats.size()))) {
+                details.add(String.format("Recipe %s: %.1f ms, %d file(s) visited, %d changed, edit max %.1f ms",
+                        stat.recipe(), stat.totalTimeMs(), stat.sourceFiles(), stat.changedFiles(),
+                        stat.editMaxTimeMs()));
+            }
+
+            boolean changed = !results.getRefactoredInPlace().isEmpty() || !results.getGenerated().isEmpty()
+                    || !results.getDeleted().isEmpty() || !results.getMoved().isEmpty();
+            if (!ctx.dryRun() && changed) {
+                // The LST parsed during the analysis is now outdated
+                RewriteServicePool.getInstance().invalidate(ctx.projectPath());
+            }
+
             if (results.getFirstException() != null) {
                 details.add("Exception: " + results.getFirstException().getMessage());
                 return false;
@@ -187,6 +213,22 @@ public class OpenRewriteProvider implements MigrationProvider {
         }
     }
 
+    /**
+     * Returns the jars of the recipe artifacts resolved once and cached by the {@link RecipeArtifactManager}, or the
+     * GAVs to be resolved by the rewrite service when they cannot be resolved.
+     */
+    private List<String> recipeClasspath(List<String> gavs) {
+        if (gavs.isEmpty()) {
+            return gavs;
+        }
+        try {
+            return RecipeArtifactManager.getInstance().classpath(gavs);
+        } catch (Exception e) {
+            logger.warnf("Unable to resolve the recipe artifacts %s: %s", gavs, e.getMessage());
+            return gavs;
+        }
+    }
+
     private boolean execMvnCmd(ExecutionContext ctx, String gavs, String rewriteYamlName, List<String> details) {
         try {
             List<String> command = new ArrayList<>();
@@ -1,44 +1,55 @@
 package dev.snowdrop.mtool.transform.provider.model;
 
+import dev.snowdrop.mtool.model.openrewrite.RecipeStat;
+
 import java.util.List;
 
 /**
- * Result of a provider execution with success status and details.
+ * Result of a provider execution with success status and details, and the statistics of the recipes run by the
+ * OpenRewrite provider.
  */
-public record ExecutionResult(boolean success, String message, List<String> details, Exception exception) {
+public record ExecutionResult(boolean success, String message, List<String> details, Exception exception,
+        List<RecipeStat> recipeStats) {
 
     /**
      * Creates a successful execution result.
      */
     public static ExecutionResult success(String message) {
-        return new ExecutionResult(true, message, List.of(), null);
+        return new ExecutionResult(true, message, List.of(), null, List.of());
     }
 
     /**
      * Creates a successful execution result with details.
      */
     public static ExecutionResult success(String message, List<String> details) {
-        return new ExecutionResult(true, message, details, null);
+        return new ExecutionResult(true, message, details, null, List.of());
     }
 
     /**
      * Creates a failed execution result.
      */
     public static ExecutionResult failure(String message) {
-        return new ExecutionResult(false, message, List.of(), null);
+        return new ExecutionResult(false, message, List.of(), null, List.of());
     }
 
     /**
      * Creates a failed execution result with exception.
      */
     public static ExecutionResult failure(String message, Exception exception) {
-        return new ExecutionResult(false, message, List.of(), exception);
+        return new ExecutionResult(false, message, List.of(), exception, List.of());
     }
 
     /**
      * Creates a failed execution result with details and exception.
      */
     public static ExecutionResult failure(String message, List<String> details, Exception exception) {
-        return new ExecutionResult(false, message, details, exception);
+        return new ExecutionResult(false, message, details, exception, List.of());
+    }
+
+    /**
+     * Returns a copy of the result with the statistics of the recipes run.
+     */
+    public ExecutionResult withRecipeStats(List<RecipeStat> recipeStats) {
+        return new ExecutionResult(success, message, details, exception, recipeStats);
     }
 }
\ No newline at end of file
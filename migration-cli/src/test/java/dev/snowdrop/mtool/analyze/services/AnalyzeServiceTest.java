@@ -0,0 +1,107 @@
+package dev.snowdrop.mtool.analyze.services;
+
+import dev.snowdrop.mtool.model.analyze.Config;
+import dev.snowdrop.mtool.model.analyze.MigrationTask;
+import dev.snowdrop.mtool.model.analyze.Result;
+import dev.snowdrop.mtool.model.analyze.Rule;
+import dev.snowdrop.mtool.model.parser.Query;
+import dev.snowdrop.mtool.scanner.QueryScanner;
+import dev.snowdrop.mtool.scanner.ScannerSpiRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AnalyzeServiceTest {
+
+    @TempDir
+    Path appPath;
+
+    /**
+     * Scanner returning one result per value of the query, the first queries being the slowest ones so that the rules
+     * scanned concurrently complete in the reverse order.
+     */
+    static class StubScanner implements QueryScanner {
+        @Override
+        public List<Result> scansCodeFor(Config config, Query query) {
+            String value = String.join(",", query.keyValues().values());
+            if (value.contains("failing")) {
+                throw new IllegalStateException("Unable to scan " + value);
+            }
+            if (value.contains("none")) {
+                return List.of();
+            }
+            try {
+                Thread.sleep(Math.max(0, 50 - 5 * Integer.parseInt(value.replaceAll("\\D", ""))));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(new Result(value, getScannerType(), "src/main/java/org/acme/" + value + ".java"));
+        }
+
+        @Override
+        public List<Result> executeQueries(Config config, Set<Query> queries) {
+            return List.of();
+        }
+
+        @Override
+        public String getScannerType() {
+            return "stub";
+        }
+
+        @Override
+        public boolean supports(Query query) {
+            return true;
+        }
+    }
+
+    @Test
+    void parallelAnalysisReturnsTheTasksOfTheSequentialAnalysis() {
+        List<Rule> rules = new ArrayList<>(IntStream.range(0, 8)
+                .mapToObj(i -> rule("rule-" + i, "java.annotation is 'Annotation" + i + "'")).toList());
+        rules.add(rule("rule-none", "java.annotation is 'none'"));
+
+        Map<String, MigrationTask> sequential = service(1).analyze(rules);
+        Map<String, MigrationTask> parallel = service(4).analyze(rules);
+
+        List<String> ruleIds = rules.stream().map(Rule::ruleID).toList();
+        assertEquals(ruleIds, List.copyOf(sequential.keySet()));
+        assertEquals(ruleIds, List.copyOf(parallel.keySet()));
+        for (String ruleId : ruleIds) {
+            assertEquals(sequential.get(ruleId).getRule(), parallel.get(ruleId).getRule());
+            assertEquals(sequential.get(ruleId).getMatchResults(), parallel.get(ruleId).getMatchResults());
+        }
+        assertEquals(List.of(), parallel.get("rule-none").getMatchResults());
+    }
+
+    @Test
+    void failureOfARuleIsPropagatedAsBySequentialAnalysis() {
+        List<Rule> rules = List.of(rule("rule-0", "java.annotation is 'Annotation0'"),
+                rule("rule-failing", "java.annotation is 'failing'"),
+                rule("rule-2", "java.annotation is 'Annotation2'"));
+
+        IllegalStateException sequential = assertThrows(IllegalStateException.class,
+                () -> service(1).analyze(rules));
+        IllegalStateException parallel = assertThrows(IllegalStateException.class, () -> service(3).analyze(rules));
+        assertEquals(sequential.getMessage(), parallel.getMessage());
+    }
+
+    private AnalyzeService service(int parallelism) {
+        Config config = new Config(appPath.toString(), null, null, null, null, null, null, false, null, "stub", null);
+        return new AnalyzeService(config, new ScannerSpiRegistry(List.of(new StubScanner())))
+                .withParallelism(parallelism);
+    }
+
+    private static Rule rule(String id, String condition) {
+        return new Rule(null, null, null, 1, null, null, null, id, null,
+                new Rule.When(null, null, null, condition, null), null, 0, null);
+    }
+}
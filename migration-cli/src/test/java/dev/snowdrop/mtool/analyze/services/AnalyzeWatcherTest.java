@@ -0,0 +1,55 @@
+package dev.snowdrop.mtool.analyze.services;
+
+import dev.snowdrop.mtool.model.analyze.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnalyzeWatcherTest {
+
+    private final Rule javaRule = rule("java", "java.annotation is '@RestController'");
+    private final Rule propertyRule = rule("property", "property.key is 'server.port'");
+    private final Rule textRule = rule("text", "text.content is 'TODO'");
+    private final Rule pomRule = rule("pom", "pom.dependency is (gavs='org.springframework.boot:spring-boot')");
+    private final List<Rule> rules = List.of(javaRule, propertyRule, textRule, pomRule);
+
+    @Test
+    void fileTypesOfTheGrammarAreMappedToTheFilesChanged() {
+        Set<String> javaTypes = AnalyzeWatcher.fileTypesOf(Path.of("src/main/java/org/acme/TodoResource.java"));
+        assertTrue(javaTypes.containsAll(List.of("java", "text", "source")));
+        assertFalse(javaTypes.contains("pom"));
+
+        Set<String> propertiesTypes = AnalyzeWatcher.fileTypesOf(Path.of("src/main/resources/application.yml"));
+        assertTrue(propertiesTypes.containsAll(List.of("properties", "property", "yaml", "text")));
+        assertFalse(propertiesTypes.contains("java"));
+
+        // The content of a folder created or of a file of another type is unknown
+        assertTrue(AnalyzeWatcher.fileTypesOf(Path.of("src/main/java/org/acme/model"))
+                .containsAll(List.of("java", "pom", "property", "json")));
+        assertTrue(AnalyzeWatcher.fileTypesOf(Path.of("src/main/resources/META-INF/persistence.xml"))
+                .containsAll(List.of("java", "pom", "property", "json")));
+    }
+
+    @Test
+    void onlyTheRulesSearchingTheFilesChangedAreAffected() {
+        assertEquals(List.of(javaRule, textRule), AnalyzeWatcher.affectedRules(rules,
+                AnalyzeWatcher.fileTypesOf(Path.of("src/main/java/org/acme/TodoResource.java"))));
+        assertEquals(List.of(propertyRule, textRule), AnalyzeWatcher.affectedRules(rules,
+                AnalyzeWatcher.fileTypesOf(Path.of("src/main/resources/application.properties"))));
+        // The dependencies define the types resolved within the java sources
+        assertEquals(List.of(javaRule, textRule, pomRule),
+                AnalyzeWatcher.affectedRules(rules, AnalyzeWatcher.fileTypesOf(Path.of("pom.xml"))));
+        assertEquals(List.of(), AnalyzeWatcher.affectedRules(rules, Set.of("json")));
+    }
+
+    private static Rule rule(String id, String condition) {
+        return new Rule(null, null, null, 1, null, null, null, id, null,
+                new Rule.When(null, null, null, condition, null), null, 0, null);
+    }
+}
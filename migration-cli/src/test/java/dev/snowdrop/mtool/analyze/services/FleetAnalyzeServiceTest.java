@@ -0,0 +1,87 @@
+package dev.snowdrop.mtool.analyze.services;
+
+import dev.snowdrop.mtool.model.analyze.Config;
+import dev.snowdrop.mtool.model.analyze.Result;
+import dev.snowdrop.mtool.model.analyze.Rule;
+import dev.snowdrop.mtool.model.parser.Query;
+import dev.snowdrop.mtool.scanner.ScannerSpiRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FleetAnalyzeServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<Rule> rules = List.of(new Rule(null, null, null, 1, null, null, null, "rule-0", null,
+            new Rule.When(null, null, null, "java.annotation is 'Annotation0'", null), null, 0, null));
+
+    /**
+     * Scanner failing to scan the applications whose name starts with "broken"
+     */
+    static class BrokenAppScanner extends AnalyzeServiceTest.StubScanner {
+        @Override
+        public List<Result> scansCodeFor(Config config, Query query) {
+            if (Path.of(config.appPath()).getFileName().toString().startsWith("broken")) {
+                throw new IllegalStateException("Unable to scan " + config.appPath());
+            }
+            return super.scansCodeFor(config, query);
+        }
+    }
+
+    @Test
+    void failingRepositoryDoesNotAbortTheFleet() throws IOException {
+        List<Path> repositories = List.of(repository("app-a"), repository("broken-b"), tempDir.resolve("missing"),
+                repository("app-d"));
+
+        FleetAnalyzeService.FleetSummary summary = service(2).analyze(rules, repositories);
+
+        assertEquals(4, summary.repositories());
+        assertEquals(2, summary.failed());
+        assertEquals(List.of(FleetAnalyzeService.SUCCEEDED, FleetAnalyzeService.FAILED, FleetAnalyzeService.FAILED,
+                FleetAnalyzeService.SUCCEEDED), summary.results().stream().map(r -> r.status()).toList());
+        assertEquals("Unable to scan " + repositories.get(1), summary.results().get(1).error());
+        assertNull(summary.results().get(0).error());
+        assertEquals(Map.of("rule-0", 2), summary.repositoriesPerRule());
+    }
+
+    @Test
+    void eachWorkerUsesItsOwnWorkspaceOfTheLanguageServer() throws IOException {
+        List<Path> repositories = List.of(repository("app-a"), repository("app-b"), repository("app-c"));
+
+        // The language server of a worker is only restarted when the worker analyzes its next repository
+        Set<String> workerWorkspaces = Set.of(tempDir.resolve("wks/worker-1").toString(),
+                tempDir.resolve("wks/worker-2").toString());
+        assertTrue(workerWorkspaces.containsAll(analyzedWorkspaces(service(2), repositories)));
+        assertEquals(Set.of(tempDir.resolve("wks").toString()), analyzedWorkspaces(service(1), repositories));
+    }
+
+    private Set<String> analyzedWorkspaces(FleetAnalyzeService service, List<Path> repositories) {
+        Set<String> workspaces = ConcurrentHashMap.newKeySet();
+        service.withReporter((config, tasks) -> workspaces.add(config.jdtWks())).analyze(rules, repositories);
+        return workspaces;
+    }
+
+    private FleetAnalyzeService service(int workers) {
+        Config config = new Config(null, null, null, null, null, tempDir.resolve("wks").toString(), null, false, null,
+                "stub", null);
+        return new FleetAnalyzeService(config, new ScannerSpiRegistry(List.of(new BrokenAppScanner())))
+                .withWorkers(workers);
+    }
+
+    private Path repository(String name) throws IOException {
+        return Files.createDirectories(tempDir.resolve(name));
+    }
+}
@@ -4,5 +4,47 @@ import java.nio.file.Path;
 
 public record Config(String appPath, Path rulesPath, String sourceTechnology, String targetTechnology, String jdtLsPath,
         String jdtWks, String lsCmd, boolean verbose, String output, String scanner,
-        String openRewriteMavenPluginVersion) {
+        String openRewriteMavenPluginVersion, String maxLstHeap, boolean parallelModules) {
+
+    public Config(String appPath, Path rulesPath, String sourceTechnology, String targetTechnology, String jdtLsPath,
+            String jdtWks, String lsCmd, boolean verbose, String output, String scanner,
+            String openRewriteMavenPluginVersion) {
+        this(appPath, rulesPath, sourceTechnology, targetTechnology, jdtLsPath, jdtWks, lsCmd, verbose, output, scanner,
+                openRewriteMavenPluginVersion, null, false);
+    }
+
+    /**
+     * Returns a copy of the configuration to analyze another application.
+     */
+    public Config withAppPath(String appPath) {
+        return new Config(appPath, rulesPath, sourceTechnology, targetTechnology, jdtLsPath, jdtWks, lsCmd, verbose,
+                output, scanner, openRewriteMavenPluginVersion, maxLstHeap, parallelModules);
+    }
+
+    /**
+     * Returns a copy of the configuration using another workspace of the language server, e.g. for a language server
+     * running concurrently.
+     */
+    public Config withJdtWks(String jdtWks) {
+        return new Config(appPath, rulesPath, sourceTechnology, targetTechnology, jdtLsPath, jdtWks, lsCmd, verbose,
+                output, scanner, openRewriteMavenPluginVersion, maxLstHeap, parallelModules);
+    }
+
+    /**
+     * Returns a copy of the configuration using the maximum heap of the LST of the search recipes, e.g. 2g, 512m.
+     * Null disables the chunked mode.
+     */
+    public Config withMaxLstHeap(String maxLstHeap) {
+        return new Config(appPath, rulesPath, sourceTechnology, targetTechnology, jdtLsPath, jdtWks, lsCmd, verbose,
+                output, scanner, openRewriteMavenPluginVersion, maxLstHeap, parallelModules);
+    }
+
+    /**
+     * Returns a copy of the configuration parsing, or not, the LST of each module of a multi-module project
+     * concurrently.
+     */
+    public Config withParallelModules(boolean parallelModules) {
+        return new Config(appPath, rulesPath, sourceTechnology, targetTechnology, jdtLsPath, jdtWks, lsCmd, verbose,
+                output, scanner, openRewriteMavenPluginVersion, maxLstHeap, parallelModules);
+    }
 }
@@ -1,22 +1,33 @@
 package dev.snowdrop.mtool.model.analyze;
 
+/**
+ * The scanners supported. The cost is a relative estimation of the time needed by the scanner to execute a query and
+ * is used to evaluate the cheapest clauses of a condition first.
+ */
 public enum ScannerType {
-    OPENREWRITE("openrewrite"),
-    JDTLS("jdtls"),
-    MAVEN("maven"),
-    FILE_SEARCH("file-search"),
-    TREESITTER("treesitter");
+    OPENREWRITE("openrewrite", 10),
+    JDTLS("jdtls", 20),
+    MAVEN("maven", 1),
+    FILE_SEARCH("file-search", 1),
+    TREESITTER("treesitter", 2),
+    INDEX("index", 1);
 
     private final String label;
+    private final int cost;
 
-    ScannerType(String label) {
+    ScannerType(String label, int cost) {
         this.label = label;
+        this.cost = cost;
     }
 
     public String label() {
         return label;
     }
 
+    public int cost() {
+        return cost;
+    }
+
     public static ScannerType fromLabel(String label) {
         for (ScannerType s : values()) {
             if (s.label.equalsIgnoreCase(label)) {
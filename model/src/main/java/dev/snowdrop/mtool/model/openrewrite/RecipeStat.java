@@ -0,0 +1,30 @@
+package dev.snowdrop.mtool.model.openrewrite;
+
+/**
+ * Statistics of the run of a recipe reported by OpenRewrite.
+ *
+ * @param recipe the name of the recipe
+ * @param sourceFiles the number of source files visited by the recipe
+ * @param changedFiles the number of source files changed by the recipe
+ * @param scanTimeMs the time spent to scan the source files, in milliseconds
+ * @param editTimeMs the time spent to edit the source files, in milliseconds
+ * @param editP99TimeMs the 99th percentile of the time spent to edit a source file, in milliseconds
+ * @param editMaxTimeMs the maximum time spent to edit a source file, in milliseconds
+ */
+public record RecipeStat(String recipe, int sourceFiles, int changedFiles, double scanTimeMs, double editTimeMs,
+        double editP99TimeMs, double editMaxTimeMs) {
+
+    public double totalTimeMs() {
+        return scanTimeMs + editTimeMs;
+    }
+
+    /**
+     * Adds the statistics of another run of the same recipe, e.g. on another module. The percentile kept is the highest
+     * one of the runs.
+     */
+    public RecipeStat merge(RecipeStat other) {
+        return new RecipeStat(recipe, sourceFiles + other.sourceFiles, changedFiles + other.changedFiles,
+                scanTimeMs + other.scanTimeMs, editTimeMs + other.editTimeMs,
+                Math.max(editP99TimeMs, other.editP99TimeMs), Math.max(editMaxTimeMs, other.editMaxTimeMs));
+    }
+}
@@ -2,10 +2,12 @@ package dev.snowdrop.mtool.model.transform;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import dev.snowdrop.mtool.model.analyze.MigrationTask;
+import dev.snowdrop.mtool.model.openrewrite.RecipeStat;
 
+import java.util.List;
 import java.util.Map;
 
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 public record MigrationTasksExport(String title, String projectPath, String timestamp,
-        Map<String, MigrationTask> migrationTasks) {
+        Map<String, MigrationTask> migrationTasks, List<RecipeStat> recipeStats) {
 }
@@ -0,0 +1,298 @@
+package dev.snowdrop.mtool.openrewrite.java.search;
+
+import dev.snowdrop.mtool.openrewrite.java.table.JavaSymbolsReport;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.*;
+import org.openrewrite.java.AnnotationMatcher;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.TypeMatcher;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.MethodCall;
+import org.openrewrite.java.tree.TypeUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Search within one pass of the LST several Java symbols: annotations, types referenced, method invocations, imports
+ * and class declarations. The symbols are indexed by their simple name, so that each node of the LST is only checked
+ * against the patterns sharing its name (and the patterns using a wildcard for the name).
+ * <p>
+ * The symbols matched are recorded within the {@link JavaSymbolsReport} data table with the match id of their pattern.
+ */
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class FindJavaSymbols extends Recipe {
+
+    public static final String ENTRY_SEPARATOR = "\n";
+    public static final String FIELD_SEPARATOR = "|";
+
+    /**
+     * The symbols to search, one per line: {@code matchId|kind|pattern}
+     */
+    @Option(displayName = "Symbols", description = "The symbols to search, one per line: `matchId|kind|pattern` where the kind is annotation, type, method, import or class. "
+            + "The patterns use the syntax of the AnnotationMatcher, TypeMatcher and MethodMatcher, the imports a glob expression.", example = "match-001|method|java.util.List add(..)")
+    public String symbols;
+
+    public enum Kind {
+        ANNOTATION,
+        TYPE,
+        METHOD,
+        IMPORT,
+        CLASS
+    }
+
+    public record Symbol(String matchId, Kind kind, String pattern) {
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Find Java symbols";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Find within one pass the annotations, types, method invocations, imports and classes matching the patterns.";
+    }
+
+    public transient JavaSymbolsReport report = new JavaSymbolsReport(this);
+
+    /**
+     * Parse the symbols of the option.
+     */
+    public static List<Symbol> parseSymbols(String symbols) {
+        List<Symbol> parsed = new ArrayList<>();
+        for (String line : symbols.split(ENTRY_SEPARATOR)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            // The pattern is the last field as it can contain the separator
+            String[] fields = line.trim().split(Pattern.quote(FIELD_SEPARATOR), 3);
+            if (fields.length != 3) {
+                throw new IllegalArgumentException("Invalid symbol, expecting matchId|kind|pattern: " + line);
+            }
+            parsed.add(new Symbol(fields[0], Kind.valueOf(fields[1].trim().toUpperCase(Locale.ROOT)), fields[2]));
+        }
+        return parsed;
+    }
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        Index<AnnotationMatcher> annotations = new Index<>();
+        Index<TypeMatcher> types = new Index<>();
+        Index<MethodMatcher> methods = new Index<>();
+        Index<Pattern> imports = new Index<>();
+        Index<TypeMatcher> classes = new Index<>();
+        for (Symbol symbol : parseSymbols(symbols)) {
+            String pattern = symbol.pattern();
+            switch (symbol.kind()) {
+                case ANNOTATION -> annotations.add(annotationName(pattern), symbol, new AnnotationMatcher(pattern));
+                case TYPE -> types.add(simpleName(pattern), symbol, new TypeMatcher(pattern));
+                case METHOD -> methods.add(methodName(pattern), symbol, new MethodMatcher(pattern, true));
+                case IMPORT -> imports.add(simpleName(pattern), symbol, globToRegex(pattern));
+                case CLASS -> classes.add(simpleName(pattern), symbol, new TypeMatcher(pattern));
+            }
+        }
+
+        return new JavaIsoVisitor<ExecutionContext>() {
+
+            String sourcePath;
+            String firstClassName;
+
+            @Override
+            public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+                sourcePath = cu.getSourcePath().toString();
+                firstClassName = cu.getClasses().isEmpty() ? "" : className(cu.getClasses().getFirst());
+
+                if (!types.isEmpty()) {
+                    Set<String> found = new HashSet<>();
+                    for (JavaType type : cu.getTypesInUse().getTypesInUse()) {
+                        JavaType.FullyQualified fq = TypeUtils.asFullyQualified(type);
+                        if (fq == null) {
+                            continue;
+                        }
+                        String fqName = fq.getFullyQualifiedName();
+                        types.match(simpleName(fqName), fq, (matcher, t) -> matcher.matches((JavaType) t),
+                                symbol -> {
+                                    // A type can be part of the types in use as raw and parameterized
+                                    if (found.add(symbol.matchId() + fqName)) {
+                                        insertRow(ctx, symbol, firstClassName, fqName);
+                                    }
+                                });
+                    }
+                }
+                return super.visitCompilationUnit(cu, ctx);
+            }
+
+            @Override
+            public J.Import visitImport(J.Import anImport, ExecutionContext ctx) {
+                String imported = anImport.isStatic()
+                        ? anImport.getTypeName() + "." + anImport.getQualid().getSimpleName()
+                        : anImport.getTypeName();
+                imports.match(anImport.getQualid().getSimpleName(), imported,
+                        (regex, name) -> regex.matcher(name).matches(),
+                        symbol -> insertRow(ctx, symbol, firstClassName, imported));
+                return super.visitImport(anImport, ctx);
+            }
+
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                classes.match(classDecl.getSimpleName(), classDecl, (matcher, c) -> matcher.matches(c.getType()),
+                        symbol -> insertRow(ctx, symbol, className(classDecl), className(classDecl)));
+                return super.visitClassDeclaration(classDecl, ctx);
+            }
+
+            @Override
+            public J.Annotation visitAnnotation(J.Annotation annotation, ExecutionContext ctx) {
+                annotations.match(annotation.getSimpleName(), annotation, (matcher, a) -> matcher.matches(a),
+                        symbol -> {
+                            JavaType.FullyQualified type = TypeUtils.asFullyQualified(annotation.getType());
+                            insertRow(ctx, symbol, enclosingClassName(),
+                                    type != null ? type.getFullyQualifiedName() : annotation.getSimpleName());
+                        });
+                return super.visitAnnotation(annotation, ctx);
+            }
+
+            @Override
+            public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+                methods.match(method.getSimpleName(), method, (matcher, m) -> matcher.matches((MethodCall) m),
+                        symbol -> insertRow(ctx, symbol, enclosingClassName(), methodName(method.getMethodType(),
+                                method.getSimpleName())));
+                return super.visitMethodInvocation(method, ctx);
+            }
+
+            @Override
+            public J.NewClass visitNewClass(J.NewClass newClass, ExecutionContext ctx) {
+                methods.match("<constructor>", newClass, (matcher, n) -> matcher.matches((MethodCall) n),
+                        symbol -> insertRow(ctx, symbol, enclosingClassName(),
+                                methodName(newClass.getConstructorType(), "<constructor>")));
+                return super.visitNewClass(newClass, ctx);
+            }
+
+            private String enclosingClassName() {
+                J.ClassDeclaration classDecl = getCursor().firstEnclosing(J.ClassDeclaration.class);
+                return classDecl != null ? className(classDecl) : firstClassName;
+            }
+
+            private void insertRow(ExecutionContext ctx, Symbol symbol, String className, String match) {
+                report.insertRow(ctx, new JavaSymbolsReport.Row(symbol.matchId(),
+                        symbol.kind().name().toLowerCase(Locale.ROOT), symbol.pattern(), sourcePath, className, match));
+            }
+        };
+    }
+
+    /**
+     * Matchers of a kind of symbol indexed by the simple name of the symbol. The matchers whose simple name contains
+     * a wildcard or is empty, e.g. for the package pattern org.acme.., are checked against all the symbols.
+     */
+    static final class Index<M> {
+        record Candidate<M>(Symbol symbol, M matcher) {
+        }
+
+        private final Map<String, List<Candidate<M>>> bySimpleName = new HashMap<>();
+        private final List<Candidate<M>> wildcards = new ArrayList<>();
+
+        void add(String simpleName, Symbol symbol, M matcher) {
+            Candidate<M> candidate = new Candidate<>(symbol, matcher);
+            if (simpleName.isEmpty() || simpleName.contains("*")) {
+                wildcards.add(candidate);
+            } else {
+                bySimpleName.computeIfAbsent(simpleName, k -> new ArrayList<>()).add(candidate);
+            }
+        }
+
+        boolean isEmpty() {
+            return bySimpleName.isEmpty() && wildcards.isEmpty();
+        }
+
+        <T> void match(String simpleName, T element, BiPredicate<M, T> matches,
+                Consumer<Symbol> onMatch) {
+            List<Candidate<M>> candidates = bySimpleName.get(simpleName);
+            if (candidates != null) {
+                for (Candidate<M> candidate : candidates) {
+                    if (matches.test(candidate.matcher(), element)) {
+                        onMatch.accept(candidate.symbol());
+                    }
+                }
+            }
+            for (Candidate<M> candidate : wildcards) {
+                if (matches.test(candidate.matcher(), element)) {
+                    onMatch.accept(candidate.symbol());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the last segment of a fully qualified name, e.g. List for java.util.List
+     */
+    static String simpleName(String fqName) {
+        int index = Math.max(fqName.lastIndexOf('.'), fqName.lastIndexOf('$'));
+        return fqName.substring(index + 1).trim();
+    }
+
+    /**
+     * Returns the simple name of the annotation of a pattern, e.g. Deprecated for @java.lang.Deprecated(since="9")
+     */
+    static String annotationName(String pattern) {
+        String type = pattern.startsWith("@") ? pattern.substring(1) : pattern;
+        int parenthesis = type.indexOf('(');
+        return simpleName(parenthesis >= 0 ? type.substring(0, parenthesis) : type);
+    }
+
+    /**
+     * Returns the name of the method of a pattern, e.g. add for java.util.List add(..)
+     */
+    static String methodName(String pattern) {
+        int parenthesis = pattern.indexOf('(');
+        String signature = (parenthesis >= 0 ? pattern.substring(0, parenthesis) : pattern).trim();
+        int space = signature.lastIndexOf(' ');
+        String name = space >= 0 ? signature.substring(space + 1) : signature;
+        // The pattern can also use the form declaringType#methodName
+        int hash = name.lastIndexOf('#');
+        return hash >= 0 ? name.substring(hash + 1) : name;
+    }
+
+    /**
+     * Converts a glob expression of a fully qualified name to a regex: * matches within a segment of the name, ..
+     * matches any segments.
+     */
+    static Pattern globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (glob.startsWith("..", i)) {
+                regex.append("\\..*");
+                i++;
+            } else if (c == '*') {
+                regex.append("[^.]*");
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static String methodName(JavaType.@Nullable Method methodType, String name) {
+        if (methodType == null) {
+            return name;
+        }
+        return methodType.getDeclaringType().getFullyQualifiedName() + " " + methodType.getName();
+    }
+
+    private static String className(J.ClassDeclaration classDecl) {
+        return classDecl.getType() != null ? classDecl.getType().getFullyQualifiedName() : classDecl.getSimpleName();
+    }
+}
@@ -0,0 +1,94 @@
+package dev.snowdrop.mtool.openrewrite.java.search;
+
+import dev.snowdrop.mtool.openrewrite.java.table.TypeHierarchyReport;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Find the classes declared by the project with all their supertypes. Contrary to the recipe
+ * {@code FindClassHierarchy} which only records the direct supertypes, the supertypes are walked using the type
+ * attribution of the LST, so that the supertypes declared by the libraries of the project (e.g. a repository extending
+ * {@code JpaRepository} is a {@code CrudRepository}) are part of the row.
+ */
+@EqualsAndHashCode(callSuper = false)
+@Value
+public class FindTypeHierarchy extends Recipe {
+
+    public static final String TYPE_SEPARATOR = ",";
+
+    @Override
+    public String getDisplayName() {
+        return "Find type hierarchy";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Find the classes declared with their direct supertypes and all their transitive supertypes.";
+    }
+
+    public transient TypeHierarchyReport report = new TypeHierarchyReport(this);
+
+    @Override
+    public TreeVisitor<?, ExecutionContext> getVisitor() {
+        return new JavaIsoVisitor<ExecutionContext>() {
+
+            String sourcePath;
+
+            @Override
+            public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext ctx) {
+                sourcePath = cu.getSourcePath().toString();
+                return super.visitCompilationUnit(cu, ctx);
+            }
+
+            @Override
+            public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+                JavaType.FullyQualified type = classDecl.getType();
+                if (type != null) {
+                    JavaType.FullyQualified superclass = type.getSupertype();
+                    report.insertRow(ctx, new TypeHierarchyReport.Row(sourcePath, type.getFullyQualifiedName(),
+                            superclass != null ? superclass.getFullyQualifiedName() : "",
+                            type.getInterfaces().stream().map(JavaType.FullyQualified::getFullyQualifiedName)
+                                    .collect(Collectors.joining(TYPE_SEPARATOR)),
+                            String.join(TYPE_SEPARATOR, supertypes(type))));
+                }
+                return super.visitClassDeclaration(classDecl, ctx);
+            }
+        };
+    }
+
+    /**
+     * Returns the fully qualified names of all the supertypes of a type, the superclasses first.
+     */
+    static Set<String> supertypes(JavaType.FullyQualified type) {
+        Set<String> supertypes = new LinkedHashSet<>();
+        collectSupertypes(type, supertypes);
+        return supertypes;
+    }
+
+    private static void collectSupertypes(JavaType.@Nullable FullyQualified type, Set<String> supertypes) {
+        if (type == null) {
+            return;
+        }
+        JavaType.FullyQualified superclass = type.getSupertype();
+        if (superclass != null && supertypes.add(superclass.getFullyQualifiedName())) {
+            collectSupertypes(superclass, supertypes);
+        }
+        for (JavaType.FullyQualified anInterface : type.getInterfaces()) {
+            // A type already visited is not walked again, which also cuts an invalid cycle
+            if (supertypes.add(anInterface.getFullyQualifiedName())) {
+                collectSupertypes(anInterface, supertypes);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package dev.snowdrop.mtool.openrewrite.java.table;
+
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+public class JavaSymbolsReport extends DataTable<JavaSymbolsReport.Row> {
+    public JavaSymbolsReport(Recipe recipe) {
+        super(recipe, "Java symbols report",
+                "Records the Java symbols (annotations, types, methods, imports, classes) matching a pattern.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Match ID", description = "ID of the matching tool used to reconcile the information.")
+        String matchId;
+
+        @Column(displayName = "Symbol searched", description = "Symbol about what we search about: annotation, type, method, import or class.")
+        String symbol;
+
+        @Column(displayName = "A symbol pattern", description = "The pattern of the symbol searched.")
+        String pattern;
+
+        @Column(displayName = "Source file path", description = "Path of the source file where a match found")
+        String sourceFilePath;
+
+        @Column(displayName = "FQName of the Class", description = "FQName of the Class containing the symbol we search.")
+        String className;
+
+        @Column(displayName = "Symbol matched", description = "The symbol matching the pattern: annotation or type FQName, method called, import, etc.")
+        String match;
+    }
+}
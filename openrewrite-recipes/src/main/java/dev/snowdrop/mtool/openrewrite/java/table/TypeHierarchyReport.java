@@ -0,0 +1,31 @@
+package dev.snowdrop.mtool.openrewrite.java.table;
+
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+public class TypeHierarchyReport extends DataTable<TypeHierarchyReport.Row> {
+    public TypeHierarchyReport(Recipe recipe) {
+        super(recipe, "Type hierarchy report",
+                "Records the classes declared by the project with their direct and transitive supertypes.");
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Source file path", description = "Path of the source file declaring the class.")
+        String sourcePath;
+
+        @Column(displayName = "FQName of the Class", description = "FQName of the class declared.")
+        String className;
+
+        @Column(displayName = "Superclass", description = "FQName of the direct superclass of the class.")
+        String superclass;
+
+        @Column(displayName = "Interfaces", description = "FQNames of the interfaces directly implemented or extended by the class, separated by a comma.")
+        String interfaces;
+
+        @Column(displayName = "Supertypes", description = "FQNames of all the supertypes of the class, including the ones declared by the libraries, separated by a comma.")
+        String supertypes;
+    }
+}
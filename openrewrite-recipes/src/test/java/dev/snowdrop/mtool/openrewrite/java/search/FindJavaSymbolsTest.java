@@ -0,0 +1,71 @@
+package dev.snowdrop.mtool.openrewrite.java.search;
+
+import dev.snowdrop.mtool.openrewrite.java.table.JavaSymbolsReport;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.test.RewriteTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.openrewrite.java.Assertions.java;
+
+public class FindJavaSymbolsTest implements RewriteTest {
+    @Test
+    public void testFindJavaSymbolsWithinOnePass() {
+
+        FindJavaSymbols findJavaSymbols = new FindJavaSymbols(String.join(FindJavaSymbols.ENTRY_SEPARATOR,
+                "match-annotation|annotation|@java.lang.Deprecated", "match-method|method|java.util.List add(..)",
+                "match-import|import|java.util.*", "match-class|class|HomeCinema",
+                "match-type|type|java.util.ArrayList", "match-none|method|java.util.Map put(..)"));
+
+        rewriteRun(spec -> spec.dataTableAsCsv(JavaSymbolsReport.class, """
+                matchId,symbol,pattern,sourceFilePath,className,match
+                match-type,type,java.util.ArrayList,HomeCinema.java,HomeCinema,java.util.ArrayList
+                match-import,import,java.util.*,HomeCinema.java,HomeCinema,java.util.ArrayList
+                match-import,import,java.util.*,HomeCinema.java,HomeCinema,java.util.List
+                match-class,class,HomeCinema,HomeCinema.java,HomeCinema,HomeCinema
+                match-annotation,annotation,@java.lang.Deprecated,HomeCinema.java,HomeCinema,java.lang.Deprecated
+                match-method,method,java.util.List add(..),HomeCinema.java,HomeCinema,java.util.List add
+                """).recipe(findJavaSymbols), java("""
+                import java.util.ArrayList;
+                import java.util.List;
+
+                @Deprecated
+                public class HomeCinema {
+                    List<String> films = new ArrayList<>();
+
+                    void add() {
+                        films.add("Alien");
+                    }
+                }
+                """));
+    }
+
+    @Test
+    public void testPackagePatternsMatchAllTheTypesOfThePackage() {
+        FindJavaSymbols findJavaSymbols = new FindJavaSymbols(String.join(FindJavaSymbols.ENTRY_SEPARATOR,
+                "match-package|import|java.util..", "match-wildcard|import|java.util.*"));
+
+        rewriteRun(spec -> spec.dataTableAsCsv(JavaSymbolsReport.class, """
+                matchId,symbol,pattern,sourceFilePath,className,match
+                match-package,import,java.util..,HomeCinema.java,HomeCinema,java.util.concurrent.ConcurrentHashMap
+                match-package,import,java.util..,HomeCinema.java,HomeCinema,java.util.List
+                match-wildcard,import,java.util.*,HomeCinema.java,HomeCinema,java.util.List
+                """).recipe(findJavaSymbols), java("""
+                import java.util.concurrent.ConcurrentHashMap;
+                import java.util.List;
+
+                public class HomeCinema {
+                    List<String> films = List.of();
+                    ConcurrentHashMap<String, String> ratings = new ConcurrentHashMap<>();
+                }
+                """));
+    }
+
+    @Test
+    public void testSymbolsAreIndexedBySimpleName() {
+        assertEquals("Deprecated", FindJavaSymbols.annotationName("@java.lang.Deprecated(since=\"9\")"));
+        assertEquals("add", FindJavaSymbols.methodName("java.util.List add(..)"));
+        assertEquals("List", FindJavaSymbols.simpleName("java.util.List"));
+        assertEquals(true, FindJavaSymbols.globToRegex("org.acme..*").matcher("org.acme.api.Foo").matches());
+        assertEquals(false, FindJavaSymbols.globToRegex("org.acme.*").matcher("org.acme.api.Foo").matches());
+    }
+}
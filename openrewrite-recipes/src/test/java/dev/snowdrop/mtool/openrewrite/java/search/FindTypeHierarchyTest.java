@@ -0,0 +1,34 @@
+package dev.snowdrop.mtool.openrewrite.java.search;
+
+import dev.snowdrop.mtool.openrewrite.java.table.TypeHierarchyReport;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.test.RewriteTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.openrewrite.java.Assertions.java;
+
+public class FindTypeHierarchyTest implements RewriteTest {
+    @Test
+    public void testSupertypesOfTheLibrariesAreFound() {
+        rewriteRun(spec -> spec.recipe(new FindTypeHierarchy()).dataTable(TypeHierarchyReport.Row.class, rows -> {
+            assertEquals(2, rows.size());
+            TypeHierarchyReport.Row homeCinema = rows.stream().filter(r -> r.getClassName().equals("HomeCinema"))
+                    .findFirst().orElseThrow();
+            assertEquals("Films", homeCinema.getSuperclass());
+            assertEquals("", homeCinema.getInterfaces());
+            // java.io.Closeable extends java.lang.AutoCloseable, which is not declared by the project
+            assertEquals(List.of("Films", "java.lang.Object", "java.io.Closeable", "java.lang.AutoCloseable"),
+                    List.of(homeCinema.getSupertypes().split(FindTypeHierarchy.TYPE_SEPARATOR)));
+        }), java("""
+                public class Films implements java.io.Closeable {
+                    public void close() {
+                    }
+                }
+                """), java("""
+                public class HomeCinema extends Films {
+                }
+                """));
+    }
+}
@@ -0,0 +1,107 @@
+package dev.snowdrop.mtool.parser;
+
+import dev.snowdrop.mtool.model.parser.Query;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Compiled form of a query keeping the structure of the expression: a tree of AND and OR nodes whose leaves are the
+ * clauses to be executed by the scanners.
+ * <p>
+ * The plans are built by {@link QueryPlanBuilder}: the nested operations using the same operator are flattened
+ * ({@code A AND (B AND C)} becomes {@code AND(A, B, C)}) and the identical sub-expressions are shared, so that they
+ * have the same id and only need to be evaluated once.
+ */
+public sealed interface QueryPlan permits QueryPlan.Leaf, QueryPlan.And, QueryPlan.Or {
+
+    /**
+     * Unique id of the node within the plan. Identical sub-expressions share the same id.
+     */
+    int id();
+
+    List<QueryPlan> children();
+
+    /**
+     * Returns the distinct queries of the plan using the order in which they appear within the expression.
+     */
+    default Set<Query> queries() {
+        Set<Query> queries = new LinkedHashSet<>();
+        collectQueries(this, queries);
+        return queries;
+    }
+
+    private static void collectQueries(QueryPlan node, Set<Query> queries) {
+        if (node instanceof Leaf leaf) {
+            queries.add(leaf.query());
+        } else {
+            node.children().forEach(child -> collectQueries(child, queries));
+        }
+    }
+
+    /**
+     * Returns a short description of the node, e.g. {@code java.annotation is {name=Foo}} or {@code AND}.
+     */
+    String describe();
+
+    record Leaf(int id, Query query) implements QueryPlan {
+        @Override
+        public List<QueryPlan> children() {
+            return List.of();
+        }
+
+        @Override
+        public String describe() {
+            StringBuilder sb = new StringBuilder();
+            if (query.operation() != null && !query.operation().isEmpty()) {
+                sb.append(query.operation()).append(" ");
+            }
+            sb.append(query.fileType());
+            if (query.symbol() != null && !query.symbol().isEmpty()) {
+                sb.append(".").append(query.symbol());
+            }
+            if (query.keyValues() != null && !query.keyValues().isEmpty()) {
+                sb.append(" is ").append(new TreeMap<>(query.keyValues()));
+            }
+            return sb.toString();
+        }
+    }
+
+    record And(int id, List<QueryPlan> children) implements QueryPlan {
+        public And {
+            children = List.copyOf(children);
+        }
+
+        @Override
+        public String describe() {
+            return "AND";
+        }
+    }
+
+    record Or(int id, List<QueryPlan> children) implements QueryPlan {
+        public Or {
+            children = List.copyOf(children);
+        }
+
+        @Override
+        public String describe() {
+            return "OR";
+        }
+    }
+
+    /**
+     * Returns the expression of the plan, e.g. {@code (java.annotation is {name=A} AND pom.dependency is {...})}
+     */
+    static String toExpression(QueryPlan plan) {
+        if (plan instanceof Leaf leaf) {
+            return leaf.describe();
+        }
+        List<String> parts = new ArrayList<>();
+        plan.children().forEach(child -> parts.add(toExpression(child)));
+        return parts.stream().collect(Collectors.joining(" " + plan.describe() + " ", "(", ")"));
+    }
+}
@@ -0,0 +1,74 @@
+package dev.snowdrop.mtool.parser;
+
+import dev.snowdrop.mtool.model.parser.Query;
+import dev.snowdrop.mtool.parser.antlr.QueryBaseVisitor;
+import dev.snowdrop.mtool.parser.antlr.QueryParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Visitor building the {@link QueryPlan} of a query.
+ * <p>
+ * The nodes are interned: a clause or an operation appearing several times within the query is compiled as one node
+ * (common sub-expression elimination).
+ */
+public class QueryPlanBuilder extends QueryBaseVisitor<QueryPlan> {
+
+    private final Map<Object, QueryPlan> nodes = new HashMap<>();
+    private int nextId = 1;
+
+    private record OperationKey(String operator, List<Integer> childIds) {
+    }
+
+    @Override
+    public QueryPlan visitSearchQuery(QueryParser.SearchQueryContext ctx) {
+        return visit(ctx.operation());
+    }
+
+    @Override
+    public QueryPlan visitAndOperation(QueryParser.AndOperationContext ctx) {
+        return operation("AND", ctx.operation());
+    }
+
+    @Override
+    public QueryPlan visitOrOperation(QueryParser.OrOperationContext ctx) {
+        return operation("OR", ctx.operation());
+    }
+
+    @Override
+    public QueryPlan visitSimpleClause(QueryParser.SimpleClauseContext ctx) {
+        Query query = QueryVisitor.toQuery(ctx.clause());
+        return nodes.computeIfAbsent(query, q -> new QueryPlan.Leaf(nextId++, query));
+    }
+
+    private QueryPlan operation(String operator, List<QueryParser.OperationContext> operands) {
+        // Flatten the operands using the same operator and remove the duplicates: A AND (B AND A) -> AND(A, B)
+        Set<QueryPlan> children = new LinkedHashSet<>();
+        for (QueryParser.OperationContext operand : operands) {
+            QueryPlan child = visit(operand);
+            if (child == null) {
+                continue;
+            }
+            if (child.describe().equals(operator)) {
+                children.addAll(child.children());
+            } else {
+                children.add(child);
+            }
+        }
+
+        if (children.size() == 1) {
+            return children.iterator().next();
+        }
+
+        List<QueryPlan> childList = new ArrayList<>(children);
+        OperationKey key = new OperationKey(operator, childList.stream().map(QueryPlan::id).toList());
+        return nodes.computeIfAbsent(key, k -> "AND".equals(operator)
+                ? new QueryPlan.And(nextId++, childList)
+                : new QueryPlan.Or(nextId++, childList));
+    }
+}
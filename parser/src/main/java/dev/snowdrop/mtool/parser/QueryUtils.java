@@ -3,6 +3,7 @@ package dev.snowdrop.mtool.parser;
 import dev.snowdrop.mtool.parser.antlr.QueryLexer;
 import dev.snowdrop.mtool.parser.antlr.QueryParser;
 import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.tree.ParseTree;
 
@@ -31,4 +32,24 @@ public class QueryUtils {
             return new QueryVisitor();
         }
     }
+
+    /**
+     * Compiles the query into a {@link QueryPlan} keeping the structure of the AND/OR operations.
+     *
+     * @param query the query to compile
+     * @return the plan or null if the query cannot be compiled
+     */
+    public static QueryPlan compile(String query) {
+        try {
+            QueryLexer lexer = new QueryLexer(CharStreams.fromString(query));
+            QueryParser parser = new QueryParser(new CommonTokenStream(lexer));
+            ParseTree tree = parser.searchQuery();
+
+            return new QueryPlanBuilder().visit(tree);
+        } catch (Exception e) {
+            System.err.println("Error compiling query: " + query);
+            e.printStackTrace();
+            return null;
+        }
+    }
 }
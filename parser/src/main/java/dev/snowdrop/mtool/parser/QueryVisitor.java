@@ -52,7 +52,24 @@ public class QueryVisitor extends QueryBaseVisitor<Set<Query>> {
 
     @Override
     public Set<Query> visitSimpleClause(QueryParser.SimpleClauseContext ctx) {
-        QueryParser.ClauseContext cctx = ctx.clause();
+        Query qr = toQuery(ctx.clause());
+
+        // Only add to simpleQueries if this clause is not part of an AND or OR operation
+        if (!inAndOperation && !inOrOperation) {
+            simpleQueries.add(qr);
+        }
+
+        // Create a temporary set to return this single query
+        Set<Query> result = new LinkedHashSet<>();
+        result.add(qr);
+
+        return result;
+    }
+
+    /**
+     * Converts the clause of the parse tree into its Query
+     */
+    static Query toQuery(QueryParser.ClauseContext cctx) {
         Map<String, String> keyValuePairs = new HashMap<>();
         String operation = "";
 
@@ -74,25 +91,14 @@ public class QueryVisitor extends QueryBaseVisitor<Set<Query>> {
             }
         }
 
-        Query qr = new Query(cctx.fileType().getText(), cctx.symbol() != null ? cctx.symbol().getText() : "", operation,
+        return new Query(cctx.fileType().getText(), cctx.symbol() != null ? cctx.symbol().getText() : "", operation,
                 keyValuePairs);
-
-        // Only add to simpleQueries if this clause is not part of an AND or OR operation
-        if (!inAndOperation && !inOrOperation) {
-            simpleQueries.add(qr);
-        }
-
-        // Create a temporary set to return this single query
-        Set<Query> result = new LinkedHashSet<>();
-        result.add(qr);
-
-        return result;
     }
 
     /**
      * Returns an appropriate default key for a given symbol type when no explicit key is provided
      */
-    private String getDefaultKeyForSymbol(String symbol) {
+    private static String getDefaultKeyForSymbol(String symbol) {
         return switch (symbol.toLowerCase()) {
             case "annotation" -> "name";
             case "dependency" -> "artifactId";
@@ -107,7 +113,7 @@ public class QueryVisitor extends QueryBaseVisitor<Set<Query>> {
     /**
      * Removes both single and double quotes from the beginning and end of a string
      */
-    private String removeQuotes(String value) {
+    private static String removeQuotes(String value) {
         if (value == null || value.length() < 2) {
             return value;
         }
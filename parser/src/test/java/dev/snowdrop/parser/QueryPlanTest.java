@@ -0,0 +1,71 @@
+package dev.snowdrop.parser;
+
+import dev.snowdrop.mtool.model.parser.Query;
+import dev.snowdrop.mtool.parser.QueryPlan;
+import dev.snowdrop.mtool.parser.QueryUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class QueryPlanTest {
+
+    private static final Query SPRING_BOOT_APP = new Query("java", "annotation", "",
+            Map.of("name", "@SpringBootApplication"));
+    private static final Query REST_CONTROLLER = new Query("java", "annotation", "",
+            Map.of("name", "@RestController"));
+    private static final Query SPRING_BOOT_DEP = new Query("pom", "dependency", "",
+            Map.of("artifactId", "spring-boot"));
+
+    @Test
+    public void simpleQueryIsCompiledAsLeaf() {
+        QueryPlan plan = QueryUtils.compile("java.annotation is '@SpringBootApplication'");
+
+        QueryPlan.Leaf leaf = Assertions.assertInstanceOf(QueryPlan.Leaf.class, plan);
+        Assertions.assertEquals(SPRING_BOOT_APP, leaf.query());
+    }
+
+    @Test
+    public void mixedQueryKeepsOperatorPrecedence() {
+        QueryPlan plan = QueryUtils.compile("java.annotation is '@SpringBootApplication' AND pom.dependency is "
+                + "spring-boot OR java.annotation is '@RestController'");
+
+        QueryPlan.Or or = Assertions.assertInstanceOf(QueryPlan.Or.class, plan);
+        Assertions.assertEquals(2, or.children().size());
+
+        QueryPlan.And and = Assertions.assertInstanceOf(QueryPlan.And.class, or.children().get(0));
+        Assertions.assertEquals(SPRING_BOOT_APP, ((QueryPlan.Leaf) and.children().get(0)).query());
+        Assertions.assertEquals(SPRING_BOOT_DEP, ((QueryPlan.Leaf) and.children().get(1)).query());
+        Assertions.assertEquals(REST_CONTROLLER, ((QueryPlan.Leaf) or.children().get(1)).query());
+    }
+
+    @Test
+    public void sameOperatorIsFlattened() {
+        QueryPlan plan = QueryUtils.compile("java.annotation is '@SpringBootApplication' AND pom.dependency is "
+                + "spring-boot AND java.annotation is '@RestController'");
+
+        QueryPlan.And and = Assertions.assertInstanceOf(QueryPlan.And.class, plan);
+        Assertions.assertEquals(3, and.children().size());
+    }
+
+    @Test
+    public void commonSubExpressionsAreShared() {
+        QueryPlan plan = QueryUtils.compile("pom.dependency is spring-boot AND java.annotation is "
+                + "'@SpringBootApplication' OR pom.dependency is spring-boot AND java.annotation is '@RestController'");
+
+        QueryPlan.Or or = Assertions.assertInstanceOf(QueryPlan.Or.class, plan);
+        QueryPlan first = or.children().get(0).children().get(0);
+        QueryPlan second = or.children().get(1).children().get(0);
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(3, plan.queries().size());
+    }
+
+    @Test
+    public void duplicatedClauseIsRemoved() {
+        QueryPlan plan = QueryUtils.compile(
+                "java.annotation is '@SpringBootApplication' OR java.annotation is '@SpringBootApplication'");
+
+        Assertions.assertInstanceOf(QueryPlan.Leaf.class, plan);
+    }
+}
@@ -70,4 +70,16 @@ public class SimpleQueryTest {
         Assert.assertTrue(queries.size() == 1);
         Assertions.assertTrue(queries.contains(expectedQuery));
     }
+
+    @Test
+    public void shouldParseAClassHierarchyQuery() {
+        String classQuery = "java.class is (extends='org.springframework.data.repository.CrudRepository')";
+        QueryVisitor visitor = queryParserUtil.parseQuery(classQuery);
+        Query expectedQuery = new Query("java", "class", "",
+                Map.of("extends", "org.springframework.data.repository.CrudRepository"));
+
+        Set<Query> queries = visitor.getSimpleQueries();
+        Assert.assertTrue(queries.size() == 1);
+        Assertions.assertTrue(queries.contains(expectedQuery));
+    }
 }
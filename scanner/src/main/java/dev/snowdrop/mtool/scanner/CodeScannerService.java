@@ -5,38 +5,89 @@ import dev.snowdrop.mtool.model.analyze.Plan;
 import dev.snowdrop.mtool.model.analyze.Result;
 import dev.snowdrop.mtool.model.analyze.Rule;
 import dev.snowdrop.mtool.model.parser.Query;
+import dev.snowdrop.mtool.parser.QueryPlan;
 import dev.snowdrop.mtool.parser.QueryUtils;
-import dev.snowdrop.mtool.parser.QueryVisitor;
+import dev.snowdrop.mtool.scanner.metrics.ScanMetrics;
+import dev.snowdrop.mtool.scanner.sink.ResultSink;
 import org.jboss.logging.Logger;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class CodeScannerService {
     private static final Logger logger = Logger.getLogger(CodeScannerService.class);
     private final Config config;
     private final ScanCommandExecutor scanCommandExecutor;
+    private boolean fullEvaluation = false;
 
     public CodeScannerService(Config config, ScanCommandExecutor scanCommandExecutor) {
         this.config = config;
         this.scanCommandExecutor = scanCommandExecutor;
     }
 
+    /**
+     * By default, the clauses of an AND condition are executed starting with the cheapest scanners and the
+     * evaluation stops as soon as a clause doesn't match. The full evaluation executes all the clauses, using their
+     * order within the condition, to report all their results.
+     *
+     * @param fullEvaluation true to execute all the clauses of the AND conditions
+     * @return this service
+     */
+    public CodeScannerService withFullEvaluation(boolean fullEvaluation) {
+        this.fullEvaluation = fullEvaluation;
+        return this;
+    }
+
+    /**
+     * Collects the queries of the preconditions and conditions of the rules and pass them to the scanners before the
+     * rules are scanned, so that a scanner can process all its queries within one pass.
+     *
+     * @param rules the rules of the run
+     */
+    public void prepare(List<Rule> rules) {
+        Set<Query> queries = new LinkedHashSet<>();
+        for (Rule rule : rules) {
+            if (rule.when() == null) {
+                continue;
+            }
+            collectQueries(rule.when().precondition(), queries);
+            collectQueries(rule.when().condition(), queries);
+        }
+        scanCommandExecutor.prepareQueries(config, queries);
+    }
+
+    private static void collectQueries(String query, Set<Query> queries) {
+        if (query == null || query.trim().isEmpty()) {
+            return;
+        }
+        QueryPlan plan = QueryUtils.compile(query);
+        if (plan != null) {
+            queries.addAll(plan.queries());
+        }
+    }
+
     public ScanningResult scan(Plan plan) {
         if (plan == null || plan.getQueries() == null || plan.getQueries().isEmpty()) {
             throw new RuntimeException("Plan cannot be empty !");
         }
 
+        Set<Query> queries = new LinkedHashSet<>();
+        plan.getQueries().forEach(q -> collectQueries(q, queries));
+        scanCommandExecutor.prepareQueries(config, queries);
+
         String planName = plan.getName() != null ? plan.getName() : "plan";
         Map<String, List<Result>> allResults = new HashMap<>();
 
         for (int i = 0; i < plan.getQueries().size(); i++) {
             String queryStr = plan.getQueries().get(i);
             String id = String.format("%s :: %s", planName, plan.getQueries().get(i));
-            ScanningResult sr = executeQueryWithVisitor(id, QueryUtils.parseAndVisit(queryStr));
+            ScanningResult sr = ScanMetrics.ruleTimer(id).record(() -> execute(id, QueryUtils.compile(queryStr), null));
             if (sr.getResults() != null) {
                 allResults.putAll(sr.getResults());
             }
@@ -44,16 +95,52 @@ public class CodeScannerService {
         return new ScanningResult(allResults);
     }
 
+    /**
+     * Executes the queries of the plan and passes their results to the sink as soon as they are found, instead of
+     * keeping them in memory. The results of a query made of several clauses are forwarded once the query has been
+     * evaluated.
+     *
+     * @param plan the plan to execute
+     * @param sink the sink receiving the results, using as id: {@code <plan name> :: <query>}
+     */
+    public void scan(Plan plan, ResultSink sink) {
+        if (plan == null || plan.getQueries() == null || plan.getQueries().isEmpty()) {
+            throw new RuntimeException("Plan cannot be empty !");
+        }
+
+        Set<Query> queries = new LinkedHashSet<>();
+        plan.getQueries().forEach(q -> collectQueries(q, queries));
+        scanCommandExecutor.prepareQueries(config, queries);
+
+        String planName = plan.getName() != null ? plan.getName() : "plan";
+        for (String queryStr : plan.getQueries()) {
+            String id = String.format("%s :: %s", planName, queryStr);
+            sink.begin(id);
+            QueryPlan queryPlan = QueryUtils.compile(queryStr);
+            ScanMetrics.ruleTimer(id).record(() -> {
+                if (queryPlan instanceof QueryPlan.Leaf leaf) {
+                    scanCommandExecutor.streamCommandForQuery(config, leaf.query(), result -> sink.accept(id, result));
+                } else {
+                    ScanningResult sr = execute(id, queryPlan, null);
+                    sr.getResults().getOrDefault(id, List.of()).forEach(result -> sink.accept(id, result));
+                }
+            });
+        }
+    }
+
     public ScanningResult scan(Rule rule) {
+        return ScanMetrics.ruleTimer(rule.ruleID()).record(() -> scanRule(rule));
+    }
 
+    private ScanningResult scanRule(Rule rule) {
         /*
          * Check for precondition before processing the main condition
          * If the precondition succeeded, then we continue to parse the rules
          * Otherwise we throw an exception to tell to the user that we cannot analyze the application
          */
         if (rule.when().precondition() != null && !rule.when().precondition().trim().isEmpty()) {
-            QueryVisitor preconditionVisitor = QueryUtils.parseAndVisit(rule.when().precondition());
-            ScanningResult preconditionResult = executeQueryWithVisitor(preconditionVisitor, rule);
+            QueryPlan preconditionPlan = QueryUtils.compile(rule.when().precondition());
+            ScanningResult preconditionResult = execute(rule.ruleID(), preconditionPlan, null);
 
             if (preconditionResult.isMatchSucceeded()) {
                 logger.warnf("Precondition matched for rule %s: %s", rule.ruleID(), rule.when().precondition());
@@ -66,109 +153,121 @@ public class CodeScannerService {
             }
         }
 
-        return executeQueryWithVisitor(QueryUtils.parseAndVisit(rule.when().condition()), rule);
+        return execute(rule.ruleID(), QueryUtils.compile(rule.when().condition()), null);
     }
 
-    private ScanningResult executeQueryWithVisitor(String id, QueryVisitor visitor) {
+    /**
+     * Executes the compiled plan of a query and returns the scanning result.
+     * <p>
+     * Handle the 3 supported nodes of the plan:
+     * <p>
+     * - A clause: java.annotation is '@SpringBootApplication'
+     * <p>
+     * - Clauses separated with the OR operator: all the clauses are executed and their results aggregated.
+     * <p>
+     * - Clauses separated with the AND operator: the clauses are executed starting with the cheapest one and the
+     * evaluation stops at the first clause not matching, except if the full evaluation has been requested.
+     * <p>
+     * A node shared by several parts of the plan is only evaluated once.
+     * See grammar definition:
+     * https://raw.githubusercontent.com/snowdrop/migration-tool/refs/heads/main/parser/src/main/antlr4/Query.g4
+     *
+     * @param id the id under which the results are reported (e.g. the rule ID)
+     * @param plan the plan to be executed
+     * @param profile the profile collecting the time spent and matches per node or null
+     * @return ScanningResult containing the match status and results
+     */
+    public ScanningResult execute(String id, QueryPlan plan, PlanProfile profile) {
         Map<String, List<Result>> results = new HashMap<>();
+        if (plan == null) {
+            logger.warnf("Rule %s has no valid condition(s)", id);
+            results.put(id, Collections.emptyList());
+            return new ScanningResult(false, results);
+        }
 
-        if (!visitor.getSimpleQueries().isEmpty()) {
-            List<Result> aggregatedResults = new ArrayList<>();
+        Evaluation evaluation = evaluate(plan, new HashMap<>(), profile);
+        results.put(id, evaluation.results());
+        return new ScanningResult(evaluation.matched(), results);
+    }
 
-            for (Query q : visitor.getSimpleQueries()) {
-                List<Result> partial = scanCommandExecutor.executeCommandForQuery(config, q);
-                if (partial != null && !partial.isEmpty()) {
-                    aggregatedResults.addAll(partial);
-                }
-            }
-            results.put(id, aggregatedResults);
+    /**
+     * Returns the order in which the children of a node will be evaluated.
+     */
+    public List<QueryPlan> executionOrder(QueryPlan node) {
+        List<QueryPlan> children = new ArrayList<>(node.children());
+        if (node instanceof QueryPlan.And && !fullEvaluation) {
+            // Stable sort: clauses having the same cost keep the order of the condition
+            children.sort(Comparator.comparingInt(this::estimateCost));
         }
-
-        return new ScanningResult(results);
+        return children;
     }
 
     /**
-     * Executes the query using the visitor pattern and returns the scanning result.
-     * This method handles the different types of queries (simple, OR, AND) and their execution logic.
-     *
-     * @param visitor the QueryVisitor containing the parsed query information
-     * @param rule the rule being processed
-     * @return ScanningResult containing the match status and results
+     * Estimates the relative cost of a node: the cost of the scanner for a clause, the sum of the cost of the
+     * children otherwise.
      */
-    private ScanningResult executeQueryWithVisitor(QueryVisitor visitor, Rule rule) {
-        Map<String, List<Result>> results = new HashMap<>();
-        boolean matchSucceeded = false;
+    public int estimateCost(QueryPlan node) {
+        if (node instanceof QueryPlan.Leaf leaf) {
+            return scanCommandExecutor.estimateCost(config, leaf.query());
+        }
+        long cost = 0;
+        for (QueryPlan child : node.children()) {
+            cost += estimateCost(child);
+        }
+        return (int) Math.min(cost, Integer.MAX_VALUE);
+    }
 
-        /*
-         * Handle the 3 supported cases where the query contains:
-         *
-         * - One clause: java.annotation is '@SpringBootApplication'
-         *
-         * - Clauses separated with the OR operator:
-         *
-         * java.annotation is '@SpringBootApplication' OR java.annotation is '@Deprecated'
-         *
-         * - Clauses separated with the AND operator:
-         *
-         * java.annotation is '@SpringBootApplication' AND pom.dependency is (groupId='org.springframework.boot',
-         * artifactId='spring-boot', version='3.4.2')
-         *
-         * See grammar definition:
-         * https://raw.githubusercontent.com/snowdrop/migration-tool/refs/heads/main/parser/src/main/antlr4/Query.g4
-         */
+    private record Evaluation(boolean matched, List<Result> results) {
+    }
 
-        if (!visitor.getSimpleQueries().isEmpty()) {
-            List<Result> aggregatedResults = new ArrayList<>();
+    private Evaluation evaluate(QueryPlan node, Map<Integer, Evaluation> evaluated, PlanProfile profile) {
+        Evaluation previous = evaluated.get(node.id());
+        if (previous != null) {
+            return previous;
+        }
 
-            for (Query q : visitor.getSimpleQueries()) {
-                List<Result> partial = scanCommandExecutor.executeCommandForQuery(config, q);
-                if (partial != null && !partial.isEmpty()) {
-                    aggregatedResults.addAll(partial);
-                }
+        long start = System.nanoTime();
+        Evaluation evaluation = switch (node) {
+            case QueryPlan.Leaf leaf -> {
+                List<Result> partial = scanCommandExecutor.executeCommandForQuery(config, leaf.query());
+                List<Result> matches = partial != null ? partial : List.of();
+                yield new Evaluation(!matches.isEmpty(), matches);
             }
-
-            results.put(rule.ruleID(), aggregatedResults);
-            matchSucceeded = !aggregatedResults.isEmpty();
-        } else if (!visitor.getOrQueries().isEmpty()) {
-            List<Result> aggregated = new ArrayList<>();
-
-            for (Query q : visitor.getOrQueries()) {
-                List<Result> partial = scanCommandExecutor.executeCommandForQuery(config, q);
-
-                if (partial != null && !partial.isEmpty()) {
-                    aggregated.addAll(partial);
+            case QueryPlan.Or or -> {
+                List<Result> aggregated = new ArrayList<>();
+                boolean anyMatched = false;
+                for (QueryPlan child : executionOrder(or)) {
+                    Evaluation childEvaluation = evaluate(child, evaluated, profile);
+                    aggregated.addAll(childEvaluation.results());
+                    anyMatched |= childEvaluation.matched();
                 }
+                yield new Evaluation(anyMatched, aggregated);
             }
+            case QueryPlan.And and -> {
+                List<Result> andResults = new ArrayList<>();
+                boolean allMatched = true;
+                for (QueryPlan child : executionOrder(and)) {
+                    Evaluation childEvaluation = evaluate(child, evaluated, profile);
+                    andResults.addAll(childEvaluation.results());
 
-            results.put(rule.ruleID(), aggregated);
-            matchSucceeded = aggregated.stream().anyMatch(r -> r != null);
-        } else if (!visitor.getAndQueries().isEmpty()) {
-            boolean allMatched = true;
-            List<Result> andResults = new ArrayList<>();
-
-            for (Query q : visitor.getAndQueries()) {
-
-                List<Result> partial = scanCommandExecutor.executeCommandForQuery(config, q);
-                andResults.addAll(partial);
-
-                // If any subquery has no results, the AND fails.
-                if (partial.isEmpty()) {
-                    allMatched = false;
+                    // If any subquery has no results, the AND fails.
+                    if (!childEvaluation.matched()) {
+                        allMatched = false;
+                        if (!fullEvaluation) {
+                            logger.debugf("Clause %s didn't match, skipping the remaining clauses", child.describe());
+                            break;
+                        }
+                    }
                 }
+                yield new Evaluation(allMatched, andResults);
             }
+        };
 
-            results.merge(rule.ruleID(), andResults, (existing, newOnes) -> {
-                List<Result> combined = new ArrayList<>(existing);
-                combined.addAll(newOnes);
-                return combined;
-            });
-
-            matchSucceeded = allMatched;
-        } else {
-            logger.warnf("Rule %s has no valid condition(s)", rule.ruleID());
-            results.put(rule.ruleID(), Collections.emptyList());
+        evaluated.put(node.id(), evaluation);
+        if (profile != null) {
+            profile.record(node, System.nanoTime() - start, evaluation.results().size(), evaluation.matched());
         }
-        return new ScanningResult(matchSucceeded, results);
+        return evaluation;
     }
 
 }
@@ -0,0 +1,59 @@
+package dev.snowdrop.mtool.scanner;
+
+import dev.snowdrop.mtool.model.analyze.Config;
+import dev.snowdrop.mtool.model.analyze.Result;
+import dev.snowdrop.mtool.model.parser.Query;
+import dev.snowdrop.mtool.scanner.metrics.ScanMetrics;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A scanner whose matches only depend on the content of each file scanned, independently of the other files of the
+ * project (e.g. tree-sitter queries, content search). Such a scanner can be used incrementally: only the files added
+ * or changed since the previous run need to be scanned again.
+ */
+public interface FileScopedQueryScanner extends QueryScanner {
+
+    /**
+     * Returns the files of the project to be scanned for the query.
+     *
+     * @param config the configuration context
+     * @param query the query to execute
+     * @return the absolute paths of the files
+     */
+    List<Path> findSourceFiles(Config config, Query query);
+
+    /**
+     * Scans the given files.
+     *
+     * @param config the configuration context
+     * @param query the query to execute
+     * @param files the files to scan, part of the ones returned by {@link #findSourceFiles(Config, Query)}
+     * @return the results per file. A file without match can be absent of the map
+     */
+    Map<Path, List<Result>> scanFiles(Config config, Query query, List<Path> files);
+
+    @Override
+    default List<Result> scansCodeFor(Config config, Query query) {
+        List<Result> results = new ArrayList<>();
+        List<Path> files = findSourceFiles(config, query);
+        scanFiles(config, query, files).values().forEach(results::addAll);
+        ScanMetrics.recordFiles(getScannerType(), files);
+        return results;
+    }
+
+    /**
+     * Scans the files one by one, so that only the results of one file are kept in memory.
+     */
+    @Override
+    default void scansCodeFor(Config config, Query query, Consumer<Result> consumer) {
+        for (Path file : findSourceFiles(config, query)) {
+            scanFiles(config, query, List.of(file)).values().forEach(results -> results.forEach(consumer));
+            ScanMetrics.recordFiles(getScannerType(), List.of(file));
+        }
+    }
+}
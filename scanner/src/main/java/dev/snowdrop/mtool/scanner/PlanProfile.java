@@ -0,0 +1,30 @@
+package dev.snowdrop.mtool.scanner;
+
+import dev.snowdrop.mtool.parser.QueryPlan;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects, for each node of a {@link QueryPlan} executed, the time spent and the number of matches found. A node not
+ * part of the profile has not been executed (e.g. a clause skipped as another clause of an AND didn't match).
+ */
+public class PlanProfile {
+
+    public record NodeStats(long elapsedNanos, int matches, boolean matched) {
+        public long elapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+    }
+
+    private final Map<Integer, NodeStats> statsPerNode = new ConcurrentHashMap<>();
+
+    void record(QueryPlan node, long elapsedNanos, int matches, boolean matched) {
+        statsPerNode.put(node.id(), new NodeStats(elapsedNanos, matches, matched));
+    }
+
+    public Optional<NodeStats> get(QueryPlan node) {
+        return Optional.ofNullable(statsPerNode.get(node.id()));
+    }
+}
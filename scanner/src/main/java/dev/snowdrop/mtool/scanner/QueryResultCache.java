@@ -0,0 +1,118 @@
+package dev.snowdrop.mtool.scanner;
+
+import dev.snowdrop.mtool.model.analyze.Result;
+import dev.snowdrop.mtool.model.parser.Query;
+import dev.snowdrop.mtool.scanner.metrics.ScanMetrics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Run-scoped cache of the results returned by the scanners. Rules often repeat the same clause (e.g. a
+ * {@code pom.dependency} precondition), so each distinct query is only scanned once per analysis.
+ * <p>
+ * The cache key is the normalized query (trimmed parts and key/values sorted by key) together with the scanner
+ * resolved to execute it. When several threads request the same key, the first one scans the code and the others
+ * wait for its result.
+ */
+public class QueryResultCache {
+
+    private final Map<Key, CompletableFuture<List<Result>>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    record Key(String scannerType, String fileType, String symbol, String operation, Map<String, String> keyValues) {
+
+        static Key of(String scannerType, Query query) {
+            Map<String, String> sorted = new TreeMap<>();
+            if (query.keyValues() != null) {
+                query.keyValues().forEach((k, v) -> sorted.put(normalize(k), normalize(v)));
+            }
+            return new Key(scannerType, normalize(query.fileType()), normalize(query.symbol()),
+                    normalize(query.operation()), sorted);
+        }
+
+        private static String normalize(String value) {
+            return value == null ? "" : value.trim();
+        }
+    }
+
+    /**
+     * Returns the results cached for the query and scanner or compute them using the loader.
+     *
+     * @param scannerType the type of the scanner resolved for the query
+     * @param query the query to be executed
+     * @param loader the function scanning the code when the results are not yet cached
+     * @return the (unmodifiable) list of results
+     */
+    public List<Result> get(String scannerType, Query query, Supplier<List<Result>> loader) {
+        Key key = Key.of(scannerType, query);
+        CompletableFuture<List<Result>> created = new CompletableFuture<>();
+        CompletableFuture<List<Result>> existing = entries.putIfAbsent(key, created);
+
+        if (existing != null) {
+            hits.incrementAndGet();
+            ScanMetrics.recordCacheRequest("query", true);
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw e;
+            }
+        }
+
+        misses.incrementAndGet();
+        ScanMetrics.recordCacheRequest("query", false);
+        try {
+            List<Result> results = loader.get();
+            List<Result> value = results == null ? Collections.emptyList() : Collections.unmodifiableList(results);
+            created.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            // Don't keep the failure: another rule can retry the query
+            entries.remove(key, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the results of the queries searching the given types of files (e.g. java, pom, properties).
+     *
+     * @param fileTypes the types of the files which changed
+     */
+    public void invalidate(Set<String> fileTypes) {
+        entries.keySet().removeIf(key -> fileTypes.contains(key.fileType().toLowerCase()));
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d hit(s), %d miss(es), %d distinct queries", getHits(), getMisses(), size());
+    }
+}
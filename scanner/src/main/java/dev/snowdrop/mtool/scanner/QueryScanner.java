@@ -4,8 +4,15 @@ import dev.snowdrop.mtool.model.analyze.Config;
 import dev.snowdrop.mtool.model.analyze.Result;
 import dev.snowdrop.mtool.model.parser.Query;
 
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Strategy interface for different query scanner implementations.
@@ -27,6 +34,39 @@ public interface QueryScanner {
 
     List<Result> scansCodeFor(Config config, Query query);
 
+    /**
+     * Scans the code and passes each result to the consumer. A scanner able to produce its results progressively
+     * overrides this method so that the results of a query are never all kept in memory.
+     *
+     * @param config the configuration context
+     * @param query the query to execute
+     * @param consumer the consumer receiving the results
+     */
+    default void scansCodeFor(Config config, Query query, Consumer<Result> consumer) {
+        scansCodeFor(config, query).forEach(consumer);
+    }
+
+    /**
+     * Gives the scanner the chance to process, before the rules are evaluated, all the queries of a run which are
+     * routed to it. A scanner able to handle several queries at once (e.g. within one pass over the code) can keep
+     * the results and return them later from {@link #scansCodeFor(Config, Query)}.
+     *
+     * @param config the configuration context
+     * @param queries the distinct queries of the run resolved to this scanner
+     */
+    default void prepare(Config config, Set<Query> queries) {
+    }
+
+    /**
+     * Notifies the scanner that some files of the project changed, so that it can drop the state (parsed trees,
+     * results, etc) computed from the previous content of the files.
+     *
+     * @param config the configuration context
+     * @param changedFiles the files created, modified or deleted
+     */
+    default void invalidate(Config config, Set<Path> changedFiles) {
+    }
+
     /**
      * Returns the scanner type identifier.
      *
@@ -34,6 +74,40 @@ public interface QueryScanner {
      */
     String getScannerType();
 
+    /**
+     * Returns the version of the scanner. The results persisted by a previous run are only reused when they have been
+     * produced by the same version of the scanner.
+     *
+     * @return the version of the scanner, by default the version and the build time of the jar packaging it, or null
+     *         when the version is unknown and the results must not be persisted
+     */
+    default String getScannerVersion() {
+        return jarVersion(getClass());
+    }
+
+    /**
+     * Returns the version of the jar packaging the class followed by the time it was built, so that two builds of a
+     * same snapshot version are distinguished. Returns null when the class is not loaded from a jar (e.g. the classes
+     * compiled by an IDE), as they can change without their version.
+     */
+    private static String jarVersion(Class<?> type) {
+        try {
+            CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+            if (codeSource == null || codeSource.getLocation() == null) {
+                return null;
+            }
+            Path jar = Path.of(codeSource.getLocation().toURI());
+            if (!Files.isRegularFile(jar)) {
+                return null;
+            }
+            String version = type.getPackage().getImplementationVersion();
+            long buildTime = Files.getLastModifiedTime(jar).toMillis();
+            return version != null ? version + "+" + buildTime : String.valueOf(buildTime);
+        } catch (URISyntaxException | IOException | IllegalArgumentException | FileSystemNotFoundException e) {
+            return null;
+        }
+    }
+
     /**
      * Indicates whether this scanner supports the given query type.
      *
@@ -41,4 +115,14 @@ public interface QueryScanner {
      * @return true if this scanner can handle the query
      */
     boolean supports(Query query);
+
+    /**
+     * Indicates whether this scanner can be used for a query when the scanner configured doesn't support it. A scanner
+     * returning false is only used when it is the scanner configured.
+     *
+     * @return true if this scanner can be selected as fallback
+     */
+    default boolean isFallbackCandidate() {
+        return true;
+    }
 }
\ No newline at end of file
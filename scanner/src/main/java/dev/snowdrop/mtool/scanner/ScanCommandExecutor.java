@@ -2,23 +2,37 @@ package dev.snowdrop.mtool.scanner;
 
 import dev.snowdrop.mtool.model.analyze.Config;
 import dev.snowdrop.mtool.model.analyze.Result;
+import dev.snowdrop.mtool.model.analyze.ScannerType;
 import dev.snowdrop.mtool.model.parser.Query;
+import dev.snowdrop.mtool.scanner.cache.PersistentResultCache;
+import dev.snowdrop.mtool.scanner.metrics.ScanMetrics;
 import org.jboss.logging.Logger;
 
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 public class ScanCommandExecutor {
 
     private static final Logger logger = Logger.getLogger(ScanCommandExecutor.class);
 
     private final ScannerSpiRegistry spiRegistry;
+    private final QueryResultCache queryResultCache = new QueryResultCache();
+    private PersistentResultCache persistentResultCache;
 
     public ScanCommandExecutor() {
         this.spiRegistry = new ScannerSpiRegistry();
     }
 
-    // Constructor for tests
+    // Constructor for tests or to share the scanners between several analyses
     public ScanCommandExecutor(ScannerSpiRegistry registry) {
         this.spiRegistry = registry;
     }
@@ -29,9 +43,139 @@ public class ScanCommandExecutor {
             return Collections.emptyList();
         }
 
-        final List<Result> scannerResults = scanner.scansCodeFor(config, query);
-        logger.infof("Scanner %s found %d matches", scanner.getScannerType(), scannerResults.size());
-        return scannerResults;
+        String scannerType = scanner.getScannerType();
+        return ScanMetrics.queryTimer(scannerType).record(() -> queryResultCache.get(scannerType, query, () -> {
+            final List<Result> scannerResults = persistentResultCache != null
+                    ? persistentResultCache.scan(config, scanner, query)
+                    : ScanMetrics.scannerTimer(scannerType).record(() -> scanner.scansCodeFor(config, query));
+            ScanMetrics.recordMatches(scannerType, scannerResults.size());
+            logger.infof("Scanner %s found %d matches", scannerType, scannerResults.size());
+            return scannerResults;
+        }));
+    }
+
+    /**
+     * Executes the query and passes its results to the consumer as soon as they are found. The results are not cached
+     * as keeping them would defeat the purpose of streaming.
+     *
+     * @param config the configuration context
+     * @param query the query to execute
+     * @param consumer the consumer receiving the results
+     * @return the number of results found
+     */
+    public long streamCommandForQuery(Config config, Query query, Consumer<Result> consumer) {
+        QueryScanner scanner = spiRegistry.resolveScannerForQuery(config, query);
+        if (scanner == null) {
+            return 0;
+        }
+
+        AtomicLong count = new AtomicLong();
+        ScanMetrics.scannerTimer(scanner.getScannerType()).record(() -> scanner.scansCodeFor(config, query, result -> {
+            count.incrementAndGet();
+            consumer.accept(result);
+        }));
+        ScanMetrics.recordMatches(scanner.getScannerType(), count.get());
+        logger.infof("Scanner %s found %d matches", scanner.getScannerType(), count.get());
+        return count.get();
+    }
+
+    /**
+     * Use the results persisted by the previous runs and only scan what changed since.
+     *
+     * @param persistentResultCache the cache of the results persisted or null to always scan the code
+     * @return this executor
+     */
+    public ScanCommandExecutor withPersistentResultCache(PersistentResultCache persistentResultCache) {
+        this.persistentResultCache = persistentResultCache;
+        return this;
+    }
+
+    public PersistentResultCache getPersistentResultCache() {
+        return persistentResultCache;
+    }
+
+    /**
+     * Returns the type of the scanner which will execute the query.
+     *
+     * @param config the configuration context
+     * @param query the query to be executed
+     * @return the type of the scanner or empty if no scanner supports the query
+     */
+    public Optional<String> findScannerType(Config config, Query query) {
+        try {
+            return Optional.ofNullable(spiRegistry.resolveScannerForQuery(config, query))
+                    .map(QueryScanner::getScannerType);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Estimates the relative cost to execute the query using the cost of the scanner resolved for it.
+     *
+     * @param config the configuration context
+     * @param query the query to be executed
+     * @return the cost of the scanner, 0 when no scanner will be used and {@link Integer#MAX_VALUE} when the cost is
+     *         unknown
+     */
+    public int estimateCost(Config config, Query query) {
+        QueryScanner scanner;
+        try {
+            scanner = spiRegistry.resolveScannerForQuery(config, query);
+        } catch (IllegalArgumentException e) {
+            return Integer.MAX_VALUE;
+        }
+        if (scanner == null) {
+            return 0;
+        }
+        try {
+            return ScannerType.fromLabel(scanner.getScannerType()).cost();
+        } catch (IllegalArgumentException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Groups the queries per scanner and let each scanner prepare them before they are executed one by one.
+     *
+     * @param config the configuration context
+     * @param queries all the queries of the run
+     */
+    public void prepareQueries(Config config, Collection<Query> queries) {
+        Map<QueryScanner, Set<Query>> queriesByScanner = new LinkedHashMap<>();
+        for (Query query : queries) {
+            QueryScanner scanner = spiRegistry.resolveScannerForQuery(config, query);
+            // No need to prepare a query whose results persisted are still valid
+            if (scanner != null && (persistentResultCache == null || !persistentResultCache.isFresh(scanner, query))) {
+                queriesByScanner.computeIfAbsent(scanner, s -> new LinkedHashSet<>()).add(query);
+            }
+        }
+        queriesByScanner.forEach((scanner, scannerQueries) -> {
+            logger.debugf("Preparing %d queries for the scanner %s", scannerQueries.size(), scanner.getScannerType());
+            scanner.prepare(config, scannerQueries);
+        });
+    }
+
+    /**
+     * Drops the results and the state of the scanners computed from files which changed since.
+     *
+     * @param config the configuration context
+     * @param changedFiles the files created, modified or deleted
+     * @param fileTypes the types of the files which changed as used by the queries (java, pom, properties, etc)
+     */
+    public void invalidate(Config config, Set<Path> changedFiles, Set<String> fileTypes) {
+        queryResultCache.invalidate(fileTypes);
+        if (persistentResultCache != null) {
+            persistentResultCache.invalidate();
+        }
+        spiRegistry.getScanners().values().forEach(scanner -> scanner.invalidate(config, changedFiles));
+    }
+
+    /**
+     * Returns the cache of the query results scanned during the lifetime of this executor.
+     */
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
     }
 
 }
@@ -29,6 +29,14 @@ public class ScannerSpiRegistry {
         }
     }
 
+    /**
+     * Creates a registry of the given scanners instead of the ones loaded using the SPI, e.g. for the tests.
+     */
+    public ScannerSpiRegistry(Collection<QueryScanner> scanners) {
+        this.scanners = new HashMap<>();
+        scanners.forEach(scanner -> this.scanners.put(scanner.getScannerType(), scanner));
+    }
+
     public Optional<QueryScanner> findScanner(String name) {
         return Optional.ofNullable(scanners.get(name));
     }
@@ -40,7 +48,8 @@ public class ScannerSpiRegistry {
     /**
      * Finds the appropriate scanner for the query based on configuration priority:
      * 1. The default scanner (config.scanner) if it has been defined and if it supports the query.
-     * 2. Any other scanner supporting the query (excluding the default one).
+     * 2. Any other scanner supporting the query (excluding the default one and the scanners which are not fallback
+     * candidates).
      *
      * @param config The application configuration containing the default scanner name.
      * @param query The query (fileType and symbol) to check support for.
@@ -69,6 +78,7 @@ public class ScannerSpiRegistry {
         Optional<QueryScanner> fallbackScanner = allScanners.stream()
                 // Exclude the config scanner (as already processed)
                 .filter(qs -> configuredScannerName == null || !qs.getScannerType().equals(configuredScannerName))
+                .filter(QueryScanner::isFallbackCandidate)
                 .filter(qs -> qs.supports(query)).findFirst();
 
         if (fallbackScanner.isPresent()) {
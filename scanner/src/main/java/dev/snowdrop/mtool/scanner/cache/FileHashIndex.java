@@ -0,0 +1,167 @@
+package dev.snowdrop.mtool.scanner.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.snowdrop.mtool.scanner.utils.FileUtils;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the content hash (SHA-256) of the files of a project. The hash of a file is only computed again when its
+ * size or last modification time changed since the previous run.
+ */
+public class FileHashIndex {
+    private static final Logger logger = Logger.getLogger(FileHashIndex.class);
+
+    static final String INDEX_FILE = "files.json";
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public record Entry(long size, long lastModified, String hash) {
+    }
+
+    private final Path appPath;
+    private final Path indexFile;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private String projectFingerprint;
+    private long projectSize;
+
+    public FileHashIndex(Path appPath, Path cacheDir) {
+        this.appPath = appPath.toAbsolutePath().normalize();
+        this.indexFile = cacheDir.resolve(INDEX_FILE);
+        load();
+    }
+
+    /**
+     * Returns the hash of the content of a file of the project.
+     *
+     * @param file the path of the file
+     * @return the hash of the content encoded as hexadecimal
+     */
+    public String hash(Path file) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            String key = relativize(file);
+            Entry entry = entries.get(key);
+            if (entry != null && entry.size() == attrs.size()
+                    && entry.lastModified() == attrs.lastModifiedTime().toMillis()) {
+                return entry.hash();
+            }
+
+            MessageDigest digest = newDigest();
+            try (InputStream in = Files.newInputStream(file)) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            entries.put(key, new Entry(attrs.size(), attrs.lastModifiedTime().toMillis(), hash));
+            return hash;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to hash the file: " + file, e);
+        }
+    }
+
+    /**
+     * Returns a hash of the path and content of all the files of the project, except the ones generated by the tools
+     * (target, .git, reports, etc). It is computed once per index.
+     */
+    public synchronized String projectFingerprint() {
+        if (projectFingerprint == null) {
+            Map<String, String> hashes = new TreeMap<>();
+            long[] size = { 0 };
+            try {
+                Files.walkFileTree(appPath, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        if (!dir.equals(appPath) && FileUtils.isGenerated(appPath.relativize(dir))) {
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.isRegularFile() && !FileUtils.isGenerated(appPath.relativize(file))) {
+                            hashes.put(relativize(file), hash(file));
+                            size[0] += attrs.size();
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to walk the project: " + appPath, e);
+            }
+
+            MessageDigest digest = newDigest();
+            hashes.forEach((path, hash) -> digest.update((path + "=" + hash + "\n").getBytes(StandardCharsets.UTF_8)));
+            projectFingerprint = HexFormat.of().formatHex(digest.digest());
+            projectSize = size[0];
+        }
+        return projectFingerprint;
+    }
+
+    /**
+     * Returns the size in bytes of the files part of the fingerprint of the project.
+     */
+    public synchronized long projectSize() {
+        projectFingerprint();
+        return projectSize;
+    }
+
+    /**
+     * Forget the fingerprint of the project so that it is computed again, e.g. after some files changed.
+     */
+    public synchronized void invalidateProjectFingerprint() {
+        projectFingerprint = null;
+    }
+
+    public String relativize(Path file) {
+        return appPath.relativize(file.toAbsolutePath().normalize()).toString().replace('\\', '/');
+    }
+
+    public void save() {
+        try {
+            mapper.writeValue(indexFile.toFile(), new TreeMap<>(entries));
+        } catch (IOException e) {
+            logger.warnf("Unable to save the index of the files: %s", e.getMessage());
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try {
+            entries.putAll(mapper.readValue(indexFile.toFile(), new TypeReference<Map<String, Entry>>() {
+            }));
+        } catch (IOException e) {
+            logger.warnf("Ignoring the index of the files which cannot be read: %s", e.getMessage());
+        }
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package dev.snowdrop.mtool.scanner.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.snowdrop.mtool.model.analyze.Config;
+import dev.snowdrop.mtool.model.analyze.Result;
+import dev.snowdrop.mtool.model.parser.Query;
+import dev.snowdrop.mtool.scanner.FileScopedQueryScanner;
+import dev.snowdrop.mtool.scanner.QueryScanner;
+import dev.snowdrop.mtool.scanner.metrics.ScanMetrics;
+import dev.snowdrop.mtool.scanner.utils.FileUtils;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of the results of the queries persisted under {@code <appPath>/.mtool/cache}, so that an analysis only scans
+ * again what changed since the previous run.
+ * <p>
+ * An entry is stored per (query, scanner, scanner version):
+ * <ul>
+ * <li>for a {@link FileScopedQueryScanner}, the results are stored per file with the hash of its content. Only the
+ * files added or changed are scanned again, the results of the deleted files are dropped.</li>
+ * <li>for the other scanners, the results are stored with the fingerprint of the whole project and reused when no
+ * file of the project changed.</li>
+ * </ul>
+ * Only the results whose value is a String are persisted, the queries returning other objects are always scanned. The
+ * queries of a scanner whose version is unknown are always scanned too, as a change of the scanner could not be
+ * detected. A scan failing is not persisted, its error is propagated.
+ */
+public class PersistentResultCache {
+    private static final Logger logger = Logger.getLogger(PersistentResultCache.class);
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public record StoredResult(String id, String scannerType, String result) {
+    }
+
+    public record FileEntry(String hash, List<StoredResult> results) {
+    }
+
+    public record CacheEntry(String key, String fingerprint, List<StoredResult> results, Map<String, FileEntry> files) {
+    }
+
+    private final Path cacheDir;
+    private final FileHashIndex fileHashIndex;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong reusedFiles = new AtomicLong();
+    private final AtomicLong scannedFiles = new AtomicLong();
+
+    public PersistentResultCache(Path appPath) {
+        this.cacheDir = FileUtils.mtoolDir(appPath, "cache");
+        this.fileHashIndex = new FileHashIndex(appPath, cacheDir);
+    }
+
+    /**
+     * Returns the results of the query using the results persisted and scanning only what changed.
+     *
+     * @param config the configuration context
+     * @param scanner the scanner resolved for the query
+     * @param query the query to execute
+     * @return the results of the query
+     */
+    public List<Result> scan(Config config, QueryScanner scanner, Query query) {
+        if (scanner.getScannerVersion() == null) {
+            return ScanMetrics.scannerTimer(scanner.getScannerType()).record(() -> scanner.scansCodeFor(config, query));
+        }
+        String key = key(scanner, query);
+        CacheEntry entry = read(key);
+
+        if (scanner instanceof FileScopedQueryScanner fileScanner) {
+            return scanChangedFiles(config, fileScanner, query, key, entry);
+        }
+
+        String fingerprint = fileHashIndex.projectFingerprint();
+        if (entry != null && fingerprint.equals(entry.fingerprint()) && entry.results() != null) {
+            hits.incrementAndGet();
+            ScanMetrics.recordCacheRequest("persistent", true);
+            return toResults(entry.results());
+        }
+
+        misses.incrementAndGet();
+        ScanMetrics.recordCacheRequest("persistent", false);
+        List<Result> results = ScanMetrics.scannerTimer(scanner.getScannerType())
+                .record(() -> scanner.scansCodeFor(config, query));
+        List<StoredResult> stored = toStoredResults(results);
+        if (stored != null) {
+            write(key, new CacheEntry(key, fingerprint, stored, null));
+        }
+        return results;
+    }
+
+    /**
+     * Indicates if the results of the query persisted can be reused without scanning the code.
+     */
+    public boolean isFresh(QueryScanner scanner, Query query) {
+        if (scanner instanceof FileScopedQueryScanner || scanner.getScannerVersion() == null) {
+            return false;
+        }
+        CacheEntry entry = read(key(scanner, query));
+        return entry != null && entry.results() != null
+                && fileHashIndex.projectFingerprint().equals(entry.fingerprint());
+    }
+
+    private List<Result> scanChangedFiles(Config config, FileScopedQueryScanner scanner, Query query, String key,
+            CacheEntry entry) {
+        Map<String, FileEntry> previous = entry != null && entry.files() != null ? entry.files() : Map.of();
+        List<Path> files = scanner.findSourceFiles(config, query);
+
+        Map<Path, String> hashes = new LinkedHashMap<>();
+        Set<Path> changed = new LinkedHashSet<>();
+        for (Path file : files) {
+            String hash = fileHashIndex.hash(file);
+            hashes.put(file, hash);
+            FileEntry fileEntry = previous.get(fileHashIndex.relativize(file));
+            if (fileEntry == null || !hash.equals(fileEntry.hash())) {
+                changed.add(file);
+            }
+        }
+
+        Map<Path, List<Result>> scanned = changed.isEmpty()
+                ? Map.of()
+                : ScanMetrics.scannerTimer(scanner.getScannerType())
+                        .record(() -> scanner.scanFiles(config, query, new ArrayList<>(changed)));
+        ScanMetrics.recordFiles(scanner.getScannerType(), changed);
+        reusedFiles.addAndGet(files.size() - changed.size());
+        scannedFiles.addAndGet(changed.size());
+        if (changed.isEmpty()) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        ScanMetrics.recordCacheRequest("persistent", changed.isEmpty());
+
+        // Merge the results using the order of the files. The files deleted are no longer part of the entry
+        List<Result> results = new ArrayList<>();
+        Map<String, FileEntry> current = new TreeMap<>();
+        boolean persistable = true;
+        for (Path file : files) {
+            String relativePath = fileHashIndex.relativize(file);
+            List<Result> fileResults;
+            if (changed.contains(file)) {
+                fileResults = scanned.getOrDefault(file, List.of());
+                List<StoredResult> stored = toStoredResults(fileResults);
+                if (stored == null) {
+                    persistable = false;
+                } else {
+                    current.put(relativePath, new FileEntry(hashes.get(file), stored));
+                }
+            } else {
+                FileEntry fileEntry = previous.get(relativePath);
+                fileResults = toResults(fileEntry.results());
+                current.put(relativePath, fileEntry);
+            }
+            results.addAll(fileResults);
+        }
+
+        if (persistable && (!changed.isEmpty() || previous.size() != current.size())) {
+            write(key, new CacheEntry(key, null, null, current));
+        }
+        return results;
+    }
+
+    /**
+     * Persists the index of the files hashed.
+     */
+    public void save() {
+        fileHashIndex.save();
+    }
+
+    /**
+     * Forget the fingerprint of the project computed, to be called when some files of the project changed.
+     */
+    public void invalidate() {
+        fileHashIndex.invalidateProjectFingerprint();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d hit(s), %d miss(es), %d file(s) reused, %d file(s) scanned", hits.get(),
+                misses.get(), reusedFiles.get(), scannedFiles.get());
+    }
+
+    static String key(QueryScanner scanner, Query query) {
+        Map<String, String> keyValues = query.keyValues() != null ? new TreeMap<>(query.keyValues()) : Map.of();
+        return String.join("|", scanner.getScannerType(), scanner.getScannerVersion(), query.fileType(),
+                query.symbol(), query.operation(), keyValues.toString());
+    }
+
+    private Path entryPath(String key) {
+        byte[] hash = FileHashIndex.newDigest().digest(key.getBytes(StandardCharsets.UTF_8));
+        return cacheDir.resolve(HexFormat.of().formatHex(hash) + ".json");
+    }
+
+    private CacheEntry read(String key) {
+        Path path = entryPath(key);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            CacheEntry entry = mapper.readValue(path.toFile(), CacheEntry.class);
+            // Protect against a collision of the hashes
+            return key.equals(entry.key()) ? entry : null;
+        } catch (IOException e) {
+            logger.warnf("Ignoring the cache entry which cannot be read %s: %s", path, e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(String key, CacheEntry entry) {
+        Path path = entryPath(key);
+        try {
+            // Write first a temporary file to not leave a corrupted entry if the process is stopped
+            Path tmp = Files.createTempFile(cacheDir, "entry", ".tmp");
+            mapper.writeValue(tmp.toFile(), entry);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warnf("Unable to write the cache entry %s: %s", path, e.getMessage());
+        }
+    }
+
+    private static List<StoredResult> toStoredResults(List<Result> results) {
+        List<StoredResult> stored = new ArrayList<>();
+        for (Result result : results) {
+            if (!(result.result() instanceof String value)) {
+                return null;
+            }
+            stored.add(new StoredResult(result.id(), result.scannerType(), value));
+        }
+        return stored;
+    }
+
+    private static List<Result> toResults(List<StoredResult> stored) {
+        return stored.stream().map(r -> new Result(r.id(), r.scannerType(), r.result()))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+}
@@ -5,17 +5,20 @@ import dev.snowdrop.mtool.model.analyze.FilePath;
 import dev.snowdrop.mtool.model.analyze.Result;
 import dev.snowdrop.mtool.model.analyze.MatchLocation;
 import dev.snowdrop.mtool.model.parser.Query;
-import dev.snowdrop.mtool.scanner.QueryScanner;
+import dev.snowdrop.mtool.scanner.FileScopedQueryScanner;
 import org.jboss.logging.Logger;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -26,7 +29,7 @@ import java.util.stream.Stream;
  * Utility class for searching files based on their name or path pattern,
  * and searching content within those files.
  */
-public class FileSearchQueryScanner implements QueryScanner {
+public class FileSearchQueryScanner implements FileScopedQueryScanner {
 
     private static final Logger logger = Logger.getLogger(FileSearchQueryScanner.class);
 
@@ -42,25 +45,41 @@ public class FileSearchQueryScanner implements QueryScanner {
     }
 
     @Override
-    public List<Result> scansCodeFor(Config config, Query query) {
-        List<Result> matches = new ArrayList<>();
+    public List<Path> findSourceFiles(Config config, Query query) {
+        return contentSearcher.findPropertiesPaths(Paths.get(config.appPath()), "properties").stream()
+                .map(FilePath::filePath).toList();
+    }
+
+    @Override
+    public Map<Path, List<Result>> scanFiles(Config config, Query query, List<Path> files) {
+        Map<Path, List<Result>> matchesPerFile = new LinkedHashMap<>();
         logger.infof("File search scanner executing for query %s.%s", query.fileType(), query.symbol());
 
         String escapeDots = query.keyValues().get("value").replace(".", "\\.");
         String regex = String.format("^\\s*(%s).*$", escapeDots);
-        List<MatchLocation> results = contentSearcher.findPropertiesMatches(Paths.get(config.appPath()), "properties",
-                regex);
-        for (MatchLocation matchLocation : results) {
-            String parentFolderName = matchLocation.filePath().getParent().getFileName().toString();
-            String fileName = matchLocation.filePath().getFileName().toString();
-
-            String result = String.format("%s/%s:%d | %s", parentFolderName, fileName, matchLocation.lineNumber(),
-                    matchLocation.lineContent());
-            var matchId = String.format("%s-%s", query.fileType(), query.symbol());
-            matches.add(new Result(matchId, getScannerType(), result));
+        Pattern contentPattern = Pattern.compile(regex);
 
+        for (Path file : files) {
+            List<Result> matches = new ArrayList<>();
+            List<MatchLocation> matchLocations;
+            try {
+                matchLocations = readMatches(file, contentPattern);
+            } catch (IOException e) {
+                // Not returning the matches of the other files, the file would be taken as having no match
+                throw new UncheckedIOException("Unable to read the file " + file, e);
+            }
+            for (MatchLocation matchLocation : matchLocations) {
+                String parentFolderName = matchLocation.filePath().getParent().getFileName().toString();
+                String fileName = matchLocation.filePath().getFileName().toString();
+
+                String result = String.format("%s/%s:%d | %s", parentFolderName, fileName, matchLocation.lineNumber(),
+                        matchLocation.lineContent());
+                var matchId = String.format("%s-%s", query.fileType(), query.symbol());
+                matches.add(new Result(matchId, getScannerType(), result));
+            }
+            matchesPerFile.put(file, matches);
         }
-        return matches;
+        return matchesPerFile;
     }
 
     /**
@@ -175,9 +194,21 @@ public class FileSearchQueryScanner implements QueryScanner {
     }
 
     /**
-     * Searches all occurrences of a pattern in a single file.
+     * Searches all occurrences of a pattern in a single file, a file which cannot be read having no match.
      */
     private List<MatchLocation> searchInFile(Path filePath, Pattern pattern) {
+        try {
+            return readMatches(filePath, pattern);
+        } catch (IOException e) {
+            System.err.println("Error reading file " + filePath + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Searches all occurrences of a pattern in a single file.
+     */
+    private List<MatchLocation> readMatches(Path filePath, Pattern pattern) throws IOException {
         List<MatchLocation> matches = new ArrayList<>();
         int lineNumber = 0;
 
@@ -193,8 +224,9 @@ public class FileSearchQueryScanner implements QueryScanner {
                     ));
                 }
             }
-        } catch (IOException e) {
-            System.err.println("Error reading file " + filePath + ": " + e.getMessage());
+        } catch (UncheckedIOException e) {
+            // Thrown by the lines read lazily, e.g. for a malformed input
+            throw e.getCause();
         }
         return matches;
     }
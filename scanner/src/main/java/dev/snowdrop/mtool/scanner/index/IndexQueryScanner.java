@@ -0,0 +1,208 @@
+package dev.snowdrop.mtool.scanner.index;
+
+import dev.snowdrop.mtool.model.analyze.Config;
+import dev.snowdrop.mtool.model.analyze.Result;
+import dev.snowdrop.mtool.model.analyze.ScannerType;
+import dev.snowdrop.mtool.model.parser.Query;
+import dev.snowdrop.mtool.scanner.QueryScanner;
+import dev.snowdrop.mtool.scanner.index.JavaSymbolIndex.Kind;
+import dev.snowdrop.mtool.scanner.index.JavaSymbolIndex.Located;
+import dev.snowdrop.mtool.scanner.index.JavaSymbolIndex.Symbol;
+import org.jboss.logging.Logger;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Scanner answering the java.annotation, java.class, java.import and java.method queries using the
+ * {@link JavaSymbolIndex} of the project, so that the sources are only parsed again when they changed.
+ * <p>
+ * The names of a query can be simple or fully qualified and use the wildcards {@code *} (within a segment of the
+ * name) and {@code ..} (any segments). As the index doesn't hold the types of the expressions, a method invocation
+ * is matched using the name of the method only, and the {@code java.class} queries searching the subtypes of a type
+ * ({@code extends} or {@code implements}) are not supported. The scanner is only used when selected using the option
+ * {@code --scanner index}.
+ */
+public class IndexQueryScanner implements QueryScanner {
+    private static final Logger logger = Logger.getLogger(IndexQueryScanner.class);
+
+    private static final Set<String> SYMBOLS = Set.of("annotation", "class", "import", "method");
+    // Keys of the java.class queries searching the subtypes of a type, which the index cannot answer as it doesn't
+    // hold the supertypes of the classes
+    private static final Set<String> HIERARCHY_KEYS = Set.of("extends", "implements");
+
+    private final Map<Path, JavaSymbolIndex> indexes = new ConcurrentHashMap<>();
+
+    @Override
+    public String getScannerType() {
+        return ScannerType.INDEX.label();
+    }
+
+    @Override
+    public boolean supports(Query query) {
+        return "java".equals(query.fileType()) && SYMBOLS.contains(query.symbol())
+                && HIERARCHY_KEYS.stream().noneMatch(query.keyValues()::containsKey);
+    }
+
+    @Override
+    public boolean isFallbackCandidate() {
+        return false;
+    }
+
+    @Override
+    @Deprecated
+    public List<Result> executeQueries(Config config, Set<Query> queries) {
+        return List.of();
+    }
+
+    @Override
+    public List<Result> scansCodeFor(Config config, Query query) {
+        JavaSymbolIndex index = index(config);
+        String pattern = query.operation().contains("all") ? null : pattern(query);
+
+        List<Result> results = new ArrayList<>();
+        switch (query.symbol()) {
+            case "annotation" -> collect(index.symbols(Kind.ANNOTATION), byName(stripAnnotation(pattern)), query,
+                    results);
+            case "class" -> collect(index.symbols(Kind.TYPE), byName(pattern), query, results);
+            case "import" -> collect(index.symbols(Kind.IMPORT), byName(pattern), query, results);
+            case "method" -> {
+                Predicate<String> methodName = nameMatcher(pattern != null ? methodName(pattern) : null);
+                Predicate<String> declaringType = nameMatcher(pattern != null ? declaringType(pattern) : null);
+                collect(index.symbols(Kind.METHOD),
+                        s -> methodName.test(s.name()) && declaringType.test(s.target()), query, results);
+                collect(index.symbols(Kind.INVOCATION), s -> methodName.test(s.name()), query, results);
+            }
+            default -> throw new IllegalArgumentException("Unsupported query: " + query.fileType() + "."
+                    + query.symbol());
+        }
+        logger.infof("Found %d %s matches within the index", results.size(), query.symbol());
+        return results;
+    }
+
+    @Override
+    public void invalidate(Config config, Set<Path> changedFiles) {
+        JavaSymbolIndex index = indexes.get(appPath(config));
+        if (index != null) {
+            index.invalidate();
+        }
+    }
+
+    private JavaSymbolIndex index(Config config) {
+        return indexes.computeIfAbsent(appPath(config), path -> new JavaSymbolIndex(path, getScannerVersion()));
+    }
+
+    private static Path appPath(Config config) {
+        return Paths.get(config.appPath()).toAbsolutePath().normalize();
+    }
+
+    private void collect(List<Located> symbols, Predicate<Symbol> matcher, Query query, List<Result> results) {
+        for (Located located : symbols) {
+            if (matcher.test(located.symbol())) {
+                results.add(new Result(query.fileType() + "-" + query.symbol(), getScannerType(),
+                        format(located)));
+            }
+        }
+    }
+
+    private static Predicate<Symbol> byName(String pattern) {
+        Predicate<String> matcher = nameMatcher(pattern);
+        return symbol -> matcher.test(symbol.name());
+    }
+
+    /**
+     * Formats a symbol as {@code path:startLine-endLine|name|target}
+     */
+    static String format(Located located) {
+        Symbol symbol = located.symbol();
+        return String.format("%s:%d-%d|%s|%s", located.path(), symbol.startLine(), symbol.endLine(), symbol.name(),
+                symbol.target());
+    }
+
+    private static String pattern(Query query) {
+        Map<String, String> keyValues = query.keyValues();
+        String pattern = keyValues.getOrDefault("name", keyValues.get("value"));
+        return pattern == null || pattern.isBlank() ? null : pattern.trim();
+    }
+
+    /**
+     * Returns a matcher of the names of the symbols: everything when there is no pattern, the fully qualified name for
+     * a qualified pattern, otherwise the simple name. A symbol whose name could not be resolved (e.g. an annotation
+     * imported using a wildcard) is matched using its simple name.
+     */
+    static Predicate<String> nameMatcher(String pattern) {
+        if (pattern == null || pattern.isEmpty()) {
+            return name -> true;
+        }
+        if (pattern.contains("*")) {
+            Pattern regex = globToRegex(pattern);
+            return pattern.contains(".")
+                    ? name -> regex.matcher(name).matches()
+                    : name -> regex.matcher(simpleName(name)).matches();
+        }
+        if (pattern.contains(".")) {
+            String simpleName = simpleName(pattern);
+            return name -> name.equals(pattern) || (!name.contains(".") && name.equals(simpleName));
+        }
+        return name -> simpleName(name).equals(pattern);
+    }
+
+    private static String stripAnnotation(String pattern) {
+        if (pattern == null) {
+            return null;
+        }
+        String name = pattern.startsWith("@") ? pattern.substring(1) : pattern;
+        int parenthesis = name.indexOf('(');
+        return parenthesis >= 0 ? name.substring(0, parenthesis) : name;
+    }
+
+    /**
+     * Returns the name of the method of a pattern, e.g. add for java.util.List add(..)
+     */
+    static String methodName(String pattern) {
+        String signature = signature(pattern);
+        int separator = Math.max(signature.lastIndexOf(' '), signature.lastIndexOf('#'));
+        return signature.substring(separator + 1);
+    }
+
+    /**
+     * Returns the type declaring the method of a pattern, e.g. java.util.List for java.util.List add(..)
+     */
+    static String declaringType(String pattern) {
+        String signature = signature(pattern);
+        int separator = Math.max(signature.lastIndexOf(' '), signature.lastIndexOf('#'));
+        return separator >= 0 ? signature.substring(0, separator).trim() : null;
+    }
+
+    private static String signature(String pattern) {
+        int parenthesis = pattern.indexOf('(');
+        return (parenthesis >= 0 ? pattern.substring(0, parenthesis) : pattern).trim();
+    }
+
+    private static String simpleName(String fqName) {
+        return fqName.substring(fqName.lastIndexOf('.') + 1);
+    }
+
+    private static Pattern globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (glob.startsWith("..", i)) {
+                regex.append("\\..*");
+                i++;
+            } else if (c == '*') {
+                regex.append("[^.]*");
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -0,0 +1,379 @@
+package dev.snowdrop.mtool.scanner.index;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.snowdrop.mtool.scanner.cache.FileHashIndex;
+import dev.snowdrop.mtool.scanner.utils.FileUtils;
+import io.roastedroot.treesitter.Language;
+import io.roastedroot.treesitter.TreeSitter;
+import io.roastedroot.treesitter.TreeSitterNode;
+import io.roastedroot.treesitter.TreeSitterParser;
+import io.roastedroot.treesitter.TreeSitterQuery;
+import io.roastedroot.treesitter.TreeSitterQueryResult;
+import io.roastedroot.treesitter.TreeSitterTree;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Database of the symbols of the Java sources of a project persisted under {@code <appPath>/.mtool/index}: the types
+ * declared, the annotations with the declaration they target, the imports, the methods declared and invoked and the
+ * fields with their type, each with the lines of the file where it is defined.
+ * <p>
+ * The symbols are extracted from the syntax tree produced by tree-sitter, no type attribution is then available: the
+ * annotations are resolved using the imports of the file and the invocations only record the name of the method. When
+ * the index is refreshed, only the files added or changed since the previous run are parsed again.
+ * <p>
+ * The index is recorded with the version of the extraction, made of {@value #FORMAT_VERSION} and of the version of the
+ * scanner, and is discarded when read by another version, as the symbols of the files not changed would otherwise be
+ * the ones extracted by the previous version.
+ */
+public class JavaSymbolIndex {
+    private static final Logger logger = Logger.getLogger(JavaSymbolIndex.class);
+
+    public static final String INDEX_DIR = "index";
+    private static final String INDEX_FILE = "symbols.json.gz";
+    // To increase when the symbols extracted change, e.g. a change of SYMBOLS_QUERY, extract or resolve
+    static final String FORMAT_VERSION = "2";
+
+    private static final String SYMBOLS_QUERY = """
+            (package_declaration) @package
+            (import_declaration) @import
+            (class_declaration name: (identifier) @type.name) @type
+            (interface_declaration name: (identifier) @type.name) @type
+            (enum_declaration name: (identifier) @type.name) @type
+            (record_declaration name: (identifier) @type.name) @type
+            (method_declaration name: (identifier) @method.name) @method
+            (constructor_declaration name: (identifier) @method.name) @method
+            (field_declaration type: (_) @field.type declarator: (variable_declarator name: (identifier) @field.name)) @field
+            (marker_annotation name: (_) @annotation.name) @annotation
+            (annotation name: (_) @annotation.name) @annotation
+            (method_invocation name: (identifier) @invocation.name) @invocation
+            """;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public enum Kind {
+        TYPE,
+        ANNOTATION,
+        IMPORT,
+        METHOD,
+        INVOCATION,
+        FIELD
+    }
+
+    /**
+     * A symbol of a file.
+     *
+     * @param kind the kind of symbol
+     * @param name the fully qualified name of a type, an annotation (when it can be resolved) or an import, the name of a
+     *        method or a field
+     * @param target the declaration annotated, the type declaring a method or a field, the method containing an
+     *        invocation
+     * @param type the type of a field
+     * @param startLine the first line of the symbol
+     * @param endLine the last line of the symbol
+     */
+    public record Symbol(Kind kind, String name, String target, String type, int startLine, int endLine) {
+    }
+
+    public record FileSymbols(String hash, List<Symbol> symbols) {
+    }
+
+    /**
+     * The content of the file {@value #INDEX_FILE}
+     *
+     * @param version the version of the extraction of the symbols
+     * @param files the symbols of each file, keyed by the path of the file relative to the project
+     */
+    public record IndexFile(String version, Map<String, FileSymbols> files) {
+    }
+
+    /**
+     * A symbol with the path of its file relative to the project
+     */
+    public record Located(String path, Symbol symbol) {
+    }
+
+    private record Node(String capture, int startByte, int endByte, int startLine, int endLine, String text) {
+        boolean contains(Node other) {
+            return startByte <= other.startByte && other.endByte <= endByte;
+        }
+    }
+
+    private final Path appPath;
+    private final Path indexFile;
+    private final String version;
+    private final FileHashIndex fileHashIndex;
+    private final Map<String, FileSymbols> files = new TreeMap<>();
+    private Map<Kind, List<Located>> symbolsByKind = Map.of();
+    private boolean stale = true;
+
+    public JavaSymbolIndex(Path appPath) {
+        this(appPath, null);
+    }
+
+    /**
+     * @param appPath the path of the project
+     * @param scannerVersion the version of the scanner extracting the symbols, or null when unknown: only
+     *        {@value #FORMAT_VERSION} then identifies the extraction
+     */
+    public JavaSymbolIndex(Path appPath, String scannerVersion) {
+        this.appPath = appPath.toAbsolutePath().normalize();
+        this.version = scannerVersion != null ? FORMAT_VERSION + "+" + scannerVersion : FORMAT_VERSION;
+        Path indexDir = FileUtils.mtoolDir(this.appPath, INDEX_DIR);
+        this.indexFile = indexDir.resolve(INDEX_FILE);
+        this.fileHashIndex = new FileHashIndex(this.appPath, indexDir);
+        load();
+    }
+
+    /**
+     * Returns the symbols of a kind, refreshing first the index when some files changed since it has been built.
+     */
+    public synchronized List<Located> symbols(Kind kind) {
+        if (stale) {
+            refresh();
+        }
+        return symbolsByKind.getOrDefault(kind, List.of());
+    }
+
+    /**
+     * Marks the index as stale, so that the files changed are parsed again by the next query.
+     */
+    public synchronized void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Parses the Java files added or changed since the index has been built and drops the files deleted.
+     */
+    public synchronized void refresh() {
+        Map<String, Path> javaFiles = findJavaFiles();
+        Map<String, String> hashes = new HashMap<>();
+        List<String> changed = new ArrayList<>();
+        for (Map.Entry<String, Path> entry : javaFiles.entrySet()) {
+            String hash = fileHashIndex.hash(entry.getValue());
+            hashes.put(entry.getKey(), hash);
+            FileSymbols fileSymbols = files.get(entry.getKey());
+            if (fileSymbols == null || !hash.equals(fileSymbols.hash())) {
+                changed.add(entry.getKey());
+            }
+        }
+        boolean deleted = files.keySet().removeIf(path -> !javaFiles.containsKey(path));
+
+        if (!changed.isEmpty()) {
+            logger.infof("Indexing the symbols of %d Java file(s) of %s", changed.size(), appPath);
+            try (TreeSitter ts = TreeSitter.create();
+                    TreeSitterParser parser = ts.newParser(Language.JAVA);
+                    TreeSitterQuery query = ts.newQuery(Language.JAVA, SYMBOLS_QUERY)) {
+                for (String path : changed) {
+                    String source = Files.readString(javaFiles.get(path));
+                    try (TreeSitterTree tree = parser.parseString(source)) {
+                        List<Symbol> symbols = extract(source, query.exec(tree.rootNode(), source));
+                        files.put(path, new FileSymbols(hashes.get(path), symbols));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to index the Java files of " + appPath, e);
+            }
+        }
+        if (!changed.isEmpty() || deleted) {
+            save();
+        }
+
+        Map<Kind, List<Located>> byKind = new EnumMap<>(Kind.class);
+        files.forEach((path, fileSymbols) -> fileSymbols.symbols().forEach(symbol -> byKind
+                .computeIfAbsent(symbol.kind(), k -> new ArrayList<>()).add(new Located(path, symbol))));
+        symbolsByKind = byKind;
+        stale = false;
+    }
+
+    /**
+     * Returns the number of files indexed.
+     */
+    public synchronized int size() {
+        return files.size();
+    }
+
+    static List<Symbol> extract(String source, List<TreeSitterQueryResult> results) {
+        byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+        Map<String, List<Node>> nodes = new HashMap<>();
+        for (TreeSitterQueryResult result : results) {
+            TreeSitterNode n = result.node();
+            String text = new String(bytes, n.startByte(), n.endByte() - n.startByte(), StandardCharsets.UTF_8);
+            nodes.computeIfAbsent(result.name(), k -> new ArrayList<>()).add(new Node(result.name(), n.startByte(),
+                    n.endByte(), n.startRow() + 1, n.endRow() + 1, text));
+        }
+        // The same node can be captured by several matches (e.g. a field declaring several variables)
+        nodes.replaceAll((capture, list) -> list.stream().distinct()
+                .sorted(Comparator.comparingInt(Node::startByte)).collect(Collectors.toCollection(ArrayList::new)));
+
+        String packageName = nodes.getOrDefault("package", List.of()).stream()
+                .map(n -> stripKeywords(n.text(), "package")).findFirst().orElse("");
+        List<Symbol> symbols = new ArrayList<>();
+        List<String> imports = new ArrayList<>();
+        for (Node node : nodes.getOrDefault("import", List.of())) {
+            String imported = stripKeywords(node.text(), "import");
+            imports.add(imported);
+            symbols.add(new Symbol(Kind.IMPORT, imported, "", "", node.startLine(), node.endLine()));
+        }
+
+        // Qualified name of each declaration (types, methods and fields) used as target of the other symbols
+        Map<Node, String> qualifiedNames = new HashMap<>();
+        List<Node> types = nodes.getOrDefault("type", List.of());
+        for (Node type : types) {
+            String name = nameOf(type, nodes.get("type.name"));
+            StringBuilder fqName = new StringBuilder(packageName);
+            for (Node outer : types) {
+                if (outer != type && outer.contains(type)) {
+                    fqName.append(fqName.isEmpty() ? "" : ".").append(nameOf(outer, nodes.get("type.name")));
+                }
+            }
+            fqName.append(fqName.isEmpty() ? "" : ".").append(name);
+            qualifiedNames.put(type, fqName.toString());
+            symbols.add(new Symbol(Kind.TYPE, fqName.toString(), "", "", type.startLine(), type.endLine()));
+        }
+
+        for (Node method : nodes.getOrDefault("method", List.of())) {
+            String owner = innermost(method, types, qualifiedNames);
+            String name = nameOf(method, nodes.get("method.name"));
+            qualifiedNames.put(method, owner.isEmpty() ? name : owner + "." + name);
+            symbols.add(new Symbol(Kind.METHOD, name, owner, "", method.startLine(), method.endLine()));
+        }
+
+        for (Node field : nodes.getOrDefault("field", List.of())) {
+            String owner = innermost(field, types, qualifiedNames);
+            String type = nameOf(field, nodes.get("field.type"));
+            for (Node name : nodes.getOrDefault("field.name", List.of())) {
+                if (field.contains(name)) {
+                    qualifiedNames.putIfAbsent(field, owner.isEmpty() ? name.text() : owner + "." + name.text());
+                    symbols.add(new Symbol(Kind.FIELD, name.text(), owner, type, field.startLine(),
+                            field.endLine()));
+                }
+            }
+        }
+
+        List<Node> declarations = new ArrayList<>(qualifiedNames.keySet());
+        for (Node annotation : nodes.getOrDefault("annotation", List.of())) {
+            String name = resolve(nameOf(annotation, nodes.get("annotation.name")), imports);
+            symbols.add(new Symbol(Kind.ANNOTATION, name, innermost(annotation, declarations, qualifiedNames), "",
+                    annotation.startLine(), annotation.endLine()));
+        }
+
+        List<Node> methods = nodes.getOrDefault("method", List.of());
+        for (Node invocation : nodes.getOrDefault("invocation", List.of())) {
+            String name = nameOf(invocation, nodes.get("invocation.name"));
+            String caller = innermost(invocation, methods, qualifiedNames);
+            if (caller.isEmpty()) {
+                caller = innermost(invocation, types, qualifiedNames);
+            }
+            symbols.add(new Symbol(Kind.INVOCATION, name, caller, "", invocation.startLine(),
+                    invocation.endLine()));
+        }
+        return symbols;
+    }
+
+    /**
+     * Returns the text of the innermost node contained within the declaration, e.g. the name of a method and not the
+     * name of a nested method call.
+     */
+    private static String nameOf(Node declaration, List<Node> names) {
+        if (names == null) {
+            return "";
+        }
+        return names.stream().filter(declaration::contains).findFirst().map(Node::text).orElse("");
+    }
+
+    private static String innermost(Node node, List<Node> declarations, Map<Node, String> qualifiedNames) {
+        Node found = null;
+        for (Node declaration : declarations) {
+            if (declaration != node && declaration.contains(node)
+                    && (found == null || declaration.startByte() >= found.startByte())) {
+                found = declaration;
+            }
+        }
+        return found != null ? qualifiedNames.getOrDefault(found, "") : "";
+    }
+
+    /**
+     * Returns the fully qualified name of an annotation using the single type imports of the file.
+     */
+    private static String resolve(String name, List<String> imports) {
+        if (name.contains(".")) {
+            return name;
+        }
+        return imports.stream().filter(i -> i.endsWith("." + name)).findFirst().orElse(name);
+    }
+
+    private static String stripKeywords(String declaration, String keyword) {
+        String text = declaration.trim();
+        if (text.endsWith(";")) {
+            text = text.substring(0, text.length() - 1);
+        }
+        text = text.substring(text.indexOf(keyword) + keyword.length()).trim();
+        if (text.startsWith("static ")) {
+            text = text.substring("static ".length()).trim();
+        }
+        return text.replaceAll("\\s+", "");
+    }
+
+    private Map<String, Path> findJavaFiles() {
+        Map<String, Path> javaFiles = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(appPath)) {
+            paths.filter(p -> p.getFileName().toString().endsWith(".java")).filter(Files::isRegularFile)
+                    .filter(p -> !FileUtils.isGenerated(appPath.relativize(p)))
+                    .forEach(p -> javaFiles.put(fileHashIndex.relativize(p), p));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to walk the project: " + appPath, e);
+        }
+        return javaFiles;
+    }
+
+    private void load() {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(indexFile))) {
+            IndexFile index = mapper.readValue(in, IndexFile.class);
+            if (!version.equals(index.version())) {
+                logger.infof("Ignoring the index of the symbols of %s built by another version: %s", appPath,
+                        index.version());
+                return;
+            }
+            files.putAll(index.files());
+        } catch (IOException e) {
+            logger.warnf("Ignoring the index of the symbols which cannot be read: %s", e.getMessage());
+        }
+    }
+
+    private void save() {
+        try {
+            // Write first a temporary file to not leave a corrupted index if the process is stopped
+            Path tmp = Files.createTempFile(indexFile.getParent(), "symbols", ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+                mapper.writeValue(out, new IndexFile(version, files));
+            }
+            Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            fileHashIndex.save();
+        } catch (IOException e) {
+            logger.warnf("Unable to save the index of the symbols: %s", e.getMessage());
+        }
+    }
+}
@@ -9,20 +9,59 @@ import org.jboss.logging.Logger;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Scanner implementation for JDTLS-based Java queries.
  * Handles queries like java.class, java.package using JDTLS language server.
+ * <p>
+ * One language server is started per workspace, e.g. per worker analyzing a fleet of applications, and restarted
+ * when another application is scanned using its workspace.
  */
 public class JdtlsQueryScanner implements QueryScanner {
 
     private static final Logger logger = Logger.getLogger(JdtlsQueryScanner.class);
 
-    // Singleton pattern for managing JDT-LS server instance
-    private static JdtLsClient jdtLsClientInstance;
-    private static boolean isStarted = false;
-    private static final Object lock = new Object();
+    // The language servers started, keyed by their workspace
+    private static final Map<String, Server> servers = new ConcurrentHashMap<>();
+
+    /**
+     * A language server and the application whose project it imported. A server processes one command at a time.
+     */
+    private static final class Server {
+        private JdtLsClient client;
+        private String appPath;
+
+        /**
+         * Returns the client of the server, starting a new server when another application is scanned.
+         */
+        synchronized JdtLsClient client(Config config) throws Exception {
+            if (client != null && !config.appPath().equals(appPath)) {
+                stop();
+            }
+            if (client == null) {
+                logger.infof("Initializing the JDT-LS server of the workspace %s...", config.jdtWks());
+                JdtLsClient started = new JdtLsClient.JdtLsClientBuilder().withConfig(config).build();
+                started.start();
+                client = started;
+                appPath = config.appPath();
+                logger.info("JDT-LS server initialized successfully");
+            }
+            return client;
+        }
+
+        synchronized void stop() {
+            if (client != null) {
+                logger.infof("Shutting down the JDT-LS server of %s...", appPath);
+                client.stop();
+                client = null;
+                appPath = null;
+            }
+        }
+    }
 
     @Deprecated
     @Override
@@ -75,11 +114,15 @@ public class JdtlsQueryScanner implements QueryScanner {
         logger.infof("Executing JDTLS query: %s.%s", query.fileType(), query.symbol());
 
         try {
-            // Get the singleton JDT-LS client instance (lazy initialization)
-            JdtLsClient jdtLsClient = getJdtLsClient(config);
-
-            logger.infof("JDT-LS server is ready, query processing for %s.%s", query.fileType(), query.symbol());
-            List<SymbolInformation> symbolResults = jdtLsClient.executeCommand(config, query);
+            // The language server processes one command at a time and can be restarted for another application
+            List<SymbolInformation> symbolResults;
+            Server server = servers.computeIfAbsent(Objects.toString(config.jdtWks(), ""), wks -> new Server());
+            synchronized (server) {
+                JdtLsClient jdtLsClient = server.client(config);
+
+                logger.infof("JDT-LS server is ready, query processing for %s.%s", query.fileType(), query.symbol());
+                symbolResults = jdtLsClient.executeCommand(config, query);
+            }
 
             // TODO: As there is no matchId created for a JDTLS query, we will use the type+symbol. To be reviewed
             var matchId = String.format("%s-%s", query.fileType(), query.symbol());
@@ -93,37 +136,10 @@ public class JdtlsQueryScanner implements QueryScanner {
     }
 
     /**
-     * Gets the singleton JDT-LS client instance, initializing it if necessary.
-     * Thread-safe implementation using double-checked locking.
-     */
-    private static JdtLsClient getJdtLsClient(Config config) throws Exception {
-        if (!isStarted) {
-            synchronized (lock) {
-                if (!isStarted) {
-                    logger.info("Initializing JDT-LS server singleton...");
-                    jdtLsClientInstance = new JdtLsClient.JdtLsClientBuilder().withConfig(config).build();
-                    jdtLsClientInstance.start();
-                    isStarted = true;
-                    logger.info("JDT-LS server singleton initialized successfully");
-                }
-            }
-        }
-        return jdtLsClientInstance;
-    }
-
-    /**
-     * Shuts down the singleton JDT-LS server instance.
+     * Shuts down the JDT-LS servers started.
      * This should be called when the application is shutting down.
      */
     public static void shutdown() {
-        synchronized (lock) {
-            if (isStarted && jdtLsClientInstance != null) {
-                logger.info("Shutting down JDT-LS server singleton...");
-                jdtLsClientInstance.stop();
-                jdtLsClientInstance = null;
-                isStarted = false;
-                logger.info("JDT-LS server singleton shut down successfully");
-            }
-        }
+        servers.values().forEach(Server::stop);
     }
 }
\ No newline at end of file
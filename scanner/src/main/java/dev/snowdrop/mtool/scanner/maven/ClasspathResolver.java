@@ -0,0 +1,296 @@
+package dev.snowdrop.mtool.scanner.maven;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.snowdrop.mtool.scanner.cache.FileHashIndex;
+import dev.snowdrop.mtool.scanner.metrics.ScanMetrics;
+import dev.snowdrop.mtool.scanner.openrewrite.ModuleParallelRunner;
+import dev.snowdrop.mtool.scanner.utils.FileUtils;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.Exclusion;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.resolution.DependencyRequest;
+import org.eclipse.aether.resolution.DependencyResolutionException;
+import org.eclipse.aether.resolution.DependencyResult;
+import org.eclipse.aether.util.artifact.JavaScopes;
+import org.eclipse.aether.util.filter.DependencyFilterUtils;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the compile and test classpath of each module of a Maven project and records them, like a lockfile, within
+ * {@code <appPath>/.mtool/classpath.json} with the hash of the poms. The classpath is only resolved again when a pom
+ * changed or when a jar has been deleted from the local repository, so that the sources are parsed with the same types
+ * by each run, including the runs without network access. A classpath which could not be fully resolved, e.g. by an
+ * offline first run, is only used by the run which resolved it.
+ * <p>
+ * The resolution is enabled using the system property {@value #RESOLVE_PROPERTY}.
+ */
+public class ClasspathResolver {
+    private static final Logger logger = Logger.getLogger(ClasspathResolver.class);
+
+    public static final String RESOLVE_PROPERTY = "mtool.classpath.resolve";
+
+    private static final String CLASSPATH_FILE = "classpath.json";
+    private static final String POM_FILE = "pom.xml";
+    private static final Set<String> COMPILE_SCOPES = Set.of(JavaScopes.COMPILE, JavaScopes.PROVIDED,
+            JavaScopes.SYSTEM);
+
+    private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final Map<Path, ClasspathResolver> resolvers = new ConcurrentHashMap<>();
+
+    /**
+     * The classpath of a module
+     *
+     * @param compile the jars of the compile classpath
+     * @param test the jars of the test classpath, which includes the compile classpath
+     */
+    public record ModuleClasspath(List<String> compile, List<String> test) {
+    }
+
+    /**
+     * The content of the file {@value #CLASSPATH_FILE}
+     *
+     * @param pomHash the hash of the poms of the project
+     * @param modules the classpath per module, keyed by the path of the module relative to the project
+     */
+    public record Lockfile(String pomHash, Map<String, ModuleClasspath> modules) {
+    }
+
+    /**
+     * The classpath resolved for a module
+     *
+     * @param classpath the jars resolved
+     * @param complete false when some dependencies could not be resolved, e.g. offline or when a repository failed
+     */
+    record ModuleResolution(ModuleClasspath classpath, boolean complete) {
+    }
+
+    @FunctionalInterface
+    interface ModuleResolver {
+        ModuleResolution resolve(Path pomFile, Set<String> reactorArtifacts) throws Exception;
+    }
+
+    private final Path appPath;
+    private final Path lockfilePath;
+    private final ModuleResolver moduleResolver;
+    private Lockfile lockfile;
+
+    public ClasspathResolver(Path appPath) {
+        this(appPath, null);
+    }
+
+    ClasspathResolver(Path appPath, ModuleResolver moduleResolver) {
+        this.appPath = appPath.toAbsolutePath().normalize();
+        this.lockfilePath = FileUtils.mtoolDir(this.appPath).resolve(CLASSPATH_FILE);
+        this.moduleResolver = moduleResolver != null ? moduleResolver : new MavenModuleResolver();
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(RESOLVE_PROPERTY);
+    }
+
+    /**
+     * Returns the jars of the test classpath of all the modules of the project, or an empty list when the resolution is
+     * disabled, the project is not a Maven project or the classpath cannot be resolved.
+     */
+    public static List<String> projectClasspath(Path appPath) {
+        if (!isEnabled() || !Files.isRegularFile(appPath.resolve(POM_FILE))) {
+            return List.of();
+        }
+        try {
+            ClasspathResolver resolver = resolvers.computeIfAbsent(appPath.toAbsolutePath().normalize(),
+                    ClasspathResolver::new);
+            Set<String> jars = new LinkedHashSet<>();
+            resolver.resolve().modules().values().forEach(module -> jars.addAll(module.test()));
+            return new ArrayList<>(jars);
+        } catch (Exception e) {
+            logger.warnf("Unable to resolve the classpath of the project %s: %s", appPath, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Returns the classpath of the modules, resolving them only when the poms changed since the classpath has been
+     * recorded or when a jar is missing.
+     */
+    public synchronized Lockfile resolve() throws Exception {
+        List<Path> modules = modules();
+        String pomHash = pomHash(modules);
+
+        if (lockfile == null) {
+            lockfile = load();
+        }
+        boolean hit = lockfile != null && pomHash.equals(lockfile.pomHash()) && jarsExist(lockfile);
+        ScanMetrics.recordCacheRequest("classpath", hit);
+        if (hit) {
+            return lockfile;
+        }
+
+        logger.infof("Resolving the classpath of the %d module(s) of %s", modules.size(), appPath);
+        Set<String> reactorArtifacts = reactorArtifacts(modules);
+        Map<String, ModuleClasspath> classpaths = new TreeMap<>();
+        boolean complete = true;
+        for (Path module : modules) {
+            String relativePath = appPath.relativize(module).toString().replace('\\', '/');
+            ModuleResolution resolution = moduleResolver.resolve(module.resolve(POM_FILE), reactorArtifacts);
+            classpaths.put(relativePath, resolution.classpath());
+            complete &= resolution.complete();
+        }
+        lockfile = new Lockfile(pomHash, classpaths);
+        // A partial classpath is only used by this run: the next runs will resolve the missing dependencies again
+        if (complete) {
+            save(lockfile);
+        } else {
+            logger.warnf("The classpath of %s is incomplete and will not be recorded", appPath);
+        }
+        return lockfile;
+    }
+
+    private List<Path> modules() {
+        List<Path> modules = ModuleParallelRunner.discoverModules(appPath);
+        return modules.isEmpty() ? List.of(appPath) : modules;
+    }
+
+    private String pomHash(List<Path> modules) throws IOException {
+        MessageDigest digest = FileHashIndex.newDigest();
+        digest.update(Files.readAllBytes(appPath.resolve(POM_FILE)));
+        for (Path module : modules) {
+            Path pom = module.resolve(POM_FILE);
+            if (!module.equals(appPath) && Files.isRegularFile(pom)) {
+                digest.update(appPath.relativize(pom).toString().getBytes());
+                digest.update(Files.readAllBytes(pom));
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Returns the groupId:artifactId of the modules, which are not resolved from the repositories as they are built by
+     * the project.
+     */
+    private Set<String> reactorArtifacts(List<Path> modules) {
+        Set<String> artifacts = new LinkedHashSet<>();
+        for (Path module : modules) {
+            try (Reader reader = Files.newBufferedReader(module.resolve(POM_FILE))) {
+                Model model = new MavenXpp3Reader().read(reader);
+                String groupId = model.getGroupId() != null ? model.getGroupId()
+                        : model.getParent() != null ? model.getParent().getGroupId() : null;
+                artifacts.add(groupId + ":" + model.getArtifactId());
+            } catch (Exception e) {
+                logger.debugf("Unable to read the pom of the module %s: %s", module, e.getMessage());
+            }
+        }
+        return artifacts;
+    }
+
+    private static boolean jarsExist(Lockfile lockfile) {
+        return lockfile.modules().values().stream().flatMap(module -> module.test().stream())
+                .allMatch(jar -> Files.isRegularFile(Paths.get(jar)));
+    }
+
+    private Lockfile load() {
+        if (!Files.exists(lockfilePath)) {
+            return null;
+        }
+        try {
+            return mapper.readValue(lockfilePath.toFile(), Lockfile.class);
+        } catch (IOException e) {
+            logger.warnf("Ignoring the classpath recorded which cannot be read: %s", e.getMessage());
+            return null;
+        }
+    }
+
+    private void save(Lockfile lockfile) {
+        try {
+            Path tmp = Files.createTempFile(lockfilePath.getParent(), "classpath", ".tmp");
+            mapper.writeValue(tmp.toFile(), lockfile);
+            Files.move(tmp, lockfilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warnf("Unable to save the classpath of the project: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Resolves the dependencies of the effective model of a module using maven-resolver
+     */
+    static class MavenModuleResolver implements ModuleResolver {
+
+        @Override
+        public ModuleResolution resolve(Path pomFile, Set<String> reactorArtifacts) throws Exception {
+            // The effective model is shared with the pom.dependency queries
+            MavenModelCache models = MavenModelCache.getInstance();
+            RepositoryModelResolver repository = models.repository();
+            Model model = models.build(pomFile).getEffectiveModel();
+
+            CollectRequest collectRequest = new CollectRequest();
+            collectRequest.setRepositories(repository.getRepositories());
+            for (org.apache.maven.model.Dependency dependency : model.getDependencies()) {
+                if (reactorArtifacts.contains(dependency.getGroupId() + ":" + dependency.getArtifactId())) {
+                    continue;
+                }
+                collectRequest.addDependency(toDependency(dependency));
+            }
+
+            DependencyRequest request = new DependencyRequest(collectRequest,
+                    DependencyFilterUtils.classpathFilter(JavaScopes.TEST));
+            DependencyResult result;
+            boolean complete = true;
+            try {
+                result = repository.getRepoSystem().resolveDependencies(repository.getSession(), request);
+            } catch (DependencyResolutionException e) {
+                // Keep the jars resolved, the types of the missing ones will not be attributed
+                logger.warnf("Some dependencies of %s cannot be resolved: %s", pomFile, e.getMessage());
+                result = e.getResult();
+                complete = false;
+            }
+
+            Set<String> compile = new LinkedHashSet<>();
+            Set<String> test = new LinkedHashSet<>();
+            for (ArtifactResult artifactResult : result.getArtifactResults()) {
+                if (!artifactResult.isResolved()) {
+                    continue;
+                }
+                String jar = artifactResult.getArtifact().getFile().getAbsolutePath();
+                String scope = artifactResult.getRequest().getDependencyNode().getDependency().getScope();
+                if (COMPILE_SCOPES.contains(scope)) {
+                    compile.add(jar);
+                }
+                test.add(jar);
+            }
+            return new ModuleResolution(new ModuleClasspath(new ArrayList<>(compile), new ArrayList<>(test)), complete);
+        }
+
+        static Dependency toDependency(org.apache.maven.model.Dependency dependency) {
+            String classifier = dependency.getClassifier();
+            String extension = dependency.getType() != null ? dependency.getType() : "jar";
+            if ("test-jar".equals(extension)) {
+                extension = "jar";
+                classifier = "tests";
+            }
+            List<Exclusion> exclusions = dependency.getExclusions().stream()
+                    .map(e -> new Exclusion(e.getGroupId(), e.getArtifactId(), "*", "*")).toList();
+            return new Dependency(new DefaultArtifact(dependency.getGroupId(), dependency.getArtifactId(), classifier,
+                    extension, dependency.getVersion()), dependency.getScope(), dependency.isOptional(), exclusions);
+        }
+    }
+}
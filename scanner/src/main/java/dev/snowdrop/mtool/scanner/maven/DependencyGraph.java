@@ -0,0 +1,350 @@
+package dev.snowdrop.mtool.scanner.maven;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.snowdrop.mtool.scanner.cache.FileHashIndex;
+import dev.snowdrop.mtool.scanner.metrics.ScanMetrics;
+import dev.snowdrop.mtool.scanner.utils.FileUtils;
+import org.apache.maven.model.Model;
+import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.collection.CollectResult;
+import org.eclipse.aether.collection.DependencyCollectionException;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyNode;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * The transitive dependencies of the modules of a Maven project, collected using maven-resolver and recorded within
+ * {@code <appPath>/.mtool/deps-graph/<hash of the poms>.json}, so that the next runs answer the transitive
+ * {@code pom.dependency} queries from the disk without collecting the dependencies again. The graphs of the
+ * {@value #MAX_GRAPHS} versions of the poms used last are kept.
+ * <p>
+ * The dependencies on the other modules of the reactor are not collected from the repositories: the graph of the
+ * module is followed instead.
+ */
+public class DependencyGraph {
+    private static final Logger logger = Logger.getLogger(DependencyGraph.class);
+
+    public static final String GRAPH_DIR = "deps-graph";
+    static final int MAX_GRAPHS = 3;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Map<Path, DependencyGraph> graphs = new ConcurrentHashMap<>();
+
+    /**
+     * An artifact of the graph
+     *
+     * @param groupId the group id
+     * @param artifactId the artifact id
+     * @param version the version selected by the conflict resolution
+     * @param scope the scope, null for the module
+     * @param children the dependencies of the artifact
+     */
+    public record Node(String groupId, String artifactId, String version, String scope, List<Node> children) {
+        public String ga() {
+            return groupId + ":" + artifactId;
+        }
+
+        @Override
+        public String toString() {
+            return groupId + ":" + artifactId + ":" + version + (scope != null ? " (" + scope + ")" : "");
+        }
+    }
+
+    /**
+     * The content of a file of {@value #GRAPH_DIR}
+     *
+     * @param pomHash the hash of the poms of the project
+     * @param modules the graph of each module, keyed by the path of the module relative to the project
+     */
+    public record Graph(String pomHash, Map<String, Node> modules) {
+    }
+
+    /**
+     * An artifact found within the graph of a module
+     *
+     * @param module the path of the module relative to the project
+     * @param path the artifacts from the module, excluded, to the artifact found
+     */
+    public record Match(String module, List<Node> path) {
+        public Node artifact() {
+            return path.get(path.size() - 1);
+        }
+    }
+
+    /**
+     * The graph of a module
+     *
+     * @param root the module and its dependencies
+     * @param complete false when some dependencies could not be collected, e.g. offline or when a repository failed
+     */
+    record ModuleGraph(Node root, boolean complete) {
+    }
+
+    @FunctionalInterface
+    interface ModuleCollector {
+        ModuleGraph collect(Path pomFile, Set<String> reactorArtifacts) throws Exception;
+    }
+
+    private final Path appPath;
+    private final Path graphDir;
+    private final ModuleCollector collector;
+    private Graph graph;
+    // The index of the reactor whose poms have been hashed for the graph, built again when a pom is modified
+    private ReactorDependencyIndex graphIndex;
+
+    DependencyGraph(Path appPath, ModuleCollector collector) {
+        this.appPath = appPath.toAbsolutePath().normalize();
+        this.graphDir = FileUtils.mtoolDir(this.appPath, GRAPH_DIR);
+        this.collector = collector != null ? collector : new MavenModuleCollector();
+    }
+
+    /**
+     * Returns the dependency graph of the project.
+     */
+    public static DependencyGraph forProject(Path appPath) {
+        return graphs.computeIfAbsent(appPath.toAbsolutePath().normalize(), p -> new DependencyGraph(p, null));
+    }
+
+    /**
+     * Returns the paths leading to the artifacts matched within the graph of each module of the project.
+     *
+     * @param groupId the group id
+     * @param artifactId the artifact id
+     * @param versionMatcher the versions to match
+     */
+    public List<Match> find(String groupId, String artifactId, VersionMatcher versionMatcher) throws Exception {
+        Graph current = graph();
+        Map<String, String> moduleOfArtifact = new LinkedHashMap<>();
+        current.modules().forEach((module, node) -> moduleOfArtifact.put(node.ga(), module));
+
+        List<Match> matches = new ArrayList<>();
+        for (Map.Entry<String, Node> module : current.modules().entrySet()) {
+            Set<String> visitedModules = new HashSet<>(Set.of(module.getKey()));
+            search(module.getValue(), groupId + ":" + artifactId, versionMatcher, current, moduleOfArtifact,
+                    visitedModules, new ArrayList<>(), module.getKey(), matches);
+        }
+        return matches;
+    }
+
+    private static void search(Node node, String ga, VersionMatcher versionMatcher, Graph graph,
+            Map<String, String> moduleOfArtifact, Set<String> visitedModules, List<Node> path, String module,
+            List<Match> matches) {
+        for (Node child : node.children()) {
+            path.add(child);
+            if (child.ga().equals(ga) && versionMatcher.matches(child.version())) {
+                matches.add(new Match(module, List.copyOf(path)));
+            }
+            // A dependency on a module of the reactor continues within the graph of the module
+            String childModule = moduleOfArtifact.get(child.ga());
+            if (childModule != null && child.children().isEmpty()) {
+                if (visitedModules.add(childModule)) {
+                    search(graph.modules().get(childModule), ga, versionMatcher, graph, moduleOfArtifact,
+                            visitedModules, path, module, matches);
+                    visitedModules.remove(childModule);
+                }
+            } else {
+                search(child, ga, versionMatcher, graph, moduleOfArtifact, visitedModules, path, module, matches);
+            }
+            path.remove(path.size() - 1);
+        }
+    }
+
+    /**
+     * Returns the graph of the modules, collecting it only when no graph has been recorded for the poms.
+     */
+    public synchronized Graph graph() throws Exception {
+        ReactorDependencyIndex index = ReactorDependencyIndex.forProject(appPath);
+        // The poms are only hashed again when their last modification time changed
+        if (graph != null && index == graphIndex) {
+            return graph;
+        }
+        List<Path> poms = new ArrayList<>(index.poms());
+        String pomHash = pomHash(poms);
+        graphIndex = index;
+        if (graph != null && pomHash.equals(graph.pomHash())) {
+            return graph;
+        }
+
+        Path graphFile = graphDir.resolve(pomHash + ".json");
+        graph = load(graphFile);
+        ScanMetrics.recordCacheRequest("deps-graph", graph != null);
+        if (graph != null) {
+            return graph;
+        }
+
+        logger.infof("Collecting the dependencies of the %d module(s) of %s", poms.size(), appPath);
+        Set<String> reactorArtifacts = reactorArtifacts(poms);
+        Map<String, Node> modules = new TreeMap<>();
+        boolean complete = true;
+        for (Path pom : poms) {
+            String module = appPath.relativize(pom.getParent()).toString().replace('\\', '/');
+            ModuleGraph moduleGraph = collector.collect(pom, reactorArtifacts);
+            modules.put(module, moduleGraph.root());
+            complete &= moduleGraph.complete();
+        }
+        graph = new Graph(pomHash, modules);
+        // A partial graph is only used by this run: the next runs will collect the missing dependencies again
+        if (complete) {
+            save(graphFile, graph);
+        } else {
+            logger.warnf("The dependency graph of %s is incomplete and will not be recorded", appPath);
+        }
+        return graph;
+    }
+
+    private String pomHash(List<Path> poms) throws IOException {
+        MessageDigest digest = FileHashIndex.newDigest();
+        for (Path pom : poms) {
+            digest.update(appPath.relativize(pom).toString().getBytes());
+            digest.update(Files.readAllBytes(pom));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static Set<String> reactorArtifacts(List<Path> poms) {
+        Set<String> artifacts = new HashSet<>();
+        for (Path pom : poms) {
+            try {
+                Model model = MavenModelCache.getInstance().build(pom).getEffectiveModel();
+                artifacts.add(model.getGroupId() + ":" + model.getArtifactId());
+            } catch (Exception e) {
+                logger.debugf("Unable to build the model of the module %s: %s", pom, e.getMessage());
+            }
+        }
+        return artifacts;
+    }
+
+    private static Graph load(Path graphFile) {
+        if (!Files.exists(graphFile)) {
+            return null;
+        }
+        Graph graph;
+        try {
+            graph = mapper.readValue(graphFile.toFile(), Graph.class);
+        } catch (IOException e) {
+            logger.warnf("Ignoring the dependency graph recorded which cannot be read: %s", e.getMessage());
+            return null;
+        }
+        // The graphs are pruned using their last modification time: keep the ones used recently
+        try {
+            Files.setLastModifiedTime(graphFile, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.debugf("Unable to update the last modification time of %s: %s", graphFile, e.getMessage());
+        }
+        return graph;
+    }
+
+    private void save(Path graphFile, Graph graph) {
+        try {
+            Path tmp = Files.createTempFile(graphDir, "deps-graph", ".tmp");
+            mapper.writeValue(tmp.toFile(), graph);
+            Files.move(tmp, graphFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            prune();
+        } catch (IOException e) {
+            logger.warnf("Unable to save the dependency graph of the project: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the graphs of the versions of the poms used the least recently
+     */
+    private void prune() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(graphDir)) {
+            files = stream.filter(f -> f.getFileName().toString().endsWith(".json"))
+                    .sorted(Comparator.comparingLong(DependencyGraph::lastModified).reversed()).toList();
+        }
+        for (Path file : files.subList(Math.min(MAX_GRAPHS, files.size()), files.size())) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Collects the dependencies of the effective model of a module using maven-resolver
+     */
+    static class MavenModuleCollector implements ModuleCollector {
+
+        @Override
+        public ModuleGraph collect(Path pomFile, Set<String> reactorArtifacts) throws Exception {
+            // The effective model is shared with the pom.dependency queries
+            MavenModelCache models = MavenModelCache.getInstance();
+            RepositoryModelResolver repository = models.repository();
+            Model model = models.build(pomFile).getEffectiveModel();
+
+            CollectRequest collectRequest = new CollectRequest();
+            collectRequest.setRepositories(repository.getRepositories());
+            List<Node> reactorDependencies = new ArrayList<>();
+            for (org.apache.maven.model.Dependency dependency : model.getDependencies()) {
+                if (reactorArtifacts.contains(dependency.getGroupId() + ":" + dependency.getArtifactId())) {
+                    reactorDependencies.add(new Node(dependency.getGroupId(), dependency.getArtifactId(),
+                            dependency.getVersion(), scope(dependency.getScope()), List.of()));
+                } else {
+                    collectRequest
+                            .addDependency(ClasspathResolver.MavenModuleResolver.toDependency(dependency));
+                }
+            }
+            if (model.getDependencyManagement() != null) {
+                for (org.apache.maven.model.Dependency dependency : model.getDependencyManagement().getDependencies()) {
+                    collectRequest
+                            .addManagedDependency(ClasspathResolver.MavenModuleResolver.toDependency(dependency));
+                }
+            }
+
+            CollectResult result;
+            boolean complete = true;
+            try {
+                result = repository.getRepoSystem().collectDependencies(repository.getSession(), collectRequest);
+            } catch (DependencyCollectionException e) {
+                // Keep the part of the graph collected
+                logger.warnf("Some dependencies of %s cannot be collected: %s", pomFile, e.getMessage());
+                result = e.getResult();
+                complete = false;
+            }
+
+            List<Node> children = new ArrayList<>(reactorDependencies);
+            if (result.getRoot() != null) {
+                result.getRoot().getChildren().forEach(child -> children.add(toNode(child)));
+            }
+            Node root = new Node(model.getGroupId(), model.getArtifactId(), model.getVersion(), null, children);
+            return new ModuleGraph(root, complete && result.getExceptions().isEmpty());
+        }
+
+        private static Node toNode(DependencyNode node) {
+            List<Node> children = node.getChildren().stream().map(MavenModuleCollector::toNode).toList();
+            Dependency dependency = node.getDependency();
+            return new Node(node.getArtifact().getGroupId(), node.getArtifact().getArtifactId(),
+                    node.getArtifact().getVersion(), dependency != null ? scope(dependency.getScope()) : null,
+                    children);
+        }
+
+        private static String scope(String scope) {
+            return scope == null || scope.isEmpty() ? "compile" : scope;
+        }
+    }
+}
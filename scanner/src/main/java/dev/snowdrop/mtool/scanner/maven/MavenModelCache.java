@@ -0,0 +1,191 @@
+package dev.snowdrop.mtool.scanner.maven;
+
+import dev.snowdrop.mtool.scanner.metrics.ScanMetrics;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.building.DefaultModelBuilderFactory;
+import org.apache.maven.model.building.DefaultModelBuildingRequest;
+import org.apache.maven.model.building.ModelBuilder;
+import org.apache.maven.model.building.ModelBuildingException;
+import org.apache.maven.model.building.ModelBuildingRequest;
+import org.apache.maven.model.building.ModelBuildingResult;
+import org.apache.maven.model.building.ModelCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the models (raw and effective) of the poms of the projects scanned, shared by all the queries and rules of
+ * a run. A model is built again only when the pom, or one of its parents read from the project, has been modified, or
+ * when the active profiles differ.
+ * <p>
+ * The models are built using a copy of the system properties taken by the first build of the run, as the system
+ * properties of the JVM can be changed at any time, e.g. by the libraries, and would otherwise make the models built
+ * outdated. The copy is taken again after {@link #clear()}.
+ * <p>
+ * The models built share one {@link RepositoryModelResolver}, so that the repository system and its session are only
+ * created once, and one {@link ModelCache}, so that the parents and BOMs resolved from the repositories are only read
+ * once.
+ */
+public class MavenModelCache {
+
+    private static final MavenModelCache INSTANCE = new MavenModelCache();
+
+    record Key(Path pomFile, long lastModified, List<String> activeProfiles) {
+    }
+
+    // The poms read from the project to build the model and their last modification time
+    private record Entry(ModelBuildingResult result, Map<Path, Long> poms) {
+    }
+
+    // The model builder is stateless and can be shared between the queries scanned concurrently
+    private final ModelBuilder modelBuilder = new DefaultModelBuilderFactory().newInstance();
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ModelCache modelCache = new SharedModelCache();
+    private RepositoryModelResolver repository;
+    private Properties systemProperties;
+
+    /**
+     * Returns the cache shared by the scanners of the JVM.
+     */
+    public static MavenModelCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the repository resolver shared by the models, creating it the first time.
+     */
+    public synchronized RepositoryModelResolver repository() {
+        // Creating the repository system is costly: it is only done when a model has to be built
+        if (repository == null) {
+            repository = new RepositoryModelResolver();
+        }
+        return repository;
+    }
+
+    /**
+     * Returns the copy of the system properties used by the models of the run, taking it the first time.
+     */
+    private synchronized Properties systemProperties() {
+        if (systemProperties == null) {
+            systemProperties = new Properties();
+            systemProperties.putAll(System.getProperties());
+        }
+        return systemProperties;
+    }
+
+    /**
+     * Returns the model of a pom built using the system properties of the JVM, with the location of its elements.
+     */
+    public ModelBuildingResult build(Path pomFile) throws ModelBuildingException {
+        return build(pomFile, List.of());
+    }
+
+    /**
+     * Returns the model of a pom built using the system properties of the JVM and the profiles, with the location of
+     * its elements.
+     *
+     * @param pomFile the path of the pom
+     * @param activeProfiles the ids of the profiles to activate
+     * @return the result holding the raw and effective models
+     * @throws ModelBuildingException when the model cannot be built
+     */
+    public ModelBuildingResult build(Path pomFile, List<String> activeProfiles) throws ModelBuildingException {
+        Path normalizedPath = pomFile.toAbsolutePath().normalize();
+        Key key = new Key(normalizedPath, lastModified(normalizedPath), List.copyOf(activeProfiles));
+
+        Entry entry = entries.get(key);
+        boolean hit = entry != null && entry.poms().entrySet().stream()
+                .allMatch(pom -> lastModified(pom.getKey()) == pom.getValue());
+        ScanMetrics.recordCacheRequest("maven-model", hit);
+        if (hit) {
+            return entry.result();
+        }
+
+        // Download the parents and BOMs concurrently instead of letting the model builder resolve them one by one
+        RepositoryModelResolver repository = repository();
+        repository.prefetch(normalizedPath);
+
+        DefaultModelBuildingRequest req = new DefaultModelBuildingRequest();
+        req.setProcessPlugins(false);
+        req.setPomFile(normalizedPath.toFile());
+        req.setValidationLevel(ModelBuildingRequest.VALIDATION_LEVEL_MINIMAL);
+        req.setSystemProperties(systemProperties());
+        req.setActiveProfileIds(key.activeProfiles());
+        req.setLocationTracking(true);
+        // The resolver records the repositories of the pom: each build uses its own copy
+        req.setModelResolver(repository.newCopy());
+        req.setModelCache(modelCache);
+        ModelBuildingResult result = modelBuilder.build(req);
+
+        // The models built from a previous content of the pom are outdated
+        entries.keySet()
+                .removeIf(k -> k.pomFile().equals(normalizedPath) && k.lastModified() != key.lastModified());
+        entries.put(key, new Entry(result, projectPoms(result)));
+        return result;
+    }
+
+    /**
+     * Forgets the models built and the copy of the system properties, e.g. before a new run.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        systemProperties = null;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the poms of the lineage of the model read from the file system, i.e. the pom and its local parents.
+     */
+    private static Map<Path, Long> projectPoms(ModelBuildingResult result) {
+        Map<Path, Long> poms = new HashMap<>();
+        for (String modelId : result.getModelIds()) {
+            Model rawModel = result.getRawModel(modelId);
+            File pomFile = rawModel != null ? rawModel.getPomFile() : null;
+            if (pomFile != null) {
+                Path path = pomFile.toPath().toAbsolutePath().normalize();
+                poms.put(path, lastModified(path));
+            }
+        }
+        return poms;
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Keeps the parents and BOMs resolved from the repositories, keyed by their coordinates and the tag of the data
+     * cached (raw model, imported dependency management).
+     */
+    private static class SharedModelCache implements ModelCache {
+        private record CacheKey(String groupId, String artifactId, String version, String tag) {
+        }
+
+        private final Map<CacheKey, Object> data = new ConcurrentHashMap<>();
+
+        @Override
+        public void put(String groupId, String artifactId, String version, String tag, Object data) {
+            this.data.put(new CacheKey(groupId, artifactId, version, tag), Objects.requireNonNull(data));
+        }
+
+        @Override
+        public Object get(String groupId, String artifactId, String version, String tag) {
+            return data.get(new CacheKey(groupId, artifactId, version, tag));
+        }
+    }
+}
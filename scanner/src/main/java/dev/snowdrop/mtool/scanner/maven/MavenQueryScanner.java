@@ -5,36 +5,24 @@ import dev.snowdrop.mtool.model.analyze.Result;
 import dev.snowdrop.mtool.model.analyze.MavenGav;
 import dev.snowdrop.mtool.model.parser.Query;
 import dev.snowdrop.mtool.scanner.QueryScanner;
-import org.apache.maven.model.Dependency;
 import org.apache.maven.model.InputLocation;
-import org.apache.maven.model.Model;
-import org.apache.maven.model.Parent;
-import org.apache.maven.model.building.DefaultModelBuilderFactory;
-import org.apache.maven.model.building.DefaultModelBuildingRequest;
-import org.apache.maven.model.building.ModelBuilder;
-import org.apache.maven.model.building.ModelBuildingRequest;
-import org.apache.maven.model.building.ModelBuildingResult;
 import org.jboss.logging.Logger;
 
-import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Properties;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Scanner implementation for Maven POM dependency queries. Handles queries like pom.dependency.
  */
 public class MavenQueryScanner implements QueryScanner {
     private static final Logger logger = Logger.getLogger(MavenQueryScanner.class);
-    private ModelBuilder modelBuilder = null;
 
-    public MavenQueryScanner() {
-    }
+    // The scope of the queries searching the transitive dependencies, e.g. (gavs='...', scope='transitive')
+    private static final String TRANSITIVE_SCOPE = "transitive";
 
     @Deprecated
     @Override
@@ -86,20 +74,16 @@ public class MavenQueryScanner implements QueryScanner {
 
         logger.infof("Executing Maven dependency query: %s", query);
 
-        // Find the pom.xml path
-        Path pomPath = Paths.get(config.appPath(), "pom.xml");
+        // The dependencies of all the modules of the reactor are indexed once and shared by the queries
+        ReactorDependencyIndex index = ReactorDependencyIndex.forProject(Paths.get(config.appPath()));
 
         // No GAVs defined, so let find all the dependencies
         if (query.keyValues().isEmpty()) {
-            List<Dependency> dependencies = findDependencies(pomPath.toString());
-            dependencies.forEach(l -> {
-                var g = l.getGroupId();
-                var a = l.getArtifactId();
-                var v = l.getVersion();
-                var il = l.getLocation("");
+            index.dependencies().stream().filter(e -> e.location() != null).forEach(e -> {
+                var il = e.location();
                 var result = String.format("Dependency found: %s in file:\n %s, at line: %d and position: %d",
-                        String.format("%s:%s:%s", g, a, v), il.getSource().getLocation(), il.getLineNumber(),
-                        il.getColumnNumber());
+                        String.format("%s:%s:%s", e.groupId(), e.artifactId(), e.version()),
+                        il.getSource().getLocation(), il.getLineNumber(), il.getColumnNumber());
                 results.add(new Result("", "maven", result));
             });
         } else {
@@ -108,14 +92,25 @@ public class MavenQueryScanner implements QueryScanner {
             String groupId = mvnGav.groupId();
             String artifactId = mvnGav.artifactId();
             String version = mvnGav.version();
+            // The version can be a range or an expression, e.g. [3.2,4.0) or 3.x, matching several versions
+            VersionMatcher versionMatcher = VersionMatcher.parse(version);
+            String scope = query.keyValues().get("scope");
+            if (TRANSITIVE_SCOPE.equals(scope)) {
+                results.addAll(findTransitiveDependency(Paths.get(config.appPath()), groupId, artifactId,
+                        versionMatcher));
+                return results;
+            }
 
-            Optional<InputLocation> loc = findDependencyLocation(pomPath.toString(), groupId, artifactId, version);
-            if (loc.isPresent()) {
-                InputLocation il = loc.get();
+            for (ReactorDependencyIndex.Entry e : index.find(groupId, artifactId, versionMatcher)) {
+                InputLocation il = e.location();
+                if (il == null || scope != null && !scope.equals(e.scope())) {
+                    continue;
+                }
+                String foundVersion = versionMatcher.matchesAll() || versionMatcher.isExact() ? version : e.version();
                 // The il.getSource().getModelId() returns the ID of the artifact within the model BUT not the artifact that we are looking for !
                 var result = String.format("Dependency: %s found in file:\n %s\nat line: %d and position: %d",
-                        formatGav(groupId, artifactId, version), il.getSource().getLocation(), il.getLineNumber(),
-                        il.getColumnNumber());
+                        formatGav(groupId, artifactId, foundVersion), il.getSource().getLocation(),
+                        il.getLineNumber(), il.getColumnNumber());
                 results.add(new Result("", "maven", result));
             }
         }
@@ -123,99 +118,28 @@ public class MavenQueryScanner implements QueryScanner {
         return results;
     }
 
-    private List<Dependency> findDependencies(String pomPath) {
-        modelBuilder = new DefaultModelBuilderFactory().newInstance();
-        ModelBuildingResult result = buildModel(pomPath);
-
-        List<Dependency> dependencies = searchDependencies(result.getEffectiveModel());
-
-        // If not found with effective model, try with raw model to BOM's case
-        /*
-         * if (dependencies.isEmpty()) {
-         * dependencies = searchDependencies(result.getRawModel());
-         * }
-         */
-
-        return dependencies;
-    }
-
-    private List<Dependency> searchDependencies(Model model) {
-        List<Dependency> dependencies = new ArrayList<>();
-        if (model.getDependencies() != null) {
-            dependencies.addAll(model.getDependencies());
-        }
-        /*
-         * if (model.getDependencyManagement() != null) {
-         * dependencies.addAll(model.getDependencyManagement().getDependencies());
-         * }
-         */
-        return dependencies;
-    }
-
-    public Optional<InputLocation> findDependencyLocation(String pomPath, String groupId, String artifactId,
-            String version) {
-        modelBuilder = new DefaultModelBuilderFactory().newInstance();
-        ModelBuildingResult result = buildModel(pomPath);
-
-        // First try with effective model (current behavior)
-        Optional<InputLocation> location = searchDependency(result.getEffectiveModel(), pomPath, groupId, artifactId,
-                version, true);
-
-        // If not found with effective model, try with raw model to BOM's case
-        if (!location.isPresent()) {
-            location = searchDependency(result.getRawModel(), pomPath, groupId, artifactId, version, false);
-        }
-
-        return location;
-    }
-
-    public Optional<InputLocation> searchDependency(Model model, String pomPath, String groupId, String artifactId,
-            String version, boolean isEffectiveModel) {
-
-        if (model.getDependencies() != null) {
-            //printDependencies(model.getDependencies());
-            Optional<Dependency> dep = model.getDependencies().stream()
-                    .filter(d -> matchesGav(d, groupId, artifactId, version, model, isEffectiveModel)).findFirst();
-
-            if (dep.isPresent()) {
-                // Found it!
-                logger.debugf("Dep groupId location: %s", dep.get().getLocation("groupId"));
-                logger.debugf("Dep artifactId location: %s", dep.get().getLocation("artifactId"));
-                logger.debugf("Dep version location: %s", dep.get().getLocation("version"));
-                logger.debugf("Dep location: %s", dep.get().getLocation(""));
-                return Optional.ofNullable(dep.get().getLocation(""));
-            }
-        }
-
-        if (model.getDependencyManagement() != null) {
-            Optional<Dependency> dep = model.getDependencyManagement().getDependencies().stream()
-                    .filter(d -> matchesGav(d, groupId, artifactId, version, model, isEffectiveModel)).findFirst();
-
-            if (dep.isPresent()) {
-                // Found it!
-                return Optional.ofNullable(dep.get().getLocation(""));
-            }
-        }
-
-        Parent p = model.getParent();
-        if (p != null) {
-            // If the GAV has not been found within the parent tag, then we will search about it within the parent pom: dependencies, dependencyManagement
-            String parentRelativePath = p.getRelativePath();
-            if (parentRelativePath != "") {
-                String parentPomPath = Paths.get(new File(pomPath).getParent(), parentRelativePath).toString();
-                return searchDependency(buildModel(parentPomPath).getEffectiveModel(), parentPomPath, groupId,
-                        artifactId, version, true);
-            } else {
-                // GAV is defined part of the pom parent section
-                if (matchesGav(p, groupId, artifactId, version, model, isEffectiveModel)) {
-                    return Optional.ofNullable(p.getLocation(""));
-                } else {
-                    return Optional.empty();
-                }
+    /**
+     * Searches the artifact within the dependency graph of the modules, reporting the path from the module to the
+     * artifact found
+     */
+    private List<Result> findTransitiveDependency(Path appPath, String groupId, String artifactId,
+            VersionMatcher versionMatcher) {
+        List<Result> results = new ArrayList<>();
+        try {
+            for (DependencyGraph.Match match : DependencyGraph.forProject(appPath).find(groupId, artifactId,
+                    versionMatcher)) {
+                DependencyGraph.Node artifact = match.artifact();
+                String path = match.path().stream().map(DependencyGraph.Node::toString)
+                        .collect(Collectors.joining(" -> "));
+                var result = String.format("Dependency: %s found transitively in module: %s\nthrough: %s",
+                        formatGav(groupId, artifactId, artifact.version()),
+                        match.module().isEmpty() ? "." : match.module(), path);
+                results.add(new Result("", "maven", result));
             }
+        } catch (Exception e) {
+            logger.errorf("Could not collect the dependency graph of %s: %s", appPath, e.getMessage());
         }
-
-        return Optional.empty();
+        return results;
     }
 
     /**
@@ -239,100 +163,6 @@ public class MavenQueryScanner implements QueryScanner {
         return new MavenGav(groupId, artifactId, version);
     }
 
-    /**
-     * Matches a dependency GAV against the search criteria, handling both effective and raw models
-     */
-    private boolean matchesGav(Dependency dependency, String groupId, String artifactId, String version, Model model,
-            boolean isEffectiveModel) {
-        return matchesArtifact(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion(), groupId,
-                artifactId, version, model, isEffectiveModel);
-    }
-
-    /**
-     * Matches a parent GAV against the search criteria, handling both effective and raw models
-     */
-    private boolean matchesGav(Parent parent, String groupId, String artifactId, String version, Model model,
-            boolean isEffectiveModel) {
-        return matchesArtifact(parent.getGroupId(), parent.getArtifactId(), parent.getVersion(), groupId, artifactId,
-                version, model, isEffectiveModel);
-    }
-
-    /**
-     * Common logic for matching artifacts (dependencies or parents) against search criteria
-     */
-    private boolean matchesArtifact(String artifactGroupId, String artifactArtifactId, String artifactVersion,
-            String searchGroupId, String searchArtifactId, String searchVersion, Model model,
-            boolean isEffectiveModel) {
-        String resolvedGroupId = artifactGroupId;
-        String resolvedArtifactId = artifactArtifactId;
-        String resolvedVersion = artifactVersion;
-
-        // For raw model, resolve properties to match against the search criteria
-        if (!isEffectiveModel) {
-            resolvedGroupId = resolveProperty(resolvedGroupId, model);
-            resolvedArtifactId = resolveProperty(resolvedArtifactId, model);
-            resolvedVersion = resolveProperty(resolvedVersion, model);
-        }
-
-        // Check if groupId OR artifactId match
-        if (!searchGroupId.equals(resolvedGroupId) || !searchArtifactId.equals(resolvedArtifactId)) {
-            return false;
-        }
-
-        // Check version if specified
-        boolean hasSearchVersion = (searchVersion != null && !searchVersion.isEmpty());
-        if (!hasSearchVersion) {
-            return true; // Match without version check
-        } else {
-            return searchVersion.equals(resolvedVersion);
-        }
-    }
-
-    private ModelBuildingResult buildModel(String pomPath) {
-        RepositoryModelResolver repositoryModelResolver = new RepositoryModelResolver();
-        DefaultModelBuildingRequest req = new DefaultModelBuildingRequest();
-        req.setProcessPlugins(false);
-        req.setPomFile(new File(pomPath));
-        req.setValidationLevel(ModelBuildingRequest.VALIDATION_LEVEL_MINIMAL);
-        req.setSystemProperties(System.getProperties());
-        req.setLocationTracking(true);
-        req.setModelResolver(repositoryModelResolver);
-
-        ModelBuildingResult result = null;
-        try {
-            return modelBuilder.build(req);
-        } catch (Exception e) {
-            logger.error("Could not build effective model: " + e.getMessage());
-            e.printStackTrace();
-        }
-        return result;
-    }
-
-    /**
-     * Resolves property placeholders in a given value using the model's properties
-     */
-    private String resolveProperty(String value, Model model) {
-        if (value == null || !value.contains("${")) {
-            return value;
-        }
-
-        String resolved = value;
-        Properties properties = model.getProperties();
-
-        // Simple property resolution - replace ${property.name} with actual value
-        for (Map.Entry<Object, Object> property : properties.entrySet()) {
-            String propertyName = (String) property.getKey();
-            String propertyValue = (String) property.getValue();
-            String placeholder = "${" + propertyName + "}";
-
-            if (resolved.contains(placeholder)) {
-                resolved = resolved.replace(placeholder, propertyValue);
-            }
-        }
-
-        return resolved;
-    }
-
     public String formatGav(String groupId, String artifactId, String version) {
         if (groupId == null || artifactId == null) {
             throw new IllegalArgumentException("GroupId and ArtifactId cannot be null.");
@@ -0,0 +1,150 @@
+package dev.snowdrop.mtool.scanner.maven;
+
+import org.jboss.logging.Logger;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The elements of the Maven {@code settings.xml} used to resolve the poms and the artifacts: the local repository,
+ * the offline mode, the mirrors and the credentials of the servers. The file is read from the path defined using the
+ * system property {@value #SETTINGS_PROPERTY} or from {@code ~/.m2/settings.xml}.
+ * <p>
+ * The expressions {@code ${env.NAME}} and {@code ${name}} of the values are replaced by the environment variables and
+ * the system properties, e.g. {@code ${user.home}}. The passwords encrypted using {@code settings-security.xml} are not
+ * supported.
+ *
+ * @param localRepository the path of the local repository
+ * @param offline true when the repositories cannot be accessed
+ * @param mirrors the mirrors of the repositories
+ * @param servers the credentials of the servers
+ */
+public record MavenSettings(String localRepository, boolean offline, List<Mirror> mirrors, List<Server> servers) {
+    private static final Logger logger = Logger.getLogger(MavenSettings.class);
+
+    public static final String SETTINGS_PROPERTY = "mtool.maven.settings";
+
+    private static final Pattern EXPRESSION = Pattern.compile("\\$\\{([^}]+)}");
+    private static final String ENV_PREFIX = "env.";
+
+    /**
+     * A mirror of the repositories
+     *
+     * @param id the id of the mirror
+     * @param url the url of the mirror
+     * @param mirrorOf the ids of the repositories mirrored, e.g. {@code central} or {@code *,!internal}
+     */
+    public record Mirror(String id, String url, String mirrorOf) {
+    }
+
+    /**
+     * The credentials of a server, used for the repository or the mirror having the same id
+     *
+     * @param id the id of the server
+     * @param username the name of the user
+     * @param password the password of the user
+     */
+    public record Server(String id, String username, String password) {
+    }
+
+    /**
+     * Returns the settings of the user, or the default ones when the file doesn't exist or cannot be read.
+     */
+    public static MavenSettings load() {
+        String settingsPath = System.getProperty(SETTINGS_PROPERTY);
+        Path userHome = Paths.get(System.getProperty("user.home"));
+        Path settingsFile = settingsPath != null ? Paths.get(settingsPath)
+                : userHome.resolve(".m2").resolve("settings.xml");
+        return read(settingsFile, userHome.resolve(".m2").resolve("repository").toString());
+    }
+
+    static MavenSettings read(Path settingsFile, String defaultLocalRepository) {
+        MavenSettings defaults = new MavenSettings(defaultLocalRepository, false, List.of(), List.of());
+        if (!Files.isRegularFile(settingsFile)) {
+            return defaults;
+        }
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            Document document = factory.newDocumentBuilder().parse(settingsFile.toFile());
+            Element settings = document.getDocumentElement();
+
+            String localRepository = interpolate(childText(settings, "localRepository"));
+            List<Mirror> mirrors = new ArrayList<>();
+            Element mirrorsElement = child(settings, "mirrors");
+            if (mirrorsElement != null) {
+                NodeList nodes = mirrorsElement.getElementsByTagName("mirror");
+                for (int i = 0; i < nodes.getLength(); i++) {
+                    Element mirror = (Element) nodes.item(i);
+                    String url = childText(mirror, "url");
+                    if (url != null) {
+                        mirrors.add(new Mirror(childText(mirror, "id"), url, childText(mirror, "mirrorOf")));
+                    }
+                }
+            }
+            List<Server> servers = new ArrayList<>();
+            Element serversElement = child(settings, "servers");
+            if (serversElement != null) {
+                NodeList nodes = serversElement.getElementsByTagName("server");
+                for (int i = 0; i < nodes.getLength(); i++) {
+                    Element server = (Element) nodes.item(i);
+                    String id = childText(server, "id");
+                    if (id != null) {
+                        servers.add(new Server(id, interpolate(childText(server, "username")),
+                                interpolate(childText(server, "password"))));
+                    }
+                }
+            }
+            return new MavenSettings(localRepository != null ? localRepository : defaultLocalRepository,
+                    "true".equals(childText(settings, "offline")), List.copyOf(mirrors), List.copyOf(servers));
+        } catch (Exception e) {
+            logger.warnf("Unable to read the Maven settings %s: %s", settingsFile, e.getMessage());
+            return defaults;
+        }
+    }
+
+    /**
+     * Replaces the expressions {@code ${env.NAME}} and {@code ${name}} by the environment variables and the system
+     * properties. The expressions which cannot be resolved are kept.
+     */
+    static String interpolate(String value) {
+        if (value == null || !value.contains("${")) {
+            return value;
+        }
+        Matcher matcher = EXPRESSION.matcher(value);
+        StringBuilder interpolated = new StringBuilder();
+        while (matcher.find()) {
+            String name = matcher.group(1);
+            String resolved = name.startsWith(ENV_PREFIX) ? System.getenv(name.substring(ENV_PREFIX.length()))
+                    : System.getProperty(name);
+            String replacement = resolved != null ? resolved : matcher.group();
+            matcher.appendReplacement(interpolated, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(interpolated);
+        return interpolated.toString();
+    }
+
+    private static Element child(Element parent, String name) {
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element element && name.equals(element.getTagName())) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private static String childText(Element parent, String name) {
+        Element element = child(parent, name);
+        return element != null && !element.getTextContent().isBlank() ? element.getTextContent().trim() : null;
+    }
+}
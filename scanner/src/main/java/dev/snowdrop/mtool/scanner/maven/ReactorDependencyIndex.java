@@ -0,0 +1,304 @@
+package dev.snowdrop.mtool.scanner.maven;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.InputLocation;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.building.ModelBuildingResult;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.eclipse.aether.version.Version;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the dependencies declared by all the modules of the reactor of a Maven project, keyed by
+ * {@code groupId:artifactId}, so that a {@code pom.dependency} query is a lookup instead of building the model of the
+ * poms. The reactor is discovered from the {@code <modules>} of the pom of the project and of its aggregators, and the
+ * effective models of the modules are built concurrently, once, using the {@link MavenModelCache}.
+ * <p>
+ * The versions of each artifact are parsed and sorted when the index is built, so that a query using a range of
+ * versions is answered by one lookup.
+ * <p>
+ * The index is built again when a pom of the reactor has been modified.
+ */
+public class ReactorDependencyIndex {
+    private static final Logger logger = Logger.getLogger(ReactorDependencyIndex.class);
+
+    private static final String POM_FILE = "pom.xml";
+    private static final String IMPORT_SCOPE = "import";
+    private static final Map<Path, ReactorDependencyIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * Where the artifact is declared, by order of precedence when a module declares it several times
+     */
+    public enum Kind {
+        // A dependency of the effective model
+        DEPENDENCY,
+        // A dependency managed by the effective model, including the ones imported from a BOM
+        MANAGED,
+        // The parent of the module
+        PARENT,
+        // A BOM imported by the dependency management of the pom
+        IMPORT
+    }
+
+    /**
+     * An artifact declared by a module of the reactor
+     *
+     * @param module the path of the module relative to the project, empty for the root pom
+     * @param kind where the artifact is declared
+     * @param groupId the group id
+     * @param artifactId the artifact id
+     * @param scope the scope, null for a parent
+     * @param version the version resolved
+     * @param location the location of the declaration within the pom declaring it, which can be a parent or a BOM
+     */
+    public record Entry(String module, Kind kind, String groupId, String artifactId, String scope, String version,
+            InputLocation location) {
+    }
+
+    private final Path appPath;
+    private final Map<String, List<Entry>> entries = new HashMap<>();
+    // The entries having a version, keyed by groupId:artifactId and sorted by version
+    private final Map<String, NavigableMap<Version, List<Entry>>> versions = new HashMap<>();
+    // The poms of the reactor and their last modification time when the index has been built
+    private final Map<Path, Long> poms = new LinkedHashMap<>();
+
+    ReactorDependencyIndex(Path appPath) {
+        this.appPath = appPath.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Returns the index of the project, building it when the project has not been indexed yet or when a pom of its
+     * reactor changed.
+     */
+    public static ReactorDependencyIndex forProject(Path appPath) {
+        Path normalizedPath = appPath.toAbsolutePath().normalize();
+        ReactorDependencyIndex index = indexes.get(normalizedPath);
+        if (index == null || index.isOutdated()) {
+            index = new ReactorDependencyIndex(normalizedPath).build();
+            indexes.put(normalizedPath, index);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the artifacts declared by the modules of the reactor, using the declaration of highest precedence of
+     * each module. The declarations shared by several modules, e.g. inherited from their parent, are only returned once.
+     *
+     * @param groupId the group id
+     * @param artifactId the artifact id
+     * @param version the version, range or expression supported by {@link VersionMatcher}, null or empty to match all
+     *        the versions
+     */
+    public List<Entry> find(String groupId, String artifactId, String version) {
+        return find(groupId, artifactId, VersionMatcher.parse(version));
+    }
+
+    /**
+     * Returns the artifacts declared by the modules of the reactor whose version is matched, using the declaration of
+     * highest precedence of each module.
+     */
+    public List<Entry> find(String groupId, String artifactId, VersionMatcher versionMatcher) {
+        String key = groupId + ":" + artifactId;
+        List<Entry> candidates = versionMatcher.matchesAll() ? entries.getOrDefault(key, List.of())
+                : versionMatcher.select(versions.getOrDefault(key, new TreeMap<>()));
+
+        Map<String, List<Entry>> perModule = new LinkedHashMap<>();
+        for (Entry entry : candidates) {
+            perModule.computeIfAbsent(entry.module(), m -> new ArrayList<>()).add(entry);
+        }
+        List<Entry> found = new ArrayList<>();
+        Set<String> locations = new LinkedHashSet<>();
+        for (List<Entry> moduleEntries : perModule.values()) {
+            Kind kind = moduleEntries.stream().map(Entry::kind).min(Comparator.naturalOrder()).orElseThrow();
+            for (Entry entry : moduleEntries) {
+                if (entry.kind() == kind && locations.add(locationKey(entry.location()))) {
+                    found.add(entry);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the dependencies of the effective models of all the modules of the reactor.
+     */
+    public List<Entry> dependencies() {
+        List<Entry> dependencies = new ArrayList<>();
+        entries.values().forEach(list -> list.stream().filter(e -> e.kind() == Kind.DEPENDENCY)
+                .forEach(dependencies::add));
+        dependencies.sort(Comparator.comparing(Entry::module).thenComparing(e -> locationKey(e.location())));
+        return dependencies;
+    }
+
+    /**
+     * Returns the paths of the poms of the reactor.
+     */
+    public Set<Path> poms() {
+        return poms.keySet();
+    }
+
+    /**
+     * Returns true when a pom of the reactor has been modified. A module added to or removed from the reactor changes
+     * the pom of its aggregator.
+     */
+    private boolean isOutdated() {
+        return poms.entrySet().stream().anyMatch(pom -> lastModified(pom.getKey()) != pom.getValue());
+    }
+
+    ReactorDependencyIndex build() {
+        List<Path> reactor = discoverReactor();
+        reactor.forEach(pom -> poms.put(pom, lastModified(pom)));
+
+        // The effective models of the modules are built concurrently, the model builder and its cache being shared
+        List<List<Entry>> moduleEntries = reactor.parallelStream().map(this::indexModule).toList();
+        for (List<Entry> list : moduleEntries) {
+            for (Entry entry : list) {
+                String key = entry.groupId() + ":" + entry.artifactId();
+                entries.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+                Version version = parseVersion(entry.version());
+                if (version != null) {
+                    versions.computeIfAbsent(key, k -> new TreeMap<>()).computeIfAbsent(version, v -> new ArrayList<>())
+                            .add(entry);
+                }
+            }
+        }
+        logger.debugf("Dependencies of the %d module(s) of %s indexed: %d artifacts", reactor.size(), appPath,
+                entries.size());
+        return this;
+    }
+
+    private List<Entry> indexModule(Path pom) {
+        String module = appPath.relativize(pom.getParent()).toString().replace('\\', '/');
+        ModelBuildingResult result;
+        try {
+            result = MavenModelCache.getInstance().build(pom);
+        } catch (Exception e) {
+            logger.warnf("Could not build the effective model of %s: %s", pom, e.getMessage());
+            return List.of();
+        }
+
+        List<Entry> moduleEntries = new ArrayList<>();
+        Model effective = result.getEffectiveModel();
+        for (Dependency d : effective.getDependencies()) {
+            moduleEntries.add(entry(module, Kind.DEPENDENCY, d.getGroupId(), d.getArtifactId(), d.getScope(),
+                    d.getVersion(), d.getLocation("")));
+        }
+        if (effective.getDependencyManagement() != null) {
+            for (Dependency d : effective.getDependencyManagement().getDependencies()) {
+                moduleEntries.add(entry(module, Kind.MANAGED, d.getGroupId(), d.getArtifactId(), d.getScope(),
+                        d.getVersion(), d.getLocation("")));
+            }
+        }
+
+        Model raw = result.getRawModel();
+        Parent parent = raw.getParent();
+        if (parent != null) {
+            moduleEntries.add(entry(module, Kind.PARENT, parent.getGroupId(), parent.getArtifactId(), null,
+                    parent.getVersion(), parent.getLocation("")));
+        }
+        // The BOMs imported are replaced within the effective model by the dependencies they manage
+        if (raw.getDependencyManagement() != null) {
+            for (Dependency d : raw.getDependencyManagement().getDependencies()) {
+                if (IMPORT_SCOPE.equals(d.getScope())) {
+                    moduleEntries.add(entry(module, Kind.IMPORT, interpolate(d.getGroupId(), effective),
+                            interpolate(d.getArtifactId(), effective), d.getScope(),
+                            interpolate(d.getVersion(), effective), d.getLocation("")));
+                }
+            }
+        }
+        return moduleEntries;
+    }
+
+    private static Entry entry(String module, Kind kind, String groupId, String artifactId, String scope,
+            String version, InputLocation location) {
+        String resolvedScope = scope == null && kind != Kind.PARENT ? "compile" : scope;
+        return new Entry(module, kind, groupId, artifactId, resolvedScope, version, location);
+    }
+
+    /**
+     * Returns the poms of the project and of all its modules, including the aggregators and the BOMs.
+     */
+    private List<Path> discoverReactor() {
+        List<Path> reactor = new ArrayList<>();
+        collectPoms(appPath.resolve(POM_FILE), reactor);
+        return reactor;
+    }
+
+    private static void collectPoms(Path pom, List<Path> reactor) {
+        Path normalizedPom = pom.toAbsolutePath().normalize();
+        if (!Files.isRegularFile(normalizedPom) || reactor.contains(normalizedPom)) {
+            return;
+        }
+        reactor.add(normalizedPom);
+        try (Reader reader = Files.newBufferedReader(normalizedPom)) {
+            Model model = new MavenXpp3Reader().read(reader, false);
+            for (String module : model.getModules()) {
+                Path modulePath = normalizedPom.getParent().resolve(module).normalize();
+                collectPoms(Files.isDirectory(modulePath) ? modulePath.resolve(POM_FILE) : modulePath, reactor);
+            }
+        } catch (Exception e) {
+            logger.warnf("Unable to read the modules of %s: %s", normalizedPom, e.getMessage());
+        }
+    }
+
+    /**
+     * Resolves the properties of a value of the raw model using the properties of the effective model
+     */
+    private static String interpolate(String value, Model model) {
+        if (value == null || !value.contains("${")) {
+            return value;
+        }
+        Properties properties = model.getProperties();
+        String resolved = value;
+        for (String name : properties.stringPropertyNames()) {
+            resolved = resolved.replace("${" + name + "}", properties.getProperty(name));
+        }
+        return resolved.replace("${project.version}", Objects.toString(model.getVersion(), "${project.version}"));
+    }
+
+    private static Version parseVersion(String version) {
+        if (version == null || version.isBlank() || version.contains("${")) {
+            return null;
+        }
+        try {
+            return VersionMatcher.parseVersion(version);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String locationKey(InputLocation location) {
+        if (location == null) {
+            return "";
+        }
+        String source = location.getSource() != null ? location.getSource().getLocation() : "";
+        return source + ":" + location.getLineNumber() + ":" + location.getColumnNumber();
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package dev.snowdrop.mtool.scanner.maven;
 
 import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
 import org.apache.maven.model.Parent;
 import org.apache.maven.model.Repository;
 import org.apache.maven.model.building.FileModelSource;
 import org.apache.maven.model.building.ModelSource;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.model.resolution.InvalidRepositoryException;
 import org.apache.maven.model.resolution.ModelResolver;
 import org.apache.maven.model.resolution.UnresolvableModelException;
@@ -18,24 +20,117 @@ import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.resolution.ArtifactRequest;
 import org.eclipse.aether.resolution.ArtifactResult;
 import org.eclipse.aether.supplier.RepositorySystemSupplier;
+import org.eclipse.aether.util.repository.AuthenticationBuilder;
+import org.eclipse.aether.util.repository.DefaultAuthenticationSelector;
+import org.eclipse.aether.util.repository.DefaultMirrorSelector;
+import org.jboss.logging.Logger;
 
+import java.io.File;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * A ModelResolver that uses the 'maven-resolver' library to find POMs
  * in the local .m2 repository and on Maven Central.
+ * <p>
+ * The repository system and its session are created once per JVM and shared by all the resolvers. The mirrors, the
+ * credentials of the servers and the local repository of the Maven {@code settings.xml} are used. In offline mode,
+ * enabled using the system property {@value #OFFLINE_PROPERTY} or the settings, only the local repository and the
+ * folder defined using the system property {@value #MIRROR_DIR_PROPERTY} (a repository laid out as a Maven repository)
+ * are used.
+ * <p>
+ * The parents and the imported BOMs of a pom can be prefetched concurrently using {@link #prefetch(Path)} before
+ * building its model, instead of being resolved one after the other by the model builder.
  */
 public class RepositoryModelResolver implements ModelResolver {
+    private static final Logger logger = Logger.getLogger(RepositoryModelResolver.class);
+
+    public static final String OFFLINE_PROPERTY = "mtool.maven.offline";
+    public static final String MIRROR_DIR_PROPERTY = "mtool.maven.mirror-dir";
+
+    // Number of poms of the parent/BOM chain downloaded concurrently
+    private static final int PREFETCH_THREADS = 4;
+    private static final String IMPORT_SCOPE = "import";
 
     private final RepositorySystem repoSystem;
     private final DefaultRepositorySystemSession session;
     private final List<RemoteRepository> repositories;
 
+    /**
+     * The repository system, session and repositories shared by the resolvers of the JVM
+     */
+    private static final class Shared {
+        static final Shared INSTANCE = new Shared();
+
+        final RepositorySystem repoSystem = new RepositorySystemSupplier().get();
+        final DefaultRepositorySystemSession session;
+        final List<RemoteRepository> repositories;
+        // Coordinates of the poms already downloaded by a prefetch
+        final Set<String> prefetched = ConcurrentHashMap.newKeySet();
+        final ExecutorService executor = Executors.newFixedThreadPool(PREFETCH_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "mtool-pom-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private Shared() {
+            MavenSettings settings = MavenSettings.load();
+            boolean offline = Boolean.getBoolean(OFFLINE_PROPERTY) || settings.offline();
+
+            session = MavenRepositorySystemUtils.newSession();
+            LocalRepository localRepo = new LocalRepository(settings.localRepository());
+            session.setLocalRepositoryManager(repoSystem.newLocalRepositoryManager(session, localRepo));
+            session.setOffline(offline);
+            // The folder of the mirror remains accessible in offline mode
+            session.setConfigProperty("aether.offline.protocols", "file");
+
+            DefaultMirrorSelector mirrorSelector = new DefaultMirrorSelector();
+            for (MavenSettings.Mirror mirror : settings.mirrors()) {
+                mirrorSelector.add(mirror.id(), mirror.url(), "default", false, false, mirror.mirrorOf(), null);
+            }
+            session.setMirrorSelector(mirrorSelector);
+
+            // The credentials of a server are used by the repository or the mirror having its id
+            DefaultAuthenticationSelector authenticationSelector = new DefaultAuthenticationSelector();
+            for (MavenSettings.Server server : settings.servers()) {
+                authenticationSelector.add(server.id(), new AuthenticationBuilder().addUsername(server.username())
+                        .addPassword(server.password()).build());
+            }
+            session.setAuthenticationSelector(authenticationSelector);
+
+            List<RemoteRepository> remoteRepositories = new ArrayList<>();
+            String mirrorDir = System.getProperty(MIRROR_DIR_PROPERTY);
+            if (mirrorDir != null && !mirrorDir.isBlank()) {
+                remoteRepositories.add(new RemoteRepository.Builder("mtool-mirror", "default",
+                        Paths.get(mirrorDir).toAbsolutePath().toUri().toString()).build());
+            }
+            if (!offline || remoteRepositories.isEmpty()) {
+                remoteRepositories.add(new RemoteRepository.Builder("central", "default",
+                        "https://repo.maven.apache.org/maven2").build());
+            }
+            // Replace the repositories by their mirror
+            repositories = List.copyOf(repoSystem.newResolutionRepositories(session, remoteRepositories));
+            logger.debugf("Resolving the poms using %s (offline: %s)", repositories, offline);
+        }
+    }
+
     public RepositoryModelResolver() {
-        this.repoSystem = newRepositorySystem();
-        this.session = newRepositorySystemSession(repoSystem);
-        this.repositories = List
-                .of(new RemoteRepository.Builder("central", "default", "https://repo.maven.apache.org/maven2").build());
+        this.repoSystem = Shared.INSTANCE.repoSystem;
+        this.session = Shared.INSTANCE.session;
+        this.repositories = Shared.INSTANCE.repositories;
     }
 
     // This is a "deep copy" constructor for the resolver
@@ -66,7 +161,8 @@ public class RepositoryModelResolver implements ModelResolver {
 
     @Override
     public ModelSource resolveModel(Dependency dependency) throws UnresolvableModelException {
-        return null;
+        // This resolves the BOM imported by the dependency management
+        return resolveModel(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion());
     }
 
     // These methods are required by the interface but we don't need them
@@ -86,23 +182,161 @@ public class RepositoryModelResolver implements ModelResolver {
         return new RepositoryModelResolver(this);
     }
 
-    private RepositorySystem newRepositorySystem() {
-        /*
-         * DefaultServiceLocator locator = MavenRepositorySystemUtils.newServiceLocator();
-         * locator.addService(RepositoryConnectorFactory.class, BasicRepositoryConnectorFactory.class);
-         * locator.addService(TransporterFactory.class, HttpTransporterFactory.class);
-         * return locator.getService(RepositorySystem.class);
-         */
-        RepositorySystemSupplier supplier = new RepositorySystemSupplier();
-        return supplier.get();
+    /**
+     * Downloads concurrently the parents and the imported BOMs of a pom, and their own parents and BOMs, so that the
+     * model builder finds them within the local repository. The poms which cannot be resolved are ignored: the model
+     * builder reports them.
+     *
+     * @param pomFile the path of the pom
+     */
+    public void prefetch(Path pomFile) {
+        Set<String> gavs = new LinkedHashSet<>();
+        // The local parents are read from the project, their own parent and BOMs are prefetched
+        Path localPom = pomFile;
+        Set<Path> visited = new LinkedHashSet<>();
+        while (localPom != null && visited.add(localPom)) {
+            Model model = readModel(localPom);
+            if (model == null) {
+                break;
+            }
+            gavs.addAll(importedBoms(model));
+            localPom = null;
+            Parent parent = model.getParent();
+            if (parent != null) {
+                Path parentPom = localParent(parent, model);
+                if (parentPom != null) {
+                    localPom = parentPom;
+                } else {
+                    gavs.add(gav(parent.getGroupId(), parent.getArtifactId(), parent.getVersion()));
+                }
+            }
+        }
+
+        // Resolve the chain level by level, the poms of a level being resolved concurrently
+        Set<String> requested = new HashSet<>();
+        Set<String> level = new LinkedHashSet<>(gavs);
+        level.removeIf(gav -> Shared.INSTANCE.prefetched.contains(gav) || !requested.add(gav));
+        while (!level.isEmpty()) {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (String gav : level) {
+                futures.add(Shared.INSTANCE.executor.submit(prefetchTask(gav)));
+            }
+            Set<String> next = new LinkedHashSet<>();
+            for (Future<List<String>> future : futures) {
+                try {
+                    next.addAll(future.get());
+                } catch (Exception e) {
+                    logger.debugf("Unable to prefetch a pom: %s", e.getMessage());
+                }
+            }
+            next.removeIf(gav -> Shared.INSTANCE.prefetched.contains(gav) || !requested.add(gav));
+            level = next;
+        }
     }
 
-    private DefaultRepositorySystemSession newRepositorySystemSession(RepositorySystem system) {
-        DefaultRepositorySystemSession session = MavenRepositorySystemUtils.newSession();
-        String userHome = System.getProperty("user.home");
-        LocalRepository localRepo = new LocalRepository(userHome + "/.m2/repository");
-        session.setLocalRepositoryManager(system.newLocalRepositoryManager(session, localRepo));
-        return session;
+    private Callable<List<String>> prefetchTask(String gav) {
+        return () -> {
+            String[] parts = gav.split(":");
+            Artifact pomArtifact = new DefaultArtifact(parts[0], parts[1], "pom", parts[2]);
+            File file;
+            try {
+                file = repoSystem.resolveArtifact(session, new ArtifactRequest(pomArtifact, repositories, null))
+                        .getArtifact().getFile();
+            } catch (Exception e) {
+                logger.debugf("Unable to prefetch the pom %s: %s", gav, e.getMessage());
+                return List.of();
+            }
+            // Only marked once downloaded: a pom which failed, e.g. without network, is prefetched again later
+            Shared.INSTANCE.prefetched.add(gav);
+            Model model = readModel(file.toPath());
+            if (model == null) {
+                return List.of();
+            }
+            List<String> gavs = new ArrayList<>(importedBoms(model));
+            Parent parent = model.getParent();
+            if (parent != null) {
+                gavs.add(gav(parent.getGroupId(), parent.getArtifactId(), parent.getVersion()));
+            }
+            return gavs;
+        };
+    }
+
+    /**
+     * Returns the pom of the parent when it is part of the project, otherwise null.
+     */
+    private static Path localParent(Parent parent, Model model) {
+        File pomFile = model.getPomFile();
+        if (pomFile == null) {
+            return null;
+        }
+        String relativePath = parent.getRelativePath() != null ? parent.getRelativePath() : "../pom.xml";
+        if (relativePath.isBlank()) {
+            return null;
+        }
+        Path parentPom = pomFile.toPath().getParent().resolve(relativePath).normalize();
+        if (Files.isDirectory(parentPom)) {
+            parentPom = parentPom.resolve("pom.xml");
+        }
+        Model parentModel = Files.isRegularFile(parentPom) ? readModel(parentPom) : null;
+        if (parentModel == null || !parent.getArtifactId().equals(parentModel.getArtifactId())) {
+            return null;
+        }
+        return parentPom;
+    }
+
+    /**
+     * Returns the coordinates of the BOMs imported by the dependency management of the model whose version can be
+     * interpolated using the properties of the model.
+     */
+    private static List<String> importedBoms(Model model) {
+        List<String> boms = new ArrayList<>();
+        if (model.getDependencyManagement() == null) {
+            return boms;
+        }
+        for (Dependency dependency : model.getDependencyManagement().getDependencies()) {
+            if (!IMPORT_SCOPE.equals(dependency.getScope())) {
+                continue;
+            }
+            String gav = gav(interpolate(dependency.getGroupId(), model), dependency.getArtifactId(),
+                    interpolate(dependency.getVersion(), model));
+            if (!gav.contains("${")) {
+                boms.add(gav);
+            }
+        }
+        return boms;
+    }
+
+    private static String interpolate(String value, Model model) {
+        if (value == null || !value.contains("${")) {
+            return value;
+        }
+        Properties properties = new Properties();
+        properties.putAll(model.getProperties());
+        if (model.getVersion() != null) {
+            properties.setProperty("project.version", model.getVersion());
+        } else if (model.getParent() != null) {
+            properties.setProperty("project.version", model.getParent().getVersion());
+        }
+        String interpolated = value;
+        for (String name : properties.stringPropertyNames()) {
+            interpolated = interpolated.replace("${" + name + "}", properties.getProperty(name));
+        }
+        return interpolated;
+    }
+
+    private static String gav(String groupId, String artifactId, String version) {
+        return groupId + ":" + artifactId + ":" + version;
+    }
+
+    private static Model readModel(Path pomFile) {
+        try (Reader reader = Files.newBufferedReader(pomFile)) {
+            Model model = new MavenXpp3Reader().read(reader, false);
+            model.setPomFile(pomFile.toFile());
+            return model;
+        } catch (Exception e) {
+            logger.debugf("Unable to read the pom %s: %s", pomFile, e.getMessage());
+            return null;
+        }
     }
 
     public RepositorySystem getRepoSystem() {
@@ -0,0 +1,248 @@
+package dev.snowdrop.mtool.scanner.maven;
+
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.eclipse.aether.version.VersionConstraint;
+import org.eclipse.aether.version.VersionRange;
+import org.eclipse.aether.version.VersionScheme;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableMap;
+
+/**
+ * Matches the versions of the artifacts against the version of a {@code gavs} query, which can be:
+ * <ul>
+ * <li>a version, e.g. {@code 3.2.1}, matching the versions equal to it according to the Maven ordering,</li>
+ * <li>a Maven range or union of ranges, e.g. {@code [3.2,4.0)} or {@code [1.0,2.0),[3.0,)},</li>
+ * <li>a wildcard, e.g. {@code 3.x} or {@code 3.2.*},</li>
+ * <li>a caret or tilde expression, e.g. {@code ^3.2} ({@code [3.2,4)}) or {@code ~3.2.1} ({@code [3.2.1,3.3)}).</li>
+ * </ul>
+ * The wildcard, caret and tilde expressions are converted into Maven ranges, evaluated using the Maven version scheme.
+ * As the qualified versions of the upper bound are lower than it (e.g. {@code 4.0.0-M1} is within {@code [3,4)}), the
+ * leading numeric segments of the versions are also checked against the ones fixed by the expression.
+ */
+public final class VersionMatcher {
+
+    private static final VersionScheme VERSION_SCHEME = new GenericVersionScheme();
+    private static final VersionMatcher ANY = new VersionMatcher("", null, null);
+
+    private final String expression;
+    private final VersionConstraint constraint;
+    // The leading numeric segments of the versions matched by a wildcard, caret or tilde expression, otherwise null
+    private final int[] prefix;
+
+    private VersionMatcher(String expression, VersionConstraint constraint, int[] prefix) {
+        this.expression = expression;
+        this.constraint = constraint;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Parses the version of a query.
+     *
+     * @param expression the version, range or expression, null or empty to match all the versions
+     * @throws IllegalArgumentException when the expression is not valid
+     */
+    public static VersionMatcher parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            return ANY;
+        }
+        String trimmed = expression.trim();
+        String range = toRange(trimmed);
+        if (range == null) {
+            return ANY;
+        }
+        try {
+            return new VersionMatcher(trimmed, VERSION_SCHEME.parseVersionConstraint(range), prefix(trimmed));
+        } catch (InvalidVersionSpecificationException e) {
+            throw new IllegalArgumentException("Invalid version '" + expression + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parses a version using the Maven version scheme.
+     */
+    public static Version parseVersion(String version) {
+        try {
+            return VERSION_SCHEME.parseVersion(version);
+        } catch (InvalidVersionSpecificationException e) {
+            throw new IllegalArgumentException("Invalid version '" + version + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns true when all the versions are matched.
+     */
+    public boolean matchesAll() {
+        return constraint == null;
+    }
+
+    /**
+     * Returns true when the version, which may be null, is matched.
+     */
+    public boolean matches(String version) {
+        if (constraint == null) {
+            return true;
+        }
+        return version != null && !version.isBlank() && constraint.containsVersion(parseVersion(version))
+                && hasPrefix(version);
+    }
+
+    /**
+     * Returns the values of the versions matched of a map sorted by version, only looking at the versions within the
+     * bounds of the range.
+     */
+    public <T> List<T> select(NavigableMap<Version, List<T>> versions) {
+        List<T> selected = new ArrayList<>();
+        if (constraint == null) {
+            versions.values().forEach(selected::addAll);
+            return selected;
+        }
+        VersionRange range = constraint.getRange();
+        if (range == null) {
+            selected.addAll(versions.getOrDefault(constraint.getVersion(), List.of()));
+            return selected;
+        }
+
+        NavigableMap<Version, List<T>> candidates = versions;
+        VersionRange.Bound lower = range.getLowerBound();
+        if (lower != null) {
+            candidates = candidates.tailMap(lower.getVersion(), lower.isInclusive());
+        }
+        VersionRange.Bound upper = range.getUpperBound();
+        if (upper != null) {
+            candidates = candidates.headMap(upper.getVersion(), upper.isInclusive());
+        }
+        // The bounds of a union of ranges are the ones of the whole union: the gaps are filtered
+        candidates.forEach((version, values) -> {
+            if (constraint.containsVersion(version) && hasPrefix(version.toString())) {
+                selected.addAll(values);
+            }
+        });
+        return selected;
+    }
+
+    /**
+     * Returns true when the query targets one version and not a range of versions.
+     */
+    public boolean isExact() {
+        return constraint != null && constraint.getRange() == null;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /**
+     * Converts the wildcard, caret and tilde expressions into a Maven range. Returns null when all the versions match.
+     */
+    static String toRange(String expression) {
+        char first = expression.charAt(0);
+        if (first == '[' || first == '(') {
+            return expression;
+        }
+        if (first == '^' || first == '~') {
+            int[] segments = numericSegments(expression.substring(1), expression);
+            return "[" + expression.substring(1) + "," + upperBound(segments, bumped(first, segments)) + ")";
+        }
+
+        String wildcardPrefix = wildcardPrefix(expression);
+        if (wildcardPrefix != null) {
+            if (wildcardPrefix.isEmpty()) {
+                return null;
+            }
+            int[] segments = numericSegments(wildcardPrefix, expression);
+            return "[" + wildcardPrefix + "," + upperBound(segments, segments.length - 1) + ")";
+        }
+        return expression;
+    }
+
+    /**
+     * Returns the leading numeric segments shared by all the versions matched by a wildcard, caret or tilde expression,
+     * e.g. {@code [3]} for {@code 3.x} or {@code ^3.2}, or null for the other expressions.
+     */
+    static int[] prefix(String expression) {
+        char first = expression.charAt(0);
+        if (first == '^' || first == '~') {
+            int[] segments = numericSegments(expression.substring(1), expression);
+            return Arrays.copyOf(segments, bumped(first, segments) + 1);
+        }
+        String wildcardPrefix = wildcardPrefix(expression);
+        return wildcardPrefix != null && !wildcardPrefix.isEmpty() ? numericSegments(wildcardPrefix, expression)
+                : null;
+    }
+
+    /**
+     * Returns the index of the segment bumped to get the upper bound of a caret or tilde expression.
+     */
+    private static int bumped(char operator, int[] segments) {
+        if (operator == '~') {
+            // ~1.2.3 allows the patch releases, ~1 the minor releases
+            return Math.min(1, segments.length - 1);
+        }
+        // ^1.2.3 allows the minor releases, ^0.2.3 the patch releases of 0.2
+        int bumped = 0;
+        while (bumped < segments.length - 1 && segments[bumped] == 0) {
+            bumped++;
+        }
+        return bumped;
+    }
+
+    /**
+     * Returns the version before the wildcard of an expression, e.g. 3.2 for 3.2.x, empty for *, or null when the
+     * expression has no wildcard.
+     */
+    private static String wildcardPrefix(String expression) {
+        String[] parts = expression.split("\\.");
+        String last = parts[parts.length - 1];
+        if (last.equals("x") || last.equals("X") || last.equals("*")) {
+            return String.join(".", Arrays.copyOf(parts, parts.length - 1));
+        }
+        return null;
+    }
+
+    /**
+     * Returns true when the leading numeric segments of the version are the ones of the expression, the missing
+     * segments being 0.
+     */
+    private boolean hasPrefix(String version) {
+        if (prefix == null) {
+            return true;
+        }
+        String[] segments = version.split("[.-]");
+        for (int i = 0; i < prefix.length; i++) {
+            int segment = 0;
+            if (i < segments.length) {
+                try {
+                    segment = Integer.parseInt(segments[i]);
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+            if (segment != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] numericSegments(String version, String expression) {
+        try {
+            return Arrays.stream(version.split("\\.")).mapToInt(Integer::parseInt).toArray();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid version '" + expression + "': numeric segments expected", e);
+        }
+    }
+
+    private static String upperBound(int[] segments, int bumped) {
+        StringBuilder bound = new StringBuilder();
+        for (int i = 0; i < bumped; i++) {
+            bound.append(segments[i]).append('.');
+        }
+        return bound.append(segments[bumped] + 1).toString();
+    }
+}
@@ -0,0 +1,157 @@
+package dev.snowdrop.mtool.scanner.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the meters of a registry to a file: a JSON summary when the file name ends with {@code .json}, otherwise the
+ * Prometheus text exposition format.
+ */
+public final class MetricsExporter {
+
+    private static final Logger logger = Logger.getLogger(MetricsExporter.class);
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public record MeterSummary(String name, String type, Map<String, String> tags, Map<String, Double> values) {
+    }
+
+    private MetricsExporter() {
+    }
+
+    /**
+     * Writes the meters of the run to the file, logging instead of failing the run when the file cannot be written.
+     *
+     * @param file the path of the file: *.json for a JSON summary, otherwise Prometheus text
+     */
+    public static void exportRunMetrics(Path file) {
+        try {
+            export(ScanMetrics.registry(), file);
+            logger.infof("📄 Metrics exported to: %s", file);
+        } catch (IOException e) {
+            logger.errorf("❌ Failed to export the metrics: %s", e.getMessage());
+        }
+    }
+
+    public static void export(MeterRegistry registry, Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        if (file.getFileName().toString().endsWith(".json")) {
+            mapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), summarize(registry));
+        } else {
+            Files.writeString(file, toPrometheus(registry), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Returns the values of the meters sorted by name and tags.
+     */
+    public static List<MeterSummary> summarize(MeterRegistry registry) {
+        List<MeterSummary> summaries = new ArrayList<>();
+        for (Meter meter : sortedMeters(registry)) {
+            Map<String, String> tags = new LinkedHashMap<>();
+            meter.getId().getTags().forEach(tag -> tags.put(tag.getKey(), tag.getValue()));
+
+            Map<String, Double> values = new LinkedHashMap<>();
+            if (meter instanceof Timer timer) {
+                values.put("count", (double) timer.count());
+                values.put("totalMillis", timer.totalTime(TimeUnit.MILLISECONDS));
+                values.put("meanMillis", timer.mean(TimeUnit.MILLISECONDS));
+                values.put("maxMillis", timer.max(TimeUnit.MILLISECONDS));
+            } else if (meter instanceof Counter counter) {
+                values.put("count", counter.count());
+            } else {
+                for (Measurement measurement : meter.measure()) {
+                    values.put(measurement.getStatistic().getTagValueRepresentation(), measurement.getValue());
+                }
+            }
+            summaries.add(new MeterSummary(meter.getId().getName(), meter.getId().getType().name().toLowerCase(),
+                    tags, values));
+        }
+        return summaries;
+    }
+
+    /**
+     * Returns the meters using the Prometheus text exposition format.
+     */
+    public static String toPrometheus(MeterRegistry registry) {
+        StringBuilder sb = new StringBuilder();
+        String previousName = null;
+        for (Meter meter : sortedMeters(registry)) {
+            String name = meter.getId().getName().replace('.', '_');
+            String labels = labels(meter.getId().getTags());
+            if (meter instanceof Timer timer) {
+                name = name + "_seconds";
+                if (!name.equals(previousName)) {
+                    header(sb, name, meter.getId().getDescription(), "summary");
+                }
+                sb.append(name).append("_count").append(labels).append(' ').append(timer.count()).append('\n');
+                sb.append(name).append("_sum").append(labels).append(' ')
+                        .append(timer.totalTime(TimeUnit.SECONDS)).append('\n');
+                sb.append(name).append("_max").append(labels).append(' ').append(timer.max(TimeUnit.SECONDS))
+                        .append('\n');
+            } else if (meter instanceof Counter counter) {
+                name = name + "_total";
+                if (!name.equals(previousName)) {
+                    header(sb, name, meter.getId().getDescription(), "counter");
+                }
+                sb.append(name).append(labels).append(' ').append(counter.count()).append('\n');
+            } else {
+                if (!name.equals(previousName)) {
+                    header(sb, name, meter.getId().getDescription(), "untyped");
+                }
+                for (Measurement measurement : meter.measure()) {
+                    sb.append(name).append('_').append(measurement.getStatistic().getTagValueRepresentation())
+                            .append(labels).append(' ').append(measurement.getValue()).append('\n');
+                }
+            }
+            previousName = name;
+        }
+        return sb.toString();
+    }
+
+    private static List<Meter> sortedMeters(MeterRegistry registry) {
+        return registry.getMeters().stream()
+                .sorted(Comparator.comparing((Meter m) -> m.getId().getName())
+                        .thenComparing(m -> m.getId().getTags().toString()))
+                .toList();
+    }
+
+    private static void header(StringBuilder sb, String name, String description, String type) {
+        if (description != null) {
+            sb.append("# HELP ").append(name).append(' ').append(description).append('\n');
+        }
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String labels(List<Tag> tags) {
+        if (tags.isEmpty()) {
+            return "";
+        }
+        return tags.stream().map(tag -> tag.getKey() + "=\"" + escape(tag.getValue()) + "\"")
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
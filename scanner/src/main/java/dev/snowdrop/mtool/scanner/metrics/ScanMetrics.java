@@ -0,0 +1,112 @@
+package dev.snowdrop.mtool.scanner.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * Micrometer meters measuring where the time of an analysis goes: latency per scanner, query, rule and transform
+ * provider, files visited, bytes read, matches emitted and cache hits.
+ * <p>
+ * The meters are registered within a {@link SimpleMeterRegistry} added to the global registry of Micrometer, so that
+ * they can be exported at the end of a run using the {@link MetricsExporter}.
+ */
+public final class ScanMetrics {
+
+    public static final String SCANNER_SCAN = "mtool.scanner.scan";
+    public static final String SCANNER_MATCHES = "mtool.scanner.matches";
+    public static final String SCANNER_FILES = "mtool.scanner.files";
+    public static final String SCANNER_BYTES = "mtool.scanner.bytes";
+    public static final String QUERY_EXECUTE = "mtool.query.execute";
+    public static final String RULE_SCAN = "mtool.rule.scan";
+    public static final String CACHE_REQUESTS = "mtool.cache.requests";
+    public static final String TRANSFORM_PROVIDER = "mtool.transform.provider";
+
+    private static final MeterRegistry registry = createRegistry();
+
+    private ScanMetrics() {
+    }
+
+    private static MeterRegistry createRegistry() {
+        SimpleMeterRegistry simpleMeterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(simpleMeterRegistry);
+        return simpleMeterRegistry;
+    }
+
+    public static MeterRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * Time spent by a scanner to scan the code for a query.
+     */
+    public static Timer scannerTimer(String scannerType) {
+        return Timer.builder(SCANNER_SCAN).description("Time spent by the scanners to scan the code")
+                .tag("scanner", scannerType).register(registry);
+    }
+
+    /**
+     * Time spent to get the results of a query, including the queries served by the caches.
+     */
+    public static Timer queryTimer(String scannerType) {
+        return Timer.builder(QUERY_EXECUTE).description("Time spent to get the results of the queries")
+                .tag("scanner", scannerType).register(registry);
+    }
+
+    /**
+     * Time spent to evaluate the precondition and condition of a rule (or a query of a plan).
+     */
+    public static Timer ruleTimer(String ruleId) {
+        return Timer.builder(RULE_SCAN).description("Time spent to evaluate the rules").tag("rule", ruleId)
+                .register(registry);
+    }
+
+    /**
+     * Time spent by a provider to execute the instructions of a migration task.
+     */
+    public static Timer providerTimer(String providerType, boolean success) {
+        return Timer.builder(TRANSFORM_PROVIDER).description("Time spent by the providers to transform the code")
+                .tag("provider", providerType).tag("success", String.valueOf(success)).register(registry);
+    }
+
+    public static void recordMatches(String scannerType, long matches) {
+        Counter.builder(SCANNER_MATCHES).description("Matches emitted by the scanners").tag("scanner", scannerType)
+                .register(registry).increment(matches);
+    }
+
+    /**
+     * Counts the files visited by a scanner and the bytes they contain.
+     */
+    public static void recordFiles(String scannerType, Collection<Path> files) {
+        long bytes = 0;
+        for (Path file : files) {
+            try {
+                bytes += Files.size(file);
+            } catch (IOException e) {
+                // The file has been deleted since: no bytes read
+            }
+        }
+        Counter.builder(SCANNER_FILES).description("Files visited by the scanners").tag("scanner", scannerType)
+                .register(registry).increment(files.size());
+        Counter.builder(SCANNER_BYTES).description("Bytes of the files visited by the scanners")
+                .baseUnit("bytes").tag("scanner", scannerType).register(registry).increment(bytes);
+    }
+
+    /**
+     * Counts a request to a cache of the results.
+     *
+     * @param cache the name of the cache: query, persistent
+     * @param hit true when the results have been found within the cache
+     */
+    public static void recordCacheRequest(String cache, boolean hit) {
+        Counter.builder(CACHE_REQUESTS).description("Requests to the caches of the results").tag("cache", cache)
+                .tag("result", hit ? "hit" : "miss").register(registry).increment();
+    }
+}
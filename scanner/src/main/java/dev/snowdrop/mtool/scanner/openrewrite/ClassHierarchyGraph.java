@@ -0,0 +1,148 @@
+package dev.snowdrop.mtool.scanner.openrewrite;
+
+import dev.snowdrop.mtool.model.analyze.Result;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Graph of the types of a project and of their supertypes built from the rows of the {@code TypeHierarchyReport} data
+ * table. The transitive supertypes of each type are computed once within a bitset, so that checking if a type extends
+ * or implements another one, directly or not, is a constant time lookup.
+ * <p>
+ * The rows only contain the types declared by the project, but each row lists all the supertypes of its type resolved
+ * using the type attribution, including the ones declared by the libraries (e.g. {@code JpaRepository} extending
+ * {@code CrudRepository}).
+ */
+public class ClassHierarchyGraph {
+
+    private static final String FIELD_SEPARATOR = "\\|";
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<int[]> directSupertypes = new ArrayList<>();
+    private BitSet[] supertypes;
+
+    /**
+     * Builds the graph using the results of the recipe {@code FindTypeHierarchy} formatted as
+     * {@code sourcePath|className|superclass|interfaces|supertypes}. The rows of the recipe {@code FindClassHierarchy},
+     * which have no supertypes field, only give the direct supertypes.
+     */
+    public static ClassHierarchyGraph fromResults(List<Result> results) {
+        ClassHierarchyGraph graph = new ClassHierarchyGraph();
+        for (Result result : results) {
+            String[] fields = String.valueOf(result.result()).split(FIELD_SEPARATOR, -1);
+            if (fields.length < 4) {
+                continue;
+            }
+            List<String> supertypes = parseInterfaces(fields[3]);
+            if (fields.length > 4) {
+                // The transitive supertypes are added as direct ones, the closure being the same
+                parseInterfaces(fields[4]).stream().filter(s -> !supertypes.contains(s)).forEach(supertypes::add);
+            }
+            graph.add(fields[1], fields[2], supertypes);
+        }
+        return graph.build();
+    }
+
+    /**
+     * Adds a type and its direct supertypes.
+     *
+     * @param className the fully qualified name of the type
+     * @param superclass the fully qualified name of its superclass, null when unknown
+     * @param interfaces the fully qualified names of the interfaces it implements or extends
+     */
+    public ClassHierarchyGraph add(String className, String superclass, List<String> interfaces) {
+        int id = id(className);
+        List<Integer> parents = new ArrayList<>();
+        if (superclass != null && !superclass.isBlank() && !"null".equals(superclass)) {
+            parents.add(id(superclass.trim()));
+        }
+        for (String anInterface : interfaces) {
+            parents.add(id(anInterface.trim()));
+        }
+        directSupertypes.set(id, parents.stream().mapToInt(Integer::intValue).toArray());
+        supertypes = null;
+        return this;
+    }
+
+    /**
+     * Computes the transitive closure of the supertypes of all the types.
+     */
+    public ClassHierarchyGraph build() {
+        supertypes = new BitSet[names.size()];
+        for (int id = 0; id < names.size(); id++) {
+            closure(id, new BitSet());
+        }
+        return this;
+    }
+
+    /**
+     * Returns true when the type extends or implements, directly or transitively, the supertype.
+     */
+    public boolean isSubtypeOf(String className, String supertype) {
+        Integer id = ids.get(className);
+        Integer superId = ids.get(supertype);
+        if (id == null || superId == null) {
+            return false;
+        }
+        if (supertypes == null) {
+            build();
+        }
+        return supertypes[id].get(superId);
+    }
+
+    /**
+     * Returns the number of types of the graph, including the supertypes not declared by the project.
+     */
+    public int size() {
+        return names.size();
+    }
+
+    private BitSet closure(int id, BitSet visiting) {
+        if (supertypes[id] != null) {
+            return supertypes[id];
+        }
+        BitSet closure = new BitSet(names.size());
+        // An invalid cycle within the hierarchy is cut instead of overflowing the stack
+        visiting.set(id);
+        for (int parent : directSupertypes.get(id)) {
+            closure.set(parent);
+            if (!visiting.get(parent)) {
+                closure.or(closure(parent, visiting));
+            }
+        }
+        visiting.clear(id);
+        supertypes[id] = closure;
+        return closure;
+    }
+
+    private int id(String name) {
+        return ids.computeIfAbsent(name, n -> {
+            names.add(n);
+            directSupertypes.add(new int[0]);
+            return names.size() - 1;
+        });
+    }
+
+    /**
+     * Parses the types of a row separated by a comma, possibly rendered as a list, e.g.
+     * {@code [java.io.Serializable, java.lang.Comparable]}
+     */
+    static List<String> parseInterfaces(String interfaces) {
+        String list = interfaces.trim();
+        if (list.startsWith("[") && list.endsWith("]")) {
+            list = list.substring(1, list.length() - 1);
+        }
+        List<String> names = new ArrayList<>();
+        for (String name : list.split(",")) {
+            if (!name.isBlank() && !"null".equals(name.trim())) {
+                names.add(name.trim());
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,248 @@
+package dev.snowdrop.mtool.scanner.openrewrite;
+
+import dev.snowdrop.mtool.scanner.utils.FileUtils;
+import dev.snowdrop.rewrite.config.RewriteConfig;
+import dev.snowdrop.rewrite.service.RewriteService;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Runs the search recipes on a project whose LST doesn't fit within the heap. The sources are split into chunks whose
+ * estimated LST stays within the maximum given by the option {@code --max-lst-heap} of the configuration (e.g. 2g,
+ * 512m), and the LST of each chunk is parsed, searched and released before the next chunk is parsed.
+ * <p>
+ * The RewriteService parses all the sources of a folder: each chunk is then materialised within a folder of the run
+ * under {@code <appPath>/.mtool/chunks}, so that the queries searched concurrently don't share their chunks, using
+ * links to the files of the chunk, at the same relative path, and to the build files of the project, so that the paths
+ * reported by the rows are the paths relative to the project. The rows of a build file linked to several chunks must
+ * only be kept for the chunk owning it.
+ * <p>
+ * Only the recipes searching each file independently of the others, without using the type attribution, are run in
+ * chunks, as the types declared by the sources of another chunk are not attributed (e.g. an annotation declared by the
+ * project would not be matched by {@code FindAnnotations}).
+ */
+public class LstChunker {
+    private static final Logger logger = Logger.getLogger(LstChunker.class);
+
+    static final Set<String> SEARCH_RECIPES = Set.of("org.openrewrite.FindSourceFiles",
+            "org.openrewrite.properties.search.FindProperties");
+
+    private static final String CHUNKS_DIR = "chunks";
+    private static final Set<String> BUILD_FILES = Set.of("pom.xml", "build.gradle", "build.gradle.kts",
+            "settings.gradle", "settings.gradle.kts");
+
+    @FunctionalInterface
+    public interface ChunkTask {
+        /**
+         * @param service the service having parsed the LST of the chunk
+         * @param files the paths, relative to the project, of the files owned by the chunk
+         */
+        void apply(RewriteService service, Set<String> files) throws Exception;
+    }
+
+    private final Path appPath;
+    private final long maxHeap;
+    private final RewriteServicePool.ServiceFactory serviceFactory;
+    private final List<List<Path>> chunks;
+    // Files linked to all the chunks: the build files of the project and the recipes
+    private final List<Path> sharedFiles = new ArrayList<>();
+    private long sourceSize;
+
+    LstChunker(Path appPath, long maxHeap) {
+        this(appPath, maxHeap, cfg -> {
+            RewriteService svc = new RewriteService(cfg);
+            svc.init();
+            return svc;
+        });
+    }
+
+    LstChunker(Path appPath, long maxHeap, RewriteServicePool.ServiceFactory serviceFactory) {
+        this.appPath = appPath.toAbsolutePath().normalize();
+        this.maxHeap = maxHeap;
+        this.serviceFactory = serviceFactory;
+        this.chunks = partition(walk());
+    }
+
+    /**
+     * Returns the chunker of the project when the chunked mode is enabled, all the recipes are search recipes and the
+     * estimated LST of the project exceeds the maximum, otherwise null.
+     *
+     * @param appPath the path of the project
+     * @param recipes the fully qualified names of the recipes to run
+     * @param maxLstHeap the maximum heap of the LST of a chunk (e.g. 2g, 512m), null when the chunked mode is disabled
+     */
+    public static LstChunker forSearch(Path appPath, Collection<String> recipes, String maxLstHeap) {
+        long maxHeap = maxHeap(maxLstHeap);
+        if (maxHeap <= 0 || recipes.isEmpty() || !SEARCH_RECIPES.containsAll(recipes)) {
+            return null;
+        }
+        LstChunker chunker = new LstChunker(appPath, maxHeap);
+        return chunker.chunks.size() > 1 ? chunker : null;
+    }
+
+    /**
+     * Returns the maximum size of the heap used by the LST of a chunk, or 0 when the chunked mode is disabled.
+     *
+     * @throws IllegalArgumentException when the value is not a size, e.g. 2g, 512m
+     */
+    public static long maxHeap(String value) {
+        return value != null && !value.isBlank() ? RewriteServicePool.parseSize(value) : 0;
+    }
+
+    /**
+     * Links a file of the project, e.g. the YAML file of the recipes to run, to all the chunks.
+     *
+     * @param relativePath the path of the file relative to the project
+     */
+    public LstChunker withSharedFile(Path relativePath) {
+        sharedFiles.add(relativePath);
+        return this;
+    }
+
+    /**
+     * Returns the files of each chunk, relative to the project.
+     */
+    List<List<Path>> chunks() {
+        return chunks;
+    }
+
+    /**
+     * Parses the chunks one after the other using a service not shared with the pool, and runs the task on each of
+     * them.
+     *
+     * @param cfg the configuration of the recipe to run, its path of the application is replaced by the chunk's one
+     * @param task the task running the recipe and collecting the rows of the files owned by the chunk
+     */
+    public void run(RewriteConfig cfg, ChunkTask task) throws Exception {
+        logger.infof("Parsing the %d MB of sources of %s within %d chunks to stay within %d MB of LST",
+                sourceSize / (1024 * 1024), appPath, chunks.size(), maxHeap / (1024 * 1024));
+        Path runDir = Files.createTempDirectory(FileUtils.mtoolDir(appPath, CHUNKS_DIR), "run");
+        try {
+            for (int i = 0; i < chunks.size(); i++) {
+                Path chunkDir = runDir.resolve(String.valueOf(i));
+                try {
+                    Set<String> files = materialize(chunkDir, chunks.get(i));
+                    cfg.setAppPath(chunkDir);
+                    task.apply(serviceFactory.create(cfg), files);
+                    logger.debugf("Chunk %d/%d of %s searched", i + 1, chunks.size(), appPath);
+                } finally {
+                    // The service is released with the chunk, the next one starts with an empty LST
+                    delete(chunkDir);
+                }
+            }
+        } finally {
+            cfg.setAppPath(appPath);
+            delete(runDir);
+        }
+    }
+
+    private TreeMap<Path, Long> walk() {
+        List<String> extensions = OpenRewriteQueryScanner.LST_FILE_EXTENSIONS;
+        TreeMap<Path, Long> files = new TreeMap<>();
+        try {
+            Files.walkFileTree(appPath, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(appPath) && FileUtils.isGenerated(appPath.relativize(dir))) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    String name = file.getFileName().toString();
+                    Path relativePath = appPath.relativize(file);
+                    if (BUILD_FILES.contains(name)) {
+                        sharedFiles.add(relativePath);
+                    }
+                    if (attrs.isRegularFile() && extensions.stream().anyMatch(name::endsWith)) {
+                        files.put(relativePath, attrs.size());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to walk the project: " + appPath, e);
+        }
+        return files;
+    }
+
+    /**
+     * Groups the files, sorted by path to keep the files of a package together, within chunks whose estimated LST
+     * doesn't exceed the maximum. A file too large for the maximum gets its own chunk.
+     */
+    private List<List<Path>> partition(TreeMap<Path, Long> files) {
+        long maxSourceSize = Math.max(1, maxHeap / RewriteServicePool.LST_BYTES_PER_SOURCE_BYTE);
+        List<List<Path>> partitions = new ArrayList<>();
+        List<Path> current = new ArrayList<>();
+        long currentSize = 0;
+        for (var file : files.entrySet()) {
+            if (!current.isEmpty() && currentSize + file.getValue() > maxSourceSize) {
+                partitions.add(current);
+                current = new ArrayList<>();
+                currentSize = 0;
+            }
+            current.add(file.getKey());
+            currentSize += file.getValue();
+            sourceSize += file.getValue();
+        }
+        if (!current.isEmpty()) {
+            partitions.add(current);
+        }
+        return partitions;
+    }
+
+    private Set<String> materialize(Path chunkDir, List<Path> files) throws IOException {
+        delete(chunkDir);
+        Set<String> owned = new LinkedHashSet<>();
+        for (Path file : files) {
+            link(file, chunkDir);
+            owned.add(file.toString().replace('\\', '/'));
+        }
+        for (Path sharedFile : sharedFiles) {
+            link(sharedFile, chunkDir);
+        }
+        return owned;
+    }
+
+    private void link(Path relativePath, Path chunkDir) throws IOException {
+        Path target = chunkDir.resolve(relativePath);
+        if (Files.exists(target)) {
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.createLink(target, appPath.resolve(relativePath));
+        } catch (IOException | UnsupportedOperationException e) {
+            // Hard links are not supported by all the file systems
+            Files.copy(appPath.resolve(relativePath), target);
+        }
+    }
+
+    private static void delete(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
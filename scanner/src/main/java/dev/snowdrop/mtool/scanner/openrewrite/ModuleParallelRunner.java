@@ -0,0 +1,176 @@
+package dev.snowdrop.mtool.scanner.openrewrite;
+
+import dev.snowdrop.mtool.model.analyze.Config;
+import dev.snowdrop.mtool.model.analyze.Result;
+import dev.snowdrop.mtool.model.parser.Query;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the recipes of a multi-module Maven project module per module, so that the LST of each module is parsed
+ * concurrently within a fork/join pool sized to the cores, and merges the results as if the whole project had been
+ * parsed: the paths of the sources are made relative to the root of the project.
+ * <p>
+ * The mode is enabled using the option {@code --parallel-modules} of the configuration or the system property
+ * {@value #PARALLEL_PROPERTY}. The files which don't belong to a module (e.g. the pom of the aggregator) are not part
+ * of the LSTs parsed in this mode.
+ * <p>
+ * As the LST of a module is parsed without the sources of the other modules, the types declared by another module of
+ * the project are not attributed: e.g. {@code FindAnnotations} doesn't match an annotation declared by another module
+ * and {@code java.class extends} doesn't match a subclass of a type declared by another module, while they do when the
+ * project is parsed as a whole. The results of the queries using the type attribution can then differ from the results
+ * of the default mode.
+ */
+public class ModuleParallelRunner {
+    private static final Logger logger = Logger.getLogger(ModuleParallelRunner.class);
+
+    public static final String PARALLEL_PROPERTY = "mtool.lst.parallel";
+
+    private static final String POM_FILE = "pom.xml";
+    private static final String POM_PACKAGING = "pom";
+
+    private static final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    @FunctionalInterface
+    public interface ModuleTask {
+        Map<Query, List<Result>> apply(Path modulePath) throws Exception;
+    }
+
+    private ModuleParallelRunner() {
+    }
+
+    public static boolean isEnabled(Config config) {
+        return config.parallelModules() || Boolean.getBoolean(PARALLEL_PROPERTY);
+    }
+
+    /**
+     * Runs the task on each module of the project concurrently when the parallel mode is enabled and the project has
+     * several modules, otherwise once on the whole project.
+     *
+     * @param config the configuration of the project to parse
+     * @param task the task parsing the module and running the recipes
+     * @return the results per query of all the modules
+     */
+    public static Map<Query, List<Result>> run(Config config, ModuleTask task) throws Exception {
+        Path appPath = Paths.get(config.appPath());
+        List<Path> modules = isEnabled(config) ? discoverModules(appPath) : List.of();
+        if (modules.size() < 2) {
+            return task.apply(appPath);
+        }
+
+        logger.infof("Parsing the %d modules of %s using %d threads", modules.size(), appPath,
+                pool.getParallelism());
+        List<Future<Map<Query, List<Result>>>> futures = new ArrayList<>();
+        for (Path module : modules) {
+            futures.add(pool.submit(() -> task.apply(module)));
+        }
+
+        // Merge using the order of the modules to get the same results for each run
+        Map<Query, List<Result>> merged = new LinkedHashMap<>();
+        Set<Query> incomplete = new HashSet<>();
+        for (int i = 0; i < modules.size(); i++) {
+            Map<Query, List<Result>> moduleResults = await(futures, i);
+            if (i > 0) {
+                merged.keySet().stream().filter(q -> !moduleResults.containsKey(q)).forEach(incomplete::add);
+            }
+            String prefix = relativePath(appPath, modules.get(i));
+            boolean first = i == 0;
+            moduleResults.forEach((query, results) -> {
+                if (!first && !merged.containsKey(query)) {
+                    incomplete.add(query);
+                }
+                List<Result> queryResults = merged.computeIfAbsent(query, q -> new ArrayList<>());
+                results.forEach(result -> queryResults.add(withModulePath(prefix, result)));
+            });
+        }
+        // A query whose results could not be identified for one module is not part of the results
+        incomplete.forEach(merged::remove);
+        return merged;
+    }
+
+    private static Map<Query, List<Result>> await(List<Future<Map<Query, List<Result>>>> futures, int index)
+            throws Exception {
+        try {
+            return futures.get(index).get();
+        } catch (ExecutionException e) {
+            // No need to parse the other modules as the results would be incomplete
+            futures.forEach(f -> f.cancel(true));
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /**
+     * Returns the folders of the modules declared by the pom of the project and of its aggregator modules, or an empty
+     * list when the project is not an aggregator.
+     */
+    public static List<Path> discoverModules(Path appPath) {
+        List<Path> modules = new ArrayList<>();
+        Model model = readModel(appPath.resolve(POM_FILE));
+        if (model == null || !POM_PACKAGING.equals(model.getPackaging()) || model.getModules().isEmpty()) {
+            return modules;
+        }
+        collectModules(appPath, model, modules);
+        return modules;
+    }
+
+    private static void collectModules(Path aggregatorPath, Model aggregator, List<Path> modules) {
+        for (String name : aggregator.getModules()) {
+            Path modulePath = aggregatorPath.resolve(name).normalize();
+            Path pomPath = Files.isDirectory(modulePath) ? modulePath.resolve(POM_FILE) : modulePath;
+            Model model = readModel(pomPath);
+            if (model == null) {
+                continue;
+            }
+            if (POM_PACKAGING.equals(model.getPackaging())) {
+                // An aggregator or a BOM doesn't contain sources
+                collectModules(pomPath.getParent(), model, modules);
+            } else {
+                modules.add(pomPath.getParent());
+            }
+        }
+    }
+
+    private static Model readModel(Path pomPath) {
+        if (!Files.isRegularFile(pomPath)) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(pomPath)) {
+            return new MavenXpp3Reader().read(reader);
+        } catch (IOException | XmlPullParserException e) {
+            logger.warnf("Unable to read the pom %s: %s", pomPath, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String relativePath(Path appPath, Path modulePath) {
+        return appPath.toAbsolutePath().normalize().relativize(modulePath.toAbsolutePath().normalize()).toString()
+                .replace('\\', '/');
+    }
+
+    /**
+     * The results formatted start with the path of the source relative to the module parsed.
+     */
+    private static Result withModulePath(String prefix, Result result) {
+        if (prefix.isEmpty() || !(result.result() instanceof String value)) {
+            return result;
+        }
+        return new Result(result.id(), result.scannerType(), prefix + "/" + value);
+    }
+}
@@ -10,8 +10,12 @@ import dev.snowdrop.mtool.model.openrewrite.CompositeRecipe;
 import dev.snowdrop.mtool.model.openrewrite.RecipeDefinition;
 import dev.snowdrop.mtool.model.openrewrite.RecipeHolder;
 import dev.snowdrop.mtool.model.parser.Query;
+import dev.snowdrop.mtool.openrewrite.java.search.FindJavaSymbols;
+import dev.snowdrop.mtool.openrewrite.java.table.JavaSymbolsReport;
+import dev.snowdrop.mtool.openrewrite.java.table.TypeHierarchyReport;
 import dev.snowdrop.mtool.scanner.QueryScanner;
-import dev.snowdrop.rewrite.service.RewriteService;
+import dev.snowdrop.mtool.scanner.maven.ClasspathResolver;
+import dev.snowdrop.mtool.scanner.utils.FileUtils;
 import dev.snowdrop.rewrite.ResultsContainer;
 import dev.snowdrop.rewrite.config.RewriteConfig;
 import org.jboss.logging.Logger;
@@ -29,6 +33,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -45,7 +50,22 @@ public class OpenRewriteQueryScanner implements QueryScanner {
     private static final String KEY_VALUE_DELIMITER = "=";
 
     private static boolean resourcesLoaded = false;
-    private static RewriteService rewriteServiceInstance;
+
+    private static final String BATCH_RECIPE_FILE = "batch-rewrite.yml";
+    // Symbols searched using the FindJavaSymbols recipe
+    private static final Set<String> JAVA_SYMBOLS = Set.of("method", "import", "type");
+    // Keys of the java.class queries searching the subtypes of a type, e.g. java.class is (extends='org.acme.Foo')
+    private static final List<String> HIERARCHY_KEYS = List.of("extends", "implements");
+    static final List<String> LST_FILE_EXTENSIONS = List.of(".java", ".xml", ".properties", ".yml", ".yaml",
+            ".json", ".gradle", ".kts");
+
+    // Results of the queries scanned together by prepare(), per application path
+    private final Map<String, Map<Query, List<Result>>> batchResults = new ConcurrentHashMap<>();
+    // Classes of the project and graph of their supertypes built once per run, per application path
+    private final Map<String, Hierarchy> hierarchies = new ConcurrentHashMap<>();
+
+    private record Hierarchy(List<Result> classes, ClassHierarchyGraph graph) {
+    }
 
     @Deprecated
     @Override
@@ -68,9 +88,135 @@ public class OpenRewriteQueryScanner implements QueryScanner {
 
     @Override
     public List<Result> scansCodeFor(Config config, Query query) {
+        if (isHierarchyQuery(query)) {
+            return findSubtypes(config, query);
+        }
+        List<Result> batched = batchResults.getOrDefault(config.appPath(), Map.of()).get(query);
+        if (batched != null) {
+            logger.debugf("Query %s.%s already scanned within the batch", query.fileType(), query.symbol());
+            return new ArrayList<>(batched);
+        }
         return scansCode(config, query);
     }
 
+    /**
+     * The RewriteService cannot parse again a subset of the project: when a file part of the LST changed, the
+     * service of the project is dropped from the pool and the LST will be built again by the next query.
+     */
+    @Override
+    public void invalidate(Config config, Set<Path> changedFiles) {
+        boolean lstChanged = changedFiles.stream().map(p -> p.getFileName().toString())
+                .anyMatch(name -> LST_FILE_EXTENSIONS.stream().anyMatch(name::endsWith));
+        if (lstChanged) {
+            logger.debug("Dropping the RewriteService of the project as some sources changed.");
+            RewriteServicePool.getInstance().invalidate(Paths.get(config.appPath()));
+        }
+        batchResults.remove(config.appPath());
+        hierarchies.remove(config.appPath());
+    }
+
+    /**
+     * Execute all the queries of the run within one composite recipe, so that the LST is only visited once, and keep
+     * the results of each query. The queries whose results cannot be extracted from the batch are executed later
+     * individually.
+     */
+    @Override
+    public void prepare(Config config, Set<Query> queries) {
+        batchResults.remove(config.appPath());
+        hierarchies.remove(config.appPath());
+        RecipeRunStatistics.getInstance().clear(Paths.get(config.appPath()));
+        // The sources are fingerprinted once per run to find the services of the pool still matching them
+        RewriteServicePool.getInstance().refresh(Paths.get(config.appPath()));
+        if (config.scanner() != null && !ScannerType.OPENREWRITE.label().equals(config.scanner())) {
+            return;
+        }
+
+        RecipeBatch batch = new RecipeBatch();
+        for (Query q : queries) {
+            if (!supports(q)) {
+                continue;
+            }
+            try {
+                batch.add(q, parse(q).getRecipesList().getFirst());
+            } catch (RuntimeException e) {
+                // The query is left out of the batch and will be scanned individually
+                logger.debugf("Query %s.%s not part of the batch: %s", q.fileType(), q.symbol(), e.getMessage());
+            }
+        }
+        // No gain to expect when only one recipe has to be executed
+        if (batch.size() < 2) {
+            return;
+        }
+
+        String batchYaml = batch.toYaml();
+        logger.infof("OpenRewrite scanner executing %d queries within one pass", batch.size());
+        try {
+            Map<Query, List<Result>> resultsPerQuery = ModuleParallelRunner.run(config,
+                    modulePath -> runBatch(modulePath, batch, batchYaml, config.maxLstHeap()));
+            batchResults.put(config.appPath(), new ConcurrentHashMap<>(resultsPerQuery));
+            logger.infof("OpenRewrite batch completed for %d of %d queries", resultsPerQuery.size(), batch.size());
+        } catch (Exception e) {
+            logger.warnf("Unable to scan the queries within one pass, they will be scanned one by one: %s",
+                    e.getMessage());
+            batchResults.remove(config.appPath());
+        }
+    }
+
+    /**
+     * Runs the batch of recipes on a project, or a module of the project, and splits the rows of the data tables per
+     * query.
+     */
+    private Map<Query, List<Result>> runBatch(Path projectPath, RecipeBatch batch, String batchYaml,
+            String maxLstHeap) throws Exception {
+        Path yamlPath = FileUtils.mtoolDir(projectPath).resolve(BATCH_RECIPE_FILE);
+        Files.writeString(yamlPath, batchYaml, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        RewriteConfig cfg = new RewriteConfig();
+        cfg.setAppPath(projectPath);
+        cfg.setFqNameRecipe(RecipeBatch.BATCH_RECIPE_NAME);
+        cfg.setYamlRecipesPath(projectPath.relativize(yamlPath).toString());
+        setProjectClasspath(cfg, projectPath);
+
+        List<SearchResults.Row> searchRows = new ArrayList<>();
+        List<ClassHierarchy.Row> hierarchyRows = new ArrayList<>();
+        List<JavaSymbolsReport.Row> symbolRows = new ArrayList<>();
+        List<TypeHierarchyReport.Row> typeHierarchyRows = new ArrayList<>();
+        LstChunker chunker = LstChunker.forSearch(projectPath, batch.recipeNames(), maxLstHeap);
+        if (chunker != null) {
+            chunker.withSharedFile(projectPath.relativize(yamlPath)).run(cfg, (svc, files) -> {
+                List<SearchResults.Row> chunkRows = new ArrayList<>();
+                collectRows(projectPath, svc.runScanner(), chunkRows, hierarchyRows, symbolRows, typeHierarchyRows);
+                chunkRows.stream().filter(row -> files.contains(row.getSourcePath())).forEach(searchRows::add);
+            });
+        } else {
+            RewriteServicePool.getInstance().withService(projectPath, cfg, svc -> {
+                collectRows(projectPath, svc.runScanner(), searchRows, hierarchyRows, symbolRows, typeHierarchyRows);
+                return null;
+            });
+        }
+        return batch.split(searchRows, hierarchyRows, symbolRows, typeHierarchyRows, getScannerType());
+    }
+
+    private static void collectRows(Path projectPath, ResultsContainer run, List<SearchResults.Row> searchRows,
+            List<ClassHierarchy.Row> hierarchyRows, List<JavaSymbolsReport.Row> symbolRows,
+            List<TypeHierarchyReport.Row> typeHierarchyRows) {
+        RecipeRunStatistics.getInstance().record(projectPath, RecipeRunStatistics.fromRun(run));
+        // Collect the rows of all the runs as the data tables are reported per recipe
+        for (RecipeRun recipeRun : run.getRecipeRuns().values()) {
+            recipeRun.getDataTables().forEach((dataTable, rows) -> {
+                if (dataTable.getName().contains("ClassHierarchy")) {
+                    hierarchyRows.addAll((List<ClassHierarchy.Row>) rows);
+                } else if (dataTable.getName().contains("SearchResults")) {
+                    searchRows.addAll((List<SearchResults.Row>) rows);
+                } else if (dataTable.getName().contains("JavaSymbolsReport")) {
+                    symbolRows.addAll((List<JavaSymbolsReport.Row>) rows);
+                } else if (dataTable.getName().contains("TypeHierarchyReport")) {
+                    typeHierarchyRows.addAll((List<TypeHierarchyReport.Row>) rows);
+                }
+            });
+        }
+    }
+
     @Deprecated
     private List<Result> oldMethodToGetMatches(Config config, Query query) {
         logger.infof("OpenRewrite scanner executing 1 query");
@@ -133,10 +279,13 @@ public class OpenRewriteQueryScanner implements QueryScanner {
          *
          */
         RecipeHolder recipeHolder = parse(q);
+        RecipeDefinition rd = recipeHolder.getRecipesList().getFirst();
 
         List<Result> matches;
         try {
-            matches = applyRecipes(config, recipeHolder);
+            matches = ModuleParallelRunner
+                    .run(config, modulePath -> Map.of(q, applyRecipes(modulePath, rd, config.maxLstHeap())))
+                    .getOrDefault(q, new ArrayList<>());
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -149,9 +298,42 @@ public class OpenRewriteQueryScanner implements QueryScanner {
 
     }
 
+    /**
+     * Returns the classes extending or implementing, directly or transitively, the types of the query. The rows of the
+     * recipe FindTypeHierarchy are only collected by the first query of the run, the following ones are answered
+     * using the graph of the supertypes.
+     */
+    private List<Result> findSubtypes(Config config, Query query) {
+        Hierarchy hierarchy = hierarchies.get(config.appPath());
+        if (hierarchy == null) {
+            List<Result> batched = batchResults.getOrDefault(config.appPath(), Map.of()).get(query);
+            List<Result> classes = batched != null ? batched : scansCode(config, query);
+            hierarchy = new Hierarchy(classes, ClassHierarchyGraph.fromResults(classes));
+            hierarchies.put(config.appPath(), hierarchy);
+            logger.debugf("Graph of the class hierarchy built with %d types", hierarchy.graph().size());
+        }
+
+        ClassHierarchyGraph graph = hierarchy.graph();
+        List<String> supertypes = HIERARCHY_KEYS.stream().map(query.keyValues()::get).filter(Objects::nonNull)
+                .toList();
+        List<Result> results = new ArrayList<>();
+        for (Result result : hierarchy.classes()) {
+            String className = String.valueOf(result.result()).split("\\|", -1)[1];
+            if (supertypes.stream().allMatch(supertype -> graph.isSubtypeOf(className, supertype))) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    private static boolean isHierarchyQuery(Query query) {
+        return "java".equals(query.fileType()) && "class".equals(query.symbol())
+                && HIERARCHY_KEYS.stream().anyMatch(query.keyValues()::containsKey);
+    }
+
     List<Result> findMatchsFromResults(ResultsContainer resultsContainer, RecipeDefinition recipeDefinition) {
         List<Result> results = new ArrayList<>();
-        List<String> findTerms = List.of("FindClass", "FindMethod");
+        List<String> findTerms = List.of("FindClass", "FindMethod", "FindJavaSymbols", "FindTypeHierarchy");
 
         boolean isFindEntityRecipe = findTerms.stream().anyMatch(recipeDefinition.getFqName()::contains);
         if (!isFindEntityRecipe && !resultsContainer.isNotEmpty()) {
@@ -164,6 +346,10 @@ public class OpenRewriteQueryScanner implements QueryScanner {
         String fqName = recipeDefinition.getFqName();
         if ("org.openrewrite.java.search.FindClassHierarchy".equals(fqName)) {
             results = extractClassHierarchyResults(run, fqName);
+        } else if (RecipeBatch.FIND_TYPE_HIERARCHY.equals(fqName)) {
+            results = extractTypeHierarchyResults(run, fqName);
+        } else if (RecipeBatch.FIND_JAVA_SYMBOLS.equals(fqName)) {
+            results = extractJavaSymbolsResults(run, fqName);
         } else {
             results = extractSearchResults(run, fqName);
         }
@@ -178,12 +364,7 @@ public class OpenRewriteQueryScanner implements QueryScanner {
         if (resultMap.isPresent()) {
             List<ClassHierarchy.Row> rows = (List<ClassHierarchy.Row>) resultMap.get().getValue();
             for (ClassHierarchy.Row row : rows) {
-                String sourcePath = row.getSourcePath();
-                String className = row.getClassName();
-                String superclass = row.getSuperclass();
-                String interfaces = row.getInterfaces();
-
-                String formatedResult = String.format("%s|%s|%s|%s", sourcePath, className, superclass, interfaces);
+                String formatedResult = formatClassHierarchyRow(row);
                 logger.debugf("ClassHierarchy datatable result: %s%n", formatedResult);
                 results.add(new Result("toBeDone", getScannerType(), formatedResult));
             }
@@ -193,6 +374,40 @@ public class OpenRewriteQueryScanner implements QueryScanner {
         return results;
     }
 
+    private List<Result> extractTypeHierarchyResults(RecipeRun run, String fqName) {
+        List<Result> results = new ArrayList<>();
+        Optional<Map.Entry<DataTable<?>, List<?>>> resultMap = run == null ? Optional.empty()
+                : run.getDataTables().entrySet().stream()
+                        .filter(entry -> entry.getKey().getName().contains("TypeHierarchyReport")).findFirst();
+
+        if (resultMap.isPresent()) {
+            List<TypeHierarchyReport.Row> rows = (List<TypeHierarchyReport.Row>) resultMap.get().getValue();
+            for (TypeHierarchyReport.Row row : rows) {
+                results.add(new Result("toBeDone", getScannerType(), formatTypeHierarchyRow(row)));
+            }
+        } else {
+            logger.debugf("No TypeHierarchyReport DataTable found for: %s%n", fqName);
+        }
+        return results;
+    }
+
+    private List<Result> extractJavaSymbolsResults(RecipeRun run, String fqName) {
+        List<Result> results = new ArrayList<>();
+        Optional<Map.Entry<DataTable<?>, List<?>>> resultMap = run == null ? Optional.empty()
+                : run.getDataTables().entrySet().stream()
+                        .filter(entry -> entry.getKey().getName().contains("JavaSymbolsReport")).findFirst();
+
+        if (resultMap.isPresent()) {
+            List<JavaSymbolsReport.Row> rows = (List<JavaSymbolsReport.Row>) resultMap.get().getValue();
+            for (JavaSymbolsReport.Row row : rows) {
+                results.add(new Result("toBeDone", getScannerType(), formatJavaSymbolRow(row)));
+            }
+        } else {
+            logger.debugf("No JavaSymbolsReport DataTable found for: %s%n", fqName);
+        }
+        return results;
+    }
+
     private List<Result> extractSearchResults(RecipeRun run, String fqName) {
         List<Result> results = new ArrayList<>();
         Optional<Map.Entry<DataTable<?>, List<?>>> resultMap = run.getDataTables().entrySet().stream()
@@ -201,12 +416,8 @@ public class OpenRewriteQueryScanner implements QueryScanner {
         if (resultMap.isPresent()) {
             List<SearchResults.Row> rows = (List<SearchResults.Row>) resultMap.get().getValue();
             for (SearchResults.Row row : rows) {
-                String sourcePath = row.getSourcePath();
-                String recipe = row.getRecipe();
-                String result = row.getResult();
-
-                String formatedResult = String.format("%s|%s|%s|%s", sourcePath, result, recipe, recipe);
-                logger.debugf("Match's recipe: %s datatable result: %s%n", recipe, formatedResult);
+                String formatedResult = formatSearchResultRow(row);
+                logger.debugf("Match's recipe: %s datatable result: %s%n", row.getRecipe(), formatedResult);
                 results.add(new Result("toBeDone", getScannerType(), formatedResult));
             }
         } else {
@@ -215,55 +426,77 @@ public class OpenRewriteQueryScanner implements QueryScanner {
         return results;
     }
 
-    private List<Result> applyRecipes(Config config, RecipeHolder recipeHolder) throws Exception {
+    static String formatClassHierarchyRow(ClassHierarchy.Row row) {
+        return String.format("%s|%s|%s|%s", row.getSourcePath(), row.getClassName(), row.getSuperclass(),
+                row.getInterfaces());
+    }
+
+    static String formatTypeHierarchyRow(TypeHierarchyReport.Row row) {
+        return String.format("%s|%s|%s|%s|%s", row.getSourcePath(), row.getClassName(), row.getSuperclass(),
+                row.getInterfaces(), row.getSupertypes());
+    }
+
+    static String formatJavaSymbolRow(JavaSymbolsReport.Row row) {
+        return String.format("%s|%s|%s|%s", row.getSourceFilePath(), row.getMatch(), row.getSymbol(),
+                row.getClassName());
+    }
+
+    static String formatSearchResultRow(SearchResults.Row row) {
+        return String.format("%s|%s|%s|%s", row.getSourcePath(), row.getResult(), row.getRecipe(), row.getRecipe());
+    }
+
+    private List<Result> applyRecipes(Path projectPath, RecipeDefinition rd, String maxLstHeap) throws Exception {
         RewriteConfig cfg = new RewriteConfig();
-        cfg.setAppPath(Paths.get(config.appPath()));
+        cfg.setAppPath(projectPath);
 
-        // Configure the RewriteConfig using the RecipeHolder
+        // Configure the RewriteConfig using the definition of the recipe of the RecipeHolder
         // The fqName corresponds to the fully qualify name of the Java Recipe class to be executed
-        RecipeDefinition rd = recipeHolder.getRecipesList().getFirst();
         cfg.setFqNameRecipe(rd.getFqName());
 
         // Set the parameters needed to configure the fields of the Java Recipe Class
         cfg.setRecipeOptions(convertMapParametersToKeyValueSet(rd.getFieldMappings()));
+        setProjectClasspath(cfg, projectPath);
 
         logger.debugf("Running recipe: %s with options: %s%n", cfg.getFqNameRecipe(), cfg.getRecipeOptions());
 
         /*
-         * Previous code which has been replaced with the RewriteService singleton
+         * Previous code which has been replaced with the pool of RewriteService
          *
          * This code works as for each recipe we parse the code, create the sourceSet and reset the DataTables, etc every time
          * RewriteService svc = new RewriteService(cfg);
          * svc.init();
          */
 
-        // Create a singleton instance of the RewriteService to allow to load only one time all the resources of a project to scan
-        RewriteService svc = createRewriteServiceInstance(cfg);
-        /*
-         * If the SourceSet (= Tree of openrewrite J* classes) has been created, then that means that the RewriteService
-         * has been also initialized, that a Context and Environment exist too.
-         * It is only need in this case to update the config as we are processing a new recipe
-         * and to create a new Context to reset the Map of the DataTables otherwise the Context will continue to aggregate them
-         * See: https://github.com/snowdrop/migration-tool/issues/212
-         */
-        if (svc.isSourceSetInitialized()) {
-            svc.createExecutionContext();
-            svc.updateConfig(cfg);
-        } else {
-            svc.init();
+        // The LST of a project too large for the heap is parsed and searched chunk by chunk
+        LstChunker chunker = LstChunker.forSearch(projectPath, List.of(rd.getFqName()), maxLstHeap);
+        if (chunker != null) {
+            List<Result> results = new ArrayList<>();
+            chunker.run(cfg, (svc, files) -> findMatchsFromResults(projectPath, svc.runScanner(), rd).stream()
+                    .filter(result -> files.contains(String.valueOf(result.result()).split("\\|", -1)[0]))
+                    .forEach(results::add));
+            return results;
         }
 
-        ResultsContainer run = svc.runScanner();
-        return findMatchsFromResults(run, rd);
+        // The data tables belong to the execution context of the service: read them before another query reuses it
+        return RewriteServicePool.getInstance().withService(projectPath, cfg,
+                svc -> findMatchsFromResults(projectPath, svc.runScanner(), rd));
     }
 
-    public static RewriteService createRewriteServiceInstance(RewriteConfig cfg) {
-        if (rewriteServiceInstance == null) {
-            logger.debug("Set a new instance of the RewriteService.");
-            rewriteServiceInstance = new RewriteService(cfg);
+    private List<Result> findMatchsFromResults(Path projectPath, ResultsContainer resultsContainer,
+            RecipeDefinition recipeDefinition) {
+        RecipeRunStatistics.getInstance().record(projectPath, RecipeRunStatistics.fromRun(resultsContainer));
+        return findMatchsFromResults(resultsContainer, recipeDefinition);
+    }
+
+    /**
+     * Gives the service the dependencies of the project recorded by the {@link ClasspathResolver}, so that the types
+     * of the LST are attributed using the same jars by each run.
+     */
+    private static void setProjectClasspath(RewriteConfig cfg, Path projectPath) {
+        List<String> classpath = ClasspathResolver.projectClasspath(projectPath);
+        if (!classpath.isEmpty()) {
+            cfg.setAdditionalJarPaths(classpath);
         }
-        logger.debug("Reuse an instance of the RewriteService.");
-        return rewriteServiceInstance;
     }
 
     /**
@@ -336,11 +569,15 @@ public class OpenRewriteQueryScanner implements QueryScanner {
     private RecipeHolder parse(Query query) {
         //TODO: To be improved
         String key = query.fileType() + "." + query.symbol();
+        if (isHierarchyQuery(query)) {
+            return buildFindTypeHierarchyRecipe(query);
+        }
         if ("java.class".equals(key) && query.operation().contains("find all")) {
             return buildFindAllJavaClassRecipe(query);
         }
         return switch (key) {
             case "java.annotation" -> buildSearchAnnotationRecipe(query);
+            case "java.method", "java.import", "java.type" -> buildFindJavaSymbolsRecipe(query);
             case "source.file" -> buildFindSourceFilesRecipe(query);
             case "properties.key" -> buildFindProperties(query);
             default -> throw new IllegalArgumentException("Unsupported symbol: " + query.symbol());
@@ -379,6 +616,17 @@ public class OpenRewriteQueryScanner implements QueryScanner {
         return recipeHolder;
     }
 
+    private RecipeHolder buildFindTypeHierarchyRecipe(Query query) {
+        RecipeHolder recipeHolder = new RecipeHolder().withName("dev.snowdrop.mtool.openrewrite.ConditionToMatch")
+                .withDisplayName("Find the java type hierarchy").withDescription(
+                        "Discovers all class declarations within a project with all their supertypes, including the ones declared by the libraries.");
+
+        recipeHolder.setRecipesList(List.of(new RecipeDefinition()
+                .withFullyQualifyRecipeName(RecipeBatch.FIND_TYPE_HIERARCHY).withFieldMappings(new HashMap<>())));
+
+        return recipeHolder;
+    }
+
     private RecipeHolder buildSearchAnnotationRecipe(Query query) {
         String annotationName = query.keyValues().get("name");
 
@@ -396,6 +644,26 @@ public class OpenRewriteQueryScanner implements QueryScanner {
         return recipeHolder;
     }
 
+    private RecipeHolder buildFindJavaSymbolsRecipe(Query query) {
+        // java.method is 'org.acme.Foo bar(..)', java.import is 'org.acme.*', java.type is 'org.acme.Foo'
+        String pattern = query.keyValues().getOrDefault("name", query.keyValues().get("value"));
+        if (pattern == null || pattern.isBlank()) {
+            pattern = "method".equals(query.symbol()) ? "*..* *(..)" : "*..*";
+        }
+
+        RecipeHolder recipeHolder = new RecipeHolder().withName("dev.snowdrop.mtool.openrewrite.ConditionToMatch")
+                .withDisplayName("Search Java symbols").withDescription("Search Java symbols within one pass.");
+
+        HashMap<String, String> fieldMappings = new HashMap<>();
+        fieldMappings.put(RecipeBatch.SYMBOLS_FIELD, String.join(FindJavaSymbols.FIELD_SEPARATOR,
+                query.fileType() + "." + query.symbol(), query.symbol(), pattern));
+
+        recipeHolder.setRecipesList(List.of(new RecipeDefinition()
+                .withFullyQualifyRecipeName(RecipeBatch.FIND_JAVA_SYMBOLS).withFieldMappings(fieldMappings)));
+
+        return recipeHolder;
+    }
+
     private RecipeHolder buildFindSourceFilesRecipe(Query query) {
         String filePattern = query.keyValues().get("value");
 
@@ -469,6 +737,7 @@ public class OpenRewriteQueryScanner implements QueryScanner {
         // Check the configuration to see if this query should use the Maven scanner
         return (fileType.contains("java") && symbol.contains("class"))
                 || (fileType.contains("java") && symbol.contains("annotation"))
+                || (fileType.contains("java") && JAVA_SYMBOLS.contains(symbol))
                 || (fileType.contains("properties") && symbol.contains("key"))
                 || (fileType.contains("source") && symbol.contains("file"));
     }
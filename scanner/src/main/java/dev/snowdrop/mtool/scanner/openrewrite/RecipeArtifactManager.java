@@ -0,0 +1,233 @@
+package dev.snowdrop.mtool.scanner.openrewrite;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.snowdrop.mtool.scanner.maven.RepositoryModelResolver;
+import dev.snowdrop.mtool.scanner.metrics.ScanMetrics;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.resolution.DependencyRequest;
+import org.eclipse.aether.util.artifact.JavaScopes;
+import org.eclipse.aether.util.filter.DependencyFilterUtils;
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the artifacts of the recipes (the GAVs of the openrewrite instructions of the rules) into the jar files of
+ * their runtime classpath. The jars resolved for each GAV are recorded within {@code ~/.mtool/recipes/artifacts.json},
+ * so that the next runs, or the runs of an air-gapped CI after {@code mtool prefetch}, don't resolve them again as long
+ * as the jars are still present. The jars of a SNAPSHOT version are resolved again once a day, as Maven does by
+ * default, to get the snapshots deployed since.
+ * <p>
+ * The classpath of a set of GAVs merges the jars of each GAV, keeping the highest version of an artifact required by
+ * several of them, and is kept in memory using the sorted set of GAVs as key.
+ */
+public class RecipeArtifactManager {
+    private static final Logger logger = Logger.getLogger(RecipeArtifactManager.class);
+
+    public static final String CACHE_DIR_PROPERTY = "mtool.recipes.cache-dir";
+
+    private static final String INDEX_FILE = "artifacts.json";
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final GenericVersionScheme versionScheme = new GenericVersionScheme();
+    private static final String SNAPSHOT = "-SNAPSHOT";
+    static final Duration SNAPSHOT_UPDATE_INTERVAL = Duration.ofDays(1);
+
+    private static final RecipeArtifactManager INSTANCE = new RecipeArtifactManager(defaultCacheDir());
+
+    /**
+     * A jar of the classpath of a recipe artifact
+     */
+    public record Jar(String groupId, String artifactId, String classifier, String version, String path) {
+        String versionlessId() {
+            return groupId + ":" + artifactId + ":" + classifier;
+        }
+    }
+
+    /**
+     * The jars resolved for a GAV and the time they were resolved at, in milliseconds since the epoch
+     */
+    public record Entry(List<Jar> jars, long resolvedAt) {
+    }
+
+    @FunctionalInterface
+    interface ArtifactResolver {
+        List<Jar> resolve(String gav) throws Exception;
+    }
+
+    private final Path indexFile;
+    private final ArtifactResolver resolver;
+    private final Clock clock;
+    private final Map<String, Entry> jarsPerGav = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> classpaths = new ConcurrentHashMap<>();
+    private RepositoryModelResolver repository;
+
+    public RecipeArtifactManager(Path cacheDir) {
+        this(cacheDir, null);
+    }
+
+    RecipeArtifactManager(Path cacheDir, ArtifactResolver resolver) {
+        this(cacheDir, resolver, Clock.systemUTC());
+    }
+
+    RecipeArtifactManager(Path cacheDir, ArtifactResolver resolver, Clock clock) {
+        this.indexFile = cacheDir.resolve(INDEX_FILE);
+        this.resolver = resolver != null ? resolver : this::resolveWithMaven;
+        this.clock = clock;
+        load();
+    }
+
+    /**
+     * Returns the manager shared by the transformations of the JVM.
+     */
+    public static RecipeArtifactManager getInstance() {
+        return INSTANCE;
+    }
+
+    private static Path defaultCacheDir() {
+        String cacheDir = System.getProperty(CACHE_DIR_PROPERTY);
+        return cacheDir != null ? Paths.get(cacheDir) : Paths.get(System.getProperty("user.home"), ".mtool", "recipes");
+    }
+
+    /**
+     * Returns the key of a set of GAVs, independent of their order and duplicates.
+     */
+    public static String key(Collection<String> gavs) {
+        return String.join(",", new TreeSet<>(gavs));
+    }
+
+    /**
+     * Returns the paths of the jars of the runtime classpath of the recipe artifacts.
+     *
+     * @param gavs the coordinates of the artifacts: groupId:artifactId:version
+     * @return the paths of the jars
+     * @throws Exception when an artifact cannot be resolved
+     */
+    public List<String> classpath(Collection<String> gavs) throws Exception {
+        String key = key(gavs);
+        List<String> classpath = classpaths.get(key);
+        if (classpath != null && gavs.stream().noneMatch(this::isOutdated)
+                && classpath.stream().allMatch(path -> Files.isRegularFile(Paths.get(path)))) {
+            return classpath;
+        }
+
+        Map<String, Jar> merged = new LinkedHashMap<>();
+        for (String gav : new TreeSet<>(gavs)) {
+            for (Jar jar : jars(gav)) {
+                Jar existing = merged.get(jar.versionlessId());
+                if (existing == null || compareVersions(jar.version(), existing.version()) > 0) {
+                    merged.put(jar.versionlessId(), jar);
+                }
+            }
+        }
+        classpath = merged.values().stream().map(Jar::path).toList();
+        classpaths.put(key, classpath);
+        return classpath;
+    }
+
+    /**
+     * Returns the jars of the runtime classpath of an artifact, resolving them only when they are not part of the
+     * cache, when one of them has been deleted or when the snapshots resolved are outdated.
+     */
+    public List<Jar> jars(String gav) throws Exception {
+        Entry entry = jarsPerGav.get(gav);
+        boolean hit = entry != null && !isOutdated(gav)
+                && entry.jars().stream().allMatch(jar -> Files.isRegularFile(Paths.get(jar.path())));
+        ScanMetrics.recordCacheRequest("recipe-artifacts", hit);
+        if (hit) {
+            return entry.jars();
+        }
+
+        logger.infof("Resolving the recipe artifact %s", gav);
+        List<Jar> jars = List.copyOf(resolver.resolve(gav));
+        jarsPerGav.put(gav, new Entry(jars, clock.millis()));
+        save();
+        return jars;
+    }
+
+    /**
+     * Indicates if the jars of a SNAPSHOT version have been resolved more than {@link #SNAPSHOT_UPDATE_INTERVAL} ago.
+     */
+    private boolean isOutdated(String gav) {
+        Entry entry = jarsPerGav.get(gav);
+        return entry != null && gav.endsWith(SNAPSHOT)
+                && clock.millis() - entry.resolvedAt() >= SNAPSHOT_UPDATE_INTERVAL.toMillis();
+    }
+
+    private List<Jar> resolveWithMaven(String gav) throws Exception {
+        RepositoryModelResolver repository = repository();
+        CollectRequest collectRequest = new CollectRequest(new Dependency(new DefaultArtifact(gav), JavaScopes.RUNTIME),
+                repository.getRepositories());
+        DependencyRequest request = new DependencyRequest(collectRequest,
+                DependencyFilterUtils.classpathFilter(JavaScopes.RUNTIME));
+
+        List<Jar> jars = new ArrayList<>();
+        for (ArtifactResult result : repository.getRepoSystem()
+                .resolveDependencies(repository.getSession(), request).getArtifactResults()) {
+            Artifact artifact = result.getArtifact();
+            jars.add(new Jar(artifact.getGroupId(), artifact.getArtifactId(), artifact.getClassifier(),
+                    artifact.getVersion(), artifact.getFile().getAbsolutePath()));
+        }
+        return jars;
+    }
+
+    private synchronized RepositoryModelResolver repository() {
+        // Creating the repository system is costly and only needed when an artifact is not cached
+        if (repository == null) {
+            repository = new RepositoryModelResolver();
+        }
+        return repository;
+    }
+
+    static int compareVersions(String version, String other) {
+        try {
+            return versionScheme.parseVersion(version).compareTo(versionScheme.parseVersion(other));
+        } catch (InvalidVersionSpecificationException e) {
+            return version.compareTo(other);
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try {
+            jarsPerGav.putAll(mapper.readValue(indexFile.toFile(), new TypeReference<Map<String, Entry>>() {
+            }));
+        } catch (IOException e) {
+            logger.warnf("Ignoring the cache of the recipe artifacts which cannot be read: %s", e.getMessage());
+        }
+    }
+
+    private synchronized void save() {
+        try {
+            Files.createDirectories(indexFile.getParent());
+            // Write first a temporary file to not leave a corrupted cache if the process is stopped
+            Path tmp = Files.createTempFile(indexFile.getParent(), "artifacts", ".tmp");
+            mapper.writeValue(tmp.toFile(), new TreeMap<>(jarsPerGav));
+            Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warnf("Unable to save the cache of the recipe artifacts: %s", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package dev.snowdrop.mtool.scanner.openrewrite;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
+import dev.snowdrop.mtool.model.analyze.Result;
+import dev.snowdrop.mtool.model.openrewrite.CompositeRecipe;
+import dev.snowdrop.mtool.model.openrewrite.RecipeDefinition;
+import dev.snowdrop.mtool.model.parser.Query;
+import dev.snowdrop.mtool.openrewrite.java.search.FindJavaSymbols;
+import dev.snowdrop.mtool.openrewrite.java.search.FindTypeHierarchy;
+import dev.snowdrop.mtool.openrewrite.java.table.JavaSymbolsReport;
+import dev.snowdrop.mtool.openrewrite.java.table.TypeHierarchyReport;
+import org.jboss.logging.Logger;
+import org.openrewrite.java.table.ClassHierarchy;
+import org.openrewrite.table.SearchResults;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Group the recipes of several queries within one composite recipe, so that OpenRewrite visits the LST only one time
+ * for all of them, and split the rows of the data tables produced back to the query they belong to.
+ * <p>
+ * The rows of the {@code ClassHierarchy} and {@code TypeHierarchyReport} data tables are given to all the queries
+ * searching the classes, respectively all the classes and the subtypes of a type. The rows of
+ * the {@code SearchResults} data table are assigned using the name of the recipe instance recorded within the row,
+ * which contains the option of the recipe between backticks (e.g. "Find annotations `@SpringBootApplication`"). When
+ * a row cannot be assigned without ambiguity, the queries that could have produced it are excluded from the batch and
+ * will be scanned individually.
+ * <p>
+ * The symbols searched by the {@code java.method}, {@code java.import} and {@code java.type} queries are merged within
+ * one {@link FindJavaSymbols} recipe, whose rows are assigned using their match id.
+ */
+public class RecipeBatch {
+
+    private static final Logger logger = Logger.getLogger(RecipeBatch.class);
+
+    public static final String BATCH_RECIPE_NAME = "dev.snowdrop.mtool.openrewrite.BatchConditionsToMatch";
+    static final String FIND_CLASS_HIERARCHY = "org.openrewrite.java.search.FindClassHierarchy";
+    static final String FIND_TYPE_HIERARCHY = FindTypeHierarchy.class.getName();
+    static final String FIND_JAVA_SYMBOLS = FindJavaSymbols.class.getName();
+    static final String SYMBOLS_FIELD = "symbols";
+
+    private static final ObjectMapper yamlMapper = new ObjectMapper(
+            new YAMLFactory().disable(YAMLGenerator.Feature.WRITE_DOC_START_MARKER));
+
+    record Entry(Query query, RecipeDefinition recipe, String tag, Predicate<String> acceptsSourcePath) {
+        boolean isClassHierarchy() {
+            return FIND_CLASS_HIERARCHY.equals(recipe.getFqName());
+        }
+
+        boolean isTypeHierarchy() {
+            return FIND_TYPE_HIERARCHY.equals(recipe.getFqName());
+        }
+
+        boolean isJavaSymbols() {
+            return FIND_JAVA_SYMBOLS.equals(recipe.getFqName());
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Add the recipe of a query to the batch.
+     *
+     * @param query the query
+     * @param recipe the recipe definition generated for the query
+     */
+    public void add(Query query, RecipeDefinition recipe) {
+        Map<String, String> fields = recipe.getFieldMappings() != null ? recipe.getFieldMappings() : Map.of();
+        String key = query.fileType() + "." + query.symbol();
+
+        if (FIND_JAVA_SYMBOLS.equals(recipe.getFqName())) {
+            // Give to the symbol of the query a match id unique within the batch
+            String symbol = fields.get(SYMBOLS_FIELD);
+            String matchId = "symbol-" + entries.size();
+            String symbols = matchId + symbol.substring(symbol.indexOf(FindJavaSymbols.FIELD_SEPARATOR));
+            RecipeDefinition symbolRecipe = new RecipeDefinition().withFullyQualifyRecipeName(FIND_JAVA_SYMBOLS)
+                    .withFieldMappings(new HashMap<>(Map.of(SYMBOLS_FIELD, symbols)));
+            entries.add(new Entry(query, symbolRecipe, matchId, p -> p.endsWith(".java")));
+            return;
+        }
+
+        Entry entry = switch (key) {
+            case "java.annotation" -> new Entry(query, recipe, fields.get("annotationPattern"), p -> p.endsWith(".java"));
+            case "properties.key" -> new Entry(query, recipe, fields.get("propertyKey"), p -> p.endsWith(".properties"));
+            default -> new Entry(query, recipe, fields.get("filePattern"), p -> true);
+        };
+        entries.add(entry);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the fully qualified names of the recipes of the batch.
+     */
+    public Set<String> recipeNames() {
+        Set<String> names = new HashSet<>();
+        entries.forEach(entry -> names.add(entry.recipe().getFqName()));
+        return names;
+    }
+
+    /**
+     * Generate the YAML of the composite recipe containing the recipes of all the queries.
+     */
+    public String toYaml() throws JsonProcessingException {
+        List<Object> recipeList = new ArrayList<>();
+        Set<String> added = new HashSet<>();
+        List<String> symbols = new ArrayList<>();
+        int symbolsIndex = -1;
+        for (Entry entry : entries) {
+            RecipeDefinition rd = entry.recipe();
+            if (entry.isJavaSymbols()) {
+                // All the symbols are searched by one recipe added at the position of the first one
+                if (symbolsIndex < 0) {
+                    symbolsIndex = recipeList.size();
+                    recipeList.add(FIND_JAVA_SYMBOLS);
+                }
+                symbols.add(rd.getFieldMappings().get(SYMBOLS_FIELD));
+                continue;
+            }
+            Map<String, String> fields = rd.getFieldMappings();
+            Object recipe = (fields == null || fields.isEmpty()) ? rd.getFqName() : Map.of(rd.getFqName(), fields);
+            // The same recipe configured identically is only executed once
+            if (added.add(recipe.toString())) {
+                recipeList.add(recipe);
+            }
+        }
+        if (symbolsIndex >= 0) {
+            recipeList.set(symbolsIndex, Map.of(FIND_JAVA_SYMBOLS,
+                    Map.of(SYMBOLS_FIELD, String.join(FindJavaSymbols.ENTRY_SEPARATOR, symbols))));
+        }
+
+        CompositeRecipe compositeRecipe = new CompositeRecipe(BATCH_RECIPE_NAME, "Match the conditions of the rules",
+                "Search within one pass the code matching the conditions of the rules.", recipeList);
+        return yamlMapper.writeValueAsString(compositeRecipe);
+    }
+
+    /**
+     * Split the rows of the data tables per query.
+     *
+     * @param searchRows the rows of the SearchResults data tables
+     * @param hierarchyRows the rows of the ClassHierarchy data tables
+     * @param symbolRows the rows of the JavaSymbolsReport data tables
+     * @param typeHierarchyRows the rows of the TypeHierarchyReport data tables
+     * @param scannerType the type of the scanner to set on the results
+     * @return the results per query. The queries whose results could not be identified are not part of the map
+     */
+    public Map<Query, List<Result>> split(List<SearchResults.Row> searchRows, List<ClassHierarchy.Row> hierarchyRows,
+            List<JavaSymbolsReport.Row> symbolRows, List<TypeHierarchyReport.Row> typeHierarchyRows,
+            String scannerType) {
+        Map<Query, List<Result>> resultsPerQuery = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            resultsPerQuery.put(entry.query(), new ArrayList<>());
+        }
+        Set<Query> unresolved = new HashSet<>();
+
+        for (ClassHierarchy.Row row : hierarchyRows) {
+            Result result = new Result("toBeDone", scannerType, OpenRewriteQueryScanner.formatClassHierarchyRow(row));
+            entries.stream().filter(Entry::isClassHierarchy)
+                    .forEach(entry -> resultsPerQuery.get(entry.query()).add(result));
+        }
+
+        for (TypeHierarchyReport.Row row : typeHierarchyRows) {
+            Result result = new Result("toBeDone", scannerType, OpenRewriteQueryScanner.formatTypeHierarchyRow(row));
+            entries.stream().filter(Entry::isTypeHierarchy)
+                    .forEach(entry -> resultsPerQuery.get(entry.query()).add(result));
+        }
+
+        for (JavaSymbolsReport.Row row : symbolRows) {
+            Result result = new Result("toBeDone", scannerType, OpenRewriteQueryScanner.formatJavaSymbolRow(row));
+            entries.stream().filter(e -> e.isJavaSymbols() && e.tag().equals(row.getMatchId()))
+                    .forEach(entry -> resultsPerQuery.get(entry.query()).add(result));
+        }
+
+        List<Entry> searchEntries = entries.stream()
+                .filter(e -> !e.isClassHierarchy() && !e.isTypeHierarchy() && !e.isJavaSymbols()).toList();
+        for (SearchResults.Row row : searchRows) {
+            String sourcePath = row.getSourcePath() != null ? row.getSourcePath() : "";
+            String recipe = row.getRecipe() != null ? row.getRecipe() : "";
+
+            List<Entry> candidates = searchEntries.stream().filter(e -> e.acceptsSourcePath().test(sourcePath))
+                    .toList();
+            List<Entry> tagged = candidates.stream()
+                    .filter(e -> e.tag() != null && recipe.contains("`" + e.tag() + "`")).toList();
+
+            List<Entry> owners = !tagged.isEmpty() ? tagged : candidates.size() == 1 ? candidates : List.of();
+            if (owners.isEmpty()) {
+                logger.debugf("Unable to find the query of the row: %s|%s", sourcePath, recipe);
+                candidates.forEach(e -> unresolved.add(e.query()));
+                continue;
+            }
+
+            Result result = new Result("toBeDone", scannerType, OpenRewriteQueryScanner.formatSearchResultRow(row));
+            owners.forEach(entry -> resultsPerQuery.get(entry.query()).add(result));
+        }
+
+        unresolved.forEach(resultsPerQuery::remove);
+        return resultsPerQuery;
+    }
+}
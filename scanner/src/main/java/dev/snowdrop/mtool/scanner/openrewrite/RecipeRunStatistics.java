@@ -0,0 +1,120 @@
+package dev.snowdrop.mtool.scanner.openrewrite;
+
+import dev.snowdrop.mtool.model.openrewrite.RecipeStat;
+import dev.snowdrop.rewrite.ResultsContainer;
+import org.openrewrite.RecipeRun;
+import org.openrewrite.table.RecipeRunStats;
+import org.openrewrite.table.SourcesFileResults;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Statistics of the recipes read from the {@code RecipeRunStats} and {@code SourcesFileResults} data tables filled by
+ * OpenRewrite during a run: the files visited and changed by each recipe and the time spent to scan and edit them.
+ * <p>
+ * The statistics of the recipes run to analyze a project are kept per project, so that the slowest recipes can be
+ * reported with the results of the analysis.
+ */
+public class RecipeRunStatistics {
+
+    private static final RecipeRunStatistics INSTANCE = new RecipeRunStatistics();
+
+    private final Map<Path, Map<String, RecipeStat>> statsPerProject = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the statistics shared by the scanners of the JVM.
+     */
+    public static RecipeRunStatistics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the statistics of the recipes of a run, the slowest first.
+     */
+    public static List<RecipeStat> fromRun(ResultsContainer run) {
+        Map<String, RecipeStat> stats = new LinkedHashMap<>();
+        Map<String, Set<String>> changedFiles = new HashMap<>();
+        // The runs of the recipes of a composite recipe can share the same data tables
+        Set<List<?>> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (RecipeRun recipeRun : run.getRecipeRuns().values()) {
+            recipeRun.getDataTables().forEach((dataTable, rows) -> {
+                if (!visited.add(rows)) {
+                    return;
+                }
+                if (dataTable.getName().contains("RecipeRunStats")) {
+                    for (RecipeRunStats.Row row : (List<RecipeRunStats.Row>) rows) {
+                        stats.merge(row.getRecipe(), toStat(row), RecipeStat::merge);
+                    }
+                } else if (dataTable.getName().contains("SourcesFileResults")) {
+                    for (SourcesFileResults.Row row : (List<SourcesFileResults.Row>) rows) {
+                        changedFiles.computeIfAbsent(row.getRecipe(), recipe -> new HashSet<>())
+                                .add(row.getSourcePath());
+                    }
+                }
+            });
+        }
+        changedFiles.forEach((recipe, files) -> stats.merge(recipe,
+                new RecipeStat(recipe, 0, files.size(), 0, 0, 0, 0), RecipeStat::merge));
+        return sorted(stats.values());
+    }
+
+    /**
+     * Adds the statistics of a run on a project, or on a module of the project.
+     */
+    public void record(Path projectPath, Collection<RecipeStat> stats) {
+        Map<String, RecipeStat> projectStats = statsPerProject
+                .computeIfAbsent(projectPath.toAbsolutePath().normalize(), path -> new ConcurrentHashMap<>());
+        stats.forEach(stat -> projectStats.merge(stat.recipe(), stat, RecipeStat::merge));
+    }
+
+    /**
+     * Returns the statistics of the recipes run on a project and its modules, the slowest first.
+     */
+    public List<RecipeStat> forProject(Path appPath) {
+        Path normalizedPath = appPath.toAbsolutePath().normalize();
+        Map<String, RecipeStat> stats = new HashMap<>();
+        statsPerProject.forEach((path, projectStats) -> {
+            if (path.startsWith(normalizedPath)) {
+                projectStats.values().forEach(stat -> stats.merge(stat.recipe(), stat, RecipeStat::merge));
+            }
+        });
+        return sorted(stats.values());
+    }
+
+    /**
+     * Drops the statistics of a project and of its modules, e.g. before analyzing it again.
+     */
+    public void clear(Path appPath) {
+        Path normalizedPath = appPath.toAbsolutePath().normalize();
+        statsPerProject.keySet().removeIf(path -> path.startsWith(normalizedPath));
+    }
+
+    private static RecipeStat toStat(RecipeRunStats.Row row) {
+        return new RecipeStat(row.getRecipe(), row.getSourceFiles() != null ? row.getSourceFiles() : 0, 0,
+                millis(row.getScanTotalTime()), millis(row.getEditTotalTime()), millis(row.getEditP99Time()),
+                millis(row.getEditMaxTime()));
+    }
+
+    private static double millis(Long nanos) {
+        return nanos != null ? nanos / 1_000_000.0 : 0;
+    }
+
+    private static List<RecipeStat> sorted(Collection<RecipeStat> stats) {
+        List<RecipeStat> sorted = new ArrayList<>(stats);
+        sorted.sort(Comparator.comparingDouble(RecipeStat::totalTimeMs).reversed()
+                .thenComparing(RecipeStat::recipe));
+        return sorted;
+    }
+}
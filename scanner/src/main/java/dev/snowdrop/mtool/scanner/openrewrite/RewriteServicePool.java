@@ -0,0 +1,272 @@
+package dev.snowdrop.mtool.scanner.openrewrite;
+
+import dev.snowdrop.mtool.scanner.cache.FileHashIndex;
+import dev.snowdrop.mtool.scanner.utils.FileUtils;
+import dev.snowdrop.rewrite.config.RewriteConfig;
+import dev.snowdrop.rewrite.service.RewriteService;
+import org.jboss.logging.Logger;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pool of the {@link RewriteService} having parsed the sources (LST) of a project, keyed by the path of the project and
+ * the hash of its sources. A service is reused as long as the sources of its project didn't change.
+ * <p>
+ * A RewriteService owns one execution context, which is reset before each recipe run: a service is then used by one
+ * query at a time while the queries of different projects run concurrently. The least recently used services are
+ * evicted when the estimated size of the LSTs kept exceeds the heap budget.
+ * <p>
+ * The fingerprint of the sources of a project is computed by the first query of a run (see {@link #refresh(Path)}), the
+ * following queries reuse it until the project is invalidated.
+ */
+public class RewriteServicePool {
+    private static final Logger logger = Logger.getLogger(RewriteServicePool.class);
+
+    public static final String HEAP_BUDGET_PROPERTY = "mtool.lst.heap-budget";
+
+    // Rough ratio between the size of the LST in memory and the size of the sources parsed
+    static final int LST_BYTES_PER_SOURCE_BYTE = 20;
+
+    private static final Pattern SIZE = Pattern.compile("(\\d+)([kmg]?)");
+
+    private static final RewriteServicePool INSTANCE = new RewriteServicePool(defaultHeapBudget());
+
+    @FunctionalInterface
+    public interface ServiceCallback<T> {
+        T apply(RewriteService service) throws Exception;
+    }
+
+    @FunctionalInterface
+    interface ServiceFactory {
+        RewriteService create(RewriteConfig cfg);
+    }
+
+    record Key(Path appPath, String sourceHash) {
+    }
+
+    static final class Entry {
+        final Key key;
+        final RewriteService service;
+        final long estimatedBytes;
+        final ReentrantLock lock = new ReentrantLock();
+        // Number of the queries having acquired the entry, guarded by the pool: an entry in use is not evicted
+        int users;
+
+        Entry(Key key, RewriteService service, long estimatedBytes) {
+            this.key = key;
+            this.service = service;
+            this.estimatedBytes = estimatedBytes;
+        }
+    }
+
+    private final long heapBudget;
+    private final ServiceFactory serviceFactory;
+    // Access ordered to evict the least recently used entries first
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Path, FileHashIndex> fileHashIndexes = new ConcurrentHashMap<>();
+    private long estimatedBytes;
+
+    public RewriteServicePool(long heapBudget) {
+        this(heapBudget, RewriteService::new);
+    }
+
+    RewriteServicePool(long heapBudget, ServiceFactory serviceFactory) {
+        this.heapBudget = heapBudget;
+        this.serviceFactory = serviceFactory;
+    }
+
+    /**
+     * Returns the pool shared by the scanners of the JVM.
+     */
+    public static RewriteServicePool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Runs the callback with the service of the project, parsing its sources when no service of the pool matches the
+     * current content of the project. The execution context of the service is reset and configured using the config
+     * before calling the callback.
+     *
+     * @param appPath the path of the project
+     * @param cfg the configuration of the recipe to run
+     * @param callback the function using the service, e.g. to run the recipe and read its data tables
+     * @return the value returned by the callback
+     */
+    public <T> T withService(Path appPath, RewriteConfig cfg, ServiceCallback<T> callback) throws Exception {
+        Path normalizedPath = appPath.toAbsolutePath().normalize();
+        Entry entry = acquire(normalizedPath, cfg);
+        try {
+            RewriteService svc = entry.service;
+            /*
+             * If the SourceSet (= Tree of openrewrite J* classes) has been created, then that means that the RewriteService
+             * has been also initialized, that a Context and Environment exist too.
+             * It is only need in this case to update the config as we are processing a new recipe
+             * and to create a new Context to reset the Map of the DataTables otherwise the Context will continue to aggregate them
+             * See: https://github.com/snowdrop/migration-tool/issues/212
+             */
+            if (svc.isSourceSetInitialized()) {
+                svc.createExecutionContext();
+                svc.updateConfig(cfg);
+            } else {
+                svc.init();
+            }
+            return callback.apply(svc);
+        } finally {
+            release(entry);
+        }
+    }
+
+    /**
+     * Computes again the fingerprint of the sources of a project and of its modules when their service is requested
+     * next, e.g. at the beginning of a run, without dropping their services.
+     */
+    public void refresh(Path appPath) {
+        Path normalizedPath = appPath.toAbsolutePath().normalize();
+        fileHashIndexes.forEach((path, index) -> {
+            if (path.startsWith(normalizedPath)) {
+                index.invalidateProjectFingerprint();
+            }
+        });
+    }
+
+    /**
+     * Drops the services of a project and of its modules, e.g. because its sources changed.
+     */
+    public synchronized void invalidate(Path appPath) {
+        Path normalizedPath = appPath.toAbsolutePath().normalize();
+        fileHashIndexes.forEach((path, index) -> {
+            if (path.startsWith(normalizedPath)) {
+                index.invalidateProjectFingerprint();
+            }
+        });
+        entries.values().removeIf(entry -> {
+            boolean remove = entry.key.appPath().startsWith(normalizedPath);
+            if (remove) {
+                estimatedBytes -= entry.estimatedBytes;
+            }
+            return remove;
+        });
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Returns the entry of the service of the project, locked for the caller, which must {@link #release(Entry)} it.
+     */
+    Entry acquire(Path appPath, RewriteConfig cfg) {
+        FileHashIndex index = fileHashIndexes.computeIfAbsent(appPath,
+                path -> new FileHashIndex(path, FileUtils.mtoolDir(path, "cache")));
+        // The fingerprint is only computed again after a refresh or an invalidation of the project
+        String sourceHash;
+        long sourceSize;
+        synchronized (index) {
+            sourceHash = index.projectFingerprint();
+            sourceSize = index.projectSize();
+        }
+
+        Entry entry;
+        synchronized (this) {
+            Key key = new Key(appPath, sourceHash);
+            entry = entries.get(key);
+            if (entry == null) {
+                // The services parsed from a previous content of the project are outdated
+                entries.values().removeIf(e -> {
+                    boolean outdated = e.key.appPath().equals(appPath);
+                    if (outdated) {
+                        logger.debugf("Dropping the RewriteService of %s as its sources changed.", appPath);
+                        estimatedBytes -= e.estimatedBytes;
+                    }
+                    return outdated;
+                });
+
+                logger.debugf("Set a new instance of the RewriteService for %s", appPath);
+                entry = new Entry(key, serviceFactory.create(cfg), sourceSize * LST_BYTES_PER_SOURCE_BYTE);
+                entries.put(key, entry);
+                estimatedBytes += entry.estimatedBytes;
+            } else {
+                logger.debugf("Reuse the instance of the RewriteService for %s", appPath);
+            }
+            // Counted as used before leaving the monitor, so that it cannot be evicted before being locked
+            entry.users++;
+            evict();
+        }
+        entry.lock.lock();
+        return entry;
+    }
+
+    /**
+     * Unlocks an entry acquired and evicts the entries exceeding the budget which were kept as they were in use.
+     */
+    void release(Entry entry) {
+        entry.lock.unlock();
+        synchronized (this) {
+            entry.users--;
+            evict();
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries not in use until the estimated size fits within the budget.
+     */
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (estimatedBytes > heapBudget && it.hasNext()) {
+            Entry eldest = it.next();
+            if (eldest.users > 0) {
+                continue;
+            }
+            logger.infof("Evicting the LST of %s to stay within the heap budget of %d MB", eldest.key.appPath(),
+                    heapBudget / (1024 * 1024));
+            it.remove();
+            estimatedBytes -= eldest.estimatedBytes;
+        }
+    }
+
+    /**
+     * Returns the heap budget defined using the system property {@value #HEAP_BUDGET_PROPERTY} (e.g. 2g, 512m) or
+     * half of the maximum heap of the JVM.
+     */
+    static long defaultHeapBudget() {
+        String value = System.getProperty(HEAP_BUDGET_PROPERTY);
+        if (value != null && !value.isBlank()) {
+            return parseSize(value);
+        }
+        return Runtime.getRuntime().maxMemory() / 2;
+    }
+
+    /**
+     * Parses a size in bytes, optionally followed by the unit k, m or g (e.g. 2g, 512m).
+     *
+     * @throws IllegalArgumentException when the value is not a size
+     */
+    static long parseSize(String value) {
+        Matcher matcher = SIZE.matcher(value.trim().toLowerCase());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid size '" + value + "', expected e.g. 2g, 512m, 1024k");
+        }
+        long multiplier = switch (matcher.group(2)) {
+            case "k" -> 1024L;
+            case "m" -> 1024L * 1024;
+            case "g" -> 1024L * 1024 * 1024;
+            default -> 1L;
+        };
+        try {
+            return Math.multiplyExact(Long.parseLong(matcher.group(1)), multiplier);
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid size '" + value + "', the value is too large");
+        }
+    }
+}
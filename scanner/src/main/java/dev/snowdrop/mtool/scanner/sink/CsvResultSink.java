@@ -0,0 +1,54 @@
+package dev.snowdrop.mtool.scanner.sink;
+
+import com.opencsv.CSVWriter;
+import dev.snowdrop.mtool.model.analyze.Result;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Function;
+
+/**
+ * Writes each result as one CSV row (id, scanner, result), as soon as it is received.
+ */
+public class CsvResultSink implements ResultSink {
+
+    private final Path file;
+    private final CSVWriter writer;
+    private final Function<Result, String> formatter;
+
+    public CsvResultSink(Path file) throws IOException {
+        this(file, result -> String.valueOf(result.result()));
+    }
+
+    /**
+     * @param file the CSV file to write
+     * @param formatter the function converting the value of a result to the text of the column
+     */
+    public CsvResultSink(Path file, Function<Result, String> formatter) throws IOException {
+        this.file = file;
+        this.formatter = formatter;
+        this.writer = new CSVWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+        writer.writeNext(new String[] { "Id", "Scanner", "Result" });
+    }
+
+    @Override
+    public synchronized void accept(String id, Result result) {
+        writer.writeNext(new String[] { id, result.scannerType(), formatter.apply(result) });
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close " + file, e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,59 @@
+package dev.snowdrop.mtool.scanner.sink;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.snowdrop.mtool.model.analyze.Result;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes each result as one JSON document per line (JSON Lines), as soon as it is received.
+ */
+public class JsonLinesResultSink implements ResultSink {
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    record Line(String id, String scannerType, Object result) {
+    }
+
+    private final Path file;
+    private final BufferedWriter writer;
+
+    public JsonLinesResultSink(Path file) throws IOException {
+        this.file = file;
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized void accept(String id, Result result) {
+        try {
+            mapper.writeValue(writer, new Line(id, result.scannerType(), result.result()));
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write the result to " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close " + file, e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,73 @@
+package dev.snowdrop.mtool.scanner.sink;
+
+import dev.snowdrop.mtool.model.analyze.Result;
+
+import java.util.List;
+
+/**
+ * Receives the results of a scan as soon as they are found, so that they don't have to be kept in memory until the
+ * end of the scan (e.g. to write them to a file while scanning).
+ */
+public interface ResultSink extends AutoCloseable {
+
+    /**
+     * Notifies the sink that the results of a new id (e.g. a query of a plan) will follow.
+     *
+     * @param id the id under which the results are reported
+     */
+    default void begin(String id) {
+    }
+
+    /**
+     * Receives a result.
+     *
+     * @param id the id under which the result is reported (e.g. the rule ID or the query)
+     * @param result the result found
+     */
+    void accept(String id, Result result);
+
+    /**
+     * Flushes and releases the resources of the sink.
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     * Returns a sink forwarding the results to all the given sinks. All the sinks are closed, even when one of them
+     * fails to close: the first failure is thrown with the following ones suppressed.
+     */
+    static ResultSink of(ResultSink... sinks) {
+        List<ResultSink> all = List.of(sinks);
+        return new ResultSink() {
+            @Override
+            public void begin(String id) {
+                all.forEach(sink -> sink.begin(id));
+            }
+
+            @Override
+            public void accept(String id, Result result) {
+                all.forEach(sink -> sink.accept(id, result));
+            }
+
+            @Override
+            public void close() {
+                RuntimeException failure = null;
+                for (ResultSink sink : all) {
+                    try {
+                        sink.close();
+                    } catch (RuntimeException e) {
+                        if (failure == null) {
+                            failure = e;
+                        } else {
+                            failure.addSuppressed(e);
+                        }
+                    }
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package dev.snowdrop.mtool.scanner.sink;
+
+import dev.snowdrop.mtool.model.analyze.Result;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a bounded summary of the results: the number of results per id and only the first samples of each id. The
+ * memory used doesn't depend on the number of results received.
+ */
+public class SummaryResultSink implements ResultSink {
+
+    public static final int DEFAULT_MAX_SAMPLES = 10;
+
+    public record Summary(String id, long count, List<Result> samples) {
+    }
+
+    private final int maxSamples;
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+    private final Map<String, List<Result>> samples = new LinkedHashMap<>();
+
+    public SummaryResultSink() {
+        this(DEFAULT_MAX_SAMPLES);
+    }
+
+    /**
+     * @param maxSamples the maximum number of results kept per id
+     */
+    public SummaryResultSink(int maxSamples) {
+        this.maxSamples = maxSamples;
+    }
+
+    /**
+     * Registers the id, so that it is part of the summary even without result.
+     */
+    @Override
+    public synchronized void begin(String id) {
+        counts.putIfAbsent(id, 0L);
+        samples.putIfAbsent(id, new ArrayList<>());
+    }
+
+    @Override
+    public synchronized void accept(String id, Result result) {
+        begin(id);
+        counts.merge(id, 1L, Long::sum);
+        List<Result> kept = samples.get(id);
+        if (kept.size() < maxSamples) {
+            kept.add(result);
+        }
+    }
+
+    public synchronized List<Summary> getSummaries() {
+        List<Summary> summaries = new ArrayList<>();
+        counts.forEach((id, count) -> summaries.add(new Summary(id, count,
+                Collections.unmodifiableList(new ArrayList<>(samples.get(id))))));
+        return summaries;
+    }
+
+    public synchronized long getTotal() {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
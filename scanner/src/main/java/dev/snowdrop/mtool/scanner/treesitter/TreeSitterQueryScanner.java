@@ -3,7 +3,8 @@ package dev.snowdrop.mtool.scanner.treesitter;
 import dev.snowdrop.mtool.model.analyze.Config;
 import dev.snowdrop.mtool.model.analyze.Result;
 import dev.snowdrop.mtool.model.parser.Query;
-import dev.snowdrop.mtool.scanner.QueryScanner;
+import dev.snowdrop.mtool.scanner.FileScopedQueryScanner;
+import dev.snowdrop.mtool.scanner.metrics.ScanMetrics;
 import io.roastedroot.treesitter.Language;
 import io.roastedroot.treesitter.TreeSitter;
 import io.roastedroot.treesitter.TreeSitterNode;
@@ -14,16 +15,21 @@ import io.roastedroot.treesitter.TreeSitterTree;
 import org.jboss.logging.Logger;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
-public class TreeSitterQueryScanner implements QueryScanner {
+public class TreeSitterQueryScanner implements FileScopedQueryScanner {
 
     private static final Logger logger = Logger.getLogger(TreeSitterQueryScanner.class);
 
@@ -70,6 +76,10 @@ public class TreeSitterQueryScanner implements QueryScanner {
     private static String JAVA_SOURCE_GLOB_PATTERN = "glob:**/src/{main,test}/java/**/*.java";
     private static String PROPERTIES_SOURCE_GLOB_PATTERN = "glob:**/src/{main,test}/resources/*.properties";
     private static String WEB_SOURCE_GLOB_PATTERN = "glob:**/src/{main,test}/resources/**/*.{html,htm}";
+    private static String POM_GLOB_PATTERN = "glob:**/pom.xml";
+
+    private record SourceQuery(String treeSitterQuery, String globPattern, Language language) {
+    }
 
     @Override
     public String getScannerType() {
@@ -93,27 +103,94 @@ public class TreeSitterQueryScanner implements QueryScanner {
     }
 
     @Override
-    public List<Result> scansCodeFor(Config config, Query query) {
+    public List<Path> findSourceFiles(Config config, Query query) {
+        return findFiles(Paths.get(config.appPath()), sourceQuery(query).globPattern());
+    }
+
+    @Override
+    public Map<Path, List<Result>> scanFiles(Config config, Query query, List<Path> files) {
+        Map<Path, List<Result>> matches = new LinkedHashMap<>();
+        scan(config, query, files, matches::put);
+        return matches;
+    }
+
+    /**
+     * Scans the files one by one using the same tree-sitter runtime, parser and query.
+     */
+    @Override
+    public void scansCodeFor(Config config, Query query, Consumer<Result> consumer) {
+        scan(config, query, findSourceFiles(config, query), (file, results) -> {
+            results.forEach(consumer);
+            ScanMetrics.recordFiles(getScannerType(), List.of(file));
+        });
+    }
+
+    /**
+     * Parses the files and runs the query on each of them, the runtime, parser and query being created once.
+     *
+     * @param onFile called with the matches of each file scanned
+     */
+    private void scan(Config config, Query query, List<Path> files, BiConsumer<Path, List<Result>> onFile) {
+        String key = query.fileType() + "." + query.symbol();
+        logger.infof("TreeSitter scanner executing for query %s on %d file(s)", key, files.size());
+
+        SourceQuery sourceQuery = sourceQuery(query);
+        FileMatcher fileMatcher;
+        if ("pom.dependency".equals(key)) {
+            fileMatcher = pomDependencyMatcher(config, query);
+            if (fileMatcher == null) {
+                return;
+            }
+        } else {
+            fileMatcher = (file, source, results) -> generateMatchesFromResults(results, query,
+                    source.getBytes(StandardCharsets.UTF_8), config.appPath(), file);
+        }
+
+        int count = 0;
+        try (TreeSitter ts = TreeSitter.create();
+                TreeSitterParser parser = ts.newParser(sourceQuery.language());
+                TreeSitterQuery tsQuery = ts.newQuery(sourceQuery.language(), sourceQuery.treeSitterQuery())) {
+
+            for (Path file : files) {
+                String source = Files.readString(file);
+
+                try (TreeSitterTree tree = parser.parseString(source)) {
+                    List<Result> fileMatches = fileMatcher.matches(file, source,
+                            tsQuery.exec(tree.rootNode(), source));
+                    onFile.accept(file, fileMatches);
+                    count += fileMatches.size();
+                }
+            }
+        } catch (IOException e) {
+            // Not returning the matches found so far, they would be taken as the complete results of the files
+            throw new UncheckedIOException("Unable to scan the source files for " + key, e);
+        }
+
+        logger.infof("Found %d %s matches", count, key);
+    }
+
+    @FunctionalInterface
+    private interface FileMatcher {
+        List<Result> matches(Path file, String source, List<TreeSitterQueryResult> results);
+    }
+
+    private SourceQuery sourceQuery(Query query) {
         String key = query.fileType() + "." + query.symbol();
-        logger.infof("TreeSitter scanner executing for query %s", key);
 
         if (query.fileType().equals("properties")) {
-            return scanSourceFiles(config, query, PROPERTIES_ALL_QUERY, PROPERTIES_SOURCE_GLOB_PATTERN, Language.PROPERTIES);
+            return new SourceQuery(PROPERTIES_ALL_QUERY, PROPERTIES_SOURCE_GLOB_PATTERN, Language.PROPERTIES);
         }
 
         if (query.fileType().equals("html")) {
-            return scanSourceFiles(config, query, HTML_ALL_QUERY, WEB_SOURCE_GLOB_PATTERN, Language.HTML);
+            return new SourceQuery(HTML_ALL_QUERY, WEB_SOURCE_GLOB_PATTERN, Language.HTML);
         }
 
         return switch (key) {
-            case "java.class" -> scanSourceFiles(config, query, JAVA_ALL_CLASS_QUERY, JAVA_SOURCE_GLOB_PATTERN, Language.JAVA);
-            case "java.interface" ->
-                scanSourceFiles(config, query, JAVA_ALL_INTERFACE_QUERY, JAVA_SOURCE_GLOB_PATTERN, Language.JAVA);
-            case "java.annotation" ->
-                scanSourceFiles(config, query, JAVA_ALL_ANNOTATION_QUERY, JAVA_SOURCE_GLOB_PATTERN, Language.JAVA);
-            case "java.import" ->
-                scanSourceFiles(config, query, JAVA_ALL_IMPORT_QUERY, JAVA_SOURCE_GLOB_PATTERN, Language.JAVA);
-            case "pom.dependency" -> scanPomDependencies(config, query);
+            case "java.class" -> new SourceQuery(JAVA_ALL_CLASS_QUERY, JAVA_SOURCE_GLOB_PATTERN, Language.JAVA);
+            case "java.interface" -> new SourceQuery(JAVA_ALL_INTERFACE_QUERY, JAVA_SOURCE_GLOB_PATTERN, Language.JAVA);
+            case "java.annotation" -> new SourceQuery(JAVA_ALL_ANNOTATION_QUERY, JAVA_SOURCE_GLOB_PATTERN, Language.JAVA);
+            case "java.import" -> new SourceQuery(JAVA_ALL_IMPORT_QUERY, JAVA_SOURCE_GLOB_PATTERN, Language.JAVA);
+            case "pom.dependency" -> new SourceQuery(POM_DEPENDENCY_QUERY, POM_GLOB_PATTERN, Language.XML);
             default -> throw new IllegalArgumentException("Unsupported query: " + key);
         };
     }
@@ -124,95 +201,56 @@ public class TreeSitterQueryScanner implements QueryScanner {
         return List.of();
     }
 
-    private List<Result> scanSourceFiles(Config config, Query query, String treeSitterQuery, String globPattern,
-            Language language) {
-        List<Result> matches = new ArrayList<>();
-        List<Path> sourceFiles = findFiles(Paths.get(config.appPath()), globPattern);
-        try (TreeSitter ts = TreeSitter.create();
-                TreeSitterParser parser = ts.newParser(language);
-                TreeSitterQuery tsQuery = ts.newQuery(language, treeSitterQuery)) {
-
-            for (Path javaFile : sourceFiles) {
-                String source = Files.readString(javaFile);
-
-                try (TreeSitterTree tree = parser.parseString(source)) {
-                    List<TreeSitterQueryResult> results = tsQuery.exec(tree.rootNode(), source);
-                    matches.addAll(generateMatchesFromResults(results, query, source.getBytes(StandardCharsets.UTF_8),
-                            config.appPath(), javaFile));
-                }
-            }
-        } catch (IOException e) {
-            logger.errorf("Error scanning source files for %s: %s", query.symbol(), e.getMessage());
-        }
-
-        logger.infof("Found %d %s matches", matches.size(), query.symbol());
-        return matches;
-    }
-
-    private List<Result> scanPomDependencies(Config config, Query query) {
+    /**
+     * Returns the matcher of the dependencies of a pom whose groupId and artifactId are the ones of the query, or null
+     * when the query has no gavs.
+     */
+    private FileMatcher pomDependencyMatcher(Config config, Query query) {
         String gavs = query.keyValues().get("gavs");
         if (gavs == null) {
             logger.warn("No 'gavs' key provided for pom.dependency query");
-            return List.of();
+            return null;
         }
 
         String[] gavParts = gavs.split(":");
         String targetGroupId = gavParts.length > 0 ? gavParts[0] : null;
         String targetArtifactId = gavParts.length > 1 ? gavParts[1] : null;
 
-        List<Result> matches = new ArrayList<>();
-        List<Path> pomFiles = findFiles(Paths.get(config.appPath()), "glob:**/pom.xml");
-
-        try (TreeSitter ts = TreeSitter.create();
-                TreeSitterParser parser = ts.newParser(Language.XML)) {
-
-            for (Path pomFile : pomFiles) {
-                String source = Files.readString(pomFile);
-
-                try (TreeSitterTree tree = parser.parseString(source);
-                        TreeSitterQuery tsQuery = ts.newQuery(Language.XML, POM_DEPENDENCY_QUERY)) {
-
-                    List<TreeSitterQueryResult> results = tsQuery.exec(tree.rootNode(), source);
-
-                    String currentGroupId = null;
-                    String currentArtifactId = null;
-                    TreeSitterNode blockNode = null;
-
-                    for (TreeSitterQueryResult result : results) {
-                        switch (result.name()) {
-                            case "dependency.block" -> blockNode = result.node();
-                            case "group.id" -> currentGroupId = source.substring(
-                                    result.node().startByte(), result.node().endByte()).trim();
-                            case "artifact.id" -> {
-                                currentArtifactId = source.substring(
-                                        result.node().startByte(), result.node().endByte()).trim();
-
-                                if (matchesGav(currentGroupId, currentArtifactId, targetGroupId, targetArtifactId)
-                                        && blockNode != null) {
-                                    int line = blockNode.startRow() + 1;
-                                    String relativePath = Paths.get(config.appPath()).relativize(pomFile).toString();
-                                    String formatted = String.format("%s:%d | %s:%s",
-                                            relativePath, line, currentGroupId, currentArtifactId);
-                                    matches.add(new Result(
-                                            query.fileType() + "-" + query.symbol(),
-                                            SCANNER_TYPE,
-                                            formatted));
-                                }
-
-                                currentGroupId = null;
-                                currentArtifactId = null;
-                                blockNode = null;
-                            }
+        return (pomFile, source, results) -> {
+            List<Result> matches = new ArrayList<>();
+            String currentGroupId = null;
+            String currentArtifactId = null;
+            TreeSitterNode blockNode = null;
+
+            for (TreeSitterQueryResult result : results) {
+                switch (result.name()) {
+                    case "dependency.block" -> blockNode = result.node();
+                    case "group.id" -> currentGroupId = source.substring(
+                            result.node().startByte(), result.node().endByte()).trim();
+                    case "artifact.id" -> {
+                        currentArtifactId = source.substring(
+                                result.node().startByte(), result.node().endByte()).trim();
+
+                        if (matchesGav(currentGroupId, currentArtifactId, targetGroupId, targetArtifactId)
+                                && blockNode != null) {
+                            int line = blockNode.startRow() + 1;
+                            String relativePath = Paths.get(config.appPath()).relativize(pomFile).toString();
+                            String formatted = String.format("%s:%d | %s:%s",
+                                    relativePath, line, currentGroupId, currentArtifactId);
+                            matches.add(new Result(
+                                    query.fileType() + "-" + query.symbol(),
+                                    SCANNER_TYPE,
+                                    formatted));
                         }
+
+                        currentGroupId = null;
+                        currentArtifactId = null;
+                        blockNode = null;
                     }
                 }
             }
-        } catch (IOException e) {
-            logger.errorf("Error scanning POM files for dependencies: %s", e.getMessage());
-        }
-
-        logger.infof("Found %d dependency matches for '%s'", matches.size(), gavs);
-        return matches;
+            return matches;
+        };
     }
 
     private boolean matchesGav(String groupId, String artifactId, String targetGroupId, String targetArtifactId) {
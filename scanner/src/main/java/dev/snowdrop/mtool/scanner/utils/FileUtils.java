@@ -2,11 +2,23 @@ package dev.snowdrop.mtool.scanner.utils;
 
 import org.jboss.logging.Logger;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 public class FileUtils {
     private static final Logger logger = Logger.getLogger(FileUtils.class.getName());
+    public static final String MTOOL_DIR = ".mtool";
+
+    // Folders generated by the tools (build, IDE, mtool) and not part of the code source
+    private static final Set<String> GENERATED_FOLDERS = Set.of(MTOOL_DIR, ".git", ".idea", ".vscode", "target",
+            "build", "node_modules");
+    // Reports exported by the analyze and scan commands under the application's folder
+    private static final Pattern REPORT_FILE = Pattern.compile(".+-report_.+\\.(json|jsonl|html|csv)");
 
     public static Path resolvePath(String pathString) {
         logger.debugf("📋 Resolving path: %s", pathString);
@@ -26,4 +38,41 @@ public class FileUtils {
             return normalizedAndAbsPath;
         }
     }
+
+    /**
+     * Returns the folder of the project where the tool keeps its working files (generated recipes, caches, etc),
+     * creating it if needed.
+     *
+     * @param appPath the path of the application scanned
+     * @param subFolders the optional sub folders to resolve under the tool's folder
+     * @return the path of the folder
+     */
+    public static Path mtoolDir(Path appPath, String... subFolders) {
+        Path dir = appPath.resolve(MTOOL_DIR);
+        for (String subFolder : subFolders) {
+            dir = dir.resolve(subFolder);
+        }
+        try {
+            return Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create the folder: " + dir, e);
+        }
+    }
+
+    /**
+     * Indicates if a path of the project has been generated by a tool (build output, IDE settings, reports and files
+     * of mtool, etc) and is then not part of the code source to be analyzed.
+     *
+     * @param relativePath the path relative to the root of the project
+     * @return true if the path is generated
+     */
+    public static boolean isGenerated(Path relativePath) {
+        for (Path part : relativePath) {
+            if (GENERATED_FOLDERS.contains(part.toString())) {
+                return true;
+            }
+        }
+        Path fileName = relativePath.getFileName();
+        return fileName != null && REPORT_FILE.matcher(fileName.toString()).matches();
+    }
 }
@@ -10,12 +10,14 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -158,4 +160,68 @@ class CodeScannerServiceTest {
 
     }
 
+    // ---------------------------------------------------------------------
+    // AND: cheapest clause first, stop at the first clause not matching
+    // ---------------------------------------------------------------------
+    @Test
+    void testAndConditionStopsAtFirstCheapClauseNotMatching() {
+        Rule rule = andRule("java.annotation is 'RestController' AND pom.dependency is spring-boot");
+        List<Query> clauses = List.copyOf(QueryUtils.parseAndVisit(rule.when().condition()).getAndQueries());
+        Query annotation = clauses.get(0);
+        Query dependency = clauses.get(1);
+
+        Mockito.when(scanCommandExecutor.estimateCost(config, annotation)).thenReturn(10);
+        Mockito.when(scanCommandExecutor.estimateCost(config, dependency)).thenReturn(1);
+        Mockito.when(scanCommandExecutor.executeCommandForQuery(config, dependency)).thenReturn(List.of());
+
+        ScanningResult scanningResult = codeScannerService.scan(rule);
+
+        Assertions.assertFalse(scanningResult.isMatchSucceeded());
+        assertTrue(scanningResult.getResults().containsKey("and-short-circuit"));
+        Mockito.verify(scanCommandExecutor).executeCommandForQuery(config, dependency);
+        Mockito.verify(scanCommandExecutor, Mockito.never()).executeCommandForQuery(config, annotation);
+    }
+
+    @Test
+    void testAndConditionWithFullEvaluation() {
+        Rule rule = andRule("java.annotation is 'RestController' AND pom.dependency is spring-boot");
+        List<Query> clauses = List.copyOf(QueryUtils.parseAndVisit(rule.when().condition()).getAndQueries());
+        List<Result> matches = List.of(new Result("1", "openrewrite", "RestController"));
+        Mockito.when(scanCommandExecutor.executeCommandForQuery(config, clauses.get(0))).thenReturn(matches);
+        Mockito.when(scanCommandExecutor.executeCommandForQuery(config, clauses.get(1))).thenReturn(List.of());
+
+        ScanningResult scanningResult = codeScannerService.withFullEvaluation(true).scan(rule);
+
+        Assertions.assertFalse(scanningResult.isMatchSucceeded());
+        assertThat(scanningResult.getResults().get("and-short-circuit")).isEqualTo(matches);
+        Mockito.verify(scanCommandExecutor).executeCommandForQuery(config, clauses.get(1));
+    }
+
+    private Rule andRule(String condition) {
+        Rule.When when = new Rule.When(null, Collections.emptyList(), Collections.emptyList(), condition, null);
+        return new Rule("mandatory", Collections.emptyList(), "desc", 1, Collections.emptyList(),
+                Collections.emptyList(), "help", "and-short-circuit", null, when, Collections.emptyList(), 1, null);
+    }
+
+    // ---------------------------------------------------------------------
+    // The distinct queries of all the rules are prepared together
+    // ---------------------------------------------------------------------
+    @Test
+    void testPrepareCollectsDistinctQueriesOfRules() {
+        Rule.When firstWhen = new Rule.When(null, Collections.emptyList(), Collections.emptyList(),
+                "java.annotation is 'RestController' OR java.annotation is 'Controller'", null);
+        Rule.When secondWhen = new Rule.When(null, Collections.emptyList(), Collections.emptyList(),
+                "java.annotation is 'RestController' AND pom.dependency is spring-boot", null);
+        Rule firstRule = new Rule("mandatory", Collections.emptyList(), "desc", 1, Collections.emptyList(),
+                Collections.emptyList(), "help", "first-rule", null, firstWhen, Collections.emptyList(), 1, null);
+        Rule secondRule = new Rule("mandatory", Collections.emptyList(), "desc", 1, Collections.emptyList(),
+                Collections.emptyList(), "help", "second-rule", null, secondWhen, Collections.emptyList(), 1, null);
+
+        codeScannerService.prepare(List.of(firstRule, secondRule));
+
+        ArgumentCaptor<Collection<Query>> captor = ArgumentCaptor.forClass(Collection.class);
+        Mockito.verify(scanCommandExecutor).prepareQueries(Mockito.eq(config), captor.capture());
+        assertEquals(3, captor.getValue().size());
+    }
+
 }
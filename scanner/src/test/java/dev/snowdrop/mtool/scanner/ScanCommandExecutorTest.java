@@ -10,9 +10,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -51,6 +53,31 @@ class ScanCommandExecutorTest {
         verify(spiRegistry).resolveScannerForQuery(config, query);
     }
 
+    @Test
+    void executeCommandForQuery_scansSameQueryOnlyOnce() {
+        ScanCommandExecutor executor = new ScanCommandExecutor(spiRegistry);
+
+        Query query = new Query("pom", "dependency", "is", Map.of("artifactId", "spring-boot", "groupId",
+                "org.springframework.boot"));
+        // Same clause written with the key/values in another order
+        Query sameQuery = new Query("pom", "dependency", "is ", Map.of("groupId", "org.springframework.boot",
+                "artifactId", "spring-boot"));
+
+        List<Result> expectedResults = List.of(new Result("pom.xml", "maven", Collections.emptyList()));
+
+        when(spiRegistry.resolveScannerForQuery(config, query)).thenReturn(scanner);
+        when(spiRegistry.resolveScannerForQuery(config, sameQuery)).thenReturn(scanner);
+        when(scanner.getScannerType()).thenReturn("maven");
+        when(scanner.scansCodeFor(config, query)).thenReturn(expectedResults);
+
+        assertEquals(expectedResults, executor.executeCommandForQuery(config, query));
+        assertEquals(expectedResults, executor.executeCommandForQuery(config, sameQuery));
+
+        verify(scanner, times(1)).scansCodeFor(config, query);
+        assertEquals(1, executor.getQueryResultCache().getHits());
+        assertEquals(1, executor.getQueryResultCache().getMisses());
+    }
+
     @Test
     void executeCommandForQuery_returnsEmptyListWhenNoScannerFound() {
         ScanCommandExecutor executor = new ScanCommandExecutor(spiRegistry);
@@ -0,0 +1,149 @@
+package dev.snowdrop.mtool.scanner.cache;
+
+import dev.snowdrop.mtool.model.analyze.Config;
+import dev.snowdrop.mtool.model.analyze.Result;
+import dev.snowdrop.mtool.model.parser.Query;
+import dev.snowdrop.mtool.scanner.FileScopedQueryScanner;
+import dev.snowdrop.mtool.scanner.utils.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PersistentResultCacheTest {
+
+    private final Query query = new Query("text", "line", "", Map.of("value", "match"));
+
+    @TempDir
+    Path appPath;
+
+    /**
+     * Scanner returning one result per line of the text files containing "match"
+     */
+    static class LineScanner implements FileScopedQueryScanner {
+        final List<Path> scanned = new ArrayList<>();
+        String version = "1.0";
+        Path unreadable;
+
+        @Override
+        public List<Path> findSourceFiles(Config config, Query query) {
+            try (Stream<Path> files = Files.list(Path.of(config.appPath()))) {
+                return files.filter(p -> p.toString().endsWith(".txt")).sorted().toList();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public Map<Path, List<Result>> scanFiles(Config config, Query query, List<Path> files) {
+            Map<Path, List<Result>> results = new LinkedHashMap<>();
+            for (Path file : files) {
+                scanned.add(file);
+                try {
+                    if (file.equals(unreadable)) {
+                        throw new IOException("Unable to read " + file);
+                    }
+                    results.put(file, Files.readAllLines(file).stream().filter(l -> l.contains("match"))
+                            .map(l -> new Result("text-line", getScannerType(), file.getFileName() + "|" + l))
+                            .toList());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return results;
+        }
+
+        @Override
+        public List<Result> executeQueries(Config config, Set<Query> queries) {
+            return List.of();
+        }
+
+        @Override
+        public String getScannerType() {
+            return "line";
+        }
+
+        @Override
+        public String getScannerVersion() {
+            return version;
+        }
+
+        @Override
+        public boolean supports(Query query) {
+            return true;
+        }
+    }
+
+    @Test
+    void onlyChangedFilesAreScannedAgain() throws IOException {
+        Files.writeString(appPath.resolve("a.txt"), "match a\n");
+        Files.writeString(appPath.resolve("b.txt"), "no\n");
+        Files.writeString(appPath.resolve("c.txt"), "match c\n");
+
+        LineScanner scanner = new LineScanner();
+        PersistentResultCache cache = new PersistentResultCache(appPath);
+        assertEquals(2, cache.scan(config(), scanner, query).size());
+        assertEquals(3, scanner.scanned.size());
+        cache.save();
+
+        // Next run: b.txt changed and c.txt deleted
+        Files.writeString(appPath.resolve("b.txt"), "match b\n");
+        Files.delete(appPath.resolve("c.txt"));
+
+        LineScanner nextScanner = new LineScanner();
+        List<Result> results = new PersistentResultCache(appPath).scan(config(), nextScanner, query);
+
+        assertEquals(List.of(appPath.resolve("b.txt")), nextScanner.scanned);
+        assertEquals(List.of("a.txt|match a", "b.txt|match b"), results.stream().map(r -> (String) r.result()).toList());
+    }
+
+    @Test
+    void resultsOfAnUnknownVersionAreNotPersisted() throws IOException {
+        Files.writeString(appPath.resolve("a.txt"), "match a\n");
+        LineScanner scanner = new LineScanner();
+        scanner.version = null;
+
+        PersistentResultCache cache = new PersistentResultCache(appPath);
+        assertEquals(1, cache.scan(config(), scanner, query).size());
+        cache.save();
+        assertEquals(1, new PersistentResultCache(appPath).scan(config(), scanner, query).size());
+
+        assertEquals(2, scanner.scanned.size());
+        assertEquals(List.of(), entries());
+    }
+
+    @Test
+    void failedScanIsNotPersisted() throws IOException {
+        Files.writeString(appPath.resolve("a.txt"), "match a\n");
+        Files.writeString(appPath.resolve("b.txt"), "match b\n");
+        LineScanner scanner = new LineScanner();
+        scanner.unreadable = appPath.resolve("b.txt");
+
+        // The results of a.txt alone would be taken as the complete results by the next runs
+        assertThrows(UncheckedIOException.class,
+                () -> new PersistentResultCache(appPath).scan(config(), scanner, query));
+        assertEquals(List.of(), entries());
+    }
+
+    private Config config() {
+        return new Config(appPath.toString(), null, null, null, null, null, null, false, null, null, null);
+    }
+
+    private List<Path> entries() throws IOException {
+        try (Stream<Path> files = Files.list(FileUtils.mtoolDir(appPath, "cache"))) {
+            return files.filter(p -> !p.getFileName().toString().equals(FileHashIndex.INDEX_FILE)).toList();
+        }
+    }
+}
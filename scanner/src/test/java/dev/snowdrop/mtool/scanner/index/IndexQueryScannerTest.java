@@ -0,0 +1,123 @@
+package dev.snowdrop.mtool.scanner.index;
+
+import dev.snowdrop.mtool.model.analyze.Config;
+import dev.snowdrop.mtool.model.analyze.Result;
+import dev.snowdrop.mtool.model.parser.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexQueryScannerTest {
+
+    private IndexQueryScanner scanner;
+    private Config config;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        scanner = new IndexQueryScanner();
+        config = new Config(tempDir.toString(), null, null, null, null, null, null, false, null, "index", null);
+
+        Path srcDir = tempDir.resolve("src/main/java/com/example");
+        Files.createDirectories(srcDir);
+        Files.writeString(srcDir.resolve("Endpoint.java"), """
+                package com.example;
+
+                import jakarta.ws.rs.GET;
+                import jakarta.ws.rs.Path;
+                import java.util.List;
+
+                @Path("/api")
+                public class Endpoint {
+
+                    private List<String> names;
+
+                    @GET
+                    public String hello() {
+                        return names.add("Hello") ? "Hello" : "";
+                    }
+                }
+                """);
+    }
+
+    @Test
+    void supportsJavaSymbolsOnlyWhenConfigured() {
+        assertEquals("index", scanner.getScannerType());
+        assertTrue(scanner.supports(new Query("java", "annotation", "all", Map.of())));
+        assertTrue(scanner.supports(new Query("java", "method", "", Map.of("name", "java.util.List add(..)"))));
+        assertFalse(scanner.supports(new Query("pom", "dependency", "", Map.of())));
+        assertFalse(scanner.supports(new Query("java", "class", "", Map.of("extends", "org.acme.Base"))));
+        assertFalse(scanner.supports(new Query("java", "class", "", Map.of("implements", "java.io.Serializable"))));
+        assertFalse(scanner.isFallbackCandidate());
+    }
+
+    @Test
+    void findsAnnotationsWithTheirTarget() {
+        List<Result> results = scanner.scansCodeFor(config,
+                new Query("java", "annotation", "", Map.of("name", "jakarta.ws.rs.GET")));
+
+        assertEquals(1, results.size());
+        assertEquals("src/main/java/com/example/Endpoint.java:12-12|jakarta.ws.rs.GET|com.example.Endpoint.hello",
+                results.get(0).result());
+    }
+
+    @Test
+    void findsClassesImportsAndMethods() {
+        assertEquals(List.of("src/main/java/com/example/Endpoint.java:7-16|com.example.Endpoint|"),
+                values(new Query("java", "class", "", Map.of("name", "Endpoint"))));
+        assertEquals(2, values(new Query("java", "import", "", Map.of("name", "jakarta.ws.rs.*"))).size());
+        assertEquals(List.of("src/main/java/com/example/Endpoint.java:14-14|add|com.example.Endpoint.hello"),
+                values(new Query("java", "method", "", Map.of("name", "java.util.List add(..)"))));
+        assertEquals(1, values(new Query("java", "method", "", Map.of("name", "com.example.Endpoint hello()")))
+                .size());
+    }
+
+    @Test
+    void reparsesTheFilesChanged() throws IOException {
+        assertEquals(1, values(new Query("java", "class", "all", Map.of())).size());
+
+        Path service = tempDir.resolve("src/main/java/com/example/Service.java");
+        Files.writeString(service, """
+                package com.example;
+
+                public interface Service {
+                }
+                """);
+        scanner.invalidate(config, Set.of(service));
+        assertEquals(2, values(new Query("java", "class", "all", Map.of())).size());
+
+        // The index persisted is reused by a new scanner
+        JavaSymbolIndex index = new JavaSymbolIndex(tempDir, scanner.getScannerVersion());
+        assertEquals(2, index.size());
+        assertEquals(2, index.symbols(JavaSymbolIndex.Kind.TYPE).size());
+    }
+
+    @Test
+    void indexBuiltByAnotherVersionIsDiscarded() {
+        JavaSymbolIndex index = new JavaSymbolIndex(tempDir, "1.0");
+        assertEquals(1, index.symbols(JavaSymbolIndex.Kind.TYPE).size());
+        assertEquals(1, new JavaSymbolIndex(tempDir, "1.0").size());
+
+        // The symbols of the files not changed are extracted again by the new version
+        JavaSymbolIndex upgraded = new JavaSymbolIndex(tempDir, "1.1");
+        assertEquals(0, upgraded.size());
+        assertEquals(1, upgraded.symbols(JavaSymbolIndex.Kind.TYPE).size());
+        assertEquals(1, new JavaSymbolIndex(tempDir, "1.1").size());
+        assertEquals(0, new JavaSymbolIndex(tempDir, "1.0").size());
+    }
+
+    private List<Object> values(Query query) {
+        return scanner.scansCodeFor(config, query).stream().map(Result::result).toList();
+    }
+}
@@ -0,0 +1,116 @@
+package dev.snowdrop.mtool.scanner.maven;
+
+import dev.snowdrop.mtool.scanner.maven.ClasspathResolver.Lockfile;
+import dev.snowdrop.mtool.scanner.maven.ClasspathResolver.ModuleClasspath;
+import dev.snowdrop.mtool.scanner.maven.ClasspathResolver.ModuleResolution;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClasspathResolverTest {
+
+    @TempDir
+    Path appPath;
+
+    private final List<Path> resolved = new ArrayList<>();
+    private final List<Set<String>> reactors = new ArrayList<>();
+
+    @Test
+    void classpathOfTheModulesIsRecordedAndReusedByTheNextRuns() throws Exception {
+        writeReactor();
+
+        Lockfile lockfile = resolver().resolve();
+        assertEquals(Set.of("core", "api"), lockfile.modules().keySet());
+        assertEquals(List.of(jar("guava.jar")), lockfile.modules().get("core").compile());
+        assertEquals(List.of(jar("guava.jar"), jar("junit.jar")), lockfile.modules().get("core").test());
+        // The modules of the project are not resolved from the repositories
+        assertEquals(Set.of("org.acme:core", "org.acme:api"), reactors.get(0));
+        assertTrue(Files.isRegularFile(appPath.resolve(".mtool/classpath.json")));
+
+        assertEquals(lockfile, resolver().resolve());
+        assertEquals(2, resolved.size());
+    }
+
+    @Test
+    void classpathIsResolvedAgainWhenAPomChangesOrAJarIsMissing() throws Exception {
+        writeReactor();
+        resolver().resolve();
+
+        Files.writeString(appPath.resolve("core/pom.xml"), pom("core", "jar", "<description>Core</description>"));
+        resolver().resolve();
+        assertEquals(4, resolved.size());
+
+        Files.delete(Path.of(jar("junit.jar")));
+        resolver().resolve();
+        assertEquals(6, resolved.size());
+    }
+
+    @Test
+    void incompleteClasspathIsNotRecorded() throws Exception {
+        writeReactor();
+        // e.g. a first run without network access cannot resolve junit
+        ClasspathResolver offline = new ClasspathResolver(appPath, (pomFile, reactorArtifacts) -> {
+            resolved.add(pomFile);
+            return new ModuleResolution(new ModuleClasspath(List.of(jar("guava.jar")), List.of(jar("guava.jar"))),
+                    false);
+        });
+        assertEquals(List.of(jar("guava.jar")), offline.resolve().modules().get("core").test());
+        assertFalse(Files.exists(appPath.resolve(".mtool/classpath.json")));
+
+        Lockfile lockfile = resolver().resolve();
+        assertEquals(List.of(jar("guava.jar"), jar("junit.jar")), lockfile.modules().get("core").test());
+        assertEquals(4, resolved.size());
+        assertEquals(lockfile, resolver().resolve());
+        assertEquals(4, resolved.size());
+    }
+
+    private ClasspathResolver resolver() {
+        return new ClasspathResolver(appPath, (pomFile, reactorArtifacts) -> {
+            resolved.add(pomFile);
+            reactors.add(reactorArtifacts);
+            return new ModuleResolution(
+                    new ModuleClasspath(List.of(jar("guava.jar")), List.of(jar("guava.jar"), jar("junit.jar"))), true);
+        });
+    }
+
+    private String jar(String name) throws IOException {
+        Path jar = appPath.resolve("m2").resolve(name);
+        Files.createDirectories(jar.getParent());
+        if (!Files.exists(jar)) {
+            Files.createFile(jar);
+        }
+        return jar.toString();
+    }
+
+    private void writeReactor() throws IOException {
+        Files.writeString(appPath.resolve("pom.xml"),
+                pom("parent", "pom", "<modules><module>core</module><module>api</module></modules>"));
+        Files.createDirectories(appPath.resolve("core"));
+        Files.writeString(appPath.resolve("core/pom.xml"), pom("core", "jar", ""));
+        Files.createDirectories(appPath.resolve("api"));
+        Files.writeString(appPath.resolve("api/pom.xml"), pom("api", "jar", ""));
+    }
+
+    private static String pom(String artifactId, String packaging, String content) {
+        return """
+                <project>
+                  <modelVersion>4.0.0</modelVersion>
+                  <groupId>org.acme</groupId>
+                  <artifactId>%s</artifactId>
+                  <version>1.0</version>
+                  <packaging>%s</packaging>
+                  %s
+                </project>
+                """.formatted(artifactId, packaging, content);
+    }
+}
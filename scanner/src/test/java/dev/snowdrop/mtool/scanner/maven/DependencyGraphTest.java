@@ -0,0 +1,179 @@
+package dev.snowdrop.mtool.scanner.maven;
+
+import dev.snowdrop.mtool.scanner.utils.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DependencyGraphTest {
+
+    @TempDir
+    Path appPath;
+
+    @Test
+    void transitiveDependenciesAreFoundThroughTheModulesOfTheReactor() throws Exception {
+        writeProject();
+        AtomicInteger collected = new AtomicInteger();
+        DependencyGraph graph = new DependencyGraph(appPath, (pom, reactorArtifacts) -> {
+            collected.incrementAndGet();
+            return new DependencyGraph.ModuleGraph(moduleGraph(pom), true);
+        });
+
+        List<DependencyGraph.Match> matches = graph.find("javax.servlet", "servlet-api", VersionMatcher.parse(""));
+        assertEquals(List.of("api", "core"), matches.stream().map(DependencyGraph.Match::module).toList());
+        assertEquals(List.of("org.acme:core", "org.springframework:spring-web", "javax.servlet:servlet-api"),
+                matches.get(0).path().stream().map(DependencyGraph.Node::ga).toList());
+        assertEquals("2.5", matches.get(1).artifact().version());
+        assertEquals(List.of(), graph.find("javax.servlet", "servlet-api", VersionMatcher.parse("[3.0,)")));
+        assertEquals(3, collected.get());
+    }
+
+    @Test
+    void graphIsReadFromTheDiskByTheNextRuns() throws Exception {
+        writeProject();
+        new DependencyGraph(appPath, (pom, reactorArtifacts) -> new DependencyGraph.ModuleGraph(moduleGraph(pom), true))
+                .graph();
+        assertEquals(1, recordedGraphs().size());
+
+        DependencyGraph nextRun = new DependencyGraph(appPath, (pom, reactorArtifacts) -> {
+            throw new IllegalStateException("The graph recorded should be used");
+        });
+        assertEquals(2, nextRun.find("org.springframework", "spring-web", VersionMatcher.parse("6.x")).size());
+    }
+
+    @Test
+    void graphIsCollectedAgainOnlyWhenThePomsChange() throws Exception {
+        writeProject();
+        AtomicInteger collected = new AtomicInteger();
+        DependencyGraph graph = new DependencyGraph(appPath, (pom, reactorArtifacts) -> {
+            collected.incrementAndGet();
+            return new DependencyGraph.ModuleGraph(moduleGraph(pom), true);
+        });
+        DependencyGraph.Graph first = graph.graph();
+        assertSame(first, graph.graph());
+
+        // A pom saved without change is hashed again, but the graph is kept
+        Path corePom = appPath.resolve("core/pom.xml");
+        Files.setLastModifiedTime(corePom, FileTime.from(Instant.now().plusSeconds(10)));
+        assertSame(first, graph.graph());
+        assertEquals(3, collected.get());
+
+        Files.writeString(corePom, Files.readString(corePom).replace("</project>", "<name>Core</name></project>"));
+        Files.setLastModifiedTime(corePom, FileTime.from(Instant.now().plusSeconds(20)));
+        assertNotSame(first, graph.graph());
+        assertEquals(6, collected.get());
+    }
+
+    @Test
+    void graphReadFromTheDiskIsNotPruned() throws Exception {
+        writeProject();
+        new DependencyGraph(appPath, (pom, reactorArtifacts) -> new DependencyGraph.ModuleGraph(moduleGraph(pom), true))
+                .graph();
+        Path recorded = recordedGraphs().getFirst();
+        Files.setLastModifiedTime(recorded, FileTime.from(Instant.now().minusSeconds(3600)));
+        // Graphs of other versions of the poms recorded after it
+        Path graphDir = recorded.getParent();
+        for (int i = 1; i < DependencyGraph.MAX_GRAPHS; i++) {
+            Path other = Files.writeString(graphDir.resolve("other-" + i + ".json"), "{}");
+            Files.setLastModifiedTime(other, FileTime.from(Instant.now().minusSeconds(1800 - i)));
+        }
+
+        // The next run reads the graph, then the poms change
+        DependencyGraph nextRun = new DependencyGraph(appPath,
+                (pom, reactorArtifacts) -> new DependencyGraph.ModuleGraph(moduleGraph(pom), true));
+        nextRun.graph();
+        Path corePom = appPath.resolve("core/pom.xml");
+        Files.writeString(corePom, Files.readString(corePom).replace("</project>", "<name>Core</name></project>"));
+        Files.setLastModifiedTime(corePom, FileTime.from(Instant.now().plusSeconds(10)));
+        nextRun.graph();
+
+        List<Path> graphs = recordedGraphs();
+        assertEquals(DependencyGraph.MAX_GRAPHS, graphs.size());
+        assertTrue(graphs.contains(recorded));
+        assertFalse(graphs.contains(graphDir.resolve("other-1.json")));
+    }
+
+    @Test
+    void incompleteGraphIsNotRecorded() throws Exception {
+        writeProject();
+        // e.g. a run without network access cannot collect the dependencies of core
+        DependencyGraph offline = new DependencyGraph(appPath, (pom, reactorArtifacts) -> {
+            DependencyGraph.Node root = moduleGraph(pom);
+            boolean complete = !root.artifactId().equals("core");
+            return new DependencyGraph.ModuleGraph(complete ? root : node("org.acme", "core", null, List.of()),
+                    complete);
+        });
+        assertEquals(List.of(), offline.find("javax.servlet", "servlet-api", VersionMatcher.parse("")));
+        assertEquals(List.of(), recordedGraphs());
+
+        DependencyGraph nextRun = new DependencyGraph(appPath,
+                (pom, reactorArtifacts) -> new DependencyGraph.ModuleGraph(moduleGraph(pom), true));
+        assertEquals(2, nextRun.find("javax.servlet", "servlet-api", VersionMatcher.parse("")).size());
+    }
+
+    private static DependencyGraph.Node moduleGraph(Path pom) {
+        String module = pom.getParent().getFileName().toString();
+        return switch (module) {
+            case "core" -> node("org.acme", "core", null, List.of(node("org.springframework", "spring-web", "compile",
+                    List.of(new DependencyGraph.Node("javax.servlet", "servlet-api", "2.5", "compile", List.of())))));
+            case "api" -> node("org.acme", "api", null, List.of(node("org.acme", "core", "compile", List.of())));
+            default -> node("org.acme", "parent", null, List.of());
+        };
+    }
+
+    private static DependencyGraph.Node node(String groupId, String artifactId, String scope,
+            List<DependencyGraph.Node> children) {
+        String version = groupId.equals("org.acme") ? "1.0" : "6.1.0";
+        return new DependencyGraph.Node(groupId, artifactId, version, scope, children);
+    }
+
+    private List<Path> recordedGraphs() throws IOException {
+        try (Stream<Path> files = Files.list(FileUtils.mtoolDir(appPath, DependencyGraph.GRAPH_DIR))) {
+            return files.toList();
+        }
+    }
+
+    private void writeProject() throws IOException {
+        Files.writeString(appPath.resolve("pom.xml"), """
+                <project>
+                  <modelVersion>4.0.0</modelVersion>
+                  <groupId>org.acme</groupId>
+                  <artifactId>parent</artifactId>
+                  <version>1.0</version>
+                  <packaging>pom</packaging>
+                  <modules>
+                    <module>core</module>
+                    <module>api</module>
+                  </modules>
+                </project>
+                """);
+        for (String module : List.of("core", "api")) {
+            Files.createDirectories(appPath.resolve(module));
+            Files.writeString(appPath.resolve(module).resolve("pom.xml"), """
+                    <project>
+                      <modelVersion>4.0.0</modelVersion>
+                      <parent>
+                        <groupId>org.acme</groupId>
+                        <artifactId>parent</artifactId>
+                        <version>1.0</version>
+                      </parent>
+                      <artifactId>%s</artifactId>
+                    </project>
+                    """.formatted(module));
+        }
+    }
+}
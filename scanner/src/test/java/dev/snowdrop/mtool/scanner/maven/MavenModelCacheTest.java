@@ -0,0 +1,102 @@
+package dev.snowdrop.mtool.scanner.maven;
+
+import org.apache.maven.model.building.ModelBuildingResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MavenModelCacheTest {
+
+    @TempDir
+    Path appPath;
+
+    private final MavenModelCache cache = new MavenModelCache();
+
+    @Test
+    void modelIsBuiltOnceAndSharedByTheQueries() throws Exception {
+        writeProject("1.0");
+        Path pom = appPath.resolve("core/pom.xml");
+
+        ModelBuildingResult result = cache.build(pom);
+        assertEquals("1.0", result.getEffectiveModel().getProperties().getProperty("quarkus.version"));
+        assertSame(result, cache.build(pom));
+        assertNotSame(result, cache.build(pom, List.of("native")));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void modelIsBuiltAgainWhenTheParentChanges() throws Exception {
+        writeProject("1.0");
+        Path pom = appPath.resolve("core/pom.xml");
+        ModelBuildingResult result = cache.build(pom);
+
+        Files.writeString(appPath.resolve("pom.xml"), parentPom("2.0"));
+        Files.setLastModifiedTime(appPath.resolve("pom.xml"), FileTime.from(Instant.now().plusSeconds(10)));
+
+        ModelBuildingResult rebuilt = cache.build(pom);
+        assertNotSame(result, rebuilt);
+        assertEquals("2.0", rebuilt.getEffectiveModel().getProperties().getProperty("quarkus.version"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void systemPropertiesAreReadAgainOnlyAfterAClear() throws Exception {
+        writeProject("${mtool.test.quarkus.version}");
+        Path pom = appPath.resolve("core/pom.xml");
+        System.setProperty("mtool.test.quarkus.version", "1.0");
+        try {
+            ModelBuildingResult result = cache.build(pom);
+            assertEquals("1.0", result.getEffectiveModel().getProperties().getProperty("quarkus.version"));
+
+            // e.g. a library setting a property while the rules are scanned
+            System.setProperty("mtool.test.quarkus.version", "2.0");
+            assertSame(result, cache.build(pom));
+
+            cache.clear();
+            assertEquals("2.0", cache.build(pom).getEffectiveModel().getProperties().getProperty("quarkus.version"));
+        } finally {
+            System.clearProperty("mtool.test.quarkus.version");
+        }
+    }
+
+    private void writeProject(String quarkusVersion) throws IOException {
+        Files.writeString(appPath.resolve("pom.xml"), parentPom(quarkusVersion));
+        Files.createDirectories(appPath.resolve("core"));
+        Files.writeString(appPath.resolve("core/pom.xml"), """
+                <project>
+                  <modelVersion>4.0.0</modelVersion>
+                  <parent>
+                    <groupId>org.acme</groupId>
+                    <artifactId>parent</artifactId>
+                    <version>1.0</version>
+                  </parent>
+                  <artifactId>core</artifactId>
+                </project>
+                """);
+    }
+
+    private static String parentPom(String quarkusVersion) {
+        return """
+                <project>
+                  <modelVersion>4.0.0</modelVersion>
+                  <groupId>org.acme</groupId>
+                  <artifactId>parent</artifactId>
+                  <version>1.0</version>
+                  <packaging>pom</packaging>
+                  <properties>
+                    <quarkus.version>%s</quarkus.version>
+                  </properties>
+                </project>
+                """.formatted(quarkusVersion);
+    }
+}
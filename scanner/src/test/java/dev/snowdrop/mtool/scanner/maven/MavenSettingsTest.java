@@ -0,0 +1,79 @@
+package dev.snowdrop.mtool.scanner.maven;
+
+import dev.snowdrop.mtool.scanner.maven.MavenSettings.Mirror;
+import dev.snowdrop.mtool.scanner.maven.MavenSettings.Server;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MavenSettingsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void mirrorsAndOfflineModeAreReadFromTheSettings() throws Exception {
+        Path settingsFile = tempDir.resolve("settings.xml");
+        Files.writeString(settingsFile, """
+                <settings xmlns="http://maven.apache.org/SETTINGS/1.0.0">
+                  <localRepository>/opt/m2/repository</localRepository>
+                  <offline>true</offline>
+                  <mirrors>
+                    <mirror>
+                      <id>nexus</id>
+                      <mirrorOf>*,!internal</mirrorOf>
+                      <url>https://nexus.acme.org/repository/maven-public</url>
+                    </mirror>
+                  </mirrors>
+                  <profiles>
+                    <profile>
+                      <id>dev</id>
+                    </profile>
+                  </profiles>
+                </settings>
+                """);
+
+        assertEquals(new MavenSettings("/opt/m2/repository", true,
+                List.of(new Mirror("nexus", "https://nexus.acme.org/repository/maven-public", "*,!internal")),
+                List.of()),
+                MavenSettings.read(settingsFile, "/home/user/.m2/repository"));
+    }
+
+    @Test
+    void defaultsAreUsedWithoutSettings() {
+        assertEquals(new MavenSettings("/home/user/.m2/repository", false, List.of(), List.of()),
+                MavenSettings.read(tempDir.resolve("settings.xml"), "/home/user/.m2/repository"));
+    }
+
+    @Test
+    void expressionsAndCredentialsOfTheServersAreResolved() throws Exception {
+        Path settingsFile = tempDir.resolve("settings.xml");
+        Files.writeString(settingsFile, """
+                <settings xmlns="http://maven.apache.org/SETTINGS/1.0.0">
+                  <localRepository>${user.home}/.m2/acme-repository</localRepository>
+                  <servers>
+                    <server>
+                      <id>nexus</id>
+                      <username>deployer</username>
+                      <password>${env.MTOOL_UNDEFINED_PASSWORD}</password>
+                    </server>
+                  </servers>
+                </settings>
+                """);
+
+        MavenSettings settings = MavenSettings.read(settingsFile, "/home/user/.m2/repository");
+        assertEquals(System.getProperty("user.home") + "/.m2/acme-repository", settings.localRepository());
+        // The expressions which cannot be resolved are kept
+        assertEquals(List.of(new Server("nexus", "deployer", "${env.MTOOL_UNDEFINED_PASSWORD}")), settings.servers());
+    }
+
+    @Test
+    void environmentVariablesAreInterpolated() {
+        assertEquals(System.getenv("PATH") + ":/opt/bin", MavenSettings.interpolate("${env.PATH}:/opt/bin"));
+    }
+}
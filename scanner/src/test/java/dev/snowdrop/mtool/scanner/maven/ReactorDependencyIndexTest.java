@@ -0,0 +1,123 @@
+package dev.snowdrop.mtool.scanner.maven;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReactorDependencyIndexTest {
+
+    private static final String COMMONS_GROUP = "org.apache.commons";
+
+    @TempDir
+    Path appPath;
+
+    @Test
+    void dependenciesOfAllTheModulesAreIndexed() throws Exception {
+        writeProject("");
+        ReactorDependencyIndex index = ReactorDependencyIndex.forProject(appPath);
+        assertEquals(3, index.poms().size());
+
+        List<ReactorDependencyIndex.Entry> found = index.find(COMMONS_GROUP, "commons-lang3", "");
+        assertEquals(List.of("", "api", "core"), found.stream().map(ReactorDependencyIndex.Entry::module).sorted()
+                .toList());
+        ReactorDependencyIndex.Entry core = found.stream().filter(e -> e.module().equals("core")).findFirst()
+                .orElseThrow();
+        assertEquals(ReactorDependencyIndex.Kind.DEPENDENCY, core.kind());
+        assertEquals("3.14.0", core.version());
+        assertEquals("test", core.scope());
+        assertTrue(core.location().getSource().getLocation().endsWith("core/pom.xml"));
+
+        assertEquals(3, index.find(COMMONS_GROUP, "commons-lang3", "3.14.0").size());
+        assertEquals(List.of(), index.find(COMMONS_GROUP, "commons-lang3", "2.6"));
+        assertEquals(3, index.find(COMMONS_GROUP, "commons-lang3", "[3.12,4.0)").size());
+        assertEquals(3, index.find(COMMONS_GROUP, "commons-lang3", "3.x").size());
+        assertEquals(List.of(), index.find(COMMONS_GROUP, "commons-lang3", "~3.12"));
+        assertEquals(List.of("api", "core"), index.dependencies().stream().map(ReactorDependencyIndex.Entry::module)
+                .toList());
+    }
+
+    @Test
+    void indexIsBuiltAgainWhenAPomOfTheReactorChanges() throws Exception {
+        writeProject("");
+        ReactorDependencyIndex index = ReactorDependencyIndex.forProject(appPath);
+        assertSame(index, ReactorDependencyIndex.forProject(appPath));
+        assertEquals(List.of(), index.find(COMMONS_GROUP, "commons-io", ""));
+
+        Path corePom = appPath.resolve("core/pom.xml");
+        Files.writeString(corePom, modulePom("core", "test", """
+                <dependency>
+                  <groupId>org.apache.commons</groupId>
+                  <artifactId>commons-io</artifactId>
+                  <version>1.3.2</version>
+                </dependency>
+                """));
+        Files.setLastModifiedTime(corePom, FileTime.from(Instant.now().plusSeconds(10)));
+
+        ReactorDependencyIndex rebuilt = ReactorDependencyIndex.forProject(appPath);
+        assertNotSame(index, rebuilt);
+        assertEquals(1, rebuilt.find(COMMONS_GROUP, "commons-io", "1.3.2").size());
+    }
+
+    private void writeProject(String extraDependencies) throws IOException {
+        Files.writeString(appPath.resolve("pom.xml"), """
+                <project>
+                  <modelVersion>4.0.0</modelVersion>
+                  <groupId>org.acme</groupId>
+                  <artifactId>parent</artifactId>
+                  <version>1.0</version>
+                  <packaging>pom</packaging>
+                  <modules>
+                    <module>core</module>
+                    <module>api</module>
+                  </modules>
+                  <dependencyManagement>
+                    <dependencies>
+                      <dependency>
+                        <groupId>org.apache.commons</groupId>
+                        <artifactId>commons-lang3</artifactId>
+                        <version>3.14.0</version>
+                      </dependency>
+                    </dependencies>
+                  </dependencyManagement>
+                </project>
+                """);
+        for (String module : List.of("core", "api")) {
+            Files.createDirectories(appPath.resolve(module));
+            Files.writeString(appPath.resolve(module).resolve("pom.xml"),
+                    modulePom(module, module.equals("core") ? "test" : "compile", extraDependencies));
+        }
+    }
+
+    private static String modulePom(String artifactId, String scope, String extraDependencies) {
+        return """
+                <project>
+                  <modelVersion>4.0.0</modelVersion>
+                  <parent>
+                    <groupId>org.acme</groupId>
+                    <artifactId>parent</artifactId>
+                    <version>1.0</version>
+                  </parent>
+                  <artifactId>%s</artifactId>
+                  <dependencies>
+                    <dependency>
+                      <groupId>org.apache.commons</groupId>
+                      <artifactId>commons-lang3</artifactId>
+                      <scope>%s</scope>
+                    </dependency>
+                    %s
+                  </dependencies>
+                </project>
+                """.formatted(artifactId, scope, extraDependencies);
+    }
+}
@@ -0,0 +1,78 @@
+package dev.snowdrop.mtool.scanner.maven;
+
+import org.eclipse.aether.version.Version;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VersionMatcherTest {
+
+    @Test
+    void expressionsAreConvertedIntoMavenRanges() {
+        assertEquals("[3,4)", VersionMatcher.toRange("3.x"));
+        assertEquals("[3.2,3.3)", VersionMatcher.toRange("3.2.*"));
+        assertEquals("[3.2,4)", VersionMatcher.toRange("^3.2"));
+        assertEquals("[0.2.3,0.3)", VersionMatcher.toRange("^0.2.3"));
+        assertEquals("[3.2.1,3.3)", VersionMatcher.toRange("~3.2.1"));
+        assertEquals("[3,4)", VersionMatcher.toRange("~3"));
+        assertEquals("[3.2,4.0)", VersionMatcher.toRange("[3.2,4.0)"));
+        assertEquals("3.2.1", VersionMatcher.toRange("3.2.1"));
+        assertNull(VersionMatcher.toRange("*"));
+    }
+
+    @Test
+    void versionsAreMatchedUsingTheMavenOrdering() {
+        assertTrue(VersionMatcher.parse("").matches(null));
+        assertTrue(VersionMatcher.parse("3.0").matches("3.0.0"));
+        assertFalse(VersionMatcher.parse("3.0").matches("3.0.1"));
+        assertTrue(VersionMatcher.parse("[3.2,4.0)").matches("3.5.3"));
+        assertFalse(VersionMatcher.parse("[3.2,4.0)").matches("4.0.0"));
+        assertTrue(VersionMatcher.parse("3.x").matches("3.10.1"));
+        assertFalse(VersionMatcher.parse("3.x").matches("2.7.18"));
+        assertTrue(VersionMatcher.parse("[1.0,2.0),[3.0,)").matches("3.1"));
+        assertFalse(VersionMatcher.parse("[1.0,2.0),[3.0,)").matches("2.5"));
+        assertThrows(IllegalArgumentException.class, () -> VersionMatcher.parse("^3.x"));
+    }
+
+    @Test
+    void qualifiedVersionsOfTheUpperBoundAreNotMatchedByTheExpressions() {
+        // 4.0.0-M1 and 4.0.0-RC1 are lower than 4 according to the Maven ordering
+        assertTrue(VersionMatcher.parse("[3,4)").matches("4.0.0-M1"));
+        assertFalse(VersionMatcher.parse("3.x").matches("4.0.0-M1"));
+        assertFalse(VersionMatcher.parse("^3.2").matches("4.0.0-RC1"));
+        assertFalse(VersionMatcher.parse("~3.2.1").matches("3.3.0-M1"));
+        assertFalse(VersionMatcher.parse("^0.2.3").matches("0.3.0-beta"));
+        assertTrue(VersionMatcher.parse("3.x").matches("3.5.0-RC1"));
+        assertTrue(VersionMatcher.parse("^3.2").matches("3.10.0"));
+        assertTrue(VersionMatcher.parse("~3.2.1").matches("3.2.9"));
+
+        NavigableMap<Version, List<String>> versions = new TreeMap<>();
+        for (String version : List.of("3.5.3", "4.0.0-M1", "4.0.0")) {
+            versions.put(VersionMatcher.parseVersion(version), List.of(version));
+        }
+        assertEquals(List.of("3.5.3"), VersionMatcher.parse("3.x").select(versions));
+        assertEquals(List.of("3.5.3"), VersionMatcher.parse("^3.0").select(versions));
+    }
+
+    @Test
+    void versionsWithinTheRangeAreSelected() {
+        NavigableMap<Version, List<String>> versions = new TreeMap<>();
+        for (String version : List.of("2.7.18", "3.0.0", "3.2.5", "3.5.3", "4.0.0")) {
+            versions.put(VersionMatcher.parseVersion(version), List.of(version));
+        }
+
+        assertEquals(List.of("3.2.5", "3.5.3"), VersionMatcher.parse("[3.2,4.0)").select(versions));
+        assertEquals(List.of("3.0.0", "3.2.5", "3.5.3"), VersionMatcher.parse("3.x").select(versions));
+        assertEquals(List.of("2.7.18", "4.0.0"), VersionMatcher.parse("(,3.0),[4.0,)").select(versions));
+        assertEquals(List.of("3.5.3"), VersionMatcher.parse("3.5.3").select(versions));
+        assertEquals(5, VersionMatcher.parse(null).select(versions).size());
+    }
+}
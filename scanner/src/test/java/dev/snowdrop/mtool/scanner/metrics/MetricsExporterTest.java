@@ -0,0 +1,45 @@
+package dev.snowdrop.mtool.scanner.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsExporterTest {
+
+    @Test
+    void metersAreExportedUsingPrometheusFormat() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Timer.builder(ScanMetrics.SCANNER_SCAN).tag("scanner", "maven").register(registry)
+                .record(Duration.ofMillis(1500));
+        Counter.builder(ScanMetrics.SCANNER_MATCHES).tag("scanner", "maven").register(registry).increment(3);
+
+        String text = MetricsExporter.toPrometheus(registry);
+
+        assertTrue(text.contains("# TYPE mtool_scanner_matches_total counter"), text);
+        assertTrue(text.contains("mtool_scanner_matches_total{scanner=\"maven\"} 3.0"), text);
+        assertTrue(text.contains("mtool_scanner_scan_seconds_count{scanner=\"maven\"} 1"), text);
+        assertTrue(text.contains("mtool_scanner_scan_seconds_sum{scanner=\"maven\"} 1.5"), text);
+    }
+
+    @Test
+    void metersAreSummarized() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Counter.builder(ScanMetrics.CACHE_REQUESTS).tag("cache", "query").tag("result", "hit").register(registry)
+                .increment(2);
+
+        List<MetricsExporter.MeterSummary> summaries = MetricsExporter.summarize(registry);
+
+        assertEquals(1, summaries.size());
+        assertEquals("counter", summaries.getFirst().type());
+        assertEquals("hit", summaries.getFirst().tags().get("result"));
+        assertEquals(2.0, summaries.getFirst().values().get("count"));
+    }
+}
@@ -0,0 +1,63 @@
+package dev.snowdrop.mtool.scanner.openrewrite;
+
+import dev.snowdrop.mtool.model.analyze.Result;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassHierarchyGraphTest {
+
+    @Test
+    void supertypesAreResolvedTransitively() {
+        ClassHierarchyGraph graph = ClassHierarchyGraph.fromResults(List.of(
+                row("src/main/java/org/acme/TodoRepository.java|org.acme.TodoRepository|null|[org.springframework.data.repository.CrudRepository]"),
+                row("src/main/java/org/acme/CustomTodoRepository.java|org.acme.CustomTodoRepository|null|[org.acme.TodoRepository, java.io.Serializable]"),
+                row("src/main/java/org/acme/BaseService.java|org.acme.BaseService|java.lang.Object|[]"),
+                row("src/main/java/org/acme/TodoService.java|org.acme.TodoService|org.acme.BaseService|[]")));
+
+        String crudRepository = "org.springframework.data.repository.CrudRepository";
+        assertTrue(graph.isSubtypeOf("org.acme.TodoRepository", crudRepository));
+        assertTrue(graph.isSubtypeOf("org.acme.CustomTodoRepository", crudRepository));
+        assertTrue(graph.isSubtypeOf("org.acme.CustomTodoRepository", "java.io.Serializable"));
+        assertTrue(graph.isSubtypeOf("org.acme.TodoService", "java.lang.Object"));
+        assertFalse(graph.isSubtypeOf("org.acme.TodoService", crudRepository));
+        assertFalse(graph.isSubtypeOf("org.acme.BaseService", "org.acme.TodoService"));
+        assertFalse(graph.isSubtypeOf("org.acme.Unknown", crudRepository));
+        assertEquals(8, graph.size());
+    }
+
+    @Test
+    void supertypesDeclaredByTheLibrariesAreResolved() {
+        ClassHierarchyGraph graph = ClassHierarchyGraph.fromResults(List.of(
+                row("src/main/java/org/acme/TodoRepository.java|org.acme.TodoRepository||org.springframework.data.jpa.repository.JpaRepository|org.springframework.data.jpa.repository.JpaRepository,org.springframework.data.repository.ListCrudRepository,org.springframework.data.repository.CrudRepository,org.springframework.data.repository.Repository")));
+
+        assertTrue(graph.isSubtypeOf("org.acme.TodoRepository", "org.springframework.data.repository.CrudRepository"));
+        assertTrue(graph.isSubtypeOf("org.acme.TodoRepository", "org.springframework.data.repository.Repository"));
+        assertFalse(graph.isSubtypeOf("org.acme.TodoRepository", "java.io.Serializable"));
+    }
+
+    @Test
+    void cycleOfTheHierarchyDoesNotFail() {
+        ClassHierarchyGraph graph = new ClassHierarchyGraph().add("org.acme.A", "org.acme.B", List.of())
+                .add("org.acme.B", "org.acme.A", List.of()).build();
+
+        assertTrue(graph.isSubtypeOf("org.acme.A", "org.acme.B"));
+        assertTrue(graph.isSubtypeOf("org.acme.B", "org.acme.A"));
+    }
+
+    @Test
+    void interfacesAreParsedFromTheRow() {
+        assertEquals(List.of("java.io.Serializable", "java.lang.Comparable"),
+                ClassHierarchyGraph.parseInterfaces("[java.io.Serializable, java.lang.Comparable]"));
+        assertEquals(List.of(), ClassHierarchyGraph.parseInterfaces("[]"));
+        assertEquals(List.of(), ClassHierarchyGraph.parseInterfaces("null"));
+    }
+
+    private static Result row(String value) {
+        return new Result("toBeDone", "openrewrite", value);
+    }
+}
@@ -0,0 +1,121 @@
+package dev.snowdrop.mtool.scanner.openrewrite;
+
+import dev.snowdrop.rewrite.config.RewriteConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LstChunkerTest {
+
+    @TempDir
+    Path appPath;
+
+    @Test
+    void sourcesArePartitionedWithinTheMaximumHeap() throws IOException {
+        write("pom.xml", 100);
+        write("src/main/java/org/acme/A.java", 400);
+        write("src/main/java/org/acme/B.java", 400);
+        write("src/main/java/org/acme/C.java", 2000);
+        write("src/main/resources/application.properties", 100);
+        write("target/classes/Generated.java", 4000);
+        write("README.md", 4000);
+
+        // 1000 bytes of sources per chunk
+        LstChunker chunker = new LstChunker(appPath, 1000L * RewriteServicePool.LST_BYTES_PER_SOURCE_BYTE);
+
+        assertEquals(List.of(
+                List.of(Path.of("pom.xml"), Path.of("src/main/java/org/acme/A.java"),
+                        Path.of("src/main/java/org/acme/B.java")),
+                List.of(Path.of("src/main/java/org/acme/C.java")),
+                List.of(Path.of("src/main/resources/application.properties"))), chunker.chunks());
+    }
+
+    @Test
+    void onlyTheSearchRecipesOfALargeProjectAreChunked() throws IOException {
+        write("src/main/java/org/acme/A.java", 800);
+        write("src/main/java/org/acme/B.java", 800);
+        List<String> findSourceFiles = List.of("org.openrewrite.FindSourceFiles");
+
+        assertNull(LstChunker.forSearch(appPath, findSourceFiles, null));
+        assertNotNull(LstChunker.forSearch(appPath, findSourceFiles, "20k"));
+        assertNull(LstChunker.forSearch(appPath, List.of("org.openrewrite.FindSourceFiles",
+                "org.openrewrite.java.search.FindClassHierarchy"), "20k"));
+        // The annotations declared by the sources of another chunk would not be attributed
+        assertNull(LstChunker.forSearch(appPath, List.of("org.openrewrite.java.search.FindAnnotations"), "20k"));
+        assertNull(LstChunker.forSearch(appPath, findSourceFiles, "1m"));
+    }
+
+    @Test
+    void concurrentRunsDoNotShareTheirChunks() throws Exception {
+        write("src/main/java/org/acme/A.java", 800);
+        write("src/main/java/org/acme/B.java", 800);
+        LstChunker first = chunker();
+        LstChunker second = chunker();
+        Path chunksDir = appPath.resolve(".mtool/chunks");
+
+        List<Set<String>> searched = new ArrayList<>();
+        first.run(new RewriteConfig(), (svc, files) -> {
+            searched.add(files);
+            if (searched.size() == 1) {
+                // Another query searches the same project meanwhile
+                second.run(new RewriteConfig(), (otherSvc, otherFiles) -> assertEquals(2, runDirs(chunksDir)));
+            }
+            try (Stream<Path> chunk = Files.walk(chunksDir)) {
+                assertTrue(chunk.anyMatch(file -> file.endsWith(files.iterator().next())));
+            }
+        });
+        assertEquals(List.of(Set.of("src/main/java/org/acme/A.java"), Set.of("src/main/java/org/acme/B.java")),
+                searched);
+        assertEquals(0, runDirs(chunksDir));
+    }
+
+    @Test
+    void chunksAreDeletedWhenTheSearchFails() throws IOException {
+        write("src/main/java/org/acme/A.java", 800);
+        write("src/main/java/org/acme/B.java", 800);
+
+        assertThrows(IllegalStateException.class, () -> chunker().run(new RewriteConfig(), (svc, files) -> {
+            throw new IllegalStateException("Unable to search " + files);
+        }));
+        assertEquals(0, runDirs(appPath.resolve(".mtool/chunks")));
+    }
+
+    @Test
+    void invalidMaximumHeapIsRejected() {
+        assertEquals(0, LstChunker.maxHeap(" "));
+        assertEquals(512L * 1024 * 1024, LstChunker.maxHeap("512M"));
+        assertThrows(IllegalArgumentException.class, () -> LstChunker.maxHeap("g"));
+        assertThrows(IllegalArgumentException.class, () -> LstChunker.maxHeap("2gb"));
+        assertThrows(IllegalArgumentException.class, () -> LstChunker.maxHeap("99999999999999999999g"));
+    }
+
+    // 1000 bytes of sources per chunk, the services are not used
+    private LstChunker chunker() {
+        return new LstChunker(appPath, 1000L * RewriteServicePool.LST_BYTES_PER_SOURCE_BYTE, cfg -> null);
+    }
+
+    private static long runDirs(Path chunksDir) throws IOException {
+        try (Stream<Path> dirs = Files.list(chunksDir)) {
+            return dirs.count();
+        }
+    }
+
+    private void write(String relativePath, int size) throws IOException {
+        Path file = appPath.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[size]);
+    }
+}
@@ -0,0 +1,146 @@
+package dev.snowdrop.mtool.scanner.openrewrite;
+
+import dev.snowdrop.mtool.model.analyze.Config;
+import dev.snowdrop.mtool.model.analyze.Result;
+import dev.snowdrop.mtool.model.parser.Query;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ModuleParallelRunnerTest {
+
+    @TempDir
+    Path appPath;
+
+    private final Query classes = new Query("java", "class", "find all", Map.of());
+    private final Query annotations = new Query("java", "annotation", "is", Map.of("name", "org.acme.Foo"));
+
+    @AfterEach
+    void disableParallelMode() {
+        System.clearProperty(ModuleParallelRunner.PARALLEL_PROPERTY);
+    }
+
+    @Test
+    void modulesOfTheAggregatorsAreDiscovered() throws IOException {
+        writeReactor();
+
+        assertEquals(List.of(appPath.resolve("core"), appPath.resolve("services/api")),
+                ModuleParallelRunner.discoverModules(appPath));
+    }
+
+    @Test
+    void resultsOfTheModulesAreMergedUsingThePathsOfTheProject() throws Exception {
+        writeReactor();
+
+        Map<Query, List<Result>> results = ModuleParallelRunner.run(config(true), modulePath -> {
+            Result result = new Result("toBeDone", "openrewrite", "src/main/java/Foo.java|Foo");
+            // The query of the annotations cannot be identified within the api module
+            return modulePath.endsWith("api") ? Map.of(classes, List.of(result))
+                    : Map.of(classes, List.of(result), annotations, List.of(result));
+        });
+
+        assertEquals(List.of("core/src/main/java/Foo.java|Foo", "services/api/src/main/java/Foo.java|Foo"),
+                results.get(classes).stream().map(Result::result).toList());
+        assertFalse(results.containsKey(annotations));
+    }
+
+    @Test
+    void projectIsParsedAsAWholeWhenTheModeIsDisabled() throws Exception {
+        writeReactor();
+        ModuleParallelRunner.ModuleTask task = modulePath -> Map.of(classes,
+                List.of(new Result("toBeDone", "openrewrite", modulePath.toString())));
+
+        assertEquals(List.of(appPath.toString()),
+                ModuleParallelRunner.run(config(false), task).get(classes).stream().map(Result::result).toList());
+        // The mode can also be enabled using the system property
+        System.setProperty(ModuleParallelRunner.PARALLEL_PROPERTY, "true");
+        assertEquals(2, ModuleParallelRunner.run(config(false), task).get(classes).size());
+    }
+
+    @Test
+    void typesDeclaredByAnotherModuleAreNotAttributedInParallelMode() throws Exception {
+        writeReactor();
+        writeSource("core/src/main/java/org/acme/Foo.java", "package org.acme; public @interface Foo {}");
+        writeSource("core/src/main/java/org/acme/Core.java", "package org.acme; @Foo public class Core {}");
+        writeSource("services/api/src/main/java/org/acme/Api.java", "package org.acme; @Foo public class Api {}");
+
+        Map<Query, List<Result>> sequential = ModuleParallelRunner.run(config(false), this::attribute);
+        Map<Query, List<Result>> parallel = ModuleParallelRunner.run(config(true), this::attribute);
+
+        // The queries searching each file independently return the same results
+        assertEquals(sequential.get(classes), parallel.get(classes));
+        // The annotation declared by core is only attributed within core
+        assertEquals(List.of("core/src/main/java/org/acme/Core.java", "services/api/src/main/java/org/acme/Api.java"),
+                sequential.get(annotations).stream().map(Result::result).toList());
+        assertEquals(List.of("core/src/main/java/org/acme/Core.java"),
+                parallel.get(annotations).stream().map(Result::result).toList());
+    }
+
+    /**
+     * Emulates the attribution of the types of an LST: an annotation is matched only when its declaration is part of
+     * the sources parsed.
+     */
+    private Map<Query, List<Result>> attribute(Path parsedPath) throws IOException {
+        List<Path> sources;
+        try (Stream<Path> files = Files.walk(parsedPath)) {
+            sources = files.filter(file -> file.toString().endsWith(".java")).sorted().toList();
+        }
+        List<Result> classResults = new ArrayList<>();
+        List<Result> annotationResults = new ArrayList<>();
+        boolean fooDeclared = false;
+        for (Path source : sources) {
+            fooDeclared |= Files.readString(source).contains("@interface Foo");
+        }
+        for (Path source : sources) {
+            String path = parsedPath.relativize(source).toString().replace('\\', '/');
+            classResults.add(new Result("toBeDone", "openrewrite", path));
+            if (fooDeclared && Files.readString(source).contains("@Foo ")) {
+                annotationResults.add(new Result("toBeDone", "openrewrite", path));
+            }
+        }
+        return Map.of(classes, classResults, annotations, annotationResults);
+    }
+
+    private Config config(boolean parallelModules) {
+        return new Config(appPath.toString(), null, null, null, null, null, null, false, null, "openrewrite", null)
+                .withParallelModules(parallelModules);
+    }
+
+    private void writeSource(String relativePath, String source) throws IOException {
+        Path file = appPath.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source);
+    }
+
+    private void writeReactor() throws IOException {
+        writePom(appPath, "pom", "core", "services");
+        writePom(appPath.resolve("core"), "jar");
+        writePom(appPath.resolve("services"), "pom", "api");
+        writePom(appPath.resolve("services/api"), "jar");
+    }
+
+    private static void writePom(Path dir, String packaging, String... modules) throws IOException {
+        Files.createDirectories(dir);
+        StringBuilder pom = new StringBuilder("<project><modelVersion>4.0.0</modelVersion>")
+                .append("<packaging>").append(packaging).append("</packaging>");
+        if (modules.length > 0) {
+            pom.append("<modules>");
+            for (String module : modules) {
+                pom.append("<module>").append(module).append("</module>");
+            }
+            pom.append("</modules>");
+        }
+        Files.writeString(dir.resolve("pom.xml"), pom.append("</project>").toString());
+    }
+}
@@ -0,0 +1,111 @@
+package dev.snowdrop.mtool.scanner.openrewrite;
+
+import dev.snowdrop.mtool.scanner.openrewrite.RecipeArtifactManager.Jar;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecipeArtifactManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<String> resolved = new ArrayList<>();
+
+    @Test
+    void artifactsAreResolvedOnceAndReusedByTheNextRuns() throws Exception {
+        Map<String, List<Jar>> repository = Map.of(
+                "org.acme:recipes-a:1.0", List.of(jar("recipes-a", "1.0"), jar("rewrite-java", "8.40.0")),
+                "org.acme:recipes-b:1.0", List.of(jar("recipes-b", "1.0"), jar("rewrite-java", "8.41.2")));
+        Path cacheDir = tempDir.resolve("cache");
+
+        RecipeArtifactManager manager = new RecipeArtifactManager(cacheDir, gav -> {
+            resolved.add(gav);
+            return repository.get(gav);
+        });
+        List<String> classpath = manager.classpath(List.of("org.acme:recipes-b:1.0", "org.acme:recipes-a:1.0"));
+
+        // The highest version of an artifact shared by the recipes is kept
+        assertEquals(List.of(path("recipes-a", "1.0"), path("rewrite-java", "8.41.2"), path("recipes-b", "1.0")),
+                classpath);
+        assertEquals(List.of("org.acme:recipes-a:1.0", "org.acme:recipes-b:1.0"), resolved);
+
+        RecipeArtifactManager nextRun = new RecipeArtifactManager(cacheDir, gav -> {
+            resolved.add(gav);
+            return repository.get(gav);
+        });
+        assertEquals(classpath, nextRun.classpath(List.of("org.acme:recipes-a:1.0", "org.acme:recipes-b:1.0")));
+        assertEquals(2, resolved.size());
+    }
+
+    @Test
+    void artifactIsResolvedAgainWhenAJarHasBeenDeleted() throws Exception {
+        RecipeArtifactManager manager = new RecipeArtifactManager(tempDir.resolve("cache"), gav -> {
+            resolved.add(gav);
+            return List.of(jar("recipes-a", "1.0"));
+        });
+        manager.jars("org.acme:recipes-a:1.0");
+        Files.delete(Path.of(path("recipes-a", "1.0")));
+
+        manager.jars("org.acme:recipes-a:1.0");
+        assertEquals(2, resolved.size());
+    }
+
+    @Test
+    void snapshotIsResolvedAgainOnceADay() throws Exception {
+        Path cacheDir = tempDir.resolve("cache");
+        Instant now = Instant.parse("2026-01-05T10:00:00Z");
+        List<String> gavs = List.of("org.acme:recipes-a:1.0", "org.acme:recipes-b:1.1-SNAPSHOT");
+        managerAt(cacheDir, now).classpath(gavs);
+        assertEquals(2, resolved.size());
+
+        managerAt(cacheDir, now.plus(Duration.ofHours(1))).classpath(gavs);
+        assertEquals(2, resolved.size());
+
+        managerAt(cacheDir, now.plus(RecipeArtifactManager.SNAPSHOT_UPDATE_INTERVAL)).classpath(gavs);
+        assertEquals(List.of("org.acme:recipes-a:1.0", "org.acme:recipes-b:1.1-SNAPSHOT",
+                "org.acme:recipes-b:1.1-SNAPSHOT"), resolved);
+    }
+
+    @Test
+    void versionsAreComparedUsingTheMavenOrdering() {
+        assertTrue(RecipeArtifactManager.compareVersions("8.10.0", "8.9.1") > 0);
+        assertTrue(RecipeArtifactManager.compareVersions("1.0-SNAPSHOT", "1.0") < 0);
+        assertEquals("a:1,b:2", RecipeArtifactManager.key(List.of("b:2", "a:1", "b:2")));
+    }
+
+    private RecipeArtifactManager managerAt(Path cacheDir, Instant now) {
+        return new RecipeArtifactManager(cacheDir, gav -> {
+            resolved.add(gav);
+            String[] parts = gav.split(":");
+            return List.of(jar(parts[1], parts[2]));
+        }, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private Jar jar(String artifactId, String version) throws IOException {
+        Path jar = Path.of(path(artifactId, version));
+        Files.createDirectories(jar.getParent());
+        if (!Files.exists(jar)) {
+            Files.createFile(jar);
+        }
+        return new Jar("org.acme", artifactId, "", version, jar.toString());
+    }
+
+    private String path(String artifactId, String version) {
+        return tempDir.resolve("m2").resolve(artifactId).resolve(version)
+                .resolve(artifactId + "-" + version + ".jar").toString();
+    }
+}
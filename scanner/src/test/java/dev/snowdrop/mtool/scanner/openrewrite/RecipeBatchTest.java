@@ -0,0 +1,99 @@
+package dev.snowdrop.mtool.scanner.openrewrite;
+
+import dev.snowdrop.mtool.model.analyze.Result;
+import dev.snowdrop.mtool.model.openrewrite.RecipeDefinition;
+import dev.snowdrop.mtool.model.parser.Query;
+import dev.snowdrop.mtool.openrewrite.java.table.JavaSymbolsReport;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.table.SearchResults;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecipeBatchTest {
+
+    private static final String FIND_ANNOTATIONS = "org.openrewrite.java.search.FindAnnotations";
+
+    private final Query springBootApplication = new Query("java", "annotation", "",
+            Map.of("name", "@org.springframework.boot.autoconfigure.SpringBootApplication"));
+    private final Query restController = new Query("java", "annotation", "",
+            Map.of("name", "@org.springframework.web.bind.annotation.RestController"));
+    private final Query serverPort = new Query("properties", "key", "", Map.of("name", "server.port"));
+    private final Query listAdd = new Query("java", "method", "", Map.of("name", "java.util.List add(..)"));
+
+    @Test
+    void rowsAreAssignedUsingTheTagOfTheRecipe() {
+        RecipeBatch batch = batch();
+        Map<Query, List<Result>> results = batch.split(List.of(
+                searchRow("src/main/java/org/acme/Application.java",
+                        "Find annotations `@org.springframework.boot.autoconfigure.SpringBootApplication`"),
+                searchRow("src/main/java/org/acme/TodoResource.java",
+                        "Find annotations `@org.springframework.web.bind.annotation.RestController`")),
+                List.of(), List.of(), List.of(), "openrewrite");
+
+        assertEquals(List.of("src/main/java/org/acme/Application.java"),
+                sourcePaths(results.get(springBootApplication)));
+        assertEquals(List.of("src/main/java/org/acme/TodoResource.java"), sourcePaths(results.get(restController)));
+        assertEquals(List.of(), results.get(serverPort));
+    }
+
+    @Test
+    void rowIsAssignedToTheOnlyQueryAcceptingItsSource() {
+        RecipeBatch batch = batch();
+        // The name of the recipe instance doesn't contain the key of the property
+        Map<Query, List<Result>> results = batch.split(
+                List.of(searchRow("src/main/resources/application.properties", "Find property")), List.of(),
+                List.of(new JavaSymbolsReport.Row("symbol-3", "method", "java.util.List add(..)",
+                        "src/main/java/org/acme/TodoResource.java", "org.acme.TodoResource", "java.util.List add")),
+                List.of(), "openrewrite");
+
+        assertEquals(List.of("src/main/resources/application.properties"), sourcePaths(results.get(serverPort)));
+        assertEquals(List.of("src/main/java/org/acme/TodoResource.java"), sourcePaths(results.get(listAdd)));
+        assertEquals(List.of(), results.get(springBootApplication));
+    }
+
+    @Test
+    void queriesOfARowWhichCannotBeAssignedAreRemoved() {
+        RecipeBatch batch = batch();
+        Map<Query, List<Result>> results = batch.split(
+                List.of(searchRow("src/main/java/org/acme/Application.java", "Find annotations")), List.of(),
+                List.of(), List.of(), "openrewrite");
+
+        // Both annotation queries could have produced the row: they will be scanned individually
+        assertFalse(results.containsKey(springBootApplication));
+        assertFalse(results.containsKey(restController));
+        assertTrue(results.containsKey(serverPort));
+        assertTrue(results.containsKey(listAdd));
+    }
+
+    private RecipeBatch batch() {
+        RecipeBatch batch = new RecipeBatch();
+        batch.add(springBootApplication, recipe(FIND_ANNOTATIONS, "annotationPattern",
+                springBootApplication.keyValues().get("name")));
+        batch.add(restController, recipe(FIND_ANNOTATIONS, "annotationPattern",
+                restController.keyValues().get("name")));
+        batch.add(serverPort, recipe("org.openrewrite.properties.search.FindProperties", "propertyKey", "server.port"));
+        batch.add(listAdd, recipe(RecipeBatch.FIND_JAVA_SYMBOLS, RecipeBatch.SYMBOLS_FIELD,
+                "match|method|java.util.List add(..)"));
+        assertEquals(4, batch.size());
+        return batch;
+    }
+
+    private static RecipeDefinition recipe(String fqName, String field, String value) {
+        return new RecipeDefinition().withFullyQualifyRecipeName(fqName)
+                .withFieldMappings(new HashMap<>(Map.of(field, value)));
+    }
+
+    private static SearchResults.Row searchRow(String sourcePath, String recipe) {
+        return new SearchResults.Row(sourcePath, "match", null, recipe);
+    }
+
+    private static List<String> sourcePaths(List<Result> results) {
+        return results.stream().map(r -> String.valueOf(r.result()).split("\\|")[0]).toList();
+    }
+}
@@ -0,0 +1,32 @@
+package dev.snowdrop.mtool.scanner.openrewrite;
+
+import dev.snowdrop.mtool.model.openrewrite.RecipeStat;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RecipeRunStatisticsTest {
+
+    private static final String FIND_ANNOTATIONS = "org.openrewrite.java.search.FindAnnotations";
+    private static final String FIND_PROPERTIES = "org.openrewrite.properties.search.FindProperties";
+
+    @Test
+    void statisticsOfTheModulesAreMergedPerRecipeTheSlowestFirst() {
+        RecipeRunStatistics statistics = new RecipeRunStatistics();
+        Path appPath = Path.of("/work/app");
+        statistics.record(appPath.resolve("core"), List.of(new RecipeStat(FIND_ANNOTATIONS, 10, 0, 5, 20, 2, 3),
+                new RecipeStat(FIND_PROPERTIES, 2, 1, 1, 1, 0.5, 0.5)));
+        statistics.record(appPath.resolve("api"), List.of(new RecipeStat(FIND_ANNOTATIONS, 5, 1, 5, 10, 4, 6)));
+        statistics.record(Path.of("/work/other"), List.of(new RecipeStat(FIND_PROPERTIES, 100, 0, 90, 10, 1, 1)));
+
+        assertEquals(List.of(new RecipeStat(FIND_ANNOTATIONS, 15, 1, 10, 30, 4, 6),
+                new RecipeStat(FIND_PROPERTIES, 2, 1, 1, 1, 0.5, 0.5)), statistics.forProject(appPath));
+
+        statistics.clear(appPath);
+        assertEquals(List.of(), statistics.forProject(appPath));
+        assertEquals(1, statistics.forProject(Path.of("/work/other")).size());
+    }
+}
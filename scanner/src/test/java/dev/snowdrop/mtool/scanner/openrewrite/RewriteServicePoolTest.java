@@ -0,0 +1,99 @@
+package dev.snowdrop.mtool.scanner.openrewrite;
+
+import dev.snowdrop.rewrite.config.RewriteConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RewriteServicePoolTest {
+
+    // Estimated LST of a project whose sources are 100 bytes
+    private static final long LST_SIZE = 100L * RewriteServicePool.LST_BYTES_PER_SOURCE_BYTE;
+
+    @TempDir
+    Path tempDir;
+
+    // The services are not used: only the entries of the pool are checked
+    private final RewriteConfig cfg = new RewriteConfig();
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedFirst() throws IOException {
+        RewriteServicePool pool = new RewriteServicePool(2 * LST_SIZE, c -> null);
+        Path a = project("a");
+        Path b = project("b");
+
+        RewriteServicePool.Entry entryA = use(pool, a);
+        RewriteServicePool.Entry entryB = use(pool, b);
+        // a becomes the most recently used entry
+        assertSame(entryA, use(pool, a));
+
+        use(pool, project("c"));
+        assertEquals(2, pool.size());
+        assertSame(entryA, use(pool, a));
+        assertNotSame(entryB, use(pool, b));
+    }
+
+    @Test
+    void entriesAreKeptWithinTheBudget() throws IOException {
+        RewriteServicePool pool = new RewriteServicePool(2 * LST_SIZE + LST_SIZE / 2, c -> null);
+        Path a = project("a");
+        RewriteServicePool.Entry entryA = use(pool, a);
+        use(pool, project("b"));
+        use(pool, project("c"));
+
+        assertEquals(2, pool.size());
+        assertEquals(2 * LST_SIZE, pool.getEstimatedBytes());
+        assertNotSame(entryA, use(pool, a));
+    }
+
+    @Test
+    void entryInUseIsNotEvicted() throws IOException {
+        RewriteServicePool pool = new RewriteServicePool(LST_SIZE, c -> null);
+        Path a = project("a");
+        RewriteServicePool.Entry entryA = pool.acquire(a, cfg);
+
+        RewriteServicePool.Entry entryB = pool.acquire(project("b"), cfg);
+        // Both entries are in use: the budget is exceeded until one of them is released
+        assertEquals(2, pool.size());
+        pool.release(entryB);
+        assertEquals(1, pool.size());
+        assertEquals(LST_SIZE, pool.getEstimatedBytes());
+
+        pool.release(entryA);
+        assertSame(entryA, use(pool, a));
+    }
+
+    @Test
+    void fingerprintIsComputedAgainAfterARefresh() throws IOException {
+        RewriteServicePool pool = new RewriteServicePool(10 * LST_SIZE, c -> null);
+        Path a = project("a");
+        RewriteServicePool.Entry entryA = use(pool, a);
+
+        Files.write(a.resolve("Foo.java"), new byte[100]);
+        // The sources are only fingerprinted again by the next run
+        assertSame(entryA, use(pool, a));
+        pool.refresh(a);
+        assertNotSame(entryA, use(pool, a));
+        assertEquals(1, pool.size());
+    }
+
+    private RewriteServicePool.Entry use(RewriteServicePool pool, Path appPath) {
+        RewriteServicePool.Entry entry = pool.acquire(appPath, cfg);
+        pool.release(entry);
+        return entry;
+    }
+
+    private Path project(String name) throws IOException {
+        Path project = tempDir.resolve(name).toAbsolutePath().normalize();
+        Files.createDirectories(project);
+        Files.write(project.resolve("App.java"), new byte[100]);
+        return project;
+    }
+}
@@ -0,0 +1,77 @@
+package dev.snowdrop.mtool.scanner.sink;
+
+import dev.snowdrop.mtool.model.analyze.Result;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultSinkTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void summaryKeepsOnlyTheFirstSamples() {
+        SummaryResultSink summary = new SummaryResultSink(2);
+        summary.begin("no-match");
+        for (int i = 0; i < 1000; i++) {
+            summary.accept("java.class", new Result("id", "treesitter", "class-" + i));
+        }
+
+        List<SummaryResultSink.Summary> summaries = summary.getSummaries();
+        assertEquals(2, summaries.size());
+        assertEquals(0, summaries.get(0).count());
+        assertEquals(1000, summaries.get(1).count());
+        assertEquals(List.of("class-0", "class-1"), summaries.get(1).samples().stream().map(Result::result).toList());
+        assertEquals(1000, summary.getTotal());
+    }
+
+    @Test
+    void resultsAreWrittenAsJsonLines() throws IOException {
+        Path file = dir.resolve("results.jsonl");
+        SummaryResultSink summary = new SummaryResultSink();
+        try (ResultSink sink = ResultSink.of(summary, new JsonLinesResultSink(file))) {
+            sink.accept("q1", new Result("id", "file-search", "a.properties|key"));
+            sink.accept("q2", new Result("id", "maven", "org.acme:lib"));
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"id\":\"q1\""));
+        assertTrue(lines.get(1).contains("\"result\":\"org.acme:lib\""));
+        assertEquals(2, summary.getTotal());
+    }
+
+    @Test
+    void allTheSinksAreClosedWhenOneFails() throws IOException {
+        Path file = dir.resolve("results.jsonl");
+        JsonLinesResultSink jsonLines = new JsonLinesResultSink(file);
+        ResultSink failing = new ResultSink() {
+            @Override
+            public void accept(String id, Result result) {
+            }
+
+            @Override
+            public void close() {
+                throw new UncheckedIOException(new IOException("Disk full"));
+            }
+        };
+
+        ResultSink sink = ResultSink.of(failing, jsonLines, failing);
+        sink.accept("q1", new Result("id", "file-search", "a.properties|key"));
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, sink::close);
+
+        assertEquals(1, e.getSuppressed().length);
+        // The writer of the file has been flushed and closed
+        assertEquals(1, Files.readAllLines(file).size());
+    }
+}
@@ -11,6 +11,7 @@ import org.junit.jupiter.api.io.TempDir;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -117,4 +118,31 @@ class TreeSitterQueryScannerTest {
         assertEquals(1, matches.size());
         assertTrue(matches.get(0).result().toString().contains("org.springframework.boot:spring-boot-starter-web"));
     }
+
+    @Test
+    void streamingScanEmitsTheMatchesOfAllTheFiles() throws IOException {
+        String pom = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <project>
+                    <dependencies>
+                        <dependency>
+                            <groupId>com.mysql</groupId>
+                            <artifactId>mysql-connector-j</artifactId>
+                        </dependency>
+                    </dependencies>
+                </project>
+                """;
+        Files.writeString(tempDir.resolve("pom.xml"), pom);
+        Files.createDirectories(tempDir.resolve("core"));
+        Files.writeString(tempDir.resolve("core/pom.xml"), pom);
+
+        Config config = new Config(tempDir.toString(), null, null, null, null, null, null, false, null, "treesitter", null);
+        Query query = new Query("pom", "dependency", "", Map.of("gavs", "com.mysql:mysql-connector-j"));
+
+        List<Result> streamed = new ArrayList<>();
+        scanner.scansCodeFor(config, query, streamed::add);
+
+        assertEquals(2, streamed.size());
+        assertEquals(scanner.scansCodeFor(config, query), streamed);
+    }
 }